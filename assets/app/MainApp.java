@@ -3,11 +3,14 @@ package app;
 import controller.IControleur;
 import controller.LoginController;
 import controller.MainController;
+import controller.ServeurControleur;
 
 /**
  * La classe principale contenant la méthode main().
  * <p>
  * Elle instancie le contrôleur via l'interface {@link IControleur} et démarre l'application.
+ * Avec l'argument {@code --serveur}, les menus sont servis à plusieurs utilisateurs à la fois
+ * sur une socket locale (voir {@link ServeurControleur}) au lieu de la console.
  * </p>
  *
  * @version 1.0
@@ -17,12 +20,14 @@ public class MainApp {
     /**
      * Point d'entrée de l'application.
      *
-     * @param args les arguments de la ligne de commande (non utilisés)
+     * @param args {@code --serveur [port]} pour démarrer le serveur, rien pour la console
      */
 
     // new login controller
     public static void main(String[] args) throws Exception {
-        IControleur controller = new LoginController();
+        IControleur controller = args.length > 0 && "--serveur".equals(args[0])
+                ? (args.length > 1 ? new ServeurControleur(Integer.parseInt(args[1])) : new ServeurControleur())
+                : new LoginController();
         controller.startApplication();
     }
 }
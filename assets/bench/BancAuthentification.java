@@ -0,0 +1,65 @@
+package bench;
+
+import model.Annotateur;
+import model.CacheSessions;
+import model.MotsDePasse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banc d'essai de l'authentification d'une requête.
+ * <p>
+ * Usage : {@code BancAuthentification [itérations...]} (par défaut le coût actuel de
+ * {@link MotsDePasse} et 10 000). Pour chaque coût, on compare :
+ * </p>
+ * <ul>
+ *     <li>sans cache : la vérification du mot de passe haché à chaque requête ;</li>
+ *     <li>avec cache : la vérification du jeton de session dans un {@link CacheSessions}
+ *     contenant 10 000 sessions.</li>
+ * </ul>
+ * <p>
+ * Le débit affiché (authentifications par seconde, sur un cœur) est l'inverse de la médiane.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class BancAuthentification {
+
+    private static final String MOT_DE_PASSE = "correct horse battery staple";
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args les coûts (nombres d'itérations) à mesurer
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        int[] couts = args.length > 0 ? new int[args.length] : new int[] { MotsDePasse.COUT, 10_000 };
+        for (int i = 0; i < args.length; i++) {
+            couts[i] = Integer.parseInt(args[i]);
+        }
+
+        CacheSessions cache = new CacheSessions(30, TimeUnit.MINUTES);
+        String[] jetons = new String[10_000];
+        for (int i = 0; i < jetons.length; i++) {
+            jetons[i] = cache.ouvrir(new Annotateur("banc" + i, "Banc", "banc@example.com", "x"));
+        }
+
+        for (int cout : couts) {
+            System.out.printf("%n=== PBKDF2-HMAC-SHA256, %,d itérations ===%n", cout);
+            String stocke = MotsDePasse.hacher(MOT_DE_PASSE, cout);
+            double sans = BancEssai.mesurer("sans cache : MotsDePasse.verifier", 1, 5, 1,
+                    () -> BancEssai.consommer(MotsDePasse.verifier(stocke, MOT_DE_PASSE) ? 1 : 0));
+            System.out.printf("%-55s %,14.0f /s%n", "  débit", 1e9 / sans);
+        }
+
+        int k = 1_000_000;
+        System.out.printf("%n=== Jeton de session (%,d sessions ouvertes) ===%n", cache.taille());
+        double avec = BancEssai.mesurer("avec cache : CacheSessions.verifier", 2, 10, k, () -> {
+            for (int i = 0; i < k; i++) {
+                BancEssai.consommer(cache.verifier(jetons[i % jetons.length]));
+            }
+        });
+        System.out.printf("%-55s %,14.0f /s%n", "  débit", 1e9 / avec);
+    }
+}
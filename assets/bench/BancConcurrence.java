@@ -0,0 +1,133 @@
+package bench;
+
+import model.Annotateur;
+import model.Annotation;
+import model.ModeleAnnotation;
+import model.Texte;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Montée en charge du modèle partagé : débit selon le nombre de fils.
+ * <p>
+ * Usage : {@code BancConcurrence [nbTextes] [durée par palier (s)]} (par défaut 1000 textes,
+ * 3 secondes). Après un palier d'échauffement, pour 1, 2, 4, 8, 16 puis 32 fils, un modèle
+ * neuf est chargé et chaque fil annote des textes tirés au hasard, en validant une annotation
+ * sur deux, jusqu'à la fin du palier. On affiche le débit, l'accélération par rapport à un fil et l'efficacité
+ * (accélération divisée par le nombre de fils, plafonné au nombre de processeurs), puis on
+ * vérifie qu'aucune annotation n'a été perdue.
+ * </p>
+ * <p>
+ * Au-delà du nombre de processeurs disponibles (affiché en tête), le débit ne peut plus
+ * croître : une efficacité proche de 1 jusqu'à ce nombre, puis un débit stable, indiquent
+ * l'absence de contention.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class BancConcurrence {
+
+    /** Nombres de fils essayés. */
+    private static final int[] PALIERS = { 1, 2, 4, 8, 16, 32 };
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args le nombre de textes et la durée d'un palier en secondes
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        int nbTextes = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int dureeS = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int processeurs = Runtime.getRuntime().availableProcessors();
+        Path source = Files.createTempDirectory("banc-concurrence");
+        new GenerateurCorpus(42).generer(source, nbTextes, 0, 32, 10);
+        System.out.printf("%d textes, %d s par palier, %d processeur(s)%n", nbTextes, dureeS, processeurs);
+        System.out.printf("%6s %16s %14s %12s%n", "fils", "opérations/s", "accélération", "efficacité");
+
+        // Palier d'échauffement non affiché : le premier palier mesuré ne paie pas la compilation JIT.
+        ModeleAnnotation chaud = charger(source);
+        palier(chaud, new ArrayList<>(chaud.getTextesMap().values()), PALIERS[PALIERS.length - 1],
+                TimeUnit.SECONDS.toNanos(dureeS), new LongAdder());
+
+        double reference = 0;
+        for (int nbFils : PALIERS) {
+            ModeleAnnotation m = charger(source);
+            List<Texte> textes = new ArrayList<>(m.getTextesMap().values());
+            int avant = m.getAnnotationsMap().size();
+            LongAdder creees = new LongAdder();
+            double debit = palier(m, textes, nbFils, TimeUnit.SECONDS.toNanos(dureeS), creees);
+            if (reference == 0) {
+                reference = debit;
+            }
+            double acceleration = debit / reference;
+            System.out.printf("%6d %,16.0f %14.2f %12.2f%n", nbFils, debit, acceleration,
+                    acceleration / Math.min(nbFils, processeurs));
+            long attendu = avant + creees.sum();
+            if (m.getAnnotationsMap().size() != attendu) {
+                System.err.printf("Annotations perdues : %d attendues, %d présentes%n", attendu,
+                        m.getAnnotationsMap().size());
+            }
+        }
+    }
+
+    private static ModeleAnnotation charger(Path d) throws IOException {
+        ModeleAnnotation m = new ModeleAnnotation();
+        m.loadAll(d.resolve("utilisateurs.csv").toString(), d.resolve("textes.csv").toString(),
+                d.resolve("annotations.csv").toString(), d.resolve("collections.csv").toString());
+        return m;
+    }
+
+    /**
+     * Fait travailler {@code nbFils} annotateurs pendant {@code dureeNanos}.
+     *
+     * @return le débit, en opérations (création ou validation) par seconde
+     */
+    private static double palier(ModeleAnnotation m, List<Texte> textes, int nbFils, long dureeNanos,
+                                 LongAdder creees) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch depart = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(nbFils);
+        long[] bornes = new long[2];
+        for (int k = 0; k < nbFils; k++) {
+            Annotateur auteur = new Annotateur("fil" + k, "Fil " + k, "fil@example.com", "x");
+            Random r = new Random(k);
+            Thread t = new Thread(() -> {
+                try {
+                    depart.await();
+                    long limite = bornes[0] + dureeNanos;
+                    int i = 0;
+                    while (System.nanoTime() < limite) {
+                        Texte texte = textes.get(r.nextInt(textes.size()));
+                        Annotation a = auteur.annoterTexte(texte, m.generateAnnotationId(), "contenu " + i);
+                        m.addAnnotation(a);
+                        creees.increment();
+                        operations.increment();
+                        if (i++ % 2 == 0) {
+                            texte.validerAnnotation(a);
+                            operations.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            }, "banc-" + k);
+            t.start();
+        }
+        bornes[0] = System.nanoTime();
+        depart.countDown();
+        fin.await();
+        bornes[1] = System.nanoTime();
+        return operations.sum() * 1e9 / (bornes[1] - bornes[0]);
+    }
+}
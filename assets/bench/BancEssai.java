@@ -0,0 +1,99 @@
+package bench;
+
+import java.util.Arrays;
+
+/**
+ * Petit outil de mesure pour les bancs d'essai.
+ * <p>
+ * Chaque mesure exécute d'abord quelques itérations d'échauffement (pour laisser le
+ * compilateur JIT optimiser le code), puis des itérations mesurées dont on affiche la
+ * médiane, le minimum et le maximum ramenés à une opération. Les résultats des opérations
+ * sont passés à {@link #consommer(long)} pour que le JIT ne les élimine pas.
+ * </p>
+ * <p>
+ * Cet outil reprend le principe de JMH sans ses garanties (pas de processus séparé par
+ * mesure, pas de contrôle fin du JIT) : les écarts de quelques pour cent ne sont pas
+ * significatifs. Les mesures de référence sont celles des bancs JMH du module {@code jmh}
+ * (paquetage {@code bench.jmh}). Depuis la racine du projet :
+ * </p>
+ * <pre>
+ * mvn -B package -DskipTests
+ * java -jar jmh/target/benchmarks.jar
+ * java -Xmx4g -cp target/projetmc/classes bench.BancModele
+ * java -cp target/projetmc/classes bench.BancAuthentification
+ * </pre>
+ *
+ * @version 1.0
+ */
+public final class BancEssai {
+
+    /** Puits des résultats : empêche l'élimination du code mesuré. */
+    private static volatile long puits;
+
+    /**
+     * Opération mesurée.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * Exécute une itération.
+         *
+         * @throws Exception en cas d'erreur
+         */
+        void executer() throws Exception;
+    }
+
+    private BancEssai() {
+    }
+
+    /**
+     * Consomme un résultat pour qu'il ne soit pas éliminé par le JIT.
+     *
+     * @param valeur le résultat
+     */
+    public static void consommer(long valeur) {
+        puits += valeur;
+    }
+
+    /**
+     * Consomme un objet pour qu'il ne soit pas éliminé par le JIT.
+     *
+     * @param o l'objet
+     */
+    public static void consommer(Object o) {
+        puits += System.identityHashCode(o);
+    }
+
+    /**
+     * Mesure une opération et affiche le résultat.
+     *
+     * @param nom             nom affiché
+     * @param echauffements   nombre d'itérations non mesurées
+     * @param iterations      nombre d'itérations mesurées
+     * @param opsParIteration nombre d'opérations faites par une itération
+     * @param op              l'opération
+     * @return la médiane, en nanosecondes par opération
+     * @throws Exception si l'opération échoue
+     */
+    public static double mesurer(String nom, int echauffements, int iterations, long opsParIteration, Operation op)
+            throws Exception {
+        for (int i = 0; i < echauffements; i++) {
+            op.executer();
+        }
+        double[] nsParOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long debut = System.nanoTime();
+            op.executer();
+            nsParOp[i] = (System.nanoTime() - debut) / (double) opsParIteration;
+        }
+        Arrays.sort(nsParOp);
+        double mediane = nsParOp[iterations / 2];
+        System.out.printf("%-55s %14s ns/op  (min %s, max %s)%n", nom, format(mediane),
+                format(nsParOp[0]), format(nsParOp[iterations - 1]));
+        return mediane;
+    }
+
+    private static String format(double ns) {
+        return ns >= 100 ? String.format("%,.0f", ns) : String.format("%.2f", ns);
+    }
+}
@@ -0,0 +1,152 @@
+package bench;
+
+import model.Annotateur;
+import model.Annotation;
+import model.CollectionDeTextes;
+import model.ModeleAnnotation;
+import model.Texte;
+import model.observer.BusEvenements;
+import model.observer.Observateur;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bancs d'essai du modèle et de la persistance.
+ * <p>
+ * Usage : {@code BancModele [nbAnnotations...]} (par défaut 10000, 1000000 et 10000000, avec
+ * {@code -Xmx4g} au moins). Pour chaque taille, un corpus synthétique est généré par
+ * {@link GenerateurCorpus} (avec quatre fois moins de textes que d'annotations), puis on
+ * mesure (les mêmes opérations sont mesurées par les bancs JMH du paquetage {@code bench.jmh}) :
+ * </p>
+ * <ul>
+ *     <li>{@code loadAll} ;</li>
+ *     <li>{@code saveAll} d'une réécriture complète (en alternant deux dossiers cibles), puis
+ *     d'une sauvegarde incrémentale après la modification de {@value #NB_MODIFIEES} annotations ;</li>
+ *     <li>{@code generateAnnotationId} ;</li>
+ *     <li>la recherche des annotations d'un auteur (parcours complet contre index) ;</li>
+ *     <li>l'appartenance d'un texte à une collection ({@code List.contains} contre {@code contient}) ;</li>
+ *     <li>{@code Texte.ajouterAnnotation} avec 0, 1, 10 et 100 observateurs.</li>
+ * </ul>
+ *
+ * @version 1.0
+ */
+public class BancModele {
+
+    /** Nombre d'annotations modifiées avant chaque sauvegarde incrémentale. */
+    private static final int NB_MODIFIEES = 100;
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args les tailles de corpus (nombre d'annotations)
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        String[] tailles = args.length > 0 ? args : new String[] { "10000", "1000000", "10000000" };
+        for (String t : tailles) {
+            lancer(Integer.parseInt(t));
+        }
+    }
+
+    private static void lancer(int nbAnnotations) throws Exception {
+        int nbTextes = Math.max(1, nbAnnotations / 4);
+        // Moins d'itérations sur les gros corpus : un chargement de 10M lignes prend plusieurs secondes.
+        int iterations = nbAnnotations >= 1_000_000 ? 3 : 10;
+        System.out.printf("%n=== Corpus : %,d textes, %,d annotations ===%n", nbTextes, nbAnnotations);
+
+        Path source = Files.createTempDirectory("banc-corpus");
+        Path[] cibles = { Files.createTempDirectory("banc-sauvegarde"), Files.createTempDirectory("banc-sauvegarde") };
+        new GenerateurCorpus(42).generer(source, nbTextes, nbAnnotations, 100, 50);
+
+        BancEssai.mesurer("loadAll", 1, iterations, 1, () -> BancEssai.consommer(charger(source)));
+        ModeleAnnotation m = charger(source);
+        // Sans modification, saveAll n'écrit rien : chaque itération doit avoir quelque chose à écrire.
+        int[] n = { 0 };
+        BancEssai.mesurer("saveAll : réécriture complète", 1, iterations, 1,
+                () -> sauvegarder(m, cibles[n[0]++ % 2]));
+        // Le dernier dossier écrit devient celui du modèle : les sauvegardes suivantes y ajoutent des lignes.
+        List<Annotation> anns = new ArrayList<>(m.getAnnotationsMap().values());
+        Path cible = cibles[(n[0] - 1) % 2];
+        int[] modifiees = { 0 };
+        BancEssai.mesurer("saveAll : " + NB_MODIFIEES + " annotations modifiées", 1, iterations, 1, () -> {
+            for (int i = 0; i < NB_MODIFIEES; i++) {
+                Annotation a = anns.get((modifiees[0]++ * 7919) % anns.size());
+                a.setContenu(a.getContenu() + "+");
+            }
+            sauvegarder(m, cible);
+        });
+
+        int nbIds = 1_000_000;
+        BancEssai.mesurer("generateAnnotationId", 2, 10, nbIds, () -> {
+            for (int i = 0; i < nbIds; i++) {
+                BancEssai.consommer(m.generateAnnotationId());
+            }
+        });
+
+        BancEssai.mesurer("annotations de user1 : parcours de getAnnotationsMap", 2, iterations, 1, () -> {
+            List<Annotation> res = new ArrayList<>();
+            for (Annotation a : m.getAnnotationsMap().values()) {
+                if (a.getAuteurId().equals("user1")) {
+                    res.add(a);
+                }
+            }
+            BancEssai.consommer(res.size());
+        });
+        BancEssai.mesurer("annotations de user1 : getAnnotationsParAuteur", 2, iterations, 1,
+                () -> BancEssai.consommer(m.getAnnotationsParAuteur("user1").size()));
+
+        CollectionDeTextes grosse = m.getCollectionsMap().get("Collection1");
+        List<Texte> membres = grosse.getTextes();
+        Texte dernier = membres.get(membres.size() - 1);
+        int k = 10_000;
+        BancEssai.mesurer("appartenance : List.contains (collection de " + membres.size() + ")", 1, 5, k, () -> {
+            for (int i = 0; i < k; i++) {
+                BancEssai.consommer(membres.contains(dernier) ? 1 : 0);
+            }
+        });
+        BancEssai.mesurer("appartenance : CollectionDeTextes.contient", 2, 10, k, () -> {
+            for (int i = 0; i < k; i++) {
+                BancEssai.consommer(grosse.contient(dernier) ? 1 : 0);
+            }
+        });
+
+        for (int nbObs : new int[] { 0, 1, 10, 100 }) {
+            mesurerAjoutAnnotation(nbObs);
+        }
+    }
+
+    private static void mesurerAjoutAnnotation(int nbObservateurs) throws Exception {
+        Annotateur auteur = new Annotateur("banc", "Banc", "banc@example.com", "x");
+        Observateur muet = (sujet, message) -> { };
+        int k = 10_000;
+        BancEssai.mesurer("Texte.ajouterAnnotation, " + nbObservateurs + " observateur(s)", 2, 10, k, () -> {
+            Texte t = new Texte("T0", "banc");
+            for (int i = 0; i < nbObservateurs; i++) {
+                // Des instances distinctes : ajouterObservateur ignore les doublons.
+                Observateur o = (sujet, message) -> muet.actualiser(sujet, message);
+                t.ajouterObservateur(o);
+            }
+            for (int i = 0; i < k; i++) {
+                auteur.annoterTexte(t, "A" + i, "contenu");
+            }
+            // La livraison est asynchrone : on compte aussi le temps de la vider.
+            BusEvenements.defaut().attendreLivraison();
+        });
+    }
+
+    private static ModeleAnnotation charger(Path d) throws IOException {
+        ModeleAnnotation m = new ModeleAnnotation();
+        m.loadAll(d.resolve("utilisateurs.csv").toString(), d.resolve("textes.csv").toString(),
+                d.resolve("annotations.csv").toString(), d.resolve("collections.csv").toString());
+        return m;
+    }
+
+    private static void sauvegarder(ModeleAnnotation m, Path d) throws IOException {
+        m.saveAll(d.resolve("utilisateurs.csv").toString(), d.resolve("textes.csv").toString(),
+                d.resolve("annotations.csv").toString(), d.resolve("collections.csv").toString());
+    }
+}
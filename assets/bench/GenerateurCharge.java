@@ -0,0 +1,285 @@
+package bench;
+
+import controller.ServeurControleur;
+import model.metriques.Histogramme;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Générateur de charge pour le {@link ServeurControleur}.
+ * <p>
+ * Usage : {@code GenerateurCharge [port] [nbAnnotateurs] [durée (s)] [pause (ms)] [id] [mot de passe]}
+ * (par défaut {@code 7070 1000 30 10 user1 1234}). Une première connexion vérifie le mot de
+ * passe et obtient un jeton de session. Chaque annotateur simulé ouvre ensuite sa propre
+ * connexion, reprend la session par ce jeton ({@code JETON}, sans nouveau hachage du mot de
+ * passe ; avec {@code -Dcharge.connexion=true}, chacun envoie {@code CONNEXION}), choisit une
+ * collection au hasard puis enchaîne jusqu'à la fin de la durée, avec une pause entre deux
+ * commandes :
+ * </p>
+ * <ul>
+ *     <li>50 % d'annotations ({@code ANNOTER}) d'un texte de la collection ;</li>
+ *     <li>20 % de modifications ({@code MODIFIER}) d'une de ses annotations ;</li>
+ *     <li>20 % de lectures des annotations d'un texte ({@code ANNOTATIONS}) ;</li>
+ *     <li>10 % de recherches ({@code RECHERCHER}).</li>
+ * </ul>
+ * <p>
+ * On affiche le débit et la répartition des temps de réponse (médiane, 90e et 99e centiles,
+ * maximum), mesurés côté client de l'envoi de la commande à la fin de la réponse.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class GenerateurCharge {
+
+    private static final String[] MOTS = { "texte", "annotation", "analyse", "exemple", "langue", "corpus" };
+
+    /** Nombre de textes lus dans la collection choisie. */
+    private static final int NB_TEXTES = 200;
+
+    private final int port;
+    private final long finNanos;
+    private final long pauseMs;
+    private final String id;
+    private final String motDePasse;
+    /** Jeton partagé par les annotateurs simulés, ou null s'ils se connectent chacun. */
+    private String jeton;
+
+    private final LongAdder commandes = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+    private final LongAdder echecsConnexion = new LongAdder();
+    /** Temps de réponse de tous les annotateurs simulés. */
+    private final Histogramme reponses = new Histogramme("charge.reponse");
+
+    private GenerateurCharge(int port, long dureeS, long pauseMs, String id, String motDePasse) {
+        this.port = port;
+        this.finNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(dureeS);
+        this.pauseMs = pauseMs;
+        this.id = id;
+        this.motDePasse = motDePasse;
+    }
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args port, nombre d'annotateurs, durée, pause, identifiant et mot de passe
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ServeurControleur.PORT_DEFAUT;
+        int nb = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long duree = args.length > 2 ? Long.parseLong(args[2]) : 30;
+        long pause = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        String id = args.length > 4 ? args[4] : "user1";
+        String mdp = args.length > 5 ? args[5] : "1234";
+        System.out.printf("%d annotateurs simulés pendant %d s (pause %d ms) sur le port %d%n", nb, duree, pause, port);
+
+        GenerateurCharge g = new GenerateurCharge(port, duree, pause, id, mdp);
+        if (!Boolean.getBoolean("charge.connexion")) {
+            g.jeton = g.obtenirJeton();
+        }
+        long debut = System.nanoTime();
+        g.lancer(nb);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        Histogramme total = g.reponses;
+        System.out.printf("commandes : %,d (%,.0f/s), erreurs : %,d, connexions refusées : %,d%n",
+                g.commandes.sum(), g.commandes.sum() / secondes, g.erreurs.sum(), g.echecsConnexion.sum());
+        System.out.printf("temps de réponse : médiane %s, p90 %s, p99 %s, max %s%n",
+                duree(total.centile(0.50)), duree(total.centile(0.90)), duree(total.centile(0.99)),
+                duree(total.getMax()));
+    }
+
+    private void lancer(int nb) throws InterruptedException {
+        ExecutorService executeur = ServeurControleur.executeurSessions();
+        CountDownLatch fin = new CountDownLatch(nb);
+        for (int i = 0; i < nb; i++) {
+            executeur.execute(() -> {
+                try {
+                    simuler(reponses);
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        fin.await();
+        executeur.shutdown();
+    }
+
+    /**
+     * Un annotateur simulé.
+     */
+    private void simuler(Histogramme h) {
+        ThreadLocalRandom alea = ThreadLocalRandom.current();
+        try (Socket s = connecter();
+             BufferedReader entree = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter sortie = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)), false)) {
+            Client c = new Client(entree, sortie, h);
+            String connexion = jeton != null ? "JETON " + jeton : "CONNEXION " + id + " " + motDePasse;
+            if (!c.envoyer(connexion).startsWith("OK")) {
+                erreurs.increment();
+                return;
+            }
+            List<String> collections = c.lignes("COLLECTIONS");
+            if (collections.isEmpty()) {
+                erreurs.increment();
+                return;
+            }
+            String col = collections.get(alea.nextInt(collections.size()));
+            List<String> textes = new ArrayList<>();
+            for (String l : c.lignes("TEXTES " + col + " 0 " + NB_TEXTES)) {
+                textes.add(l.substring(0, l.indexOf(';')));
+            }
+            if (textes.isEmpty()) {
+                String r = c.envoyer("AJOUTER_TEXTE " + col + " texte de charge");
+                textes.add(r.substring(3));
+            }
+            List<String> mesAnnotations = new ArrayList<>();
+            int n = 0;
+            while (System.nanoTime() < finNanos) {
+                String texte = textes.get(alea.nextInt(textes.size()));
+                int tirage = alea.nextInt(100);
+                if (tirage < 50 || tirage < 70 && mesAnnotations.isEmpty()) {
+                    String r = c.envoyer("ANNOTER " + texte + " annotation de charge " + n++);
+                    if (r.startsWith("OK ")) {
+                        mesAnnotations.add(r.substring(3));
+                    }
+                } else if (tirage < 70) {
+                    String a = mesAnnotations.get(alea.nextInt(mesAnnotations.size()));
+                    c.envoyer("MODIFIER " + a + " annotation modifiée " + n++);
+                } else if (tirage < 90) {
+                    c.lignes("ANNOTATIONS " + texte);
+                } else {
+                    c.lignes("RECHERCHER " + MOTS[alea.nextInt(MOTS.length)]);
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            c.envoyer("QUITTER");
+        } catch (ConnectException e) {
+            echecsConnexion.increment();
+        } catch (IOException e) {
+            erreurs.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Vérifie le mot de passe une fois et retourne le jeton de la session ouverte. */
+    private String obtenirJeton() throws IOException, InterruptedException {
+        try (Socket s = connecter();
+             BufferedReader entree = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter sortie = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)), false)) {
+            sortie.println("CONNEXION " + id + " " + motDePasse);
+            sortie.flush();
+            String r = entree.readLine();
+            if (r == null || !r.startsWith("OK ")) {
+                throw new IOException("Connexion refusée : " + r);
+            }
+            return r.split(" ")[2];
+        }
+    }
+
+    /** Connexion avec quelques nouvelles tentatives si la file d'attente du serveur déborde. */
+    private Socket connecter() throws IOException, InterruptedException {
+        for (int essai = 0; ; essai++) {
+            try {
+                Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+                s.setTcpNoDelay(true);
+                return s;
+            } catch (ConnectException e) {
+                if (essai >= 5) {
+                    throw e;
+                }
+                Thread.sleep(50L << essai);
+            }
+        }
+    }
+
+    /**
+     * Envoi des commandes et lecture des réponses d'une connexion.
+     */
+    private final class Client {
+        private final BufferedReader entree;
+        private final PrintWriter sortie;
+        private final Histogramme histogramme;
+
+        Client(BufferedReader entree, PrintWriter sortie, Histogramme histogramme) {
+            this.entree = entree;
+            this.sortie = sortie;
+            this.histogramme = histogramme;
+        }
+
+        /** Envoie une commande à réponse d'une ligne. */
+        String envoyer(String commande) throws IOException {
+            long t = System.nanoTime();
+            sortie.println(commande);
+            sortie.flush();
+            String r = lire();
+            histogramme.enregistrer(System.nanoTime() - t);
+            compter(r);
+            return r;
+        }
+
+        /** Envoie une commande dont la réponse {@code OK <n>} est suivie de n lignes. */
+        List<String> lignes(String commande) throws IOException {
+            long t = System.nanoTime();
+            sortie.println(commande);
+            sortie.flush();
+            String r = lire();
+            List<String> res = new ArrayList<>();
+            if (r.startsWith("OK ")) {
+                String[] champs = r.split(" ");
+                int n = Integer.parseInt(champs[1]);
+                for (int i = 0; i < n; i++) {
+                    res.add(lire());
+                }
+            }
+            histogramme.enregistrer(System.nanoTime() - t);
+            compter(r);
+            return res;
+        }
+
+        private String lire() throws IOException {
+            String r = entree.readLine();
+            if (r == null) {
+                throw new IOException("Connexion fermée par le serveur.");
+            }
+            return r;
+        }
+
+        private void compter(String reponse) {
+            commandes.increment();
+            if (!reponse.startsWith("OK")) {
+                erreurs.increment();
+            }
+        }
+    }
+
+    private static String duree(long ns) {
+        if (ns < 1_000_000) {
+            return String.format("%.1f µs", ns / 1e3);
+        }
+        return String.format("%.2f ms", ns / 1e6);
+    }
+}
@@ -0,0 +1,154 @@
+package bench;
+
+import model.MotsDePasse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Générateur de corpus synthétique pour les bancs d'essai.
+ * <p>
+ * Produit les quatre fichiers CSV (utilisateurs, textes, annotations, collections) au format
+ * lu par {@link model.ModeleAnnotation}. La répartition est volontairement déséquilibrée,
+ * comme sur un vrai corpus : quelques annotateurs écrivent la plupart des annotations,
+ * quelques textes en reçoivent beaucoup et quelques collections sont très grosses
+ * (lois de Zipf).
+ * </p>
+ *
+ * @version 1.0
+ */
+public class GenerateurCorpus {
+
+    private static final String[] MOTS = {
+        "le", "la", "les", "un", "une", "des", "texte", "annotation", "corpus", "phrase", "mot",
+        "analyse", "syntaxe", "sémantique", "verbe", "nom", "adjectif", "été", "très", "déjà",
+        "français", "langue", "exemple", "entité", "personne", "lieu", "organisation", "date",
+        "sentiment", "positif", "négatif", "neutre", "question", "réponse", "résumé", "titre"
+    };
+
+    private final Random alea;
+
+    /**
+     * Constructeur.
+     *
+     * @param graine graine du générateur pseudo-aléatoire (corpus reproductible)
+     */
+    public GenerateurCorpus(long graine) {
+        this.alea = new Random(graine);
+    }
+
+    /**
+     * Point d'entrée : {@code GenerateurCorpus dossier nbTextes nbAnnotations [nbUtilisateurs] [nbCollections]}.
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: GenerateurCorpus dossier nbTextes nbAnnotations [nbUtilisateurs] [nbCollections]");
+            return;
+        }
+        Path dossier = Path.of(args[0]);
+        int nbTextes = Integer.parseInt(args[1]);
+        int nbAnnotations = Integer.parseInt(args[2]);
+        int nbUtilisateurs = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int nbCollections = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        new GenerateurCorpus(42).generer(dossier, nbTextes, nbAnnotations, nbUtilisateurs, nbCollections);
+    }
+
+    /**
+     * Écrit un corpus complet dans un dossier.
+     *
+     * @param dossier        le dossier de destination (créé si besoin)
+     * @param nbTextes       nombre de textes
+     * @param nbAnnotations  nombre d'annotations
+     * @param nbUtilisateurs nombre d'annotateurs (un administrateur est ajouté)
+     * @param nbCollections  nombre de collections
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void generer(Path dossier, int nbTextes, int nbAnnotations, int nbUtilisateurs, int nbCollections)
+            throws IOException {
+        Files.createDirectories(dossier);
+        // Mots de passe déjà hachés (une empreinte partagée) : le chargement n'a rien à migrer.
+        String mdpAdmin = MotsDePasse.hacher("adminpass");
+        String mdpAnnotateur = MotsDePasse.hacher("1234");
+        try (BufferedWriter w = ouvrir(dossier.resolve("utilisateurs.csv"))) {
+            w.write("admin1;Admin;admin@example.com;ADMIN;" + mdpAdmin + "\n");
+            for (int i = 1; i <= nbUtilisateurs; i++) {
+                w.write("user" + i + ";Annotateur " + i + ";user" + i + "@example.com;ANNOTATEUR;" + mdpAnnotateur + "\n");
+            }
+        }
+        try (BufferedWriter w = ouvrir(dossier.resolve("textes.csv"))) {
+            for (int i = 1; i <= nbTextes; i++) {
+                w.write("T" + i + ";" + phrase(8 + alea.nextInt(40)) + "\n");
+            }
+        }
+        Zipf auteurs = new Zipf(nbUtilisateurs, 1.1);
+        Zipf textes = new Zipf(nbTextes, 0.8);
+        try (BufferedWriter w = ouvrir(dossier.resolve("annotations.csv"))) {
+            for (int i = 1; i <= nbAnnotations; i++) {
+                w.write("A" + i + ";T" + textes.tirer(alea) + ";user" + auteurs.tirer(alea) + ";"
+                        + phrase(2 + alea.nextInt(6)) + ";" + (alea.nextInt(3) == 0) + "\n");
+            }
+        }
+        Zipf collections = new Zipf(nbCollections, 1.0);
+        try (BufferedWriter w = ouvrir(dossier.resolve("collections.csv"))) {
+            for (int i = 1; i <= nbTextes; i++) {
+                w.write("Collection" + collections.tirer(alea) + ";T" + i + "\n");
+            }
+        }
+    }
+
+    private static BufferedWriter ouvrir(Path p) throws IOException {
+        return Files.newBufferedWriter(p, StandardCharsets.UTF_8);
+    }
+
+    private String phrase(int nbMots) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < nbMots; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(MOTS[alea.nextInt(MOTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tirage selon une loi de Zipf sur {1..n}, par recherche dichotomique dans la fonction de répartition.
+     */
+    private static final class Zipf {
+        private final double[] repartition;
+
+        Zipf(int n, double exposant) {
+            repartition = new double[n];
+            double somme = 0;
+            for (int k = 1; k <= n; k++) {
+                somme += 1.0 / Math.pow(k, exposant);
+                repartition[k - 1] = somme;
+            }
+            for (int k = 0; k < n; k++) {
+                repartition[k] /= somme;
+            }
+        }
+
+        int tirer(Random alea) {
+            double u = alea.nextDouble();
+            int bas = 0;
+            int haut = repartition.length - 1;
+            while (bas < haut) {
+                int milieu = (bas + haut) >>> 1;
+                if (repartition[milieu] < u) {
+                    bas = milieu + 1;
+                } else {
+                    haut = milieu;
+                }
+            }
+            return bas + 1;
+        }
+    }
+}
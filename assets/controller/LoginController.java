@@ -5,10 +5,12 @@ import java.util.Scanner;
 
 import model.Administrateur;
 import model.Annotateur;
+import model.ModeChargement;
 import model.Modele;
 import model.ModeleAnnotation;
 import model.Texte;
 import model.Utilisateur;
+import model.metriques.ExportMetriques;
 import view.IVue;
 import view.VueLogin;
 
@@ -76,11 +78,12 @@ public class LoginController implements IControleur {
     public void startApplication() {
         // Configuration par défaut si setModelAndView n'a pas été appelé.
         if (modele == null || vueAdmin == null || vueAnnot == null) {
-            this.modele = new ModeleAnnotation();
+            this.modele = creerModele();
             this.vueAdmin = new view.VueAdministrateur();
             this.vueAnnot = new view.VueAnnotateur();
         }
 
+        ExportMetriques.demarrer();
         loadData();
         main = new MainController();
         main.setModelAndView(modele, vueAdmin, vueAnnot);
@@ -108,10 +111,51 @@ public class LoginController implements IControleur {
         } catch (IOException e) {
             System.err.println("Erreur sauvegarde: " + e.getMessage());
         }
+        ExportMetriques.arreter();
+        if (modele instanceof ModeleAnnotation && ((ModeleAnnotation) modele).getCacheContenus() != null) {
+            System.out.println(((ModeleAnnotation) modele).getCacheContenus());
+        }
 
         System.out.println("Fermeture de l'application. Au revoir !");
     }
 
+    /**
+     * Crée le modèle par défaut, configuré par les propriétés système {@code projetmc.*}.
+     *
+     * @return le modèle, non chargé
+     */
+    static ModeleAnnotation creerModele() {
+        ModeleAnnotation m = new ModeleAnnotation();
+        // -Dprojetmc.chargement=MEMOIRE_MAPPEE pour projeter les CSV en mémoire au chargement.
+        m.setModeChargement(modeChargement(System.getProperty("projetmc.chargement", "FLUX")));
+        // -Dprojetmc.journal=true pour journaliser les modifications au lieu de tout réécrire.
+        m.setJournalActif(Boolean.getBoolean("projetmc.journal"));
+        // -Dprojetmc.parCollection=true pour ranger textes et annotations dans un dossier par collection.
+        m.setStockageParCollection(Boolean.getBoolean("projetmc.parCollection"));
+        // -Dprojetmc.cacheTextes=64 pour relire les contenus des textes à la demande (cache de 64 Mo).
+        long cacheMo = Long.getLong("projetmc.cacheTextes", 0);
+        if (cacheMo > 0) {
+            m.setChargementALaDemande(cacheMo << 20);
+        }
+        return m;
+    }
+
+    /**
+     * Lit le mode de chargement demandé, sans tenir compte de la casse.
+     *
+     * @param valeur la valeur de la propriété
+     * @return le mode correspondant, ou {@link ModeChargement#FLUX} si la valeur est inconnue
+     */
+    private static ModeChargement modeChargement(String valeur) {
+        for (ModeChargement mode : ModeChargement.values()) {
+            if (mode.name().equalsIgnoreCase(valeur.trim())) {
+                return mode;
+            }
+        }
+        System.err.println("Mode de chargement inconnu: " + valeur + " (FLUX utilisé)");
+        return ModeChargement.FLUX;
+    }
+
     /**
      * Gère la connexion de l'utilisateur.
      * <p>
@@ -141,7 +185,7 @@ public class LoginController implements IControleur {
                     if (u == null) {
                         VueLogin.printText("Utilisateur inconnu.");
                     } else {
-                        if (u.getMotDePasse().equals(mdp)) {
+                        if (u.verifierMotDePasse(mdp)) {
                             VueLogin.printText("Connexion réussie : " + u.getNom());
                             return u;
                         } else {
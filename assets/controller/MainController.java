@@ -1,9 +1,17 @@
 package controller;
 
 import model.*;
+import model.metriques.Histogramme;
+import model.metriques.Metriques;
 import view.IVue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 /**
  * Implémentation de l'interface {@link IControleur}.
@@ -17,6 +25,22 @@ import java.util.Map;
  */
 public class MainController implements IControleur {
 
+    /** Nombre maximal de textes et d'annotations affichés par une recherche. */
+    private static final int MAX_RESULTATS = 20;
+
+    /** Nombre de textes ou d'annotations affichés par page. */
+    private static final int TAILLE_PAGE = 20;
+
+    /**
+     * Durées des actions des menus, indexées par le choix du menu (voir {@link Metriques}).
+     * Elles comprennent le temps de saisie de l'utilisateur.
+     */
+    private static final Histogramme[] ACTIONS_ADMIN = histogrammes("controleur.admin.",
+            null, "collection", "nouvelleCollection", "enAttente", "recherche", "import", "lot",
+            "tableauDeBord", "revision");
+    private static final Histogramme[] ACTIONS_ANNOTATEUR = histogrammes("controleur.annotateur.",
+            null, "collection", "mesAnnotations", "nouvelleCollection", "recherche");
+
     // Références privées (injection via setModelAndView)
     private Modele modele;
     private IVue vueAdmin;
@@ -55,6 +79,7 @@ public class MainController implements IControleur {
         boolean back = false;
         while (!back) {
             int choice = vueAdmin.menuPrincipal(admin);
+            long depart = System.nanoTime();
             switch (choice) {
                 case 0:
                     back = true;
@@ -65,9 +90,120 @@ public class MainController implements IControleur {
                 case 2:
                     creerNouvelleCollection();
                     break;
+                case 3:
+                    parcourirAnnotations(vueAdmin, modele.nbAnnotationsParValidite(false),
+                            (debut, nb) -> modele.getAnnotationsParValidite(false, debut, nb));
+                    break;
+                case 4:
+                    rechercher(vueAdmin);
+                    break;
+                case 5:
+                    importerCorpus();
+                    break;
+                case 6:
+                    traiterParLot(admin);
+                    break;
+                case 7:
+                    afficherTableauDeBord();
+                    break;
+                case 8:
+                    reviser(admin);
+                    break;
                 default:
                     System.err.println("Choix invalide.");
             }
+            mesurer(ACTIONS_ADMIN, choice, depart);
+        }
+    }
+
+    /**
+     * Affiche les compteurs d'annotations de chaque collection, par ordre de nom. Les compteurs
+     * sont tenus à jour par le modèle : rien n'est recompté ici. Une collection rangée par
+     * dossier et pas encore ouverte compte zéro annotation.
+     */
+    private void afficherTableauDeBord() {
+        List<CollectionDeTextes> collections = new ArrayList<>(modele.getCollectionsMap().values());
+        collections.sort(Comparator.comparing(CollectionDeTextes::getNom));
+        vueAdmin.afficherTableauDeBord(collections, modele.nbAnnotationsParValidite(true),
+                modele.nbAnnotationsParValidite(false));
+    }
+
+    /**
+     * Sert à l'administrateur les annotations de la file de révision, une à une. Chaque
+     * annotation présentée est louée : un autre administrateur ne la reçoit pas en même temps.
+     * Les annotations passées restent louées jusqu'au retour au menu, pour ne pas être
+     * proposées de nouveau.
+     */
+    private void reviser(Administrateur admin) {
+        FileRevision file = modele.getFileRevision();
+        List<FileRevision.Bail> passees = new ArrayList<>();
+        try {
+            while (true) {
+                FileRevision.Bail bail = file.louer(admin.getId());
+                if (bail == null) {
+                    System.out.println("Aucune annotation en attente de révision.");
+                    return;
+                }
+                Annotation ann = bail.getAnnotation();
+                Texte t = modele.getTextesMap().get(ann.getTexteId());
+                int choix = vueAdmin.menuRevision(t, ann, file.taille());
+                if (choix == 0) {
+                    file.rendre(bail);
+                    return;
+                } else if (choix == 3) {
+                    passees.add(bail);
+                } else if (choix != 1 && choix != 2) {
+                    System.err.println("Choix invalide.");
+                    file.rendre(bail);
+                } else if (!file.estValable(bail)) {
+                    System.err.println("Bail expiré : l'annotation a été rendue à la file.");
+                } else if (choix == 1) {
+                    admin.validerAnnotation(t, ann);
+                    System.out.println("Annotation validée.");
+                } else {
+                    String contenu = vueAdmin.demanderNouveauContenu();
+                    if ("0".equals(contenu)) {
+                        file.rendre(bail);
+                    } else {
+                        admin.corrigerAnnotation(t, ann, contenu);
+                        System.out.println("Annotation corrigée et validée.");
+                    }
+                }
+            }
+        } finally {
+            for (FileRevision.Bail b : passees) {
+                file.rendre(b);
+            }
+        }
+    }
+
+    /**
+     * Ouvre une collection (ses textes peuvent être lus à ce moment). La vue administrateur
+     * n'est pas abonnée ici à tous ses textes : voir {@link #abonnerVueAdmin(Page)}.
+     *
+     * @return la collection, ou null si elle est introuvable ou illisible
+     */
+    private CollectionDeTextes ouvrirCollection(String colName) {
+        CollectionDeTextes c;
+        try {
+            c = modele.ouvrirCollection(colName);
+        } catch (IOException e) {
+            System.err.println("Erreur chargement collection: " + e.getMessage());
+            return null;
+        }
+        return c;
+    }
+
+    /**
+     * Abonne la vue administrateur aux textes d'une page affichée : seuls ces textes peuvent
+     * être annotés depuis la page, et l'abonnement ne coûte que la taille d'une page au lieu
+     * de celle de la collection. Un texte déjà suivi n'est pas abonné deux fois.
+     */
+    private void abonnerVueAdmin(Page<Texte> page) {
+        if (vueAdmin instanceof model.observer.Observateur) {
+            for (Texte t : page.getElements()) {
+                t.ajouterObservateur((model.observer.Observateur) vueAdmin);
+            }
         }
     }
 
@@ -79,20 +215,30 @@ public class MainController implements IControleur {
         String colName = vueAdmin.demanderNomCollection();
         if ("0".equals(colName))
             return;
-        CollectionDeTextes c = colMap.get(colName);
+        CollectionDeTextes c = ouvrirCollection(colName);
         if (c == null) {
             System.err.println("Collection introuvable.");
             return;
         }
 
         boolean loop = true;
+        int page = 0;
         while (loop) {
-            vueAdmin.afficherTextes(c.getTextes(), c.getNom());
+            Page<Texte> textes = Page.extraire(c.nbTextes(), page, TAILLE_PAGE, c::getTextes);
+            page = textes.getNumero();
+            abonnerVueAdmin(textes);
+            vueAdmin.afficherTextes(textes, c.getNom());
             int sub = vueAdmin.menuTextes();
             switch (sub) {
                 case 0:
                     loop = false;
                     break;
+                case 8:
+                    page++;
+                    break;
+                case 9:
+                    page--;
+                    break;
                 case 1:
                     validerAnnotation(admin, c);
                     break;
@@ -113,12 +259,12 @@ public class MainController implements IControleur {
         if ("0".equals(tid))
             return;
         Texte t = modele.getTextesMap().get(tid);
-        if (t == null || !c.getTextes().contains(t)) {
+        if (t == null || !c.contient(t)) {
             System.err.println("Texte introuvable dans cette collection.");
             return;
         }
-        List<Annotation> annList = t.getAnnotations();
-        vueAdmin.afficherAnnotations(annList);
+        List<Annotation> annList = modele.getAnnotationsParTexte(tid);
+        vueAdmin.afficherAnnotations(Page.complete(annList));
         String annId = vueAdmin.demanderAnnotationId();
         if ("0".equals(annId))
             return;
@@ -136,12 +282,12 @@ public class MainController implements IControleur {
         if ("0".equals(tid))
             return;
         Texte t = modele.getTextesMap().get(tid);
-        if (t == null || !c.getTextes().contains(t)) {
+        if (t == null || !c.contient(t)) {
             System.err.println("Texte introuvable dans la collection.");
             return;
         }
-        List<Annotation> annList = t.getAnnotations();
-        vueAdmin.afficherAnnotations(annList);
+        List<Annotation> annList = modele.getAnnotationsParTexte(tid);
+        vueAdmin.afficherAnnotations(Page.complete(annList));
         String annId = vueAdmin.demanderAnnotationId();
         if ("0".equals(annId))
             return;
@@ -169,6 +315,108 @@ public class MainController implements IControleur {
         System.out.println("Texte " + tId + " ajouté à la collection " + c.getNom());
     }
 
+    /**
+     * Importe un dossier ou un fichier JSONL dans une collection, créée si besoin.
+     * La vue administrateur est abonnée à la collection pour recevoir le résumé de l'import.
+     */
+    private void importerCorpus() {
+        String chemin = vueAdmin.demanderChemin();
+        if ("0".equals(chemin))
+            return;
+        Path p = Path.of(chemin);
+        if (!Files.exists(p)) {
+            System.err.println("Fichier ou dossier introuvable.");
+            return;
+        }
+        String colName = vueAdmin.demanderNomCollection();
+        if ("0".equals(colName))
+            return;
+        CollectionDeTextes c = ouvrirCollection(colName);
+        if (c == null) {
+            c = new CollectionDeTextes(colName);
+            modele.addCollection(c);
+        }
+        if (vueAdmin instanceof model.observer.Observateur) {
+            c.ajouterObservateur((model.observer.Observateur) vueAdmin);
+        }
+        try {
+            System.out.println(new ImportMasse(modele).importer(p, c));
+        } catch (IOException e) {
+            System.err.println("Erreur import: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Valide ou corrige des annotations en une seule opération du modèle.
+     */
+    private void traiterParLot(Administrateur admin) {
+        try {
+            int n;
+            switch (vueAdmin.menuLot()) {
+                case 1: {
+                    String colName = vueAdmin.demanderNomCollection();
+                    if ("0".equals(colName))
+                        return;
+                    CollectionDeTextes c = ouvrirCollection(colName);
+                    if (c == null) {
+                        System.err.println("Collection introuvable.");
+                        return;
+                    }
+                    n = admin.validerEnAttente(modele, c);
+                    break;
+                }
+                case 2: {
+                    String auteur = vueAdmin.demanderAuteurId();
+                    if ("0".equals(auteur))
+                        return;
+                    n = admin.validerParAuteur(modele, auteur);
+                    break;
+                }
+                case 3: {
+                    String motif = vueAdmin.demanderRequete();
+                    if ("0".equals(motif))
+                        return;
+                    String m = motif.toLowerCase(Locale.ROOT);
+                    n = admin.validerSi(modele, a -> a.getContenu().toLowerCase(Locale.ROOT).contains(m));
+                    break;
+                }
+                case 4: {
+                    String chemin = vueAdmin.demanderChemin();
+                    if ("0".equals(chemin))
+                        return;
+                    n = admin.appliquerCorrections(modele, lireCorrections(Path.of(chemin)));
+                    break;
+                }
+                case 0:
+                    return;
+                default:
+                    System.err.println("Choix invalide.");
+                    return;
+            }
+            System.out.println(n + " annotation(s) validée(s).");
+        } catch (IOException e) {
+            System.err.println("Erreur traitement par lot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lit un fichier de corrections : une ligne {@code idAnnotation;nouveau contenu} par annotation.
+     */
+    private static Map<String, String> lireCorrections(Path fichier) throws IOException {
+        Map<String, String> corrections = new LinkedHashMap<>();
+        for (String ligne : Files.readAllLines(fichier)) {
+            int sep = ligne.indexOf(';');
+            if (sep <= 0) {
+                if (!ligne.isBlank()) {
+                    System.err.println("Ligne ignorée: " + ligne);
+                }
+                continue;
+            }
+            corrections.put(ligne.substring(0, sep).trim(), ligne.substring(sep + 1));
+        }
+        return corrections;
+    }
+
     private void creerNouvelleCollection() {
         String colName = vueAdmin.demanderNomCollection();
         if ("0".equals(colName))
@@ -182,12 +430,48 @@ public class MainController implements IControleur {
         System.out.println("Collection créée: " + colName);
     }
 
+    // ------------- Listes paginées (communes aux deux menus) -------------
+
+    /**
+     * Affiche une liste d'annotations page par page, jusqu'à ce que l'utilisateur la quitte.
+     * Seules les annotations de la page affichée sont extraites du modèle.
+     */
+    private void parcourirAnnotations(IVue vue, int total, Page.Extracteur<Annotation> extracteur) {
+        int page = 0;
+        while (true) {
+            Page<Annotation> p = Page.extraire(total, page, TAILLE_PAGE, extracteur);
+            vue.afficherAnnotations(p);
+            if (p.getNbPages() <= 1) {
+                return;
+            }
+            int choix = vue.menuPages(p);
+            if (choix == 1) {
+                page = p.getNumero() + 1;
+            } else if (choix == 2) {
+                page = p.getNumero() - 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // ------------- Recherche (commune aux deux menus) -------------
+
+    private void rechercher(IVue vue) {
+        String requete = vue.demanderRequete();
+        if ("0".equals(requete))
+            return;
+        vue.afficherResultatsRecherche(requete, modele.rechercherTextes(requete, MAX_RESULTATS),
+                modele.rechercherAnnotations(requete, MAX_RESULTATS));
+    }
+
     // ------------- Menu Annotateur -------------
 
     public void runAnnotateurMenu(Annotateur annot) {
         boolean back = false;
         while (!back) {
             int c = vueAnnot.menuPrincipal(annot);
+            long depart = System.nanoTime();
             switch (c) {
                 case 0:
                     back = true;
@@ -201,9 +485,29 @@ public class MainController implements IControleur {
                 case 3:
                     creerNouvelleCollectionAnnot();
                     break;
+                case 4:
+                    rechercher(vueAnnot);
+                    break;
                 default:
                     System.err.println("Choix invalide.");
             }
+            mesurer(ACTIONS_ANNOTATEUR, c, depart);
+        }
+    }
+
+    private static Histogramme[] histogrammes(String prefixe, String... actions) {
+        Histogramme[] res = new Histogramme[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            if (actions[i] != null) {
+                res[i] = Metriques.defaut().histogramme(prefixe + actions[i]);
+            }
+        }
+        return res;
+    }
+
+    private static void mesurer(Histogramme[] actions, int choix, long debut) {
+        if (choix >= 0 && choix < actions.length && actions[choix] != null) {
+            actions[choix].enregistrerDepuis(debut);
         }
     }
 
@@ -215,20 +519,30 @@ public class MainController implements IControleur {
         String colName = vueAnnot.demanderNomCollection();
         if ("0".equals(colName))
             return;
-        CollectionDeTextes c = colMap.get(colName);
+        CollectionDeTextes c = ouvrirCollection(colName);
         if (c == null) {
             System.err.println("Collection introuvable.");
             return;
         }
 
         boolean loop = true;
+        int page = 0;
         while (loop) {
-            vueAnnot.afficherTextes(c.getTextes(), c.getNom());
+            Page<Texte> textes = Page.extraire(c.nbTextes(), page, TAILLE_PAGE, c::getTextes);
+            page = textes.getNumero();
+            abonnerVueAdmin(textes);
+            vueAnnot.afficherTextes(textes, c.getNom());
             int sub = vueAnnot.menuTextes();
             switch (sub) {
                 case 0:
                     loop = false;
                     break;
+                case 8:
+                    page++;
+                    break;
+                case 9:
+                    page--;
+                    break;
                 case 1:
                     annoterTexte(annot, c);
                     break;
@@ -249,7 +563,7 @@ public class MainController implements IControleur {
         if ("0".equals(tid))
             return;
         Texte t = modele.getTextesMap().get(tid);
-        if (t == null || !c.getTextes().contains(t)) {
+        if (t == null || !c.contient(t)) {
             System.err.println("Texte introuvable dans cette collection.");
             return;
         }
@@ -272,11 +586,11 @@ public class MainController implements IControleur {
         if ("0".equals(tid))
             return;
         Texte t = modele.getTextesMap().get(tid);
-        if (t == null || !c.getTextes().contains(t)) {
+        if (t == null || !c.contient(t)) {
             System.err.println("Texte introuvable dans la collection.");
             return;
         }
-        List<Annotation> annList = t.getAnnotations();
+        List<Annotation> annList = modele.getAnnotationsParTexte(tid);
         if (annList.isEmpty()) {
             System.err.println("Aucune annotation sur ce texte.");
             return;
@@ -316,13 +630,9 @@ public class MainController implements IControleur {
     }
 
     private void voirMesAnnotations(Annotateur annot) {
-        List<Annotation> list = new ArrayList<>();
-        for (Annotation a : modele.getAnnotationsMap().values()) {
-            if (a.getAuteurId().equals(annot.getId())) {
-                list.add(a);
-            }
-        }
-        vueAnnot.afficherAnnotations(list);
+        // Sur une version figée : les pages restent cohérentes même si d'autres sessions valident entre-temps.
+        List<Annotation> mes = modele.figer().getAnnotationsParAuteur(annot.getId());
+        parcourirAnnotations(vueAnnot, mes.size(), (debut, nb) -> mes.subList(debut, Math.min(mes.size(), debut + nb)));
     }
 
     private void creerNouvelleCollectionAnnot() {
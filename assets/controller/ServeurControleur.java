@@ -0,0 +1,251 @@
+package controller;
+
+import model.CacheSessions;
+import model.Modele;
+import model.metriques.ExportMetriques;
+import view.IVue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contrôleur serveur : expose les opérations des menus sur une socket locale.
+ * <p>
+ * Contrairement à {@link LoginController}, qui sert un seul utilisateur sur la console,
+ * ce contrôleur accepte plusieurs connexions simultanées. Chaque connexion est une
+ * {@link SessionClient} servie par son propre fil d'exécution, et toutes les sessions
+ * partagent le même {@link Modele}. Le protocole (une commande par ligne) est décrit dans
+ * {@link SessionClient}.
+ * </p>
+ * <p>
+ * Les sessions tournent sur des fils virtuels quand la JVM en propose (Java 21 et plus),
+ * sinon sur des fils classiques à petite pile, créés à la demande. Le serveur n'écoute que
+ * sur l'interface locale. Il s'arrête sur la commande {@code arret} tapée dans la console
+ * ou sur la commande {@code ARRET} d'un administrateur ; les données sont alors sauvegardées.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class ServeurControleur implements IControleur {
+
+    /** Port d'écoute par défaut ({@code -Dprojetmc.port} pour le changer). */
+    public static final int PORT_DEFAUT = 7070;
+
+    /** Taille de la pile des fils de session quand les fils virtuels ne sont pas disponibles. */
+    private static final long PILE_SESSION = 256 * 1024;
+
+    /** Connexions en attente d'acceptation. */
+    private static final int FILE_CONNEXIONS = 1024;
+
+    private Modele modele;
+    private final int port;
+
+    private final String usersCsv = "resources/utilisateurs.csv";
+    private final String textesCsv = "resources/textes.csv";
+    private final String annotationsCsv = "resources/annotations.csv";
+    private final String collectionsCsv = "resources/collections.csv";
+
+    private final Set<SessionClient> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nbSessionsOuvertes = new AtomicInteger();
+    private final LongAdder nbCommandes = new LongAdder();
+    /** Sessions ouvertes par les connexions réussies ({@code -Dprojetmc.dureeSession}, en minutes). */
+    private final CacheSessions cacheSessions =
+            new CacheSessions(Long.getLong("projetmc.dureeSession", 30), TimeUnit.MINUTES);
+    private volatile ServerSocket ecoute;
+    private volatile boolean arrete;
+
+    /**
+     * Constructeur sur le port {@code -Dprojetmc.port} (par défaut {@value #PORT_DEFAUT}).
+     */
+    public ServeurControleur() {
+        this(Integer.getInteger("projetmc.port", PORT_DEFAUT));
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param port le port d'écoute (0 pour un port libre choisi par le système)
+     */
+    public ServeurControleur(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Configure le modèle partagé par les sessions. Les vues ne sont pas utilisées : chaque
+     * session répond sur sa propre connexion.
+     *
+     * @param modele   l'instance du modèle
+     * @param vueAdmin non utilisée
+     * @param vueAnnot non utilisée
+     */
+    @Override
+    public void setModelAndView(Modele modele, IVue vueAdmin, IVue vueAnnot) {
+        this.modele = modele;
+    }
+
+    /**
+     * Charge les données, accepte les connexions jusqu'à l'arrêt puis sauvegarde.
+     */
+    @Override
+    public void startApplication() {
+        if (modele == null) {
+            modele = LoginController.creerModele();
+        }
+        ExportMetriques.demarrer();
+        try {
+            modele.loadAll(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+        } catch (IOException e) {
+            System.err.println("Erreur chargement CSV: " + e.getMessage());
+        }
+
+        ExecutorService executeur = executeurSessions();
+        try (ServerSocket s = new ServerSocket(port, FILE_CONNEXIONS, InetAddress.getLoopbackAddress())) {
+            ecoute = s;
+            System.out.println("Serveur à l'écoute sur le port " + s.getLocalPort()
+                    + " (tapez arret pour arrêter).");
+            System.out.flush();
+            Thread console = new Thread(this::lireConsole, "serveur-console");
+            console.setDaemon(true);
+            console.start();
+            accepter(s, executeur);
+        } catch (IOException e) {
+            if (!arrete) {
+                System.err.println("Erreur serveur: " + e.getMessage());
+            }
+        }
+
+        arreter();
+        for (SessionClient c : sessions) {
+            c.fermer();
+        }
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Serveur arrêté : " + nbSessionsOuvertes.get() + " session(s), "
+                + nbCommandes.sum() + " commande(s).");
+
+        try {
+            modele.saveAll(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+        } catch (IOException e) {
+            System.err.println("Erreur sauvegarde: " + e.getMessage());
+        }
+        ExportMetriques.arreter();
+    }
+
+    /**
+     * Retourne le port d'écoute effectif, ou -1 si le serveur n'écoute pas encore.
+     *
+     * @return le port
+     */
+    public int getPort() {
+        ServerSocket s = ecoute;
+        return s == null ? -1 : s.getLocalPort();
+    }
+
+    /**
+     * Arrête d'accepter des connexions ; {@link #startApplication} ferme ensuite les sessions
+     * et sauvegarde.
+     */
+    public void arreter() {
+        arrete = true;
+        ServerSocket s = ecoute;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // Déjà fermée.
+            }
+        }
+    }
+
+    /**
+     * Retourne le nombre de sessions en cours.
+     *
+     * @return le nombre de sessions
+     */
+    public int getNbSessions() {
+        return sessions.size();
+    }
+
+    CacheSessions getCacheSessions() {
+        return cacheSessions;
+    }
+
+    void commandeTraitee() {
+        nbCommandes.increment();
+    }
+
+    void sessionTerminee(SessionClient session) {
+        sessions.remove(session);
+    }
+
+    private void accepter(ServerSocket s, ExecutorService executeur) throws IOException {
+        while (!arrete) {
+            Socket client;
+            try {
+                client = s.accept();
+            } catch (SocketException e) {
+                if (arrete) {
+                    return;
+                }
+                throw e;
+            }
+            client.setTcpNoDelay(true);
+            SessionClient session = new SessionClient(this, modele, client);
+            sessions.add(session);
+            nbSessionsOuvertes.incrementAndGet();
+            executeur.execute(session);
+        }
+    }
+
+    private void lireConsole() {
+        BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+        try {
+            String ligne;
+            while ((ligne = console.readLine()) != null) {
+                if ("arret".equalsIgnoreCase(ligne.trim())) {
+                    arreter();
+                    return;
+                }
+                System.out.println(getNbSessions() + " session(s) en cours, " + nbCommandes.sum()
+                        + " commande(s) traitée(s).");
+            }
+        } catch (IOException e) {
+            // Console fermée : le serveur reste arrêtable par la commande ARRET.
+        }
+    }
+
+    /**
+     * Retourne un exécuteur qui lance chaque tâche sur son propre fil : un fil virtuel si la JVM
+     * le permet (Java 21 et plus), sinon un fil classique à petite pile, créé à la demande.
+     *
+     * @return l'exécuteur
+     */
+    public static ExecutorService executeurSessions() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(null, r, "session-" + n.incrementAndGet(), PILE_SESSION);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package controller;
+
+import model.Administrateur;
+import model.Annotateur;
+import model.Annotation;
+import model.CacheSessions;
+import model.CollectionDeTextes;
+import model.FileRevision;
+import model.Modele;
+import model.Texte;
+import model.Utilisateur;
+import model.metriques.Histogramme;
+import model.metriques.Metriques;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session d'un client connecté au {@link ServeurControleur}.
+ * <p>
+ * Le client envoie une commande par ligne : un mot-clé, puis ses arguments séparés par des
+ * espaces ; le dernier argument d'une commande (un contenu, une requête) va jusqu'à la fin de
+ * la ligne. Chaque commande reçoit une réponse qui commence par {@code OK} ou {@code ERR}.
+ * Une réponse en plusieurs lignes s'annonce par {@code OK <n>}, suivi des {@code n} lignes.
+ * </p>
+ * <pre>
+ * CONNEXION &lt;id&gt; &lt;mot de passe&gt;      OK &lt;rôle&gt; &lt;jeton&gt; &lt;nom&gt;
+ * JETON &lt;jeton&gt;                        OK &lt;rôle&gt; &lt;nom&gt;
+ * COLLECTIONS                          OK &lt;n&gt;, puis un nom par ligne
+ * TEXTES &lt;collection&gt; &lt;début&gt; &lt;nb&gt;   OK &lt;n&gt; &lt;total&gt;, puis id;contenu
+ * ANNOTATIONS &lt;idTexte&gt;                OK &lt;n&gt;, puis id;auteur;valide;contenu
+ * RECHERCHER &lt;requête&gt;                 OK &lt;n&gt;, puis id;contenu (textes puis annotations)
+ * AJOUTER_TEXTE &lt;collection&gt; &lt;contenu&gt;  OK &lt;idTexte&gt;
+ * ANNOTER &lt;idTexte&gt; &lt;contenu&gt;          OK &lt;idAnnotation&gt;              (annotateur)
+ * MODIFIER &lt;idAnnotation&gt; &lt;contenu&gt;     OK                             (annotateur, ses annotations)
+ * EN_ATTENTE &lt;début&gt; &lt;nb&gt;              OK &lt;n&gt; &lt;total&gt;, puis id;auteur;valide;contenu (administrateur)
+ * VALIDER &lt;idAnnotation&gt;               OK                             (administrateur)
+ * CORRIGER &lt;idAnnotation&gt; &lt;contenu&gt;     OK                             (administrateur)
+ * LOUER                                OK &lt;n&gt; &lt;restantes&gt;, puis id;auteur;valide;contenu (administrateur)
+ * RENDRE &lt;idAnnotation&gt;                OK                             (administrateur)
+ * DECONNEXION                          OK (le jeton n'est plus valable)
+ * QUITTER                              OK, puis fermeture de la connexion
+ * ARRET                                OK, puis arrêt du serveur      (administrateur)
+ * </pre>
+ * <p>
+ * Les opérations sont celles des menus de {@link MainController}, appliquées au modèle partagé
+ * par toutes les sessions. Le mot de passe n'est vérifié qu'à la connexion : elle ouvre une
+ * session dans le {@link CacheSessions} du serveur, et chaque commande suivante vérifie
+ * seulement que cette session n'a pas expiré. Le jeton reçu permet de reprendre la session
+ * sur une autre connexion sans vérifier à nouveau le mot de passe. LOUER réserve à la session
+ * l'annotation la plus prioritaire de la {@link FileRevision} (aucune ligne si la file est
+ * vide) ; elle est libérée par VALIDER, CORRIGER, RENDRE ou la fin de la connexion. Les retours à la ligne
+ * d'un contenu sont remplacés par des espaces dans les réponses. La réponse est vidée sur le
+ * réseau une fois complète ; si la commande échoue en cours de route, le client ne reçoit que
+ * {@code ERR} et la session continue.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class SessionClient implements Runnable {
+
+    /** Nombre maximal de lignes renvoyées par TEXTES, EN_ATTENTE et RECHERCHER. */
+    private static final int MAX_LIGNES = 1000;
+
+    /** Durée de traitement de chaque commande, réponse comprise (voir {@link Metriques}). */
+    private static final Map<String, Histogramme> DUREES = new HashMap<>();
+
+    static {
+        for (String c : new String[] { "CONNEXION", "JETON", "COLLECTIONS", "TEXTES", "ANNOTATIONS", "RECHERCHER",
+                "AJOUTER_TEXTE", "ANNOTER", "MODIFIER", "EN_ATTENTE", "VALIDER", "CORRIGER", "LOUER", "RENDRE",
+                "DECONNEXION" }) {
+            DUREES.put(c, Metriques.defaut().histogramme("serveur." + c));
+        }
+    }
+
+    private final ServeurControleur serveur;
+    private final Modele modele;
+    private final Socket socket;
+    private final CacheSessions cacheSessions;
+    /** Jeton de la session ouverte sur cette connexion, ou null. */
+    private String jeton;
+    /** Utilisateur de la session, vérifié avant chaque commande. */
+    private Utilisateur utilisateur;
+    /** Annotations louées par la session, par identifiant. */
+    private final Map<String, FileRevision.Bail> baux = new HashMap<>();
+
+    /**
+     * Constructeur.
+     *
+     * @param serveur le serveur qui a accepté la connexion
+     * @param modele  le modèle partagé
+     * @param socket  la connexion du client
+     */
+    SessionClient(ServeurControleur serveur, Modele modele, Socket socket) {
+        this.serveur = serveur;
+        this.modele = modele;
+        this.socket = socket;
+        this.cacheSessions = serveur.getCacheSessions();
+    }
+
+    @Override
+    public void run() {
+        try (Socket s = socket;
+             BufferedReader entree = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter sortie = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)), false)) {
+            String ligne;
+            boolean continuer = true;
+            while (continuer && (ligne = entree.readLine()) != null) {
+                continuer = traiter(ligne, sortie);
+                sortie.flush();
+                serveur.commandeTraitee();
+            }
+        } catch (IOException e) {
+            // Connexion coupée par le client ou fermée par l'arrêt du serveur.
+        } finally {
+            for (FileRevision.Bail b : baux.values()) {
+                modele.getFileRevision().rendre(b);
+            }
+            serveur.sessionTerminee(this);
+        }
+    }
+
+    /**
+     * Ferme la connexion ; la session se termine à sa prochaine lecture.
+     */
+    void fermer() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Déjà fermée.
+        }
+    }
+
+    /**
+     * Exécute une commande et écrit sa réponse.
+     *
+     * @return false si la session doit se terminer
+     */
+    private boolean traiter(String ligne, PrintWriter sortie) {
+        String[] args = ligne.trim().split(" ", 2);
+        String commande = args[0].toUpperCase();
+        String reste = args.length > 1 ? args[1] : "";
+        long debut = System.nanoTime();
+        // La réponse est préparée à part : en cas d'erreur, le client ne reçoit pas de réponse tronquée.
+        StringWriter reponse = new StringWriter();
+        try {
+            boolean continuer = executer(commande, reste, new PrintWriter(reponse));
+            sortie.write(reponse.toString());
+            return continuer;
+        } catch (IllegalArgumentException | IOException e) {
+            sortie.println("ERR " + e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            // Erreur du modèle (contenu illisible, état inattendu) : seule la commande échoue.
+            System.err.println("Erreur commande " + commande + ": " + e);
+            sortie.println("ERR Erreur interne: " + e);
+            return true;
+        } finally {
+            Histogramme duree = DUREES.get(commande);
+            if (duree != null) {
+                duree.enregistrerDepuis(debut);
+            }
+        }
+    }
+
+    private boolean executer(String commande, String reste, PrintWriter sortie) throws IOException {
+        switch (commande) {
+            case "CONNEXION":
+                connexion(reste, sortie);
+                return true;
+            case "JETON":
+                reprendre(reste.trim(), sortie);
+                return true;
+            case "QUITTER":
+                sortie.println("OK");
+                return false;
+            case "":
+                return true;
+            default:
+                break;
+        }
+        if (jeton == null) {
+            sortie.println("ERR Non connecté.");
+            return true;
+        }
+        utilisateur = cacheSessions.verifier(jeton);
+        if (utilisateur == null) {
+            jeton = null;
+            sortie.println("ERR Session expirée.");
+            return true;
+        }
+        switch (commande) {
+            case "DECONNEXION":
+                cacheSessions.fermer(jeton);
+                jeton = null;
+                utilisateur = null;
+                sortie.println("OK");
+                break;
+            case "COLLECTIONS":
+                collections(sortie);
+                break;
+            case "TEXTES":
+                textes(reste, sortie);
+                break;
+            case "ANNOTATIONS":
+                ecrireAnnotations(modele.getAnnotationsParTexte(reste.trim()), -1, sortie);
+                break;
+            case "RECHERCHER":
+                rechercher(reste, sortie);
+                break;
+            case "AJOUTER_TEXTE":
+                ajouterTexte(reste, sortie);
+                break;
+            case "ANNOTER":
+                annoter(reste, sortie);
+                break;
+            case "MODIFIER":
+                modifier(reste, sortie);
+                break;
+            case "EN_ATTENTE":
+                enAttente(reste, sortie);
+                break;
+            case "VALIDER":
+                valider(reste, null, sortie);
+                break;
+            case "CORRIGER": {
+                String[] a = deux(reste);
+                valider(a[0], a[1], sortie);
+                break;
+            }
+            case "LOUER":
+                louer(sortie);
+                break;
+            case "RENDRE":
+                rendre(reste.trim(), sortie);
+                break;
+            case "ARRET":
+                if (administrateur() != null) {
+                    sortie.println("OK");
+                    serveur.arreter();
+                    return false;
+                }
+                sortie.println("ERR Réservé aux administrateurs.");
+                break;
+            default:
+                sortie.println("ERR Commande inconnue: " + commande);
+        }
+        return true;
+    }
+
+    private void connexion(String reste, PrintWriter sortie) {
+        String[] a = deux(reste);
+        Utilisateur u = modele.getUtilisateursMap().get(a[0]);
+        if (u == null) {
+            sortie.println("ERR Utilisateur inconnu.");
+        } else if (!u.verifierMotDePasse(a[1])) {
+            sortie.println("ERR Mot de passe incorrect.");
+        } else {
+            jeton = cacheSessions.ouvrir(u);
+            utilisateur = u;
+            sortie.println("OK " + u.getRole() + " " + jeton + " " + u.getNom());
+        }
+    }
+
+    private void reprendre(String j, PrintWriter sortie) {
+        Utilisateur u = cacheSessions.verifier(j);
+        if (u == null) {
+            sortie.println("ERR Session inconnue ou expirée.");
+        } else {
+            jeton = j;
+            utilisateur = u;
+            sortie.println("OK " + u.getRole() + " " + u.getNom());
+        }
+    }
+
+    private void collections(PrintWriter sortie) {
+        List<String> noms = new ArrayList<>(modele.getCollectionsMap().keySet());
+        noms.sort(null);
+        sortie.println("OK " + noms.size());
+        for (String n : noms) {
+            sortie.println(n);
+        }
+    }
+
+    private void textes(String reste, PrintWriter sortie) throws IOException {
+        String[] a = reste.trim().split(" ");
+        if (a.length != 3) {
+            throw new IllegalArgumentException("Usage: TEXTES <collection> <début> <nb>");
+        }
+        CollectionDeTextes c = collection(a[0]);
+        int debut = Math.max(0, entier(a[1]));
+        int nb = Math.min(MAX_LIGNES, Math.max(0, entier(a[2])));
+        List<Texte> page = c.getTextes(debut, nb);
+        sortie.println("OK " + page.size() + " " + c.nbTextes());
+        for (Texte t : page) {
+            sortie.print(t.getId());
+            sortie.print(';');
+            sortie.println(uneLigne(t.getContenu()));
+        }
+    }
+
+    private void rechercher(String requete, PrintWriter sortie) {
+        List<Texte> textes = modele.rechercherTextes(requete, MAX_LIGNES);
+        List<Annotation> annotations = modele.rechercherAnnotations(requete, MAX_LIGNES);
+        sortie.println("OK " + (textes.size() + annotations.size()));
+        for (Texte t : textes) {
+            sortie.println(t.getId() + ";" + uneLigne(t.getContenu()));
+        }
+        for (Annotation a : annotations) {
+            sortie.println(a.getAnnotationId() + ";" + uneLigne(a.getContenu()));
+        }
+    }
+
+    private void ajouterTexte(String reste, PrintWriter sortie) throws IOException {
+        String[] a = deux(reste);
+        CollectionDeTextes c = collection(a[0]);
+        String tId = modele.generateTexteId();
+        Texte t = new Texte(tId, a[1]);
+        c.ajouterTexte(t);
+        modele.addTexte(t);
+        sortie.println("OK " + tId);
+    }
+
+    private void annoter(String reste, PrintWriter sortie) throws IOException {
+        Annotateur annot = annotateur();
+        String[] a = deux(reste);
+        Texte t = modele.getTextesMap().get(a[0]);
+        if (t == null) {
+            throw new IllegalArgumentException("Texte introuvable.");
+        }
+        String annId = modele.generateAnnotationId();
+        modele.addAnnotation(annot.annoterTexte(t, annId, a[1]));
+        sortie.println("OK " + annId);
+    }
+
+    private void modifier(String reste, PrintWriter sortie) {
+        Annotateur annot = annotateur();
+        String[] a = deux(reste);
+        Annotation ann = annotation(a[0]);
+        if (!ann.getAuteurId().equals(annot.getId())) {
+            throw new IllegalArgumentException("Cette annotation n'est pas la vôtre !");
+        }
+        annot.modifierAnnotation(ann, a[1]);
+        sortie.println("OK");
+    }
+
+    private void enAttente(String reste, PrintWriter sortie) {
+        administrateurExige();
+        String[] a = reste.trim().split(" ");
+        if (a.length != 2) {
+            throw new IllegalArgumentException("Usage: EN_ATTENTE <début> <nb>");
+        }
+        int total = modele.nbAnnotationsParValidite(false);
+        int nb = Math.min(MAX_LIGNES, Math.max(0, entier(a[1])));
+        ecrireAnnotations(modele.getAnnotationsParValidite(false, Math.max(0, entier(a[0])), nb), total, sortie);
+    }
+
+    private void valider(String annId, String contenu, PrintWriter sortie) {
+        Administrateur admin = administrateurExige();
+        Annotation ann = annotation(annId.trim());
+        Texte t = modele.getTextesMap().get(ann.getTexteId());
+        if (t == null) {
+            throw new IllegalArgumentException("Texte introuvable.");
+        }
+        if (contenu == null) {
+            admin.validerAnnotation(t, ann);
+        } else {
+            admin.corrigerAnnotation(t, ann, contenu);
+        }
+        // Une annotation validée sort de la file : son bail n'a plus d'objet.
+        baux.remove(ann.getAnnotationId());
+        sortie.println("OK");
+    }
+
+    private void louer(PrintWriter sortie) {
+        Administrateur admin = administrateurExige();
+        FileRevision file = modele.getFileRevision();
+        FileRevision.Bail bail = file.louer(admin.getId());
+        if (bail == null) {
+            ecrireAnnotations(List.of(), 0, sortie);
+            return;
+        }
+        baux.put(bail.getAnnotation().getAnnotationId(), bail);
+        ecrireAnnotations(List.of(bail.getAnnotation()), file.taille(), sortie);
+    }
+
+    private void rendre(String annId, PrintWriter sortie) {
+        administrateurExige();
+        FileRevision.Bail bail = baux.remove(annId);
+        if (bail == null || !modele.getFileRevision().rendre(bail)) {
+            throw new IllegalArgumentException("Aucun bail en cours sur cette annotation.");
+        }
+        sortie.println("OK");
+    }
+
+    private static void ecrireAnnotations(List<Annotation> liste, int total, PrintWriter sortie) {
+        sortie.println(total < 0 ? "OK " + liste.size() : "OK " + liste.size() + " " + total);
+        for (Annotation a : liste) {
+            sortie.print(a.getAnnotationId());
+            sortie.print(';');
+            sortie.print(a.getAuteurId());
+            sortie.print(';');
+            sortie.print(a.isValide());
+            sortie.print(';');
+            sortie.println(uneLigne(a.getContenu()));
+        }
+    }
+
+    private CollectionDeTextes collection(String nom) throws IOException {
+        CollectionDeTextes c = modele.ouvrirCollection(nom);
+        if (c == null) {
+            throw new IllegalArgumentException("Collection introuvable.");
+        }
+        return c;
+    }
+
+    private Annotation annotation(String id) {
+        Annotation a = modele.getAnnotationsMap().get(id);
+        if (a == null) {
+            throw new IllegalArgumentException("Annotation introuvable.");
+        }
+        return a;
+    }
+
+    private Annotateur annotateur() {
+        if (!(utilisateur instanceof Annotateur)) {
+            throw new IllegalArgumentException("Réservé aux annotateurs.");
+        }
+        return (Annotateur) utilisateur;
+    }
+
+    private Administrateur administrateur() {
+        return utilisateur instanceof Administrateur ? (Administrateur) utilisateur : null;
+    }
+
+    private Administrateur administrateurExige() {
+        Administrateur a = administrateur();
+        if (a == null) {
+            throw new IllegalArgumentException("Réservé aux administrateurs.");
+        }
+        return a;
+    }
+
+    /** Sépare le premier argument du reste de la ligne. */
+    private static String[] deux(String reste) {
+        String[] a = reste.trim().split(" ", 2);
+        if (a.length != 2 || a[1].isEmpty()) {
+            throw new IllegalArgumentException("Arguments manquants.");
+        }
+        return a;
+    }
+
+    private static int entier(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide: " + s);
+        }
+    }
+
+    private static String uneLigne(String s) {
+        return s.indexOf('\n') < 0 && s.indexOf('\r') < 0 ? s : s.replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,133 @@
+package essais;
+
+import model.ModeleAnnotation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Outils communs aux essais.
+ * <p>
+ * Le projet n'a pas de cadre de test : chaque essai est un programme autonome, lancé comme
+ * les bancs d'essai ({@code java -cp <classes> essais.EssaiContenuVide}). Il travaille dans
+ * un dossier temporaire, affiche chaque étape vérifiée et se termine avec le code 1 à la
+ * première vérification fausse.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class Essai {
+
+    /** Noms des quatre fichiers CSV dans un dossier d'essai. */
+    static final String UTILISATEURS = "utilisateurs.csv";
+    static final String TEXTES = "textes.csv";
+    static final String ANNOTATIONS = "annotations.csv";
+    static final String COLLECTIONS = "collections.csv";
+
+    /**
+     * Étape d'un essai.
+     */
+    @FunctionalInterface
+    interface Etape {
+        /**
+         * Exécute l'étape.
+         *
+         * @throws Exception en cas d'erreur
+         */
+        void executer() throws Exception;
+    }
+
+    private Essai() {
+    }
+
+    /**
+     * Exécute une étape et affiche son résultat ; arrête le programme si elle échoue.
+     *
+     * @param nom   nom affiché
+     * @param etape l'étape
+     */
+    static void etape(String nom, Etape etape) {
+        try {
+            etape.executer();
+            System.out.println("OK     " + nom);
+        } catch (Exception | AssertionError e) {
+            System.out.println("ECHEC  " + nom + " : " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Vérifie une condition.
+     *
+     * @param condition la condition
+     * @param message   le message d'erreur si elle est fausse
+     */
+    static void verifier(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Vérifie que deux valeurs sont égales.
+     *
+     * @param attendu la valeur attendue
+     * @param obtenu  la valeur obtenue
+     * @param quoi    ce qui est comparé
+     */
+    static void verifierEgal(Object attendu, Object obtenu, String quoi) {
+        if (attendu == null ? obtenu != null : !attendu.equals(obtenu)) {
+            throw new AssertionError(quoi + " : attendu <" + attendu + ">, obtenu <" + obtenu + ">");
+        }
+    }
+
+    /**
+     * Crée un dossier temporaire contenant les quatre fichiers CSV.
+     *
+     * @param utilisateurs contenu de utilisateurs.csv
+     * @param textes       contenu de textes.csv
+     * @param annotations  contenu de annotations.csv
+     * @param collections  contenu de collections.csv
+     * @return le dossier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static Path corpus(String utilisateurs, String textes, String annotations, String collections) throws IOException {
+        Path d = Files.createTempDirectory("essai");
+        Files.writeString(d.resolve(UTILISATEURS), utilisateurs, StandardCharsets.UTF_8);
+        Files.writeString(d.resolve(TEXTES), textes, StandardCharsets.UTF_8);
+        Files.writeString(d.resolve(ANNOTATIONS), annotations, StandardCharsets.UTF_8);
+        Files.writeString(d.resolve(COLLECTIONS), collections, StandardCharsets.UTF_8);
+        return d;
+    }
+
+    /**
+     * Charge les fichiers CSV d'un dossier dans un nouveau modèle.
+     *
+     * @param d       le dossier
+     * @param journal true pour activer le journal
+     * @return le modèle chargé
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static ModeleAnnotation charger(Path d, boolean journal) throws IOException {
+        ModeleAnnotation m = new ModeleAnnotation();
+        m.setJournalActif(journal);
+        m.loadAll(d.resolve(UTILISATEURS).toString(), d.resolve(TEXTES).toString(),
+                d.resolve(ANNOTATIONS).toString(), d.resolve(COLLECTIONS).toString());
+        return m;
+    }
+
+    /**
+     * Sauvegarde un modèle dans les fichiers CSV d'un dossier.
+     *
+     * @param m le modèle
+     * @param d le dossier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void sauvegarder(ModeleAnnotation m, Path d) throws IOException {
+        m.saveAll(d.resolve(UTILISATEURS).toString(), d.resolve(TEXTES).toString(),
+                d.resolve(ANNOTATIONS).toString(), d.resolve(COLLECTIONS).toString());
+    }
+}
@@ -0,0 +1,175 @@
+package essais;
+
+import model.Annotateur;
+import model.Annotation;
+import model.CollectionDeTextes;
+import model.InstantaneBinaire;
+import model.ModeleAnnotation;
+import model.Texte;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static essais.Essai.etape;
+import static essais.Essai.verifier;
+import static essais.Essai.verifierEgal;
+
+/**
+ * Modèle partagé par des sessions concurrentes.
+ * <p>
+ * Usage : {@code EssaiConcurrence [nbSessions [nbOperations]]} (par défaut 8 sessions de 5000
+ * opérations). Chaque session crée des annotations sur des textes tirés au hasard, en valide
+ * une sur deux et crée un texte rangé dans une collection toutes les trois opérations, pendant
+ * qu'un autre fil sauvegarde le modèle en boucle. L'essai vérifie ensuite les compteurs et les
+ * index du modèle, puis les mêmes après rechargement depuis l'instantané et depuis les CSV.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class EssaiConcurrence {
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args le nombre de sessions et le nombre d'opérations par session
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        int nbSessions = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int nbOperations = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        StringBuilder textes = new StringBuilder();
+        for (int i = 1; i <= 50; i++) {
+            textes.append('T').append(i).append(";Texte ").append(i).append('\n');
+        }
+        Path d = Essai.corpus("admin;Admin;admin@example.com;ADMIN;admin\n", textes.toString(), "", "");
+        ModeleAnnotation m = Essai.charger(d, false);
+        CollectionDeTextes collection = new CollectionDeTextes("Partagée");
+        m.addCollection(collection);
+        int textesAvant = m.getTextesMap().size();
+        Attendu attendu = new Attendu();
+
+        etape(nbSessions + " sessions de " + nbOperations + " opérations, sauvegardes concurrentes", () -> {
+            List<Texte> initiaux = new ArrayList<>(m.getTextesMap().values());
+            ExecutorService ex = Executors.newFixedThreadPool(nbSessions + 1);
+            CountDownLatch depart = new CountDownLatch(1);
+            AtomicBoolean fini = new AtomicBoolean();
+            AtomicInteger sauvegardes = new AtomicInteger();
+            List<Future<Attendu>> sessions = new ArrayList<>();
+            for (int k = 0; k < nbSessions; k++) {
+                int numero = k;
+                sessions.add(ex.submit(() -> {
+                    depart.await();
+                    return session(m, collection, initiaux, numero, nbOperations);
+                }));
+            }
+            Future<?> sauveur = ex.submit(() -> {
+                depart.await();
+                while (!fini.get()) {
+                    Essai.sauvegarder(m, d);
+                    sauvegardes.incrementAndGet();
+                }
+                return null;
+            });
+            depart.countDown();
+            for (Future<Attendu> f : sessions) {
+                attendu.ajouter(f.get());
+            }
+            fini.set(true);
+            sauveur.get();
+            ex.shutdown();
+            verifier(sauvegardes.get() > 1, "aucune sauvegarde pendant les sessions");
+            Essai.sauvegarder(m, d);
+            verifierModele(m, attendu, textesAvant);
+        });
+
+        etape("rechargement", () -> verifierModele(Essai.charger(d, false), attendu, textesAvant));
+
+        etape("rechargement depuis les CSV", () -> {
+            Files.deleteIfExists(d.resolve(InstantaneBinaire.NOM_FICHIER));
+            verifierModele(Essai.charger(d, false), attendu, textesAvant);
+        });
+    }
+
+    /**
+     * Opérations d'une session, avec leurs effets attendus.
+     */
+    private static Attendu session(ModeleAnnotation m, CollectionDeTextes collection, List<Texte> initiaux,
+                                   int numero, int nbOperations) {
+        Attendu a = new Attendu();
+        Annotateur auteur = new Annotateur("session" + numero, "Session " + numero, "s@example.com", "x");
+        Random r = new Random(numero);
+        for (int i = 0; i < nbOperations; i++) {
+            Texte t = initiaux.get(r.nextInt(initiaux.size()));
+            Annotation ann = auteur.annoterTexte(t, m.generateAnnotationId(), "contenu " + i);
+            m.addAnnotation(ann);
+            a.annotations.put(ann.getAnnotationId(), false);
+            a.parAuteur.merge(auteur.getId(), 1, Integer::sum);
+            if (i % 2 == 0) {
+                t.validerAnnotation(ann);
+                a.annotations.put(ann.getAnnotationId(), true);
+            }
+            if (i % 3 == 0) {
+                Texte nouveau = new Texte(m.generateTexteId(), "créé par " + auteur.getId());
+                collection.ajouterTexte(nouveau);
+                m.addTexte(nouveau);
+                a.textes.add(nouveau.getId());
+            }
+        }
+        return a;
+    }
+
+    private static void verifierModele(ModeleAnnotation m, Attendu attendu, int textesAvant) {
+        verifierEgal(textesAvant + attendu.textes.size(), m.getTextesMap().size(), "nombre de textes");
+        verifierEgal(attendu.annotations.size(), m.getAnnotationsMap().size(), "nombre d'annotations");
+        long validees = attendu.annotations.values().stream().filter(v -> v).count();
+        verifierEgal((int) validees, m.getAnnotationsParValidite(true).size(), "index des validées");
+        verifierEgal(attendu.annotations.size() - (int) validees, m.getAnnotationsParValidite(false).size(),
+                "index des annotations en attente");
+        for (Map.Entry<String, Boolean> e : attendu.annotations.entrySet()) {
+            Annotation a = m.getAnnotationsMap().get(e.getKey());
+            verifier(a != null, "annotation " + e.getKey() + " perdue");
+            verifierEgal(e.getValue(), a.isValide(), "validité de " + e.getKey());
+        }
+        for (Map.Entry<String, Integer> e : attendu.parAuteur.entrySet()) {
+            verifierEgal(e.getValue(), m.getAnnotationsParAuteur(e.getKey()).size(), "annotations de " + e.getKey());
+        }
+        int parTexte = 0;
+        for (String id : m.getTextesMap().keySet()) {
+            parTexte += m.getAnnotationsParTexte(id).size();
+        }
+        verifierEgal(attendu.annotations.size(), parTexte, "somme de l'index par texte");
+        CollectionDeTextes c = m.getCollectionsMap().get("Partagée");
+        verifier(c != null, "collection perdue");
+        verifierEgal(attendu.textes.size(), c.nbTextes(), "textes de la collection");
+        for (String id : attendu.textes) {
+            verifier(c.contient(id), "texte " + id + " absent de la collection");
+        }
+    }
+
+    /**
+     * Effets attendus des sessions : validité de chaque annotation créée, nombre
+     * d'annotations par auteur, textes créés.
+     */
+    private static final class Attendu {
+        final Map<String, Boolean> annotations = new HashMap<>();
+        final Map<String, Integer> parAuteur = new HashMap<>();
+        final List<String> textes = new ArrayList<>();
+
+        void ajouter(Attendu autre) {
+            annotations.putAll(autre.annotations);
+            autre.parAuteur.forEach((k, v) -> parAuteur.merge(k, v, Integer::sum));
+            textes.addAll(autre.textes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package essais;
+
+import model.Annotation;
+import model.InstantaneBinaire;
+import model.ModeleAnnotation;
+import model.Texte;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static essais.Essai.etape;
+import static essais.Essai.verifier;
+import static essais.Essai.verifierEgal;
+
+/**
+ * Aller-retour des textes au contenu vide.
+ * <p>
+ * Un texte vide est écrit {@code T2;} : la ligne se termine par un champ vide, qui doit être
+ * gardé à la lecture pour que le texte et ses annotations ne soient pas perdus. L'essai
+ * charge un tel fichier, puis vérifie que les textes vides survivent à une réécriture
+ * complète, à un ajout en fin de fichier et au rechargement.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class EssaiContenuVide {
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args inutilisés
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        Path source = Essai.corpus(
+                "user1;Alice;alice@example.com;ANNOTATEUR;1234\n",
+                "T1;Bonjour\nT2;\n",
+                "A1;T2;user1;sur un texte vide;false\n",
+                "C1;T2\n");
+        Path copie = Files.createTempDirectory("essai-copie");
+
+        etape("lecture d'un texte vide et de ses annotations", () -> {
+            ModeleAnnotation m = Essai.charger(source, false);
+            verifierTexteVide(m, "T2");
+            verifierEgal("T2", m.getAnnotationsMap().get("A1").getTexteId(), "texte de A1");
+            verifier(m.getCollectionsMap().get("C1").contient("T2"), "T2 absent de C1");
+        });
+
+        etape("réécriture complète puis rechargement", () -> {
+            ModeleAnnotation m = Essai.charger(source, false);
+            m.addTexte(new Texte(m.generateTexteId(), ""));
+            Essai.sauvegarder(m, copie);
+            verifier(Files.readAllLines(copie.resolve(Essai.TEXTES)).contains("T2;"), "ligne T2; non écrite");
+            // Relu depuis les CSV et non depuis l'instantané écrit avec eux.
+            Files.delete(copie.resolve(InstantaneBinaire.NOM_FICHIER));
+            ModeleAnnotation relu = Essai.charger(copie, false);
+            verifierEgal(3, relu.getTextesMap().size(), "nombre de textes");
+            verifierTexteVide(relu, "T2");
+            verifierTexteVide(relu, "T3");
+            List<Annotation> anns = relu.getAnnotationsParTexte("T2");
+            verifierEgal(1, anns.size(), "annotations de T2");
+        });
+
+        etape("ajout en fin de fichier puis rechargement", () -> {
+            ModeleAnnotation m = Essai.charger(copie, false);
+            Texte t = new Texte(m.generateTexteId(), "");
+            m.addTexte(t);
+            Essai.sauvegarder(m, copie);
+            verifierTexteVide(Essai.charger(copie, false), t.getId());
+        });
+    }
+
+    static void verifierTexteVide(ModeleAnnotation m, String id) {
+        Texte t = m.getTextesMap().get(id);
+        verifier(t != null, "texte " + id + " perdu");
+        verifierEgal("", t.getContenu(), "contenu de " + id);
+    }
+}
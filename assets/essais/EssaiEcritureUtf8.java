@@ -0,0 +1,54 @@
+package essais;
+
+import model.InstantaneBinaire;
+import model.ModeleAnnotation;
+import model.Texte;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static essais.Essai.etape;
+import static essais.Essai.verifierEgal;
+
+/**
+ * Écriture UTF-8 des caractères de plus de trois octets.
+ * <p>
+ * Les CSV sont encodés par lots dans un tampon d'un mégaoctet ; un caractère hors du plan de
+ * base (un émoji : une paire de demi-caractères, quatre octets) peut tomber à la fin d'un lot.
+ * L'essai écrit un texte d'un peu plus d'un mégaoctet terminé par de tels caractères, en
+ * décalant leur position octet par octet, puis le relit.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class EssaiEcritureUtf8 {
+
+    /** Taille du tampon d'écriture des CSV. */
+    private static final int TAMPON = 1 << 20;
+    /** Nombre de décalages essayés autour de la fin du tampon. */
+    private static final int DECALAGES = 64;
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args inutilisés
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        Path source = Essai.corpus("user1;Alice;alice@example.com;ANNOTATEUR;1234\n", "", "", "");
+
+        etape("émojis à " + DECALAGES + " positions autour de la fin du tampon", () -> {
+            for (int k = 0; k < DECALAGES; k++) {
+                String contenu = "a".repeat(TAMPON - k) + "€😀€😀";
+                ModeleAnnotation m = Essai.charger(source, false);
+                Texte t = new Texte(m.generateTexteId(), contenu);
+                m.addTexte(t);
+                Path copie = Files.createTempDirectory("essai-utf8");
+                Essai.sauvegarder(m, copie);
+                Files.delete(copie.resolve(InstantaneBinaire.NOM_FICHIER));
+                String relu = Essai.charger(copie, false).getTextesMap().get(t.getId()).getContenu();
+                verifierEgal(contenu, relu, "contenu relu (décalage " + k + ")");
+            }
+        });
+    }
+}
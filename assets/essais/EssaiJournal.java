@@ -0,0 +1,164 @@
+package essais;
+
+import model.Administrateur;
+import model.Annotation;
+import model.Journal;
+import model.ModeleAnnotation;
+import model.MotsDePasse;
+import model.Texte;
+import model.Utilisateur;
+import model.VersionModele;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static essais.Essai.etape;
+import static essais.Essai.verifier;
+import static essais.Essai.verifierEgal;
+
+/**
+ * Sauvegarde avec le journal actif.
+ * <p>
+ * L'essai vérifie qu'un texte vide journalisé est rejoué au démarrage suivant puis intégré
+ * aux fichiers CSV par la compaction, qu'une annotation validée y remplace sa ligne, qu'une
+ * validation par lot est publiée et rejouée en entier, et qu'une sauvegarde vers d'autres
+ * fichiers en écrit une copie complète sans détacher le modèle de son journal. Il vérifie
+ * aussi que les mots de passe hachés au chargement sont écrits, bien que les utilisateurs
+ * ne soient pas journalisés.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class EssaiJournal {
+
+    /** Délai maximal d'une compaction en arrière-plan, en millisecondes. */
+    private static final long DELAI_COMPACTION = 10_000;
+
+    /**
+     * Point d'entrée.
+     *
+     * @param args inutilisés
+     * @throws Exception en cas d'erreur
+     */
+    public static void main(String[] args) throws Exception {
+        Path d = Essai.corpus(
+                "user1;Alice;alice@example.com;ANNOTATEUR;1234\n",
+                "T1;Bonjour\n",
+                "",
+                "");
+        Path copie = Files.createTempDirectory("essai-copie");
+        String[] vide = new String[1];
+
+        etape("rejeu d'un texte vide et de son annotation", () -> {
+            ModeleAnnotation m = Essai.charger(d, true);
+            Texte t = new Texte(m.generateTexteId(), "");
+            m.addTexte(t);
+            m.addAnnotation(new Annotation(m.generateAnnotationId(), t.getId(), "user1", "sur un texte vide"));
+            Essai.sauvegarder(m, d);
+            vide[0] = t.getId();
+
+            ModeleAnnotation relu = Essai.charger(d, true);
+            EssaiContenuVide.verifierTexteVide(relu, vide[0]);
+            verifierEgal(1, relu.getAnnotationsParTexte(vide[0]).size(), "annotations du texte vide");
+        });
+
+        etape("compaction d'un texte vide", () -> {
+            // Le chargement précédent a lancé la compaction des segments des sessions passées.
+            attendreCompaction(d);
+            verifier(Files.readAllLines(d.resolve(Essai.TEXTES)).contains(vide[0] + ";"), "texte vide non compacté");
+            EssaiContenuVide.verifierTexteVide(Essai.charger(d, false), vide[0]);
+        });
+
+        etape("compaction d'une annotation modifiée", () -> {
+            ModeleAnnotation m = Essai.charger(d, true);
+            Annotation a = m.getAnnotationsParTexte(vide[0]).get(0);
+            m.getTextesMap().get(vide[0]).validerAnnotation(a);
+            Essai.sauvegarder(m, d);
+            Essai.charger(d, true);
+            attendreCompaction(d);
+            List<String> lignes = Files.readAllLines(d.resolve(Essai.ANNOTATIONS)).stream()
+                    .filter(l -> l.startsWith(a.getAnnotationId() + ";")).toList();
+            verifierEgal(1, lignes.size(), "lignes de " + a.getAnnotationId());
+            verifier(lignes.get(0).endsWith(";true"), "validation non compactée : " + lignes.get(0));
+        });
+
+        etape("validation par lot journalisée", () -> {
+            ModeleAnnotation m = Essai.charger(d, true);
+            Texte t = m.getTextesMap().get("T1");
+            Map<String, String> corrections = new LinkedHashMap<>();
+            for (int i = 0; i < 3; i++) {
+                Annotation a = new Annotation(m.generateAnnotationId(), t.getId(), "user1", "brouillon " + i);
+                m.addAnnotation(a);
+                corrections.put(a.getAnnotationId(), "corrigé " + i);
+            }
+            Administrateur admin = new Administrateur("admin", "Admin", "admin@example.com", "admin");
+            verifierEgal(3, admin.appliquerCorrections(m, corrections), "annotations corrigées");
+            VersionModele v = m.figer();
+            for (Map.Entry<String, String> e : corrections.entrySet()) {
+                Annotation a = v.getAnnotation(e.getKey());
+                verifier(a.isValide(), e.getKey() + " non validée dans la version");
+                verifierEgal(e.getValue(), a.getContenu(), "contenu de " + e.getKey() + " dans la version");
+            }
+            verifierEgal(3, m.rechercherAnnotations("corrigé", 10).size(), "annotations corrigées trouvées");
+            Essai.sauvegarder(m, d);
+
+            ModeleAnnotation relu = Essai.charger(d, true);
+            for (Map.Entry<String, String> e : corrections.entrySet()) {
+                Annotation a = relu.getAnnotationsMap().get(e.getKey());
+                verifier(a != null && a.isValide(), e.getKey() + " non validée après rejeu");
+                verifierEgal(e.getValue(), a.getContenu(), "contenu de " + e.getKey() + " après rejeu");
+            }
+        });
+
+        etape("sauvegarde vers d'autres fichiers", () -> {
+            ModeleAnnotation m = Essai.charger(d, true);
+            Texte t = new Texte(m.generateTexteId(), "copié");
+            m.addTexte(t);
+            Essai.sauvegarder(m, copie);
+            ModeleAnnotation lu = Essai.charger(copie, false);
+            verifierEgal(m.getTextesMap().size(), lu.getTextesMap().size(), "textes de la copie");
+            verifierEgal("copié", lu.getTextesMap().get(t.getId()).getContenu(), "contenu copié");
+            EssaiContenuVide.verifierTexteVide(lu, vide[0]);
+
+            // Le modèle reste attaché à ses fichiers : la suite est journalisée dans le dossier chargé.
+            Texte apres = new Texte(m.generateTexteId(), "après la copie");
+            m.addTexte(apres);
+            Essai.sauvegarder(m, d);
+            ModeleAnnotation relu = Essai.charger(d, true);
+            List<String> ids = List.of(t.getId(), apres.getId());
+            for (String id : ids) {
+                verifier(relu.getTextesMap().containsKey(id), "texte " + id + " absent du dossier chargé");
+            }
+        });
+
+        etape("mots de passe hachés écrits avec le journal", () -> {
+            Path clair = Essai.corpus(
+                    "user1;Alice;alice@example.com;ANNOTATEUR;1234\nadmin;Admin;admin@example.com;ADMIN;admin\n",
+                    "T1;Bonjour\n", "", "");
+            Essai.sauvegarder(Essai.charger(clair, true), clair);
+            for (String ligne : Files.readAllLines(clair.resolve(Essai.UTILISATEURS))) {
+                String[] champs = ligne.split(";");
+                verifier(MotsDePasse.estHache(champs[4]), "mot de passe en clair pour " + champs[0]);
+            }
+            ModeleAnnotation relu = Essai.charger(clair, true);
+            for (Utilisateur u : relu.getUtilisateursMap().values()) {
+                verifier(MotsDePasse.estHache(u.getMotDePasse()), "mot de passe relu en clair pour " + u.getId());
+            }
+            verifier(relu.getUtilisateursMap().get("user1").verifierMotDePasse("1234"), "mot de passe de user1 refusé");
+        });
+    }
+
+    /**
+     * Attend que la compaction lancée au chargement ne laisse que le segment de la session.
+     */
+    private static void attendreCompaction(Path d) throws Exception {
+        long limite = System.currentTimeMillis() + DELAI_COMPACTION;
+        while (Journal.segments(d).size() > 1 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        verifierEgal(1, Journal.segments(d).size(), "segments restants après compaction");
+    }
+}
@@ -1,9 +1,16 @@
 package model;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
 /**
  * Classe représentant un administrateur.
  * <p>
- * Hérite de {@link Utilisateur} et fournit des méthodes spécifiques pour valider et corriger des annotations.
+ * Hérite de {@link Utilisateur} et fournit des méthodes spécifiques pour valider et corriger des annotations,
+ * une à une ou par lots ({@link Modele#validerAnnotations}).
  * </p>
  * 
  * @version 1.0
@@ -42,4 +49,81 @@ public class Administrateur extends Utilisateur {
     public void corrigerAnnotation(Texte texte, Annotation ann, String newContent) {
         texte.corrigerAnnotation(ann, newContent);
     }
+
+    /**
+     * Valide toutes les annotations en attente des textes d'une collection.
+     *
+     * @param modele le modèle
+     * @param c      la collection
+     * @return le nombre d'annotations validées
+     * @throws IOException si les validations n'ont pas pu être rendues durables
+     */
+    public int validerEnAttente(Modele modele, CollectionDeTextes c) throws IOException {
+        Map<Annotation, String> lot = new LinkedHashMap<>();
+        for (Texte t : c.getTextes()) {
+            for (Annotation a : t.getAnnotations()) {
+                if (!a.isValide()) {
+                    lot.put(a, null);
+                }
+            }
+        }
+        return modele.validerAnnotations(lot);
+    }
+
+    /**
+     * Valide toutes les annotations en attente d'un auteur.
+     *
+     * @param modele   le modèle
+     * @param auteurId l'identifiant de l'auteur
+     * @return le nombre d'annotations validées
+     * @throws IOException si les validations n'ont pas pu être rendues durables
+     */
+    public int validerParAuteur(Modele modele, String auteurId) throws IOException {
+        return valider(modele, modele.getAnnotationsParAuteur(auteurId), a -> !a.isValide());
+    }
+
+    /**
+     * Valide les annotations en attente qui satisfont un critère.
+     *
+     * @param modele  le modèle
+     * @param critere le critère de sélection
+     * @return le nombre d'annotations validées
+     * @throws IOException si les validations n'ont pas pu être rendues durables
+     */
+    public int validerSi(Modele modele, Predicate<Annotation> critere) throws IOException {
+        return valider(modele, modele.getAnnotationsParValidite(false), critere);
+    }
+
+    /**
+     * Corrige et valide un lot d'annotations.
+     *
+     * @param modele      le modèle
+     * @param corrections le nouveau contenu de chaque annotation, par identifiant d'annotation
+     * @return le nombre d'annotations corrigées
+     * @throws IOException si les corrections n'ont pas pu être rendues durables
+     */
+    public int appliquerCorrections(Modele modele, Map<String, String> corrections) throws IOException {
+        Map<String, Annotation> annotations = modele.getAnnotationsMap();
+        Map<Annotation, String> lot = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : corrections.entrySet()) {
+            Annotation a = annotations.get(e.getKey());
+            if (a == null) {
+                System.err.println("Annotation introuvable: " + e.getKey());
+            } else {
+                lot.put(a, e.getValue());
+            }
+        }
+        return modele.validerAnnotations(lot);
+    }
+
+    private static int valider(Modele modele, List<Annotation> candidates, Predicate<Annotation> critere)
+            throws IOException {
+        Map<Annotation, String> lot = new LinkedHashMap<>();
+        for (Annotation a : candidates) {
+            if (critere.test(a)) {
+                lot.put(a, null);
+            }
+        }
+        return modele.validerAnnotations(lot);
+    }
 }
@@ -0,0 +1,201 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocateur partagé entre les processus qui travaillent sur le même dossier.
+ * <p>
+ * Un petit fichier contient le plafond : le premier numéro qu'aucun processus n'a encore
+ * réservé. Pour obtenir des numéros, un processus prend un verrou sur ce fichier, avance le
+ * plafond d'un bloc de {@link #TAILLE_BLOC} numéros, le rend durable puis relâche le verrou.
+ * Les numéros du bloc sont ensuite distribués sans verrou par un compteur atomique ; le
+ * fichier n'est relu qu'une fois le bloc épuisé.
+ * </p>
+ * <p>
+ * Le plafond rend inutile tout parcours du corpus au démarrage. Les numéros restés inutilisés
+ * dans un bloc à l'arrêt du processus sont perdus : les identifiants ne sont donc pas
+ * contigus d'une exécution à l'autre.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class AllocateurFichier implements AllocateurIdentifiants {
+
+    /** Nombre de numéros réservés à chaque accès au fichier. */
+    public static final int TAILLE_BLOC = 16384;
+
+    /**
+     * Verrous de fichier pris dans ce processus : un verrou de fichier ne protège que des
+     * autres processus, deux allocateurs du même processus se synchronisent sur cet objet.
+     */
+    private static final Map<Path, Object> VERROUS = new ConcurrentHashMap<>();
+
+    private final Path fichier;
+    private final Object verrou;
+    private final int tailleBloc;
+    /** Bloc en cours de distribution ; remplacé (jamais modifié) quand il est épuisé. */
+    private volatile Bloc courant = new Bloc(0, 0);
+    /** Plafond lu à la dernière réservation : tout numéro distribué ensuite lui est supérieur ou égal. */
+    private volatile long plancher;
+
+    /**
+     * Constructeur.
+     *
+     * @param fichier fichier du plafond, créé au premier bloc réservé
+     */
+    public AllocateurFichier(Path fichier) {
+        this(fichier, TAILLE_BLOC);
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param fichier    fichier du plafond, créé au premier bloc réservé
+     * @param tailleBloc nombre de numéros réservés à chaque accès au fichier
+     */
+    public AllocateurFichier(Path fichier, int tailleBloc) {
+        this.fichier = fichier.toAbsolutePath().normalize();
+        this.verrou = VERROUS.computeIfAbsent(this.fichier, k -> new Object());
+        this.tailleBloc = tailleBloc;
+    }
+
+    @Override
+    public long allouer() {
+        while (true) {
+            Bloc b = courant;
+            long n = b.suivant.getAndIncrement();
+            if (n < b.fin) {
+                return n;
+            }
+            renouveler(b);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Un lot qui ne tient pas dans le reste du bloc courant est pris dans un nouveau bloc ;
+     * un lot plus grand qu'un bloc est réservé directement dans le fichier.
+     * </p>
+     */
+    @Override
+    public long allouer(int nb) {
+        if (nb > tailleBloc) {
+            return avancerPlafond(0, nb);
+        }
+        while (true) {
+            Bloc b = courant;
+            long n = b.suivant.getAndAdd(nb);
+            if (n + nb <= b.fin) {
+                return n;
+            }
+            renouveler(b);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Un numéro inférieur au plafond lu lors d'une réservation précédente est déjà couvert :
+     * le fichier n'est alors ni relu ni réécrit.
+     * </p>
+     */
+    @Override
+    public void reserverJusqua(long numero) {
+        Bloc b = courant;
+        if (numero < plancher || (numero < b.suivant.get() && numero < b.fin)) {
+            return;
+        }
+        synchronized (this) {
+            if (numero < plancher) {
+                return;
+            }
+            plancher = avancerPlafond(numero + 1, 0);
+            // Le bloc courant peut contenir des numéros déjà utilisés : le suivant sera réservé au-delà.
+            courant = new Bloc(0, 0);
+        }
+    }
+
+    @Override
+    public long prochain() {
+        Bloc b = courant;
+        return b.fin == 0 ? lirePlafondSansVerrou() : Math.min(b.suivant.get(), b.fin);
+    }
+
+    /**
+     * Remplace le bloc épuisé par un nouveau bloc, sauf si un autre fil l'a déjà fait.
+     */
+    private synchronized void renouveler(Bloc epuise) {
+        if (courant != epuise) {
+            return;
+        }
+        long debut = avancerPlafond(0, tailleBloc);
+        courant = new Bloc(debut, debut + tailleBloc);
+    }
+
+    /**
+     * Porte le plafond du fichier à au moins {@code minimum}, puis l'avance de {@code increment}.
+     *
+     * @return le plafond avant l'avancée de {@code increment}, c'est-à-dire le début du bloc réservé
+     */
+    private long avancerPlafond(long minimum, int increment) {
+        synchronized (verrou) {
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock verrouFichier = canal.lock();
+                try {
+                    long plafond = Math.max(Math.max(lire(canal), 1), minimum);
+                    ByteBuffer buf = ByteBuffer.allocate(Long.BYTES).putLong(0, plafond + increment);
+                    while (buf.hasRemaining()) {
+                        canal.write(buf, buf.position());
+                    }
+                    canal.force(false);
+                    return plafond;
+                } finally {
+                    verrouFichier.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Réservation d'identifiants impossible (" + fichier + ")", e);
+            }
+        }
+    }
+
+    private long lirePlafondSansVerrou() {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            return Math.max(lire(canal), 1);
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    /** Lit le plafond enregistré (0 si le fichier est vide). */
+    private static long lire(FileChannel canal) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES);
+        while (buf.hasRemaining()) {
+            if (canal.read(buf, buf.position()) < 0) {
+                return 0;
+            }
+        }
+        return buf.getLong(0);
+    }
+
+    /** Intervalle [suivant, fin) de numéros réservés par ce processus. */
+    private static final class Bloc {
+        final AtomicLong suivant;
+        final long fin;
+
+        Bloc(long debut, long fin) {
+            this.suivant = new AtomicLong(debut);
+            this.fin = fin;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Fournit les numéros des nouveaux textes ou des nouvelles annotations.
+ * <p>
+ * Un allocateur ne rend jamais deux fois le même numéro et peut être appelé par plusieurs
+ * sessions en même temps. Les numéros rendus sont croissants pour un même fil, mais pas
+ * forcément contigus : un allocateur partagé entre plusieurs processus (voir
+ * {@link AllocateurFichier}) laisse des trous entre les numéros de chaque processus.
+ * </p>
+ *
+ * @version 1.0
+ */
+public interface AllocateurIdentifiants {
+
+    /**
+     * Attribue un nouveau numéro.
+     *
+     * @return un numéro jamais attribué par cet allocateur
+     */
+    long allouer();
+
+    /**
+     * Attribue {@code nb} numéros consécutifs, pour créer un lot d'entités en une fois.
+     *
+     * @param nb le nombre de numéros (au moins 1)
+     * @return le premier numéro ; les suivants sont {@code premier + 1} à {@code premier + nb - 1}
+     */
+    long allouer(int nb);
+
+    /**
+     * Garantit que les numéros attribués ensuite seront strictement supérieurs à
+     * {@code numero}. Appelé au chargement avec le plus grand numéro déjà utilisé.
+     *
+     * @param numero un numéro déjà utilisé
+     */
+    void reserverJusqua(long numero);
+
+    /**
+     * Retourne une borne inférieure du prochain numéro attribué, enregistrée dans
+     * l'{@link InstantaneBinaire}.
+     *
+     * @return le prochain numéro que l'allocateur attribuerait
+     */
+    long prochain();
+}
@@ -0,0 +1,44 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocateur limité au processus : un simple compteur atomique.
+ * <p>
+ * Les numéros sont contigus, mais rien n'empêche un autre processus travaillant sur
+ * les mêmes fichiers d'attribuer les mêmes.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class AllocateurMemoire implements AllocateurIdentifiants {
+
+    private final AtomicLong suivant;
+
+    /**
+     * Constructeur : le premier numéro attribué est 1.
+     */
+    public AllocateurMemoire() {
+        this.suivant = new AtomicLong(1);
+    }
+
+    @Override
+    public long allouer() {
+        return suivant.getAndIncrement();
+    }
+
+    @Override
+    public long allouer(int nb) {
+        return suivant.getAndAdd(nb);
+    }
+
+    @Override
+    public void reserverJusqua(long numero) {
+        suivant.accumulateAndGet(numero + 1, Math::max);
+    }
+
+    @Override
+    public long prochain() {
+        return suivant.get();
+    }
+}
@@ -31,7 +31,9 @@ public class Annotateur extends Utilisateur {
      * @return l'annotation créée
      */
     public Annotation annoterTexte(Texte texte, String annotationId, String contenu) {
-        Annotation ann = new Annotation(annotationId, texte.getId(), this.id, contenu);
+        Annotation ann = new Annotation(
+                RegistreIdentifiants.exiger(annotationId, RegistreIdentifiants.PREFIXE_ANNOTATION),
+                texte.getNumero(), this.id, contenu);
         texte.ajouterAnnotation(ann); // Notifie les observateurs
         return ann;
     }
@@ -44,8 +46,7 @@ public class Annotateur extends Utilisateur {
      */
     public void modifierAnnotation(Annotation ann, String nouveauContenu) {
         if (ann.getAuteurId().equals(this.id)) {
-            ann.setContenu(nouveauContenu);
-            ann.setValide(false);
+            ann.mettreAJour(nouveauContenu, false);
         }
     }
 }
@@ -6,15 +6,26 @@ package model;
  * Une annotation possède un identifiant, l'identifiant du texte associé, l'identifiant de l'auteur,
  * le contenu et un indicateur de validité.
  * </p>
+ * <p>
+ * Les modifications sont synchronisées sur l'annotation : le suivi du modèle voit
+ * toujours un état cohérent (contenu et validité) même avec plusieurs sessions.
+ * Le contenu et la validité forment un {@link Etat} immuable, remplacé à chaque
+ * modification : un lecteur sans verrou ne voit jamais le contenu d'un état avec la
+ * validité d'un autre, et le modèle peut garder l'état d'un instant donné dans une
+ * {@link VersionModele}.
+ * </p>
  * 
  * @version 1.0
  */
 public class Annotation {
-    private String annotationId;
-    private String texteId;
-    private String auteurId;
-    private String contenu;
-    private boolean valide;
+    /** Numéros de l'annotation et de son texte (voir {@link RegistreIdentifiants}). */
+    private final long numero;
+    private final long texteNumero;
+    private final String auteurId;
+    private volatile Etat etat;
+
+    /** Suivi des modifications, renseigné quand l'annotation est enregistrée dans un modèle. */
+    private volatile SuiviMutations suivi;
 
     /**
      * Constructeur.
@@ -23,13 +34,67 @@ public class Annotation {
      * @param texteId      identifiant du texte (ex: "T1")
      * @param auteurId     identifiant de l'auteur
      * @param contenu      contenu de l'annotation
+     * @throws IllegalArgumentException si un identifiant n'est pas canonique
      */
     public Annotation(String annotationId, String texteId, String auteurId, String contenu) {
-        this.annotationId = annotationId;
-        this.texteId = texteId;
+        this(RegistreIdentifiants.exiger(annotationId, RegistreIdentifiants.PREFIXE_ANNOTATION),
+                RegistreIdentifiants.exiger(texteId, RegistreIdentifiants.PREFIXE_TEXTE), auteurId, contenu);
+    }
+
+    /**
+     * Constructeur à partir des numéros déjà décodés.
+     *
+     * @param numero      numéro de l'annotation
+     * @param texteNumero numéro du texte
+     * @param auteurId    identifiant de l'auteur
+     * @param contenu     contenu de l'annotation
+     */
+    Annotation(long numero, long texteNumero, String auteurId, String contenu) {
+        this(numero, texteNumero, auteurId, contenu, false);
+    }
+
+    /**
+     * Constructeur d'une annotation lue, avec son état de validation.
+     *
+     * @param numero      numéro de l'annotation
+     * @param texteNumero numéro du texte
+     * @param auteurId    identifiant de l'auteur
+     * @param contenu     contenu de l'annotation
+     * @param valide      true si l'annotation est valide
+     */
+    Annotation(long numero, long texteNumero, String auteurId, String contenu, boolean valide) {
+        this.numero = numero;
+        this.texteNumero = texteNumero;
         this.auteurId = auteurId;
-        this.contenu = contenu;
-        this.valide = false;
+        this.etat = new Etat(this, contenu, valide);
+    }
+
+    /**
+     * Constructeur d'une copie détachée d'un état : elle n'appartient à aucun modèle et la
+     * modifier n'a aucun effet sur l'annotation d'origine.
+     *
+     * @param etat l'état à copier
+     */
+    Annotation(Etat etat) {
+        this.numero = etat.annotation.numero;
+        this.texteNumero = etat.annotation.texteNumero;
+        this.auteurId = etat.annotation.auteurId;
+        this.etat = etat;
+    }
+
+    /**
+     * Contenu et validité d'une annotation à un instant donné.
+     */
+    static final class Etat {
+        final Annotation annotation;
+        final String contenu;
+        final boolean valide;
+
+        Etat(Annotation annotation, String contenu, boolean valide) {
+            this.annotation = annotation;
+            this.contenu = contenu;
+            this.valide = valide;
+        }
     }
 
     /**
@@ -38,7 +103,16 @@ public class Annotation {
      * @return l'identifiant
      */
     public String getAnnotationId() {
-        return annotationId;
+        return RegistreIdentifiants.annotation(numero);
+    }
+
+    /**
+     * Retourne le numéro de l'annotation.
+     *
+     * @return le numéro
+     */
+    long getNumero() {
+        return numero;
     }
 
     /**
@@ -47,7 +121,16 @@ public class Annotation {
      * @return l'identifiant du texte
      */
     public String getTexteId() {
-        return texteId;
+        return RegistreIdentifiants.texte(texteNumero);
+    }
+
+    /**
+     * Retourne le numéro du texte associé.
+     *
+     * @return le numéro du texte
+     */
+    long getTexteNumero() {
+        return texteNumero;
     }
 
     /**
@@ -65,7 +148,7 @@ public class Annotation {
      * @return le contenu
      */
     public String getContenu() {
-        return contenu;
+        return etat.contenu;
     }
 
     /**
@@ -74,7 +157,16 @@ public class Annotation {
      * @return true si valide, false sinon
      */
     public boolean isValide() {
-        return valide;
+        return etat.valide;
+    }
+
+    /**
+     * Retourne l'état courant de l'annotation.
+     *
+     * @return le contenu et la validité, lus ensemble
+     */
+    Etat getEtat() {
+        return etat;
     }
 
     /**
@@ -82,8 +174,9 @@ public class Annotation {
      *
      * @param c nouveau contenu
      */
-    public void setContenu(String c) {
-        this.contenu = c;
+    public synchronized void setContenu(String c) {
+        this.etat = new Etat(this, c, etat.valide);
+        signaler();
     }
 
     /**
@@ -91,18 +184,63 @@ public class Annotation {
      *
      * @param v true si valide, false sinon
      */
-    public void setValide(boolean v) {
-        this.valide = v;
+    public synchronized void setValide(boolean v) {
+        this.etat = new Etat(this, etat.contenu, v);
+        signaler();
+    }
+
+    /**
+     * Met à jour le contenu et la validité en une seule modification.
+     *
+     * @param c nouveau contenu
+     * @param v true si valide, false sinon
+     */
+    synchronized void mettreAJour(String c, boolean v) {
+        this.etat = new Etat(this, c, v);
+        signaler();
+    }
+
+    /**
+     * Valide l'annotation et remplace son contenu s'il est donné, sans prévenir le suivi :
+     * réservé aux opérations de lot du modèle, qui font elles-mêmes le travail du suivi.
+     * L'appelant tient le verrou de l'annotation.
+     *
+     * @param c nouveau contenu, ou null pour garder le contenu actuel
+     * @return true si l'annotation a changé
+     */
+    boolean validerSansSuivi(String c) {
+        Etat e = etat;
+        if (e.valide && (c == null || c.equals(e.contenu))) {
+            return false;
+        }
+        this.etat = new Etat(this, c != null ? c : e.contenu, true);
+        return true;
+    }
+
+    /**
+     * Associe le suivi des modifications du modèle qui contient l'annotation.
+     *
+     * @param suivi le suivi à prévenir
+     */
+    void setSuivi(SuiviMutations suivi) {
+        this.suivi = suivi;
+    }
+
+    private void signaler() {
+        if (suivi != null) {
+            suivi.annotationModifiee(this);
+        }
     }
 
     @Override
     public String toString() {
+        Etat e = etat;
         return "Annotation{" +
-                "annotationId='" + annotationId + '\'' +
-                ", texteId='" + texteId + '\'' +
+                "annotationId='" + getAnnotationId() + '\'' +
+                ", texteId='" + getTexteId() + '\'' +
                 ", auteurId='" + auteurId + '\'' +
-                ", contenu='" + contenu + '\'' +
-                ", valide=" + valide +
+                ", contenu='" + e.contenu + '\'' +
+                ", valide=" + e.valide +
                 '}';
     }
 }
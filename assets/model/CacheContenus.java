@@ -0,0 +1,145 @@
+package model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des contenus de textes chargés à la demande (voir {@link SourceContenus}).
+ * <p>
+ * Le cache est borné en octets et non en nombre d'entrées : les textes les moins
+ * récemment lus sont retirés dès que la taille estimée des contenus dépasse la capacité.
+ * La taille d'un contenu est estimée à deux octets par caractère plus l'en-tête de la chaîne.
+ * </p>
+ * <p>
+ * Les succès, les échecs et les retraits sont comptés pour mesurer l'efficacité du cache.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class CacheContenus {
+
+    /** Encombrement d'une chaîne et de son entrée dans la table, hors caractères. */
+    private static final int SURCOUT_ENTREE = 96;
+
+    private final long capacite;
+    /** Contenus par numéro de texte, dans l'ordre des accès (le plus ancien en tête). */
+    private final LinkedHashMap<Long, String> contenus = new LinkedHashMap<>(256, 0.75f, true);
+    private long octets;
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder retraits = new LongAdder();
+
+    /**
+     * Constructeur.
+     *
+     * @param capacite taille maximale estimée des contenus gardés en mémoire, en octets
+     */
+    public CacheContenus(long capacite) {
+        this.capacite = capacite;
+    }
+
+    /**
+     * Retourne le contenu d'un texte s'il est dans le cache.
+     *
+     * @param numero le numéro du texte
+     * @return le contenu, ou null s'il doit être relu
+     */
+    synchronized String get(long numero) {
+        String c = contenus.get(numero);
+        if (c == null) {
+            echecs.increment();
+        } else {
+            succes.increment();
+        }
+        return c;
+    }
+
+    /**
+     * Ajoute un contenu relu, puis retire les plus anciens si la capacité est dépassée.
+     *
+     * @param numero  le numéro du texte
+     * @param contenu le contenu
+     */
+    synchronized void put(long numero, String contenu) {
+        String ancien = contenus.put(numero, contenu);
+        if (ancien != null) {
+            octets -= taille(ancien);
+        }
+        octets += taille(contenu);
+        Iterator<Map.Entry<Long, String>> it = contenus.entrySet().iterator();
+        while (octets > capacite && it.hasNext()) {
+            octets -= taille(it.next().getValue());
+            it.remove();
+            retraits.increment();
+        }
+    }
+
+    private static long taille(String s) {
+        return SURCOUT_ENTREE + 2L * s.length();
+    }
+
+    /**
+     * Retourne la capacité du cache.
+     *
+     * @return la capacité en octets
+     */
+    public long getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Retourne la taille estimée des contenus en cache.
+     *
+     * @return la taille en octets
+     */
+    public synchronized long getOctets() {
+        return octets;
+    }
+
+    /**
+     * Retourne le nombre de contenus en cache.
+     *
+     * @return le nombre d'entrées
+     */
+    public synchronized int getTaille() {
+        return contenus.size();
+    }
+
+    /**
+     * Retourne le nombre de lectures servies par le cache.
+     *
+     * @return le nombre de succès
+     */
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    /**
+     * Retourne le nombre de lectures qui ont dû relire le fichier.
+     *
+     * @return le nombre d'échecs
+     */
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    /**
+     * Retourne le nombre de contenus retirés pour respecter la capacité.
+     *
+     * @return le nombre de retraits
+     */
+    public long getRetraits() {
+        return retraits.sum();
+    }
+
+    @Override
+    public String toString() {
+        long s = getSucces();
+        long e = getEchecs();
+        return String.format("Cache des textes : %d succès, %d échecs (%.1f %%), %d retraits, %d/%d Ko",
+                s, e, s + e == 0 ? 0.0 : 100.0 * s / (s + e), getRetraits(), getOctets() / 1024, capacite / 1024);
+    }
+}
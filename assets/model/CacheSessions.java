@@ -0,0 +1,129 @@
+package model;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sessions ouvertes, retrouvées par jeton.
+ * <p>
+ * La vérification d'un mot de passe haché est volontairement lente (voir {@link MotsDePasse}).
+ * Après une connexion réussie, l'utilisateur reçoit un jeton aléatoire de 256 bits ; les
+ * requêtes suivantes présentent ce jeton, vérifié par une simple recherche dans une table.
+ * </p>
+ * <p>
+ * Une session expire après une durée d'inactivité : chaque vérification réussie la prolonge.
+ * Les sessions expirées sont retirées à leur prochaine vérification et, par un balayage
+ * complet, toutes les {@value #BALAYAGE} ouvertures.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class CacheSessions {
+
+    /** Nombre d'ouvertures entre deux balayages des sessions expirées. */
+    static final int BALAYAGE = 1024;
+
+    private static final int OCTETS_JETON = 32;
+    private static final SecureRandom ALEA = new SecureRandom();
+
+    /**
+     * Session d'un utilisateur.
+     */
+    private static final class Session {
+        final Utilisateur utilisateur;
+        volatile long expiration;
+
+        Session(Utilisateur utilisateur, long expiration) {
+            this.utilisateur = utilisateur;
+            this.expiration = expiration;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long dureeNanos;
+    private final AtomicLong ouvertures = new AtomicLong();
+
+    /**
+     * Constructeur.
+     *
+     * @param duree durée d'inactivité après laquelle une session expire
+     * @param unite unité de la durée
+     */
+    public CacheSessions(long duree, TimeUnit unite) {
+        this.dureeNanos = unite.toNanos(duree);
+    }
+
+    /**
+     * Ouvre une session pour un utilisateur dont le mot de passe vient d'être vérifié.
+     *
+     * @param u l'utilisateur
+     * @return le jeton de la session
+     */
+    public String ouvrir(Utilisateur u) {
+        byte[] octets = new byte[OCTETS_JETON];
+        ALEA.nextBytes(octets);
+        String jeton = Base64.getUrlEncoder().withoutPadding().encodeToString(octets);
+        long maintenant = System.nanoTime();
+        sessions.put(jeton, new Session(u, maintenant + dureeNanos));
+        if (ouvertures.incrementAndGet() % BALAYAGE == 0) {
+            balayer(maintenant);
+        }
+        return jeton;
+    }
+
+    /**
+     * Retrouve l'utilisateur d'une session et prolonge celle-ci.
+     *
+     * @param jeton le jeton présenté
+     * @return l'utilisateur, ou null si le jeton est inconnu ou la session expirée
+     */
+    public Utilisateur verifier(String jeton) {
+        if (jeton == null) {
+            return null;
+        }
+        Session s = sessions.get(jeton);
+        if (s == null) {
+            return null;
+        }
+        long maintenant = System.nanoTime();
+        if (maintenant - s.expiration > 0) {
+            sessions.remove(jeton, s);
+            return null;
+        }
+        s.expiration = maintenant + dureeNanos;
+        return s.utilisateur;
+    }
+
+    /**
+     * Ferme une session (déconnexion).
+     *
+     * @param jeton le jeton de la session
+     */
+    public void fermer(String jeton) {
+        if (jeton != null) {
+            sessions.remove(jeton);
+        }
+    }
+
+    /**
+     * Retourne le nombre de sessions retenues (expirées non encore retirées comprises).
+     *
+     * @return le nombre de sessions
+     */
+    public int taille() {
+        return sessions.size();
+    }
+
+    private void balayer(long maintenant) {
+        for (Iterator<Session> it = sessions.values().iterator(); it.hasNext(); ) {
+            if (maintenant - it.next().expiration > 0) {
+                it.remove();
+            }
+        }
+    }
+}
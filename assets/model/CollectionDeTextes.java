@@ -1,17 +1,29 @@
 package model;
 
+import model.observer.BusEvenements;
+import model.observer.Evenement;
 import model.observer.Observateur;
 import model.observer.Sujet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Classe représentant une collection de textes.
  * <p>
- * Une collection est identifiée par son nom et contient une liste de textes.
+ * Une collection est identifiée par son nom et contient une liste ordonnée de textes,
+ * doublée d'un index des identifiants pour tester l'appartenance en temps constant.
  * Elle implémente l'interface {@link Sujet} si une notification doit être envoyée
  * lors de l'ajout d'un texte.
  * </p>
+ * <p>
+ * Les accès à la liste et à l'index sont synchronisés sur la collection ;
+ * {@link #getTextes()} renvoie une copie qui peut être parcourue sans verrou.
+ * </p>
+ * <p>
+ * Les {@link StatistiquesAnnotations} de la collection sont la somme de celles de ses textes,
+ * tenues à jour par les textes eux-mêmes.
+ * </p>
  * 
  * @version 1.0
  */
@@ -19,9 +31,15 @@ public class CollectionDeTextes implements Sujet {
 
     private String nom;
     private List<Texte> textes;
+    /** Textes de la collection, indexés par leur numéro. */
+    private TableEntiers<Texte> idsTextes;
+    private final StatistiquesAnnotations statistiques = new StatistiquesAnnotations();
 
     /** Liste des observateurs enregistrés */
-    private List<Observateur> observateurs = new ArrayList<>();
+    private final CopyOnWriteArrayList<Observateur> observateurs = new CopyOnWriteArrayList<>();
+
+    /** Suivi des modifications, renseigné quand la collection est enregistrée dans un modèle. */
+    private volatile SuiviMutations suivi;
 
     /**
      * Constructeur.
@@ -31,6 +49,7 @@ public class CollectionDeTextes implements Sujet {
     public CollectionDeTextes(String nom) {
         this.nom = nom;
         this.textes = new ArrayList<>();
+        this.idsTextes = new TableEntiers<>();
     }
 
     /**
@@ -45,25 +64,123 @@ public class CollectionDeTextes implements Sujet {
     /**
      * Retourne la liste des textes de la collection.
      *
-     * @return la liste des textes
+     * @return une copie non modifiable de la liste des textes (utiliser {@link #ajouterTexte(Texte)})
+     */
+    public synchronized List<Texte> getTextes() {
+        return List.copyOf(textes);
+    }
+
+    /**
+     * Retourne une plage de textes de la collection, sans copier le reste de la liste.
+     *
+     * @param debut rang du premier texte
+     * @param nb    nombre maximal de textes
+     * @return une copie des textes de la plage
+     */
+    public synchronized List<Texte> getTextes(int debut, int nb) {
+        int d = Math.min(Math.max(0, debut), textes.size());
+        return new ArrayList<>(textes.subList(d, Math.min(textes.size(), d + Math.max(0, nb))));
+    }
+
+    /**
+     * Retourne le nombre de textes de la collection.
+     *
+     * @return le nombre de textes
+     */
+    public synchronized int nbTextes() {
+        return textes.size();
+    }
+
+    /**
+     * Indique si un texte appartient à la collection.
+     *
+     * @param t le texte
+     * @return true si le texte est dans la collection
+     */
+    public synchronized boolean contient(Texte t) {
+        return t != null && idsTextes.containsKey(t.getNumero());
+    }
+
+    /**
+     * Indique si un texte appartient à la collection.
+     *
+     * @param id l'identifiant du texte
+     * @return true si le texte est dans la collection
      */
-    public List<Texte> getTextes() {
-        return textes;
+    public synchronized boolean contient(String id) {
+        long n = RegistreIdentifiants.numero(id, RegistreIdentifiants.PREFIXE_TEXTE);
+        return n >= 0 && idsTextes.containsKey(n);
     }
 
     /**
-     * Ajoute un texte à la collection.
+     * Ajoute un texte à la collection, s'il n'y est pas déjà.
      *
      * @param t le texte à ajouter
+     * @return true si le texte a été ajouté, false s'il était déjà présent
      */
-    public void ajouterTexte(Texte t) {
-        textes.add(t);
-        // Vous pouvez notifier les observateurs ici si besoin
-        notifierObservateurs("Nouvel ajout dans la collection [" + nom + "]: Texte [" + t.getId() + "]");
+    public boolean ajouterTexte(Texte t) {
+        synchronized (this) {
+            if (idsTextes.putIfAbsent(t.getNumero(), t) != null) {
+                return false;
+            }
+            textes.add(t);
+        }
+        t.rattacherCollection(this);
+        if (suivi != null) {
+            suivi.texteAjouteACollection(this, t);
+        }
+        notifierObservateurs(Evenement.texteAjoute(this, nom, t.getId()));
+        return true;
+    }
+
+    /**
+     * Ajoute un lot de textes à la fin de la collection, sans publier d'événement par texte.
+     * Les textes déjà présents sont ignorés.
+     *
+     * @param lot les textes à ajouter
+     * @return le nombre de textes ajoutés
+     */
+    public int ajouterTextes(List<Texte> lot) {
+        List<Texte> ajoutes = new ArrayList<>(lot.size());
+        synchronized (this) {
+            for (Texte t : lot) {
+                if (idsTextes.putIfAbsent(t.getNumero(), t) == null) {
+                    textes.add(t);
+                    ajoutes.add(t);
+                }
+            }
+        }
+        for (Texte t : ajoutes) {
+            t.rattacherCollection(this);
+        }
+        if (suivi != null) {
+            for (Texte t : ajoutes) {
+                suivi.texteAjouteACollection(this, t);
+            }
+        }
+        return ajoutes.size();
+    }
+
+    /**
+     * Retourne les compteurs d'annotations de la collection.
+     *
+     * @return les statistiques, lisibles sans parcourir les textes ni les annotations
+     */
+    public StatistiquesAnnotations getStatistiques() {
+        return statistiques;
+    }
+
+    /**
+     * Associe le suivi des modifications du modèle qui contient la collection.
+     *
+     * @param suivi le suivi à prévenir
+     */
+    void setSuivi(SuiviMutations suivi) {
+        this.suivi = suivi;
     }
 
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return "CollectionDeTextes{" +
                 "nom='" + nom + '\'' +
                 ", nbTextes=" + textes.size() +
@@ -74,9 +191,7 @@ public class CollectionDeTextes implements Sujet {
 
     @Override
     public void ajouterObservateur(Observateur o) {
-        if (!observateurs.contains(o)) {
-            observateurs.add(o);
-        }
+        observateurs.addIfAbsent(o);
     }
 
     @Override
@@ -86,8 +201,11 @@ public class CollectionDeTextes implements Sujet {
 
     @Override
     public void notifierObservateurs(String message) {
-        for (Observateur o : observateurs) {
-            o.actualiser(this, message);
-        }
+        notifierObservateurs(Evenement.message(this, message));
+    }
+
+    @Override
+    public void notifierObservateurs(Evenement evenement) {
+        BusEvenements.defaut().publier(evenement, observateurs);
     }
 }
@@ -0,0 +1,180 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Intègre les segments scellés du {@link Journal} aux fichiers CSV.
+ * <p>
+ * La compaction travaille uniquement sur les fichiers : elle recopie les CSV ligne à ligne
+ * en y appliquant les enregistrements des segments scellés (par {@link EcrivainCsv} : fichier
+ * temporaire rendu durable puis renommé) et ne supprime les segments intégrés qu'une fois les
+ * trois fichiers écrits. Elle ne touche pas au modèle en mémoire
+ * et s'exécute donc en arrière-plan pendant que les utilisateurs continuent de travailler.
+ * Rejouer un segment déjà intégré ne change rien : après un arrêt en cours de compaction,
+ * le journal peut être relu sans risque.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class CompacteurJournal {
+
+    private static final String SEP = ";";
+
+    private final Path textesCsv;
+    private final Path annotationsCsv;
+    private final Path collectionsCsv;
+    private Journal journal;
+
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-compacteur");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Constructeur.
+     *
+     * @param textesCsv      fichier CSV des textes
+     * @param annotationsCsv fichier CSV des annotations
+     * @param collectionsCsv fichier CSV des collections
+     */
+    public CompacteurJournal(String textesCsv, String annotationsCsv, String collectionsCsv) {
+        this.textesCsv = Path.of(textesCsv);
+        this.annotationsCsv = Path.of(annotationsCsv);
+        this.collectionsCsv = Path.of(collectionsCsv);
+    }
+
+    /**
+     * Associe le journal dont les segments scellés seront compactés.
+     *
+     * @param journal le journal
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Demande une compaction en arrière-plan.
+     */
+    public void planifier() {
+        executeur.execute(() -> {
+            try {
+                compacter();
+            } catch (IOException e) {
+                System.err.println("Erreur compaction du journal: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Intègre immédiatement les segments scellés aux fichiers CSV.
+     *
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    public synchronized void compacter() throws IOException {
+        List<Path> segments = journal.segmentsScelles();
+        if (segments.isEmpty()) {
+            return;
+        }
+        // Seuls les enregistrements des segments sont gardés en mémoire ; les CSV sont recopiés
+        // ligne à ligne.
+        Map<String, String> textes = new LinkedHashMap<>();
+        Map<String, String> annotations = new LinkedHashMap<>();
+        Map<String, String> collections = new LinkedHashMap<>();
+
+        for (Path segment : segments) {
+            for (String[] enr : Journal.lire(segment, CompacteurJournal::decouper)) {
+                switch (enr[0]) {
+                    case Journal.TYPE_TEXTE:
+                        textes.putIfAbsent(enr[1], enr[1] + SEP + enr[2]);
+                        break;
+                    case Journal.TYPE_ANNOTATION:
+                        // A;id;texteId;auteurId;valide;contenu -> id;texteId;auteurId;contenu;valide
+                        annotations.put(enr[1], enr[1] + SEP + enr[2] + SEP + enr[3] + SEP + enr[5] + SEP + enr[4]);
+                        break;
+                    case Journal.TYPE_COLLECTION_TEXTE:
+                        String ligne = enr[1] + SEP + enr[2];
+                        collections.put(ligne, ligne);
+                        break;
+                    default:
+                        // Une collection vide n'a pas de ligne dans collections.csv.
+                        break;
+                }
+            }
+        }
+
+        // Un texte déjà présent garde sa ligne ; une annotation modifiée prend celle du journal.
+        recopier(textesCsv, textes, false);
+        recopier(annotationsCsv, annotations, true);
+        recopier(collectionsCsv, collections, false);
+        // Les trois fichiers sont durables : les segments peuvent disparaître.
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * Découpe un enregistrement du journal ; le dernier champ garde ses éventuels séparateurs.
+     */
+    private static String[] decouper(LigneCsv ligne) {
+        if (ligne.nbChamps() < 2) {
+            return null;
+        }
+        String type = ligne.champ(0);
+        switch (type) {
+            case Journal.TYPE_TEXTE:
+                return ligne.nbChamps() < 3 ? null : new String[] { type, ligne.champ(1), ligne.reste(2) };
+            case Journal.TYPE_ANNOTATION:
+                return ligne.nbChamps() < 6 ? null : new String[] { type, ligne.champ(1), ligne.champ(2),
+                        ligne.champ(3), ligne.champ(4), ligne.reste(5) };
+            case Journal.TYPE_COLLECTION_TEXTE:
+                return ligne.nbChamps() < 3 ? null : new String[] { type, ligne.champ(1), ligne.champ(2) };
+            default:
+                return new String[] { type, ligne.champ(1) };
+        }
+    }
+
+    /**
+     * Recopie un CSV en y intégrant des lignes du journal, indexées par leur premier champ
+     * (ou par la ligne entière pour collections.csv, dont les clés ne sont pas uniques).
+     * Les lignes du journal absentes du fichier sont ajoutées à la fin.
+     *
+     * @param fichier   le fichier réécrit
+     * @param lignes    les lignes du journal, retirées au fil de la recopie
+     * @param remplacer si une ligne du journal remplace celle du fichier de même clé
+     */
+    private void recopier(Path fichier, Map<String, String> lignes, boolean remplacer) throws IOException {
+        if (lignes.isEmpty()) {
+            return;
+        }
+        boolean ligneEntiere = fichier.equals(collectionsCsv);
+        try (EcrivainCsv e = EcrivainCsv.remplacer(fichier)) {
+            if (Files.exists(fichier)) {
+                try (BufferedReader br = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (line.isBlank())
+                            continue;
+                        int sep = line.indexOf(SEP);
+                        String cle = ligneEntiere || sep < 0 ? line : line.substring(0, sep);
+                        String journalisee = lignes.remove(cle);
+                        e.chaine(remplacer && journalisee != null ? journalisee : line).finLigne();
+                    }
+                }
+            }
+            for (String l : lignes.values()) {
+                e.chaine(l).finLigne();
+            }
+            e.terminer();
+        }
+    }
+}
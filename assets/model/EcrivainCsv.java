@@ -0,0 +1,328 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture d'un fichier CSV par un {@link FileChannel} et un grand tampon direct.
+ * <p>
+ * Les champs sont encodés en UTF-8 directement dans le tampon, sans chaîne intermédiaire :
+ * les identifiants sont écrits à partir de leur numéro, les chaînes caractère par caractère.
+ * </p>
+ * <p>
+ * Un fichier {@link #remplacer remplacé} est écrit dans un fichier temporaire, rendu durable
+ * ({@code force}) puis renommé atomiquement sur l'ancien : un arrêt brutal pendant la sauvegarde
+ * laisse l'ancien fichier intact. Des lignes {@link #ajouter ajoutées} sont rendues durables
+ * avant la fin de {@link #terminer} ; si l'écriture échoue, le fichier est ramené à sa taille
+ * d'origine.
+ * </p>
+ * <p>
+ * Utilisation :
+ * </p>
+ * <pre>{@code
+ * try (EcrivainCsv e = EcrivainCsv.remplacer(fichier)) {
+ *     e.identifiant('T', 1).separateur().chaine("contenu").finLigne();
+ *     e.terminer();
+ * }
+ * }</pre>
+ * <p>
+ * Sans appel à {@link #terminer}, {@link #close} abandonne l'écriture.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class EcrivainCsv implements Closeable {
+
+    /** Taille du tampon d'écriture (1 Mo). */
+    static final int TAILLE_TAMPON = 1 << 20;
+
+    private static final byte SEP = ';';
+    private static final byte FIN_LIGNE = '\n';
+    private static final byte REMPLACEMENT = '?';
+
+    private final Path fichier;
+    /** Fichier temporaire renommé sur {@code fichier}, ou null pour un ajout. */
+    private final Path temporaire;
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    /** Taille du fichier à l'ouverture (0 pour un remplacement). */
+    private final long origine;
+    private final long debut = System.nanoTime();
+    /** Octets déjà transmis au canal. */
+    private long vides;
+    private long duree;
+    private boolean termine;
+
+    private EcrivainCsv(Path fichier, Path temporaire, FileChannel canal, long origine) {
+        this.fichier = fichier;
+        this.temporaire = temporaire;
+        this.canal = canal;
+        this.origine = origine;
+    }
+
+    /**
+     * Ouvre l'écriture d'un fichier qui remplacera entièrement {@code fichier}.
+     *
+     * @param fichier le fichier à remplacer (créé s'il n'existe pas)
+     * @return l'écrivain
+     * @throws IOException si le fichier temporaire ne peut pas être créé
+     */
+    static EcrivainCsv remplacer(Path fichier) throws IOException {
+        Path tmp = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        FileChannel canal = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new EcrivainCsv(fichier, tmp, canal, 0);
+    }
+
+    /**
+     * Ouvre l'écriture de lignes à la fin de {@code fichier}.
+     *
+     * @param fichier le fichier complété (créé s'il n'existe pas)
+     * @return l'écrivain
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    static EcrivainCsv ajouter(Path fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        long taille = canal.size();
+        canal.position(taille);
+        return new EcrivainCsv(fichier, null, canal, taille);
+    }
+
+    /**
+     * Écrit une chaîne en UTF-8 (une chaîne null est écrite {@code null}).
+     *
+     * @param s la chaîne
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv chaine(String s) throws IOException {
+        if (s == null) {
+            s = "null";
+        }
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            if (tampon.remaining() < 4) {
+                vider();
+            }
+            // Au plus 4 octets par caractère du lot : un demi-caractère de tête en fin de lot
+            // entraîne sa seconde moitié et écrit 4 octets.
+            int lot = Math.min(n, i + tampon.remaining() / 4);
+            while (i < lot) {
+                char c = s.charAt(i++);
+                if (c < 0x80) {
+                    tampon.put((byte) c);
+                } else if (c < 0x800) {
+                    tampon.put((byte) (0xC0 | c >> 6));
+                    tampon.put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i < n && Character.isLowSurrogate(s.charAt(i))) {
+                    int cp = Character.toCodePoint(c, s.charAt(i++));
+                    tampon.put((byte) (0xF0 | cp >> 18));
+                    tampon.put((byte) (0x80 | cp >> 12 & 0x3F));
+                    tampon.put((byte) (0x80 | cp >> 6 & 0x3F));
+                    tampon.put((byte) (0x80 | cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Demi-paire isolée : même remplacement que String.getBytes.
+                    tampon.put(REMPLACEMENT);
+                } else {
+                    tampon.put((byte) (0xE0 | c >> 12));
+                    tampon.put((byte) (0x80 | c >> 6 & 0x3F));
+                    tampon.put((byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Écrit un identifiant à partir de son préfixe et de son numéro (ex : {@code T12}).
+     *
+     * @param prefixe le préfixe ({@link RegistreIdentifiants#PREFIXE_TEXTE}, ...)
+     * @param numero  le numéro
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv identifiant(char prefixe, long numero) throws IOException {
+        if (tampon.remaining() < 21) {
+            vider();
+        }
+        tampon.put((byte) prefixe);
+        return nombre(numero);
+    }
+
+    /**
+     * Écrit un entier en décimal.
+     *
+     * @param n l'entier
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv nombre(long n) throws IOException {
+        if (tampon.remaining() < 20) {
+            vider();
+        }
+        if (n < 0) {
+            if (n == Long.MIN_VALUE) {
+                return chaine(Long.toString(n));
+            }
+            tampon.put((byte) '-');
+            n = -n;
+        }
+        int chiffres = 1;
+        for (long p = 10; p <= n && chiffres < 19; p *= 10) {
+            chiffres++;
+        }
+        int fin = tampon.position() + chiffres;
+        for (int i = fin - 1; i >= tampon.position(); i--) {
+            tampon.put(i, (byte) ('0' + n % 10));
+            n /= 10;
+        }
+        tampon.position(fin);
+        return this;
+    }
+
+    /**
+     * Écrit un booléen ({@code true} ou {@code false}).
+     *
+     * @param b le booléen
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv booleen(boolean b) throws IOException {
+        return chaine(b ? "true" : "false");
+    }
+
+    /**
+     * Écrit le séparateur de champs.
+     *
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv separateur() throws IOException {
+        if (!tampon.hasRemaining()) {
+            vider();
+        }
+        tampon.put(SEP);
+        return this;
+    }
+
+    /**
+     * Termine la ligne courante.
+     *
+     * @return cet écrivain
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    EcrivainCsv finLigne() throws IOException {
+        if (!tampon.hasRemaining()) {
+            vider();
+        }
+        tampon.put(FIN_LIGNE);
+        return this;
+    }
+
+    /**
+     * Retourne la position dans le fichier final du prochain octet écrit.
+     *
+     * @return la position en octets
+     */
+    long position() {
+        return origine + vides + tampon.position();
+    }
+
+    /**
+     * Retourne le nombre d'octets écrits par cet écrivain.
+     *
+     * @return le nombre d'octets
+     */
+    long getOctets() {
+        return vides + tampon.position();
+    }
+
+    /**
+     * Retourne la durée de l'écriture, de l'ouverture jusqu'à {@link #terminer}.
+     *
+     * @return la durée en nanosecondes
+     */
+    long getDuree() {
+        return termine ? duree : System.nanoTime() - debut;
+    }
+
+    /**
+     * Retourne le débit d'écriture, mesuré jusqu'à {@link #terminer}.
+     *
+     * @return le débit en octets par seconde
+     */
+    double getDebit() {
+        long d = getDuree();
+        return d == 0 ? 0 : getOctets() * 1e9 / d;
+    }
+
+    /**
+     * Vide le tampon, rend le fichier durable puis, pour un remplacement, renomme le fichier
+     * temporaire sur le fichier final.
+     *
+     * @return le nombre d'octets écrits
+     * @throws IOException en cas d'erreur d'écriture ou de renommage
+     */
+    long terminer() throws IOException {
+        vider();
+        canal.force(true);
+        canal.close();
+        if (temporaire != null) {
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forcerDossier(fichier);
+        }
+        termine = true;
+        duree = System.nanoTime() - debut;
+        return vides;
+    }
+
+    /**
+     * Abandonne l'écriture si {@link #terminer} n'a pas été appelé : le fichier temporaire est
+     * supprimé, ou le fichier complété est ramené à sa taille d'origine.
+     */
+    @Override
+    public void close() throws IOException {
+        if (termine) {
+            return;
+        }
+        termine = true;
+        try {
+            if (temporaire == null && canal.isOpen()) {
+                canal.truncate(origine);
+            }
+        } finally {
+            canal.close();
+            if (temporaire != null) {
+                Files.deleteIfExists(temporaire);
+            }
+        }
+    }
+
+    private void vider() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            vides += canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    /**
+     * Rend durable le renommage. Tous les systèmes ne permettent pas d'ouvrir un dossier :
+     * l'échec est alors ignoré.
+     */
+    private static void forcerDossier(Path fichier) {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        try (FileChannel d = FileChannel.open(dossier, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException e) {
+            // Renommage déjà effectué ; seule sa durabilité immédiate n'est pas garantie.
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package model;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File de révision : les annotations en attente de validation, servies aux administrateurs
+ * par ordre de priorité.
+ * <p>
+ * La file est alimentée par le modèle : une annotation y entre quand elle est créée non
+ * validée ({@link Annotateur#annoterTexte}) ou quand une modification la remet en attente
+ * ({@link Annotateur#modifierAnnotation}), et en sort quand elle est validée, quel que soit
+ * le chemin (validation, correction, lot). Elle n'a pas de fichier propre : elle est
+ * reconstruite à partir des annotations en attente, qui sont enregistrées avec le modèle.
+ * </p>
+ * <p>
+ * La priorité combine l'ancienneté et l'arriéré : chaque annotation reçoit un rang d'arrivée,
+ * avancé du nombre d'annotations en attente de son auteur et de la plus chargée de ses
+ * collections, chacun plafonné à {@value #PLAFOND_ARRIERE}. Une annotation ne peut donc être
+ * doublée que par des annotations arrivées au plus {@code 2 × PLAFOND_ARRIERE} rangs après
+ * elle : aucune n'attend indéfiniment.
+ * </p>
+ * <p>
+ * Un administrateur {@link #louer loue} l'annotation la plus prioritaire pour une durée
+ * limitée ; un bail expiré remet l'annotation dans la file à son rang d'origine. La file est
+ * répartie en bandes (tas binaires protégés chacun par un verrou) : l'extraction coûte
+ * O(nombre de bandes + log n), et l'état de chaque entrée (en file, louée, retirée) ne change
+ * que par compare-and-set, ce qui empêche deux administrateurs de louer la même annotation.
+ * Entre bandes, l'ordre de priorité est respecté au mieux : deux locations simultanées
+ * peuvent se croiser.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class FileRevision {
+
+    /** Plafond de l'avance accordée par chaque arriéré (auteur, collection). */
+    static final int PLAFOND_ARRIERE = 1000;
+
+    /** États d'une entrée, dans les deux bits de poids faible de {@link Entree#etat}. */
+    private static final long EN_FILE = 0;
+    private static final long LOUEE = 1;
+    private static final long RETIREE = 2;
+    private static final long MASQUE = 3;
+
+    private final Bande[] bandes;
+    /** Entrées vivantes (en file ou louées), une par annotation. */
+    private final Map<Annotation, Entree> entrees = new ConcurrentHashMap<>();
+    private final Set<Entree> louees = ConcurrentHashMap.newKeySet();
+    /** Nombre d'annotations de chaque auteur dans la file. */
+    private final Map<String, AtomicInteger> arrieresAuteurs = new ConcurrentHashMap<>();
+    private final AtomicLong rangs = new AtomicLong();
+    private final AtomicLong baux = new AtomicLong();
+    private final long dureeBailNanos;
+
+    /**
+     * Constructeur.
+     *
+     * @param dureeBail durée d'un bail
+     * @param unite     unité de la durée
+     */
+    public FileRevision(long dureeBail, TimeUnit unite) {
+        this.dureeBailNanos = unite.toNanos(dureeBail);
+        int n = 1;
+        while (n < 2 * Runtime.getRuntime().availableProcessors()) {
+            n <<= 1;
+        }
+        bandes = new Bande[Math.max(4, n)];
+        for (int i = 0; i < bandes.length; i++) {
+            bandes[i] = new Bande();
+        }
+    }
+
+    /**
+     * Bail sur une annotation de la file.
+     */
+    public static final class Bail {
+        private final Entree entree;
+        private final long numero;
+        private final String titulaire;
+
+        private Bail(Entree entree, long numero, String titulaire) {
+            this.entree = entree;
+            this.numero = numero;
+            this.titulaire = titulaire;
+        }
+
+        /**
+         * Retourne l'annotation louée.
+         *
+         * @return l'annotation
+         */
+        public Annotation getAnnotation() {
+            return entree.annotation;
+        }
+
+        /**
+         * Retourne l'identifiant de l'administrateur qui a loué l'annotation.
+         *
+         * @return le titulaire du bail
+         */
+        public String getTitulaire() {
+            return titulaire;
+        }
+    }
+
+    /**
+     * Met une annotation en attente dans la file, si elle n'y est pas déjà.
+     *
+     * @param a     l'annotation
+     * @param texte son texte, dont les collections donnent l'arriéré de collection (peut être null)
+     */
+    void proposer(Annotation a, Texte texte) {
+        if (entrees.containsKey(a)) {
+            return;
+        }
+        int arriereCollection = 0;
+        if (texte != null) {
+            for (CollectionDeTextes c : texte.getCollections()) {
+                arriereCollection = Math.max(arriereCollection, c.getStatistiques().getNbEnAttente());
+            }
+        }
+        AtomicInteger arriereAuteur = arrieresAuteurs.computeIfAbsent(a.getAuteurId(), k -> new AtomicInteger());
+        long cle = rangs.getAndIncrement() - Math.min(arriereCollection, PLAFOND_ARRIERE)
+                - Math.min(arriereAuteur.get(), PLAFOND_ARRIERE);
+        Entree e = new Entree(a, cle);
+        if (entrees.putIfAbsent(a, e) != null) {
+            return;
+        }
+        arriereAuteur.incrementAndGet();
+        bande(a).ajouter(e);
+    }
+
+    /**
+     * Retire une annotation de la file (elle vient d'être validée). L'entrée reste dans son
+     * tas jusqu'à ce qu'elle arrive en tête, où elle est ignorée.
+     *
+     * @param a l'annotation
+     */
+    void retirer(Annotation a) {
+        Entree e = entrees.remove(a);
+        if (e == null) {
+            return;
+        }
+        if ((ETAT.getAndSet(e, RETIREE) & MASQUE) == LOUEE) {
+            louees.remove(e);
+        }
+        arrieresAuteurs.get(a.getAuteurId()).decrementAndGet();
+    }
+
+    /**
+     * Loue l'annotation la plus prioritaire de la file.
+     *
+     * @param titulaire l'identifiant de l'administrateur
+     * @return le bail, ou null si la file est vide
+     */
+    public Bail louer(String titulaire) {
+        reprendreBauxExpires();
+        while (true) {
+            Bande meilleure = null;
+            long meilleureCle = Long.MAX_VALUE;
+            for (Bande b : bandes) {
+                long cle = b.cleTete();
+                if (cle < meilleureCle) {
+                    meilleureCle = cle;
+                    meilleure = b;
+                }
+            }
+            if (meilleure == null) {
+                return null;
+            }
+            Entree e = meilleure.extraire();
+            if (e == null) {
+                continue;
+            }
+            long v = e.etat;
+            long numero = baux.incrementAndGet();
+            e.echeance = System.nanoTime() + dureeBailNanos;
+            if ((v & MASQUE) != EN_FILE || !ETAT.compareAndSet(e, v, numero << 2 | LOUEE)) {
+                continue;
+            }
+            if (e.annotation.isValide()) {
+                // Validée sans passer par le modèle : elle n'a plus sa place dans la file.
+                retirer(e.annotation);
+                continue;
+            }
+            louees.add(e);
+            return new Bail(e, numero, titulaire);
+        }
+    }
+
+    /**
+     * Remet une annotation louée dans la file, à son rang d'origine.
+     *
+     * @param bail le bail
+     * @return false si le bail n'était plus valable (expiré, ou annotation validée)
+     */
+    public boolean rendre(Bail bail) {
+        Entree e = bail.entree;
+        if (!ETAT.compareAndSet(e, bail.numero << 2 | LOUEE, bail.numero << 2 | EN_FILE)) {
+            return false;
+        }
+        louees.remove(e);
+        bande(e.annotation).ajouter(e);
+        return true;
+    }
+
+    /**
+     * Indique si un bail est toujours valable : non expiré, et l'annotation toujours en attente.
+     *
+     * @param bail le bail
+     * @return true si le titulaire peut encore traiter l'annotation
+     */
+    public boolean estValable(Bail bail) {
+        Entree e = bail.entree;
+        return e.etat == (bail.numero << 2 | LOUEE) && System.nanoTime() - e.echeance < 0;
+    }
+
+    /**
+     * Retourne le nombre d'annotations dans la file, louées comprises.
+     *
+     * @return le nombre d'annotations
+     */
+    public int taille() {
+        return entrees.size();
+    }
+
+    /**
+     * Retourne le nombre d'annotations louées.
+     *
+     * @return le nombre de baux en cours
+     */
+    public int nbLouees() {
+        return louees.size();
+    }
+
+    /**
+     * Retourne le nombre d'annotations d'un auteur dans la file.
+     *
+     * @param auteurId l'identifiant de l'auteur
+     * @return l'arriéré de l'auteur
+     */
+    public int getArriereAuteur(String auteurId) {
+        AtomicInteger n = arrieresAuteurs.get(auteurId);
+        return n == null ? 0 : n.get();
+    }
+
+    /**
+     * Remet dans la file les annotations dont le bail a expiré.
+     */
+    private void reprendreBauxExpires() {
+        long maintenant = System.nanoTime();
+        for (Entree e : louees) {
+            long v = e.etat;
+            if ((v & MASQUE) == LOUEE && maintenant - e.echeance >= 0
+                    && ETAT.compareAndSet(e, v, (v & ~MASQUE) | EN_FILE)) {
+                louees.remove(e);
+                bande(e.annotation).ajouter(e);
+            }
+        }
+    }
+
+    private Bande bande(Annotation a) {
+        return bandes[(int) ((a.getNumero() * 0x9E3779B97F4A7C15L) >>> 40) & (bandes.length - 1)];
+    }
+
+    private static final AtomicLongFieldUpdater<Entree> ETAT =
+            AtomicLongFieldUpdater.newUpdater(Entree.class, "etat");
+
+    /**
+     * Annotation de la file, avec sa clé de priorité (la plus petite est servie d'abord).
+     */
+    private static final class Entree {
+        final Annotation annotation;
+        final long cle;
+        /** Numéro du dernier bail, décalé de deux bits, et état de l'entrée. */
+        volatile long etat = EN_FILE;
+        /** Échéance du dernier bail ({@link System#nanoTime()}). */
+        volatile long echeance;
+
+        Entree(Annotation annotation, long cle) {
+            this.annotation = annotation;
+            this.cle = cle;
+        }
+    }
+
+    /**
+     * Tas binaire d'une bande, protégé par son verrou.
+     */
+    private static final class Bande {
+        private final ReentrantLock verrou = new ReentrantLock();
+        private final PriorityQueue<Entree> tas = new PriorityQueue<>((x, y) -> Long.compare(x.cle, y.cle));
+
+        void ajouter(Entree e) {
+            verrou.lock();
+            try {
+                tas.add(e);
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        /**
+         * Retourne la clé de la première entrée en file, après avoir écarté les entrées
+         * retirées ou louées arrivées en tête.
+         */
+        long cleTete() {
+            verrou.lock();
+            try {
+                Entree e = premiere();
+                return e == null ? Long.MAX_VALUE : e.cle;
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        Entree extraire() {
+            verrou.lock();
+            try {
+                return premiere() == null ? null : tas.poll();
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        private Entree premiere() {
+            Entree e = tas.peek();
+            while (e != null && (e.etat & MASQUE) != EN_FILE) {
+                tas.poll();
+                e = tas.peek();
+            }
+            return e;
+        }
+    }
+}
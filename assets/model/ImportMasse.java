@@ -0,0 +1,575 @@
+package model;
+
+import model.observer.Evenement;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Import de masse de textes dans une collection.
+ * <p>
+ * Les documents traversent trois étages reliés par des files bornées :
+ * </p>
+ * <ol>
+ *     <li>lecture : un fil lit les fichiers d'un dossier (un texte par fichier) ou les lignes
+ *     d'un flux JSONL (un objet par ligne), par lots de {@link #TAILLE_LOT} documents ;</li>
+ *     <li>analyse : plusieurs fils décodent les documents et en extraient le contenu (champ
+ *     {@code contenu}, {@code texte} ou {@code text} de l'objet JSON) ; les sauts de ligne
+ *     sont remplacés par des espaces, un texte occupant une ligne des fichiers CSV ;</li>
+ *     <li>insertion : le fil appelant remet les lots dans l'ordre de lecture et les ajoute au
+ *     modèle par {@link Modele#addTextes}, qui réserve les numéros de tout le lot en une fois.</li>
+ * </ol>
+ * <p>
+ * Les files bornées freinent la lecture quand l'insertion ne suit pas : la mémoire utilisée
+ * ne dépend pas de la taille du corpus. Aucun événement n'est publié par texte ; les
+ * observateurs de la collection reçoivent un seul {@link Evenement#resume résumé} à la fin.
+ * </p>
+ * <p>
+ * Les documents vides ou illisibles sont comptés comme rejetés. L'import n'est pas
+ * transactionnel : en cas d'erreur de lecture, les textes déjà insérés restent dans le modèle.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class ImportMasse {
+
+    /** Nombre de documents par lot. */
+    public static final int TAILLE_LOT = 512;
+    /** Champs JSON acceptés pour le contenu, par ordre de préférence. */
+    private static final String[] CHAMPS_CONTENU = {"contenu", "texte", "text"};
+    /** Nombre maximal de rejets détaillés sur la sortie d'erreur. */
+    private static final int MAX_REJETS_AFFICHES = 10;
+
+    private final Modele modele;
+    private final int nbAnalyseurs;
+
+    /**
+     * Constructeur : un fil d'analyse par processeur, moins celui de l'insertion.
+     *
+     * @param modele le modèle qui reçoit les textes
+     */
+    public ImportMasse(Modele modele) {
+        this(modele, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param modele       le modèle qui reçoit les textes
+     * @param nbAnalyseurs nombre de fils d'analyse
+     */
+    public ImportMasse(Modele modele, int nbAnalyseurs) {
+        this.modele = modele;
+        this.nbAnalyseurs = Math.max(1, nbAnalyseurs);
+    }
+
+    /**
+     * Importe un dossier ou un fichier JSONL.
+     *
+     * @param chemin le dossier ou le fichier
+     * @param c      la collection qui reçoit les textes (déjà ajoutée au modèle)
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public Bilan importer(Path chemin, CollectionDeTextes c) throws IOException {
+        return Files.isDirectory(chemin) ? importerDossier(chemin, c) : importerJsonl(chemin, c);
+    }
+
+    /**
+     * Importe chaque fichier d'un dossier et de ses sous-dossiers comme un texte (UTF-8),
+     * dans l'ordre du parcours du dossier.
+     *
+     * @param dossier le dossier
+     * @param c       la collection qui reçoit les textes
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public Bilan importerDossier(Path dossier, CollectionDeTextes c) throws IOException {
+        return executer(sortie -> {
+            try (Stream<Path> fichiers = Files.walk(dossier)) {
+                Iterator<Path> it = fichiers.filter(Files::isRegularFile).iterator();
+                while (it.hasNext()) {
+                    sortie.accept(Files.readAllBytes(it.next()));
+                }
+            }
+        }, ImportMasse::analyserFichier, c);
+    }
+
+    /**
+     * Importe un fichier JSONL : un objet par ligne, dont le champ {@code contenu}
+     * (ou {@code texte}, ou {@code text}) devient un texte.
+     *
+     * @param fichier le fichier
+     * @param c       la collection qui reçoit les textes
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public Bilan importerJsonl(Path fichier, CollectionDeTextes c) throws IOException {
+        try (InputStream in = Files.newInputStream(fichier)) {
+            return importerJsonl(in, c);
+        }
+    }
+
+    /**
+     * Importe un flux JSONL (UTF-8), lu jusqu'à sa fin. Les lignes vides sont ignorées.
+     *
+     * @param flux le flux, qui n'est pas fermé
+     * @param c    la collection qui reçoit les textes
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public Bilan importerJsonl(InputStream flux, CollectionDeTextes c) throws IOException {
+        BufferedReader lecteur = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8), 1 << 16);
+        return executer(sortie -> {
+            for (String ligne = lecteur.readLine(); ligne != null; ligne = lecteur.readLine()) {
+                if (!ligne.isBlank()) {
+                    sortie.accept(ligne);
+                }
+            }
+        }, ImportMasse::analyserLigneJson, c);
+    }
+
+    /**
+     * Fait passer les documents produits par {@code lecture} dans le pipeline.
+     */
+    private <T> Bilan executer(Lecture<T> lecture, Function<T, String> analyse, CollectionDeTextes c)
+            throws IOException {
+        long debut = System.nanoTime();
+        int capacite = 2 * nbAnalyseurs + 2;
+        BlockingQueue<Lot<T>> lus = new ArrayBlockingQueue<>(capacite);
+        BlockingQueue<Lot<String>> analyses = new ArrayBlockingQueue<>(capacite);
+        AtomicReference<Throwable> erreur = new AtomicReference<>();
+        LongAdder nbLus = new LongAdder();
+        LongAdder nbRejetes = new LongAdder();
+
+        List<Thread> fils = new ArrayList<>();
+        fils.add(demarrer("import-lecture", () -> lire(lecture, lus, nbLus, erreur)));
+        for (int i = 0; i < nbAnalyseurs; i++) {
+            fils.add(demarrer("import-analyse-" + i, () -> analyser(lus, analyses, analyse, nbRejetes, erreur)));
+        }
+
+        long importes = 0;
+        try {
+            // Insertion dans l'ordre de lecture : les lots analysés en avance attendent leur tour.
+            Map<Long, Lot<String>> enAvance = new HashMap<>();
+            long prochain = 0;
+            int fins = 0;
+            while (fins < nbAnalyseurs) {
+                Lot<String> lot = analyses.take();
+                if (lot.estFin()) {
+                    fins++;
+                    continue;
+                }
+                enAvance.put(lot.rang, lot);
+                for (Lot<String> l = enAvance.remove(prochain); l != null; l = enAvance.remove(++prochain)) {
+                    importes += modele.addTextes(c, l.elements).size();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrompu");
+        } finally {
+            for (Thread f : fils) {
+                f.interrupt();
+            }
+            if (importes > 0) {
+                c.notifierObservateurs(Evenement.resume(c, "Import dans la collection [" + c.getNom() + "]", importes));
+            }
+        }
+
+        Throwable e = erreur.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw new IOException("Erreur pendant l'import", e);
+        }
+        return new Bilan(nbLus.sum(), importes, nbRejetes.sum(), System.nanoTime() - debut);
+    }
+
+    private static Thread demarrer(String nom, Runnable tache) {
+        Thread t = new Thread(tache, nom);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Étage de lecture : regroupe les documents en lots numérotés.
+     */
+    private <T> void lire(Lecture<T> lecture, BlockingQueue<Lot<T>> sortie, LongAdder nbLus,
+                          AtomicReference<Throwable> erreur) {
+        Emetteur<T> emetteur = new Emetteur<>(sortie);
+        try {
+            lecture.lire(emetteur);
+            emetteur.terminer();
+        } catch (IOException | RuntimeException e) {
+            erreur.compareAndSet(null, e instanceof UncheckedIOException ? e.getCause() : e);
+        } finally {
+            nbLus.add(emetteur.total);
+            for (int i = 0; i < nbAnalyseurs; i++) {
+                if (!transmettre(sortie, Lot.fin())) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Étage d'analyse : extrait le contenu de chaque document d'un lot.
+     */
+    private static <T> void analyser(BlockingQueue<Lot<T>> entree, BlockingQueue<Lot<String>> sortie,
+                                     Function<T, String> analyse, LongAdder nbRejetes,
+                                     AtomicReference<Throwable> erreur) {
+        try {
+            while (true) {
+                Lot<T> lot = entree.take();
+                if (lot.estFin()) {
+                    break;
+                }
+                List<String> contenus = new ArrayList<>(lot.elements.size());
+                for (T doc : lot.elements) {
+                    String contenu;
+                    try {
+                        contenu = analyse.apply(doc);
+                    } catch (IllegalArgumentException e) {
+                        signalerRejet(nbRejetes, e.getMessage());
+                        continue;
+                    }
+                    if (contenu.isEmpty()) {
+                        signalerRejet(nbRejetes, "document vide");
+                    } else {
+                        contenus.add(contenu);
+                    }
+                }
+                sortie.put(new Lot<>(lot.rang, contenus));
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RuntimeException e) {
+            erreur.compareAndSet(null, e);
+        }
+        transmettre(sortie, Lot.fin());
+    }
+
+    private static void signalerRejet(LongAdder nbRejetes, String raison) {
+        nbRejetes.increment();
+        if (nbRejetes.sum() <= MAX_REJETS_AFFICHES) {
+            System.err.println("Document rejeté: " + raison);
+        }
+    }
+
+    /**
+     * Dépose un lot dans une file, en attendant une place.
+     *
+     * @return false si le fil a été interrompu pendant l'attente
+     */
+    private static <T> boolean transmettre(BlockingQueue<Lot<T>> file, Lot<T> lot) {
+        try {
+            file.put(lot);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String analyserFichier(byte[] octets) {
+        return normaliser(new String(octets, StandardCharsets.UTF_8));
+    }
+
+    private static String analyserLigneJson(String ligne) {
+        Map<String, String> champs = new LecteurJson(ligne).objet();
+        for (String nom : CHAMPS_CONTENU) {
+            String v = champs.get(nom);
+            if (v != null) {
+                return normaliser(v);
+            }
+        }
+        throw new IllegalArgumentException("aucun champ " + String.join(", ", CHAMPS_CONTENU));
+    }
+
+    /**
+     * Ramène un document sur une ligne : marque d'ordre d'octets retirée, sauts de ligne
+     * remplacés par des espaces, espaces de début et de fin retirés.
+     */
+    static String normaliser(String s) {
+        if (!s.isEmpty() && s.charAt(0) == '\uFEFF') {
+            s = s.substring(1);
+        }
+        if (s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            s = s.replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+        }
+        return s.strip();
+    }
+
+    /**
+     * Source de documents de l'étage de lecture.
+     */
+    @FunctionalInterface
+    private interface Lecture<T> {
+        void lire(Consumer<T> sortie) throws IOException;
+    }
+
+    /**
+     * Regroupe les documents lus en lots numérotés et les transmet à l'étage d'analyse.
+     */
+    private static final class Emetteur<T> implements Consumer<T> {
+        private final BlockingQueue<Lot<T>> sortie;
+        private List<T> courant = new ArrayList<>(TAILLE_LOT);
+        private long rang;
+        private long total;
+
+        Emetteur(BlockingQueue<Lot<T>> sortie) {
+            this.sortie = sortie;
+        }
+
+        @Override
+        public void accept(T doc) {
+            courant.add(doc);
+            total++;
+            if (courant.size() == TAILLE_LOT) {
+                envoyer();
+            }
+        }
+
+        void terminer() {
+            if (!courant.isEmpty()) {
+                envoyer();
+            }
+        }
+
+        private void envoyer() {
+            if (!transmettre(sortie, new Lot<>(rang++, courant))) {
+                throw new UncheckedIOException(new InterruptedIOException("Import interrompu"));
+            }
+            courant = new ArrayList<>(TAILLE_LOT);
+        }
+    }
+
+    /**
+     * Lot de documents numéroté dans l'ordre de lecture ; un rang négatif marque la fin d'un étage.
+     */
+    private static final class Lot<T> {
+        final long rang;
+        final List<T> elements;
+
+        Lot(long rang, List<T> elements) {
+            this.rang = rang;
+            this.elements = elements;
+        }
+
+        static <T> Lot<T> fin() {
+            return new Lot<>(-1, List.of());
+        }
+
+        boolean estFin() {
+            return rang < 0;
+        }
+    }
+
+    /**
+     * Lecture minimale d'un objet JSON sur une ligne : seules les valeurs de type chaîne des
+     * champs de premier niveau sont gardées, les autres valeurs sont sautées.
+     */
+    private static final class LecteurJson {
+        private final String s;
+        private int pos;
+
+        LecteurJson(String s) {
+            this.s = s;
+        }
+
+        Map<String, String> objet() {
+            Map<String, String> champs = new HashMap<>();
+            attendre('{');
+            if (suivant() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    String nom = chaine();
+                    attendre(':');
+                    if (suivant() == '"') {
+                        champs.put(nom, chaine());
+                    } else {
+                        sauterValeur();
+                    }
+                    if (suivant() == ',') {
+                        pos++;
+                    } else {
+                        attendre('}');
+                        break;
+                    }
+                }
+            }
+            if (suivant() != 0) {
+                throw invalide();
+            }
+            return champs;
+        }
+
+        /** Retourne le prochain caractère significatif sans le consommer (0 en fin de ligne). */
+        private char suivant() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+            return pos < s.length() ? s.charAt(pos) : 0;
+        }
+
+        private void attendre(char c) {
+            if (suivant() != c) {
+                throw invalide();
+            }
+            pos++;
+        }
+
+        private String chaine() {
+            attendre('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) {
+                    break;
+                }
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) {
+                            throw invalide();
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw invalide();
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(e);
+                }
+            }
+            throw invalide();
+        }
+
+        private void sauterValeur() {
+            char c = suivant();
+            if (c == '{' || c == '[') {
+                int profondeur = 0;
+                while (pos < s.length()) {
+                    char d = s.charAt(pos);
+                    if (d == '"') {
+                        chaine();
+                        continue;
+                    }
+                    pos++;
+                    if (d == '{' || d == '[') {
+                        profondeur++;
+                    } else if ((d == '}' || d == ']') && --profondeur == 0) {
+                        return;
+                    }
+                }
+                throw invalide();
+            }
+            int debut = pos;
+            while (pos < s.length() && ",}] \t".indexOf(s.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (pos == debut) {
+                throw invalide();
+            }
+        }
+
+        private IllegalArgumentException invalide() {
+            return new IllegalArgumentException("JSON invalide à la position " + pos);
+        }
+    }
+
+    /**
+     * Bilan d'un import.
+     */
+    public static final class Bilan {
+        private final long lus;
+        private final long importes;
+        private final long rejetes;
+        private final long dureeNanos;
+
+        Bilan(long lus, long importes, long rejetes, long dureeNanos) {
+            this.lus = lus;
+            this.importes = importes;
+            this.rejetes = rejetes;
+            this.dureeNanos = dureeNanos;
+        }
+
+        /**
+         * Retourne le nombre de documents lus.
+         *
+         * @return le nombre de documents
+         */
+        public long getLus() {
+            return lus;
+        }
+
+        /**
+         * Retourne le nombre de textes ajoutés à la collection.
+         *
+         * @return le nombre de textes
+         */
+        public long getImportes() {
+            return importes;
+        }
+
+        /**
+         * Retourne le nombre de documents vides ou illisibles.
+         *
+         * @return le nombre de rejets
+         */
+        public long getRejetes() {
+            return rejetes;
+        }
+
+        /**
+         * Retourne la durée de l'import.
+         *
+         * @return la durée en nanosecondes
+         */
+        public long getDureeNanos() {
+            return dureeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Import : %d documents lus, %d textes importés, %d rejetés en %d ms (%.0f textes/s)",
+                    lus, importes, rejetes, dureeNanos / 1_000_000,
+                    dureeNanos == 0 ? 0.0 : importes * 1e9 / dureeNanos);
+        }
+    }
+}
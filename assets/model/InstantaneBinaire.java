@@ -0,0 +1,293 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantané binaire de l'état complet du modèle, pour un démarrage rapide.
+ * <p>
+ * Format (entiers en gros-boutiste) :
+ * </p>
+ * <pre>
+ * en-tête     : magique "PMCS", version, nbUtilisateurs, nbAuteurs, nbTextes, nbAnnotations,
+ *               nbCollections (int), prochain numéro de texte, prochain numéro d'annotation (long)
+ * utilisateurs: rôle (octet), id, nom, email, mot de passe
+ * auteurs     : id (table des auteurs d'annotations, référencés par leur rang)
+ * textes      : numéro (long), contenu
+ * annotations : numéro (long), rang du texte (int), rang de l'auteur (int), valide (octet), contenu
+ * collections : nom, nombre de textes (int), rangs des textes (int)
+ * fin         : CRC32 de tout ce qui précède (int)
+ * </pre>
+ * <p>
+ * Chaque chaîne est écrite en UTF-8 précédée de sa longueur en octets (int). Les compteurs
+ * de l'en-tête permettent de dimensionner les tables avant la lecture. Les textes et les
+ * annotations sont enregistrés par leur numéro (voir {@link RegistreIdentifiants}).
+ * </p>
+ *
+ * @version 1.0
+ */
+public class InstantaneBinaire {
+
+    /** Nom du fichier d'instantané, placé à côté des fichiers CSV. */
+    public static final String NOM_FICHIER = "modele.bin";
+
+    private static final int MAGIQUE = 0x504D4353;
+    private static final int VERSION = 3;
+    private static final byte ROLE_ADMIN = 0;
+    private static final byte ROLE_ANNOTATEUR = 1;
+
+    /**
+     * État lu depuis un instantané. Les annotations sont déjà rattachées à leurs textes.
+     */
+    static final class Contenu {
+        List<Utilisateur> utilisateurs;
+        List<Texte> textes;
+        List<Annotation> annotations;
+        Map<String, List<Texte>> collections;
+        long prochainTexte;
+        long prochaineAnnotation;
+        /** Source des contenus des textes lorsqu'ils sont chargés à la demande, sinon null. */
+        SourceContenus source;
+    }
+
+    private InstantaneBinaire() {
+    }
+
+    /**
+     * Écrit un instantané (fichier temporaire puis renommage).
+     *
+     * @param fichier             le fichier d'instantané
+     * @param utilisateurs        les utilisateurs
+     * @param version             les textes, annotations et collections à écrire
+     * @param prochainTexte       le prochain numéro de texte
+     * @param prochaineAnnotation le prochain numéro d'annotation
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void ecrire(Path fichier, Collection<Utilisateur> utilisateurs, VersionModele version,
+                       long prochainTexte, long prochaineAnnotation) throws IOException {
+        // Rangs des textes et des auteurs : les annotations et collections y font référence.
+        TableEntiers<Integer> rangTextes = new TableEntiers<>(version.nbTextes());
+        List<Texte> listeTextes = new ArrayList<>(version.textes.valeurs());
+        for (int i = 0; i < listeTextes.size(); i++) {
+            rangTextes.put(listeTextes.get(i).getNumero(), i);
+        }
+        Map<String, Integer> rangAuteurs = new LinkedHashMap<>();
+        List<Annotation.Etat> listeAnnotations = new ArrayList<>();
+        for (Annotation.Etat e : version.annotations.valeurs()) {
+            if (rangTextes.containsKey(e.annotation.getTexteNumero())) {
+                listeAnnotations.add(e);
+                rangAuteurs.putIfAbsent(e.annotation.getAuteurId(), rangAuteurs.size());
+            }
+        }
+        List<Utilisateur> listeUtilisateurs = new ArrayList<>(utilisateurs);
+        Map<String, TablePersistante<Texte>> collections = version.collections;
+
+        Path tmp = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fos = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(fos, 1 << 16), crc))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeInt(listeUtilisateurs.size());
+            out.writeInt(rangAuteurs.size());
+            out.writeInt(listeTextes.size());
+            out.writeInt(listeAnnotations.size());
+            out.writeInt(collections.size());
+            out.writeLong(prochainTexte);
+            out.writeLong(prochaineAnnotation);
+
+            for (Utilisateur u : listeUtilisateurs) {
+                out.writeByte(u instanceof Administrateur ? ROLE_ADMIN : ROLE_ANNOTATEUR);
+                ecrireChaine(out, u.getId());
+                ecrireChaine(out, u.getNom());
+                ecrireChaine(out, u.getEmail());
+                ecrireChaine(out, u.getMotDePasse());
+            }
+            for (String auteur : rangAuteurs.keySet()) {
+                ecrireChaine(out, auteur);
+            }
+            for (Texte t : listeTextes) {
+                out.writeLong(t.getNumero());
+                ecrireChaine(out, t.getContenuSansCache());
+            }
+            for (Annotation.Etat e : listeAnnotations) {
+                Annotation a = e.annotation;
+                out.writeLong(a.getNumero());
+                out.writeInt(rangTextes.get(a.getTexteNumero()));
+                out.writeInt(rangAuteurs.get(a.getAuteurId()));
+                out.writeByte(e.valide ? 1 : 0);
+                ecrireChaine(out, e.contenu);
+            }
+            for (Map.Entry<String, TablePersistante<Texte>> c : collections.entrySet()) {
+                Collection<Texte> membres = c.getValue().valeurs();
+                ecrireChaine(out, c.getKey());
+                out.writeInt(membres.size());
+                for (Texte t : membres) {
+                    out.writeInt(rangTextes.get(t.getNumero()));
+                }
+            }
+            out.flush();
+            // Le CRC n'est pas inclus dans sa propre somme : on l'écrit directement.
+            int somme = (int) crc.getValue();
+            fos.write(new byte[] { (byte) (somme >>> 24), (byte) (somme >>> 16), (byte) (somme >>> 8), (byte) somme });
+        }
+        Files.move(tmp, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void ecrireChaine(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /**
+     * Lit un instantané après avoir vérifié sa version et sa somme de contrôle.
+     * <p>
+     * Avec un cache, les contenus des textes ne sont pas décodés : les textes gardent leur
+     * position dans l'instantané, qui devient leur {@link SourceContenus}.
+     * </p>
+     *
+     * @param fichier le fichier d'instantané
+     * @param cache   le cache des contenus chargés à la demande, ou null pour tout charger
+     * @return l'état lu
+     * @throws IOException si le fichier est illisible, d'une autre version ou corrompu
+     */
+    static Contenu lire(Path fichier, CacheContenus cache) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille < 4 || taille > Integer.MAX_VALUE) {
+                throw new IOException("Taille d'instantané invalide: " + taille);
+            }
+            buf = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+        }
+        int finDonnees = buf.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(finDonnees));
+        if ((int) crc.getValue() != buf.getInt(finDonnees)) {
+            throw new IOException("Somme de contrôle de l'instantané invalide.");
+        }
+        if (buf.getInt() != MAGIQUE) {
+            throw new IOException("Fichier d'instantané invalide.");
+        }
+        int version = buf.getInt();
+        if (version != VERSION) {
+            throw new IOException("Version d'instantané non prise en charge: " + version);
+        }
+        int nbUtilisateurs = buf.getInt();
+        int nbAuteurs = buf.getInt();
+        int nbTextes = buf.getInt();
+        int nbAnnotations = buf.getInt();
+        int nbCollections = buf.getInt();
+
+        Contenu c = new Contenu();
+        c.prochainTexte = buf.getLong();
+        c.prochaineAnnotation = buf.getLong();
+        Lecteur lecteur = new Lecteur(buf);
+
+        c.utilisateurs = new ArrayList<>(nbUtilisateurs);
+        for (int i = 0; i < nbUtilisateurs; i++) {
+            byte role = buf.get();
+            String id = lecteur.chaine();
+            String nom = lecteur.chaine();
+            String email = lecteur.chaine();
+            String mdp = lecteur.chaine();
+            c.utilisateurs.add(role == ROLE_ADMIN
+                    ? new Administrateur(id, nom, email, mdp)
+                    : new Annotateur(id, nom, email, mdp));
+        }
+        String[] auteurs = new String[nbAuteurs];
+        for (int i = 0; i < nbAuteurs; i++) {
+            auteurs[i] = lecteur.chaine();
+        }
+        Texte[] textes = new Texte[nbTextes];
+        if (cache != null) {
+            c.source = new SourceContenus(fichier, cache);
+        }
+        for (int i = 0; i < nbTextes; i++) {
+            long numero = buf.getLong();
+            if (c.source == null) {
+                textes[i] = new Texte(numero, lecteur.chaine());
+            } else {
+                int n = buf.getInt();
+                textes[i] = new Texte(numero, c.source, buf.position(), n);
+                buf.position(buf.position() + n);
+            }
+        }
+        c.textes = List.of(textes);
+
+        Annotation[] annotations = new Annotation[nbAnnotations];
+        List<List<Annotation>> parTexte = new ArrayList<>(nbTextes);
+        for (int i = 0; i < nbTextes; i++) {
+            parTexte.add(null);
+        }
+        for (int i = 0; i < nbAnnotations; i++) {
+            long numero = buf.getLong();
+            int texte = buf.getInt();
+            int auteur = buf.getInt();
+            boolean valide = buf.get() != 0;
+            Annotation a = new Annotation(numero, textes[texte].getNumero(), auteurs[auteur], lecteur.chaine(), valide);
+            annotations[i] = a;
+            if (parTexte.get(texte) == null) {
+                parTexte.set(texte, new ArrayList<>());
+            }
+            parTexte.get(texte).add(a);
+        }
+        for (int i = 0; i < nbTextes; i++) {
+            if (parTexte.get(i) != null) {
+                textes[i].getAnnotations().addAll(parTexte.get(i));
+            }
+        }
+        c.annotations = List.of(annotations);
+
+        c.collections = new LinkedHashMap<>(nbCollections * 4 / 3 + 1);
+        for (int i = 0; i < nbCollections; i++) {
+            String nom = lecteur.chaine();
+            int n = buf.getInt();
+            List<Texte> membres = new ArrayList<>(n);
+            for (int k = 0; k < n; k++) {
+                membres.add(textes[buf.getInt()]);
+            }
+            c.collections.put(nom, membres);
+        }
+        return c;
+    }
+
+    /**
+     * Décode les chaînes préfixées par leur longueur.
+     */
+    private static final class Lecteur {
+        private final ByteBuffer buf;
+        private byte[] copie = new byte[256];
+
+        Lecteur(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        String chaine() {
+            int n = buf.getInt();
+            if (copie.length < n) {
+                copie = new byte[Math.max(n, copie.length * 2)];
+            }
+            buf.get(copie, 0, n);
+            return new String(copie, 0, n, StandardCharsets.UTF_8);
+        }
+    }
+}
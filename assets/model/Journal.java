@@ -0,0 +1,338 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal des modifications du modèle (journal à écriture anticipée).
+ * <p>
+ * Chaque modification est ajoutée en fin du segment courant sous la forme d'une ligne
+ * (voir les constantes {@code TYPE_*}). Un fil d'écriture regroupe tous les enregistrements
+ * en attente et les rend durables avec un seul {@code force} par lot (« group commit »).
+ * Lorsque le segment courant dépasse {@link #TAILLE_SEGMENT}, il est scellé et un nouveau
+ * segment est ouvert ; les segments scellés sont ensuite intégrés aux fichiers CSV par le
+ * {@link CompacteurJournal}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class Journal implements Closeable {
+
+    /** Enregistrement d'un texte : {@code T;id;contenu}. */
+    static final String TYPE_TEXTE = "T";
+    /** Enregistrement de l'état complet d'une annotation : {@code A;id;texteId;auteurId;valide;contenu}. */
+    static final String TYPE_ANNOTATION = "A";
+    /** Création d'une collection : {@code C;nom}. */
+    static final String TYPE_COLLECTION = "C";
+    /** Ajout d'un texte à une collection : {@code CT;nom;texteId}. */
+    static final String TYPE_COLLECTION_TEXTE = "CT";
+
+    /** Taille au-delà de laquelle le segment courant est scellé (4 Mo). */
+    static final long TAILLE_SEGMENT = 4L << 20;
+
+    private static final String PREFIXE = "journal-";
+    private static final String SUFFIXE = ".log";
+    private static final String SEP = ";";
+
+    private final Path dossier;
+    private final Runnable surRotation;
+    private final BlockingQueue<String> enAttente = new LinkedBlockingQueue<>();
+    private final Thread ecrivain;
+
+    private FileChannel canal;
+    private long numeroSegment;
+
+    /** Nombre d'enregistrements ajoutés (protégé par {@code this}). */
+    private long demandes;
+    /** Nombre d'enregistrements rendus durables (protégé par {@code this}). */
+    private long durables;
+    /** Dernière erreur d'écriture, renvoyée par {@link #synchroniser()}. */
+    private IOException erreur;
+    private volatile boolean ferme;
+
+    /**
+     * Ouvre un nouveau segment dans le dossier et démarre le fil d'écriture.
+     *
+     * @param dossier     dossier contenant les fichiers CSV
+     * @param surRotation action lancée chaque fois qu'un segment est scellé
+     * @throws IOException si le segment ne peut pas être créé
+     */
+    public Journal(Path dossier, Runnable surRotation) throws IOException {
+        this.dossier = dossier;
+        this.surRotation = surRotation;
+        List<Path> existants = segments(dossier);
+        this.numeroSegment = existants.isEmpty() ? 1 : numero(existants.get(existants.size() - 1)) + 1;
+        this.canal = ouvrirSegment(numeroSegment);
+        this.ecrivain = new Thread(this::boucleEcriture, "journal-ecrivain");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+
+    /**
+     * Ajoute un enregistrement au journal. L'appel ne bloque pas : l'enregistrement
+     * devient durable au prochain lot écrit par le fil d'écriture.
+     *
+     * @param enregistrement la ligne à ajouter (sans fin de ligne)
+     */
+    public synchronized void ajouter(String enregistrement) {
+        if (ferme) {
+            throw new IllegalStateException("Journal fermé.");
+        }
+        demandes++;
+        enAttente.add(enregistrement);
+    }
+
+    /**
+     * Ajoute d'un bloc l'état courant de plusieurs annotations : les lignes se suivent dans
+     * le segment et sont écrites et rendues durables ensemble. L'état est lu sous le verrou
+     * du journal : une modification concurrente d'une de ces annotations est enregistrée
+     * après le groupe, ou l'état lu la contient déjà.
+     *
+     * @param annotations les annotations
+     */
+    public synchronized void ajouterAnnotations(Collection<Annotation> annotations) {
+        if (ferme) {
+            throw new IllegalStateException("Journal fermé.");
+        }
+        if (annotations.isEmpty()) {
+            return;
+        }
+        StringBuilder groupe = new StringBuilder();
+        for (Annotation a : annotations) {
+            if (groupe.length() > 0) {
+                groupe.append('\n');
+            }
+            groupe.append(annotation(a));
+        }
+        demandes++;
+        enAttente.add(groupe.toString());
+    }
+
+    /**
+     * Attend que tous les enregistrements déjà ajoutés soient durables.
+     *
+     * @throws IOException si une écriture du journal a échoué
+     */
+    public synchronized void synchroniser() throws IOException {
+        long cible = demandes;
+        boolean interrompu = false;
+        while (durables < cible && erreur == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrompu = true;
+            }
+        }
+        if (interrompu) {
+            Thread.currentThread().interrupt();
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+
+    /**
+     * Retourne les segments scellés, c'est-à-dire tous sauf le segment courant.
+     *
+     * @return les segments scellés, du plus ancien au plus récent
+     * @throws IOException en cas d'erreur de lecture du dossier
+     */
+    public List<Path> segmentsScelles() throws IOException {
+        long courant;
+        synchronized (this) {
+            courant = numeroSegment;
+        }
+        List<Path> res = new ArrayList<>();
+        for (Path p : segments(dossier)) {
+            if (numero(p) < courant) {
+                res.add(p);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Rend durables les enregistrements en attente puis arrête le fil d'écriture.
+     *
+     * @throws IOException si la dernière écriture a échoué
+     */
+    @Override
+    public void close() throws IOException {
+        synchroniser();
+        ferme = true;
+        ecrivain.interrupt();
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    private void boucleEcriture() {
+        List<String> lot = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        while (!ferme) {
+            try {
+                String premier = enAttente.poll(100, TimeUnit.MILLISECONDS);
+                if (premier == null) {
+                    continue;
+                }
+                lot.add(premier);
+                enAttente.drainTo(lot);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            sb.setLength(0);
+            for (String enr : lot) {
+                sb.append(enr).append('\n');
+            }
+            try {
+                ByteBuffer octets = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (octets.hasRemaining()) {
+                    canal.write(octets);
+                }
+                canal.force(false);
+                boolean scelle = false;
+                synchronized (this) {
+                    durables += lot.size();
+                    if (canal.size() > TAILLE_SEGMENT) {
+                        canal.close();
+                        numeroSegment++;
+                        canal = ouvrirSegment(numeroSegment);
+                        scelle = true;
+                    }
+                    notifyAll();
+                }
+                if (scelle) {
+                    surRotation.run();
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    erreur = e;
+                    notifyAll();
+                }
+            }
+            lot.clear();
+        }
+    }
+
+    private FileChannel ouvrirSegment(long numero) throws IOException {
+        Path p = dossier.resolve(String.format("%s%06d%s", PREFIXE, numero, SUFFIXE));
+        return FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // ----------------- Segments existants -----------------
+
+    /**
+     * Liste les segments de journal présents dans un dossier.
+     *
+     * @param dossier le dossier des fichiers CSV
+     * @return les segments, du plus ancien au plus récent
+     * @throws IOException en cas d'erreur de lecture du dossier
+     */
+    public static List<Path> segments(Path dossier) throws IOException {
+        List<Path> res = new ArrayList<>();
+        if (!Files.isDirectory(dossier)) {
+            return res;
+        }
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dossier, PREFIXE + "*" + SUFFIXE)) {
+            for (Path p : ds) {
+                if (numero(p) > 0) {
+                    res.add(p);
+                }
+            }
+        }
+        res.sort((a, b) -> Long.compare(numero(a), numero(b)));
+        return res;
+    }
+
+    /**
+     * Lit un segment de journal. Une éventuelle dernière ligne incomplète (écriture
+     * interrompue par un arrêt brutal) est ignorée.
+     *
+     * @param segment  le segment à lire
+     * @param fabrique la fabrique appelée pour chaque enregistrement
+     * @param <T>      type des objets construits
+     * @return les objets construits, dans l'ordre du journal
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static <T> List<T> lire(Path segment, LecteurCsvParallele.FabriqueLigne<T> fabrique) throws IOException {
+        byte[] octets = Files.readAllBytes(segment);
+        int fin = octets.length;
+        while (fin > 0 && octets[fin - 1] != '\n') {
+            fin--;
+        }
+        return LecteurCsvParallele.analyser(ByteBuffer.wrap(octets), 0, fin, fabrique);
+    }
+
+    private static long numero(Path p) {
+        String nom = p.getFileName().toString();
+        if (!nom.startsWith(PREFIXE) || !nom.endsWith(SUFFIXE)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(nom.substring(PREFIXE.length(), nom.length() - SUFFIXE.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ----------------- Format des enregistrements -----------------
+
+    /**
+     * Construit l'enregistrement d'un nouveau texte.
+     *
+     * @param t le texte
+     * @return la ligne du journal
+     */
+    static String texte(Texte t) {
+        return TYPE_TEXTE + SEP + t.getId() + SEP + t.getContenu();
+    }
+
+    /**
+     * Construit l'enregistrement de l'état complet d'une annotation.
+     *
+     * @param a l'annotation
+     * @return la ligne du journal
+     */
+    static String annotation(Annotation a) {
+        Annotation.Etat e = a.getEtat();
+        return TYPE_ANNOTATION + SEP + a.getAnnotationId() + SEP + a.getTexteId() + SEP + a.getAuteurId()
+                + SEP + e.valide + SEP + e.contenu;
+    }
+
+    /**
+     * Construit l'enregistrement de la création d'une collection.
+     *
+     * @param c la collection
+     * @return la ligne du journal
+     */
+    static String collection(CollectionDeTextes c) {
+        return TYPE_COLLECTION + SEP + c.getNom();
+    }
+
+    /**
+     * Construit l'enregistrement de l'ajout d'un texte à une collection.
+     *
+     * @param c la collection
+     * @param t le texte ajouté
+     * @return la ligne du journal
+     */
+    static String collectionTexte(CollectionDeTextes c, Texte t) {
+        return TYPE_COLLECTION_TEXTE + SEP + c.getNom() + SEP + t.getId();
+    }
+}
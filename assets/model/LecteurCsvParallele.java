@@ -0,0 +1,240 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lecteur de fichiers CSV en parallèle.
+ * <p>
+ * Le fichier est découpé en plages d'octets dont les bornes tombent sur des fins de ligne,
+ * puis chaque plage est analysée par une tâche d'un {@link ForkJoinPool}. Les lignes sont
+ * découpées à la main par {@link LigneCsv} : pas d'expression régulière ni de tableau de
+ * chaînes par ligne. Les résultats sont renvoyés dans l'ordre du fichier.
+ * </p>
+ * <p>
+ * En mode {@link ModeChargement#MEMOIRE_MAPPEE}, les plages sont projetées en mémoire au lieu
+ * d'être copiées : seuls les champs conservés par la fabrique sont convertis en chaînes.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class LecteurCsvParallele {
+
+    /**
+     * Construit un objet à partir d'une ligne du fichier.
+     *
+     * @param <T> type des objets construits
+     */
+    @FunctionalInterface
+    public interface FabriqueLigne<T> {
+        /**
+         * Construit l'objet correspondant à une ligne non blanche.
+         *
+         * @param ligne la ligne courante (réutilisée : ne pas la conserver)
+         * @return l'objet construit, ou {@code null} si la ligne est invalide
+         */
+        T creer(LigneCsv ligne);
+    }
+
+    /** Taille visée d'une plage (8 Mo). */
+    private static final int TAILLE_PLAGE = 8 << 20;
+    /** Taille des lectures utilisées pour chercher une fin de ligne. */
+    private static final int TAILLE_SONDE = 4096;
+
+    private final ForkJoinPool pool;
+    private final ModeChargement mode;
+
+    /**
+     * Constructeur.
+     *
+     * @param pool le pool sur lequel les plages sont analysées
+     * @param mode le mode de lecture des plages
+     */
+    public LecteurCsvParallele(ForkJoinPool pool, ModeChargement mode) {
+        this.pool = pool;
+        this.mode = mode;
+    }
+
+    /**
+     * Lit tout le fichier et construit un objet par ligne valide.
+     *
+     * @param fichier  le fichier CSV
+     * @param fabrique la fabrique appelée pour chaque ligne non blanche
+     * @param <T>      type des objets construits
+     * @return les objets construits, dans l'ordre du fichier
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public <T> List<T> lire(Path fichier, FabriqueLigne<T> fabrique) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long[] bornes = decouper(canal);
+            return pool.invoke(new TachePlages<>(canal, mode, bornes, 0, bornes.length - 1, fabrique));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Calcule les bornes des plages : chaque borne intermédiaire suit immédiatement un '\n'.
+     */
+    private long[] decouper(FileChannel canal) throws IOException {
+        long taille = canal.size();
+        List<Long> bornes = new ArrayList<>();
+        bornes.add(0L);
+        ByteBuffer sonde = ByteBuffer.allocate(TAILLE_SONDE);
+        long pos = TAILLE_PLAGE;
+        while (pos < taille) {
+            long fin = finDeLigne(canal, pos, taille, sonde);
+            if (fin >= taille) {
+                break;
+            }
+            bornes.add(fin);
+            pos = fin + TAILLE_PLAGE;
+        }
+        bornes.add(taille);
+        long[] res = new long[bornes.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = bornes.get(i);
+        }
+        return res;
+    }
+
+    /**
+     * Retourne la position qui suit le premier '\n' rencontré à partir de {@code pos}.
+     */
+    private long finDeLigne(FileChannel canal, long pos, long taille, ByteBuffer sonde) throws IOException {
+        while (pos < taille) {
+            sonde.clear();
+            int lus = canal.read(sonde, pos);
+            if (lus <= 0) {
+                return taille;
+            }
+            for (int i = 0; i < lus; i++) {
+                if (sonde.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += lus;
+        }
+        return taille;
+    }
+
+    /**
+     * Analyse une plage déjà chargée en mémoire.
+     */
+    static <T> List<T> analyser(ByteBuffer tampon, int debut, int fin, FabriqueLigne<T> fabrique) {
+        return analyser(tampon, 0, debut, fin, fabrique);
+    }
+
+    /**
+     * Analyse une plage chargée en mémoire dont l'octet 0 se trouve à la position
+     * {@code origine} du fichier (voir {@link LigneCsv#positionChamp(int)}).
+     */
+    static <T> List<T> analyser(ByteBuffer tampon, long origine, int debut, int fin, FabriqueLigne<T> fabrique) {
+        List<T> res = new ArrayList<>();
+        LigneCsv ligne = new LigneCsv();
+        int d = debut;
+        for (int i = debut; i < fin; i++) {
+            if (tampon.get(i) == '\n') {
+                traiter(tampon, origine, d, i, ligne, fabrique, res);
+                d = i + 1;
+            }
+        }
+        if (d < fin) {
+            traiter(tampon, origine, d, fin, ligne, fabrique, res);
+        }
+        return res;
+    }
+
+    private static <T> void traiter(ByteBuffer tampon, long origine, int d, int f, LigneCsv ligne,
+                                    FabriqueLigne<T> fabrique, List<T> res) {
+        ligne.positionner(tampon, origine, d, f);
+        if (ligne.estBlanche()) {
+            return;
+        }
+        T obj = fabrique.creer(ligne);
+        if (obj != null) {
+            res.add(obj);
+        }
+    }
+
+    /**
+     * Tâche fork-join couvrant les plages {@code [premiere, derniere)}.
+     */
+    private static final class TachePlages<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel canal;
+        private final ModeChargement mode;
+        private final long[] bornes;
+        private final int premiere;
+        private final int derniere;
+        private final FabriqueLigne<T> fabrique;
+
+        TachePlages(FileChannel canal, ModeChargement mode, long[] bornes, int premiere, int derniere,
+                    FabriqueLigne<T> fabrique) {
+            this.canal = canal;
+            this.mode = mode;
+            this.bornes = bornes;
+            this.premiere = premiere;
+            this.derniere = derniere;
+            this.fabrique = fabrique;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (derniere - premiere == 1) {
+                return lirePlage(bornes[premiere], bornes[derniere]);
+            }
+            int milieu = (premiere + derniere) >>> 1;
+            TachePlages<T> gauche = new TachePlages<>(canal, mode, bornes, premiere, milieu, fabrique);
+            TachePlages<T> droite = new TachePlages<>(canal, mode, bornes, milieu, derniere, fabrique);
+            gauche.fork();
+            List<T> resDroite = droite.compute();
+            List<T> res = gauche.join();
+            res.addAll(resDroite);
+            return res;
+        }
+
+        private List<T> lirePlage(long debut, long fin) {
+            if (mode == ModeChargement.MEMOIRE_MAPPEE) {
+                return projeterPlage(debut, fin);
+            }
+            ByteBuffer tampon = ByteBuffer.allocate((int) (fin - debut));
+            try {
+                long pos = debut;
+                while (tampon.hasRemaining()) {
+                    int lus = canal.read(tampon, pos);
+                    if (lus < 0) {
+                        break;
+                    }
+                    pos += lus;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return analyser(tampon, debut, 0, tampon.position(), fabrique);
+        }
+
+        private List<T> projeterPlage(long debut, long fin) {
+            if (fin == debut) {
+                return new ArrayList<>();
+            }
+            MappedByteBuffer tampon;
+            try {
+                tampon = canal.map(FileChannel.MapMode.READ_ONLY, debut, fin - debut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return analyser(tampon, debut, 0, tampon.limit(), fabrique);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Curseur sur une ligne d'un fichier CSV séparé par des points-virgules.
+ * <p>
+ * Une même instance est réutilisée pour toutes les lignes d'une plage : les champs
+ * sont repérés par leurs positions de début et de fin dans le tampon d'octets, et une
+ * chaîne n'est construite que lorsqu'un champ est effectivement demandé.
+ * Contrairement à {@code String.split(";")}, les champs vides en fin de ligne sont gardés :
+ * {@code T2;} a deux champs, le second vide.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class LigneCsv {
+
+    /** Séparateur de champs. */
+    private static final byte SEP = ';';
+
+    private ByteBuffer tampon;
+    /** Position dans le fichier de l'octet 0 du tampon. */
+    private long origine;
+    private int debutLigne;
+    private int finLigne;
+    private int nbChamps;
+    private int[] debuts = new int[8];
+    private int[] fins = new int[8];
+    private byte[] copie = new byte[256];
+
+    /**
+     * Positionne le curseur sur une ligne et découpe ses champs.
+     *
+     * @param tampon  le tampon contenant la ligne
+     * @param origine position dans le fichier de l'octet 0 du tampon
+     * @param debut   position du premier octet de la ligne
+     * @param fin     position qui suit le dernier octet de la ligne (sans le '\n')
+     */
+    void positionner(ByteBuffer tampon, long origine, int debut, int fin) {
+        if (fin > debut && tampon.get(fin - 1) == '\r') {
+            fin--;
+        }
+        this.tampon = tampon;
+        this.origine = origine;
+        this.debutLigne = debut;
+        this.finLigne = fin;
+        this.nbChamps = 0;
+        int d = debut;
+        for (int i = debut; i < fin; i++) {
+            if (tampon.get(i) == SEP) {
+                ajouterChamp(d, i);
+                d = i + 1;
+            }
+        }
+        ajouterChamp(d, fin);
+    }
+
+    private void ajouterChamp(int d, int f) {
+        if (nbChamps == debuts.length) {
+            debuts = Arrays.copyOf(debuts, nbChamps * 2);
+            fins = Arrays.copyOf(fins, nbChamps * 2);
+        }
+        debuts[nbChamps] = d;
+        fins[nbChamps] = f;
+        nbChamps++;
+    }
+
+    /**
+     * Indique si la ligne ne contient que des blancs.
+     *
+     * @return true si la ligne est vide ou blanche
+     */
+    public boolean estBlanche() {
+        for (int i = debutLigne; i < finLigne; i++) {
+            if ((tampon.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne le nombre de champs de la ligne.
+     *
+     * @return le nombre de champs
+     */
+    public int nbChamps() {
+        return nbChamps;
+    }
+
+    /**
+     * Retourne le champ demandé sous forme de chaîne.
+     *
+     * @param i indice du champ
+     * @return le contenu du champ
+     */
+    public String champ(int i) {
+        return decoder(debuts[i], fins[i]);
+    }
+
+    /**
+     * Retourne la fin de la ligne à partir du champ demandé, séparateurs compris
+     * (équivalent du dernier élément de {@code split(";", i + 1)}).
+     *
+     * @param i indice du premier champ
+     * @return le reste de la ligne
+     */
+    public String reste(int i) {
+        return decoder(debuts[i], finLigne);
+    }
+
+    /**
+     * Interprète le champ comme un booléen, avec la même règle que
+     * {@link Boolean#parseBoolean(String)}, sans construire de chaîne.
+     *
+     * @param i indice du champ
+     * @return true si le champ vaut "true" (sans tenir compte de la casse)
+     */
+    public boolean champBooleen(int i) {
+        int d = debuts[i];
+        if (fins[i] - d != 4) {
+            return false;
+        }
+        return (tampon.get(d) | 0x20) == 't' && (tampon.get(d + 1) | 0x20) == 'r'
+                && (tampon.get(d + 2) | 0x20) == 'u' && (tampon.get(d + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * Retourne la position dans le fichier du premier octet du champ demandé.
+     *
+     * @param i indice du champ
+     * @return la position en octets
+     */
+    public long positionChamp(int i) {
+        return origine + debuts[i];
+    }
+
+    /**
+     * Retourne la longueur en octets de la fin de la ligne à partir du champ demandé
+     * (la chaîne renvoyée par {@link #reste(int)}, encodée en UTF-8).
+     *
+     * @param i indice du premier champ
+     * @return la longueur en octets
+     */
+    public int longueurReste(int i) {
+        return finLigne - debuts[i];
+    }
+
+    /**
+     * Retourne la ligne complète (utilisé pour les messages d'erreur).
+     *
+     * @return la ligne
+     */
+    public String texte() {
+        return decoder(debutLigne, finLigne);
+    }
+
+    private String decoder(int d, int f) {
+        int n = f - d;
+        if (tampon.hasArray()) {
+            return new String(tampon.array(), tampon.arrayOffset() + d, n, StandardCharsets.UTF_8);
+        }
+        if (copie.length < n) {
+            copie = new byte[Math.max(n, copie.length * 2)];
+        }
+        tampon.get(d, copie, 0, n);
+        return new String(copie, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * Mode de lecture des fichiers CSV par {@link ModeleAnnotation}.
+ *
+ * @version 1.0
+ */
+public enum ModeChargement {
+
+    /** Chaque plage du fichier est copiée dans un tampon en mémoire avant d'être analysée. */
+    FLUX,
+
+    /**
+     * Chaque plage du fichier est projetée en mémoire ({@code FileChannel.map}) et analysée
+     * directement dans le {@link java.nio.MappedByteBuffer}, sans copie intermédiaire.
+     */
+    MEMOIRE_MAPPEE
+}
@@ -1,6 +1,7 @@
 package model;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -65,6 +66,92 @@ public interface Modele {
      */
     Map<String, CollectionDeTextes> getCollectionsMap();
 
+    /**
+     * Retourne une collection prête à être parcourue, en lisant ses textes et leurs
+     * annotations s'ils n'ont pas encore été chargés.
+     *
+     * @param nom le nom de la collection
+     * @return la collection, ou null si elle n'existe pas
+     * @throws IOException en cas d'erreur de lecture
+     */
+    CollectionDeTextes ouvrirCollection(String nom) throws IOException;
+
+    /**
+     * Retourne les annotations écrites par un auteur, dans leur ordre d'ajout.
+     *
+     * @param auteurId l'identifiant de l'auteur
+     * @return la liste des annotations (vide si aucune)
+     */
+    List<Annotation> getAnnotationsParAuteur(String auteurId);
+
+    /**
+     * Retourne les annotations d'un texte, dans leur ordre d'ajout.
+     *
+     * @param texteId l'identifiant du texte
+     * @return la liste des annotations (vide si aucune)
+     */
+    List<Annotation> getAnnotationsParTexte(String texteId);
+
+    /**
+     * Retourne les annotations selon leur état de validation, dans leur ordre d'ajout.
+     *
+     * @param valide true pour les annotations validées, false pour celles en attente
+     * @return la liste des annotations (vide si aucune)
+     */
+    List<Annotation> getAnnotationsParValidite(boolean valide);
+
+    /**
+     * Retourne une plage des annotations d'un état de validation, dans leur ordre d'ajout,
+     * sans copier les autres.
+     *
+     * @param valide true pour les annotations validées, false pour celles en attente
+     * @param debut  rang de la première annotation
+     * @param nb     nombre maximal d'annotations
+     * @return la liste des annotations de la plage
+     */
+    List<Annotation> getAnnotationsParValidite(boolean valide, int debut, int nb);
+
+    /**
+     * Retourne le nombre d'annotations dans un état de validation.
+     *
+     * @param valide true pour les annotations validées, false pour celles en attente
+     * @return le nombre d'annotations
+     */
+    int nbAnnotationsParValidite(boolean valide);
+
+    /**
+     * Retourne la file de révision des annotations en attente de validation.
+     *
+     * @return la file, partagée par tous les administrateurs
+     */
+    FileRevision getFileRevision();
+
+    /**
+     * Fige l'état du modèle : la version obtenue ne change plus, même si le modèle continue
+     * d'être modifié. L'appel ne copie rien et ne bloque aucune modification.
+     *
+     * @return la version courante du modèle
+     */
+    VersionModele figer();
+
+    /**
+     * Recherche les textes dont le contenu contient les mots de la requête.
+     *
+     * @param requete les mots recherchés
+     * @param max     le nombre maximal de résultats
+     * @return les textes trouvés, du plus pertinent au moins pertinent
+     */
+    List<Texte> rechercherTextes(String requete, int max);
+
+    /**
+     * Recherche les annotations dont le contenu contient les mots de la requête.
+     *
+     * @param requete les mots recherchés
+     * @param max     le nombre maximal de résultats
+     * @return les annotations trouvées, de la plus pertinente à la moins pertinente
+     */
+    List<Annotation> rechercherAnnotations(String requete, int max);
+
     /**
      * Ajoute une collection en mémoire.
      *
@@ -79,6 +166,19 @@ public interface Modele {
      */
     void addTexte(Texte t);
 
+    /**
+     * Crée des textes en un seul lot et les ajoute à la fin d'une collection.
+     * <p>
+     * Les numéros du lot sont réservés en une fois et aucun événement n'est publié par texte :
+     * l'appelant signale l'opération par un seul événement résumé (voir {@link ImportMasse}).
+     * </p>
+     *
+     * @param c        la collection qui reçoit les textes (déjà ajoutée au modèle)
+     * @param contenus les contenus des textes, dans l'ordre
+     * @return les textes créés, dans le même ordre
+     */
+    List<Texte> addTextes(CollectionDeTextes c, List<String> contenus);
+
     /**
      * Ajoute une annotation en mémoire.
      *
@@ -86,6 +186,22 @@ public interface Modele {
      */
     void addAnnotation(Annotation a);
 
+    /**
+     * Valide un lot d'annotations en une seule opération, en remplaçant le contenu de celles
+     * pour lesquelles un nouveau contenu est donné.
+     * <p>
+     * Les annotations sont traitées en parallèle, texte par texte ; les ensembles par validité
+     * sont mis à jour au fil du lot, la version figée, la recherche et la persistance une seule
+     * fois, à la fin du lot. Les annotations déjà valides et inchangées, ou absentes du
+     * modèle, sont ignorées.
+     * </p>
+     *
+     * @param lot les annotations, associées à leur nouveau contenu ou à null pour le garder
+     * @return le nombre d'annotations modifiées
+     * @throws IOException si les modifications n'ont pas pu être rendues durables
+     */
+    int validerAnnotations(Map<Annotation, String> lot) throws IOException;
+
     /**
      * Génère un nouvel identifiant de texte.
      *
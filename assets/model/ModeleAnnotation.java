@@ -1,8 +1,39 @@
 package model;
 
+import model.metriques.Compteur;
+import model.metriques.Histogramme;
+import model.metriques.Metriques;
+import model.observer.BusEvenements;
+import model.recherche.IndexInverse;
+import model.recherche.ResultatRecherche;
+
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * Implémentation concrète de l'interface {@link Modele}.
@@ -10,6 +41,45 @@ import java.util.Map;
  * Gère le chargement et la sauvegarde des entités via des fichiers CSV,
  * ainsi que le stockage en mémoire.
  * </p>
+ * <p>
+ * Si le journal est activé ({@link #setJournalActif(boolean)}), chaque modification est
+ * ajoutée à un {@link Journal} placé à côté des fichiers CSV : {@link #saveAll} se contente
+ * alors de rendre le journal durable, et les CSV sont mis à jour en arrière-plan par un
+ * {@link CompacteurJournal}. Une sauvegarde vers d'autres fichiers en écrit une copie complète.
+ * </p>
+ * <p>
+ * Sans journal, {@link #saveAll} n'écrit que les fichiers modifiés depuis le chargement ou
+ * la sauvegarde précédente : les nouvelles lignes sont ajoutées en fin de fichier (voir
+ * {@link ModificationsFichier}), et un fichier n'est réécrit entièrement que lorsque trop de
+ * ses lignes sont périmées. Chaque réécriture complète produit aussi un {@link InstantaneBinaire} ;
+ * au démarrage, il est préféré aux fichiers CSV lorsqu'il est plus récent qu'eux.
+ * </p>
+ * <p>
+ * Le modèle peut être partagé par plusieurs sessions concurrentes : les tables et les index
+ * sont des structures concurrentes et les identifiants sont générés sans verrou, par blocs
+ * réservés dans un fichier partagé (voir {@link AllocateurFichier}).
+ * </p>
+ * <p>
+ * Chaque modification publie aussi une nouvelle {@link VersionModele}, qui partage l'essentiel
+ * de la précédente. {@link #saveAll} écrit la version courante : une sauvegarde complète
+ * écrit un état cohérent sans arrêter les sessions qui modifient le modèle pendant ce temps.
+ * </p>
+ * <p>
+ * Les textes et les annotations sont rangés par numéro dans des {@link TableEntiers} ;
+ * {@link #getTextesMap()} et {@link #getAnnotationsMap()} en sont des vues indexées par les
+ * identifiants textuels (voir {@link RegistreIdentifiants}). Les lignes dont l'identifiant
+ * n'est pas canonique sont signalées et ignorées au chargement.
+ * </p>
+ * <p>
+ * Le contenu des textes et des annotations est indexé par deux {@link IndexInverse},
+ * construits à la première recherche puis tenus à jour à chaque ajout ou modification.
+ * </p>
+ * <p>
+ * Avec le rangement par collection ({@link #setStockageParCollection(boolean)}), chaque
+ * collection a ses propres fichiers (voir {@link StockageParCollection}) : elle n'est lue qu'à
+ * sa première ouverture ({@link #ouvrirCollection(String)}) et n'est réécrite que si elle a
+ * été modifiée.
+ * </p>
  * 
  * @author 
  * @version 1.0
@@ -19,40 +89,667 @@ public class ModeleAnnotation implements Modele {
     /** Séparateur utilisé dans les fichiers CSV */
     private static final String SEP = ";";
 
+    /** Pool utilisé pour lire et analyser les fichiers CSV en parallèle. */
+    private static final ForkJoinPool POOL_CHARGEMENT = ForkJoinPool.commonPool();
+
+    /**
+     * Mesures du chargement, de la sauvegarde et des écritures CSV (voir {@link Metriques}).
+     * L'attribution d'un identifiant coûte une centaine de nanosecondes : la chronométrer
+     * doublerait presque son coût, elle n'est que comptée.
+     */
+    private static final Histogramme M_CHARGEMENT = Metriques.defaut().histogramme("modele.chargement");
+    private static final Histogramme M_SAUVEGARDE = Metriques.defaut().histogramme("modele.sauvegarde");
+    private static final Compteur M_ID_TEXTE = Metriques.defaut().compteur("modele.generateTexteId");
+    private static final Compteur M_ID_ANNOTATION = Metriques.defaut().compteur("modele.generateAnnotationId");
+    private static final Histogramme M_ECRITURE_UTILISATEURS = Metriques.defaut().histogramme("csv.ecriture.utilisateurs");
+    private static final Histogramme M_ECRITURE_TEXTES = Metriques.defaut().histogramme("csv.ecriture.textes");
+    private static final Histogramme M_ECRITURE_ANNOTATIONS = Metriques.defaut().histogramme("csv.ecriture.annotations");
+    private static final Histogramme M_ECRITURE_COLLECTIONS = Metriques.defaut().histogramme("csv.ecriture.collections");
+    private static final Histogramme M_ECRITURE_MEMBRES = Metriques.defaut().histogramme("csv.ecriture.membres");
+    private static final Compteur M_OCTETS_LUS = Metriques.defaut().compteur("csv.octets.lus");
+    private static final Compteur M_LIGNES_LUES = Metriques.defaut().compteur("csv.lignes.lues");
+    private static final Compteur M_OCTETS_ECRITS = Metriques.defaut().compteur("csv.octets.ecrits");
+
     private Map<String, Utilisateur> utilisateursMap;
-    private Map<String, Texte> textesMap;
-    private Map<String, Annotation> annotationsMap;
+    private TableEntiers<Texte> textes;
+    private TableEntiers<Annotation> annotations;
     private Map<String, CollectionDeTextes> collectionsMap;
 
-    private int nextTexteNumber;
-    private int nextAnnotationNumber;
+    /** Numéros des textes et des annotations, identifiants d'auteurs partagés. */
+    private final RegistreIdentifiants registre = new RegistreIdentifiants();
+
+    /** Ordre des annotations dans les index : l'ordre des numéros, donc l'ordre de création. */
+    private static final Comparator<Annotation> ORDRE_ANNOTATIONS = Comparator.comparingLong(Annotation::getNumero);
+
+    /** Index secondaires : annotations par auteur, par texte et par état de validation. */
+    private Map<String, Set<Annotation>> annotationsParAuteur;
+    private TableEntiers<Set<Annotation>> annotationsParTexte;
+    private Set<Annotation> annotationsValidees;
+    private Set<Annotation> annotationsEnAttente;
+    /** Tailles des deux ensembles précédents (la taille d'une liste à enjambements se compte en la parcourant). */
+    private final AtomicInteger nbValidees = new AtomicInteger();
+    private final AtomicInteger nbEnAttente = new AtomicInteger();
+
+    /** Index de recherche du contenu des textes et des annotations. */
+    private final IndexInverse indexTextes = new IndexInverse();
+    private final IndexInverse indexAnnotations = new IndexInverse();
+
+    /** Fichiers des plafonds d'identifiants, placés à côté des fichiers CSV. */
+    static final String FICHIER_IDS_TEXTES = "identifiants-textes.dat";
+    static final String FICHIER_IDS_ANNOTATIONS = "identifiants-annotations.dat";
+
+    /** Allocateurs des numéros de textes et d'annotations (voir {@link #setAllocateurs}). */
+    private AllocateurIdentifiants allocateurTextes = new AllocateurMemoire();
+    private AllocateurIdentifiants allocateurAnnotations = new AllocateurMemoire();
+    /** Indique si les allocateurs ont été choisis par {@link #setAllocateurs}. */
+    private boolean allocateursFixes;
+
+    /** Cache des contenus de textes chargés à la demande (null : contenus gardés en mémoire). */
+    private CacheContenus cacheContenus;
+    /** Fichier d'où sont relus les contenus des textes chargés à la demande. */
+    private SourceContenus sourceContenus;
+
+    /** Modifications des fichiers CSV depuis leur dernière écriture. */
+    private final ModificationsFichier<Texte> modificationsTextes = new ModificationsFichier<>();
+    private final ModificationsFichier<Annotation> modificationsAnnotations = new ModificationsFichier<>();
+    /** Lignes {@code nom;texteId} à ajouter à collections.csv. */
+    private final ConcurrentLinkedQueue<String> ajoutsCollections = new ConcurrentLinkedQueue<>();
+    /** Utilisateurs tels qu'écrits ou lus la dernière fois (utilisateurs.csv n'est réécrit que s'ils changent). */
+    private Set<Utilisateur> utilisateursEcrits = Collections.emptySet();
+    /** Indique qu'un mot de passe a été haché ou renforcé depuis la dernière écriture d'utilisateurs.csv. */
+    private volatile boolean motsDePasseModifies;
+    /** Fichiers lus ou écrits la dernière fois : des ajouts n'ont de sens que dans ces fichiers. */
+    private List<Path> fichiersEcrits = List.of();
+    /** Nombre de lignes d'annotations.csv, et de lignes remplacées par une ligne plus récente. */
+    private long lignesAnnotations;
+    private long lignesAnnotationsPerimees;
+
+    /** Verrou commun aux sources de contenus, entre lesquelles un texte peut passer. */
+    private final ReentrantReadWriteLock verrouContenus = new ReentrantReadWriteLock();
+
+    /** Indique si le rangement par collection a été demandé. */
+    private boolean stockageParCollection;
+    /** Rangement par collection (null si tout est dans les fichiers CSV principaux). */
+    private StockageParCollection stockage;
+
+    /** Mode de lecture des fichiers CSV. */
+    private ModeChargement modeChargement = ModeChargement.FLUX;
+    /** Nombre d'octets lus lors du dernier chargement. */
+    private long octetsCharges;
+    /** Durée du dernier chargement, en nanosecondes. */
+    private long dureeChargementNanos;
+    /** Nombre d'octets CSV écrits lors de la dernière sauvegarde. */
+    private long octetsSauves;
+    /** Durée d'écriture des fichiers CSV lors de la dernière sauvegarde, en nanosecondes. */
+    private long dureeSauvegardeNanos;
+
+    /** Indique si les modifications doivent être journalisées. */
+    private boolean journalActif;
+    /** Journal des modifications (null si le journal n'est pas actif). */
+    private Journal journal;
+    /** Suivi transmis aux entités enregistrées dans ce modèle. */
+    private final SuiviMutations suivi = new Suivi();
+    /** File de révision, construite à la première demande puis tenue à jour avec l'index des annotations en attente. */
+    private volatile FileRevision fileRevision;
+    /** Version courante, remplacée à chaque modification ; null pendant le chargement. */
+    private final AtomicReference<VersionModele> version = new AtomicReference<>();
 
     /**
      * Constructeur initialisant les collections et les compteurs.
      */
     public ModeleAnnotation() {
-        this.utilisateursMap = new HashMap<>();
-        this.textesMap = new HashMap<>();
-        this.annotationsMap = new HashMap<>();
-        this.collectionsMap = new HashMap<>();
-        this.nextTexteNumber = 1;
-        this.nextAnnotationNumber = 1;
+        this.utilisateursMap = new ConcurrentHashMap<>();
+        this.textes = new TableEntiers<>();
+        this.annotations = new TableEntiers<>();
+        this.collectionsMap = new ConcurrentHashMap<>();
+        this.annotationsParAuteur = new ConcurrentHashMap<>();
+        this.annotationsParTexte = new TableEntiers<>();
+        this.annotationsValidees = nouvelIndex();
+        this.annotationsEnAttente = nouvelIndex();
+        this.version.set(VersionModele.vide(annotationsParAuteur));
     }
 
+    /**
+     * Charge les quatre fichiers CSV.
+     * <p>
+     * Les fichiers sont analysés en parallèle : utilisateurs, textes, annotations et collections
+     * sont lus en même temps. Les annotations et les collections ne sont rattachées à leurs textes
+     * qu'une fois la table des textes construite.
+     * </p>
+     */
     @Override
     public void loadAll(String usersCsv, String textesCsv, String annotationsCsv, String collectionsCsv) throws IOException {
-        lireUtilisateurs(usersCsv);
-        lireTextes(textesCsv);
-        lireAnnotations(annotationsCsv);
-        lireCollections(collectionsCsv);
+        long debut = System.nanoTime();
+        String source = modeChargement.toString();
+        // Aucune notification pendant le chargement : une par ligne de collections.csv sinon.
+        BusEvenements.defaut().suspendre();
+        // Ni version par entité lue : la version est construite d'un coup à la fin.
+        version.set(null);
+        try {
+            if (!allocateursFixes) {
+                Path dossier = Path.of(textesCsv).toAbsolutePath().getParent();
+                allocateurTextes = new AllocateurFichier(dossier.resolve(FICHIER_IDS_TEXTES));
+                allocateurAnnotations = new AllocateurFichier(dossier.resolve(FICHIER_IDS_ANNOTATIONS));
+            }
+            Path dossierCsv = Path.of(textesCsv).toAbsolutePath().getParent();
+            if (stockageParCollection || StockageParCollection.existe(dossierCsv)) {
+                if (journalActif) {
+                    System.err.println("Rangement par collection ignoré : incompatible avec le journal.");
+                } else {
+                    stockage = new StockageParCollection(dossierCsv);
+                }
+            }
+            Path instantane = fichierInstantane(textesCsv);
+            // L'instantané contient tout le modèle : il n'a pas de sens avec des collections lues à la demande.
+            if (stockage == null && instantaneAJour(instantane, usersCsv, textesCsv, annotationsCsv, collectionsCsv)
+                    && chargerInstantane(instantane)) {
+                octetsCharges = Files.size(instantane);
+                source = InstantaneBinaire.NOM_FICHIER;
+            } else {
+                octetsCharges = new File(usersCsv).length() + new File(textesCsv).length()
+                        + new File(annotationsCsv).length() + new File(collectionsCsv).length();
+                chargerCsv(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+            }
+            if (stockage != null) {
+                // Les collections rangées par dossier sont connues mais pas encore lues.
+                for (String nom : stockage.nomsEnregistres()) {
+                    collection(nom);
+                    stockage.partition(nom);
+                }
+            }
+            if (journalActif) {
+                ouvrirJournal(textesCsv, annotationsCsv, collectionsCsv);
+            }
+            migrerMotsDePasse();
+        } finally {
+            version.set(VersionModele.construire(textes, annotations, collectionsMap.values(), annotationsParAuteur));
+            BusEvenements.defaut().reprendre();
+        }
+
+        // Le chargement lui-même ne compte pas comme une modification.
+        marquerEcrits(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+        modificationsTextes.effacer();
+        modificationsAnnotations.effacer();
+        ajoutsCollections.clear();
+        if (lignesAnnotations == 0) {
+            // Chargé depuis l'instantané, écrit en même temps qu'un annotations.csv compacté.
+            lignesAnnotations = annotations.size();
+        }
+
+        dureeChargementNanos = System.nanoTime() - debut;
+        M_CHARGEMENT.enregistrer(dureeChargementNanos);
+        System.out.printf("Chargement (%s) : %d octets en %d ms (%.1f Mo/s)%n", source,
+                octetsCharges, dureeChargementNanos / 1_000_000, getDebitChargement() / (1024.0 * 1024.0));
     }
 
+    /**
+     * Indique si l'instantané existe et est plus récent que tous les fichiers CSV.
+     */
+    private static boolean instantaneAJour(Path instantane, String... csv) throws IOException {
+        if (!Files.exists(instantane)) {
+            return false;
+        }
+        FileTime date = Files.getLastModifiedTime(instantane);
+        for (String f : csv) {
+            Path p = Path.of(f);
+            if (Files.exists(p) && Files.getLastModifiedTime(p).compareTo(date) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path fichierInstantane(String textesCsv) {
+        return Path.of(textesCsv).toAbsolutePath().resolveSibling(InstantaneBinaire.NOM_FICHIER);
+    }
+
+    /**
+     * Charge l'état complet depuis l'instantané binaire. Les tables sont dimensionnées
+     * d'après les compteurs de l'en-tête.
+     *
+     * @return false si l'instantané est illisible (ancienne version, fichier corrompu) :
+     *         le modèle n'a pas été modifié et les fichiers CSV doivent être lus
+     */
+    private boolean chargerInstantane(Path instantane) {
+        InstantaneBinaire.Contenu c;
+        try {
+            c = InstantaneBinaire.lire(instantane, cacheContenus);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Instantané ignoré (" + instantane + "): " + e.getMessage());
+            return false;
+        }
+        sourceContenus = c.source;
+        utilisateursMap = new ConcurrentHashMap<>(c.utilisateurs.size() * 4 / 3 + 1);
+        textes = new TableEntiers<>(c.textes.size());
+        annotations = new TableEntiers<>(c.annotations.size());
+        annotationsParTexte = new TableEntiers<>(c.textes.size());
+        collectionsMap = new ConcurrentHashMap<>(c.collections.size() * 4 / 3 + 1);
+        rangerUtilisateurs(c.utilisateurs);
+        for (Texte t : c.textes) {
+            textes.put(t.getNumero(), t);
+        }
+        for (Annotation a : c.annotations) {
+            annotations.put(a.getNumero(), a);
+            indexer(a);
+            a.setSuivi(suivi);
+        }
+        for (Map.Entry<String, List<Texte>> e : c.collections.entrySet()) {
+            CollectionDeTextes col = collection(e.getKey());
+            for (Texte t : e.getValue()) {
+                col.ajouterTexte(t);
+            }
+        }
+        allocateurTextes.reserverJusqua(c.prochainTexte - 1);
+        allocateurAnnotations.reserverJusqua(c.prochaineAnnotation - 1);
+        return true;
+    }
+
+    /**
+     * Lit les quatre fichiers CSV en parallèle et relie les entités entre elles.
+     */
+    private void chargerCsv(String usersCsv, String textesCsv, String annotationsCsv, String collectionsCsv)
+            throws IOException {
+        if (cacheContenus != null && Files.exists(Path.of(textesCsv))) {
+            sourceContenus = new SourceContenus(Path.of(textesCsv), cacheContenus, verrouContenus);
+        }
+        LecteurCsvParallele lecteur = new LecteurCsvParallele(POOL_CHARGEMENT, modeChargement);
+        CompletableFuture<List<Utilisateur>> users = lireAsync(lecteur, usersCsv, "utilisateurs", this::lireUtilisateur);
+        CompletableFuture<List<Texte>> textes = lireAsync(lecteur, textesCsv, "textes",
+                ligne -> lireTexte(ligne, sourceContenus));
+        CompletableFuture<List<Annotation>> anns = lireAsync(lecteur, annotationsCsv, "annotations", this::lireAnnotation);
+        CompletableFuture<List<String[]>> cols = lireAsync(lecteur, collectionsCsv, "collections", this::lireCollection);
+
+        CompletableFuture<Void> usersLus = users.thenAccept(this::rangerUtilisateurs);
+        CompletableFuture<Void> textesLus = textes.thenAccept(this::rangerTextes);
+        CompletableFuture<Void> annsLiees = textesLus.thenCombine(anns, (v, l) -> l).thenAccept(l -> {
+            lignesAnnotations = l.size();
+            lierAnnotations(l);
+        });
+        CompletableFuture<Void> colsLiees = textesLus.thenCombine(cols, (v, l) -> l).thenAccept(this::lierCollections);
+        try {
+            CompletableFuture.allOf(usersLus, annsLiees, colsLiees).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Choisit le mode de lecture des fichiers CSV utilisé par {@link #loadAll}.
+     *
+     * @param mode le mode de chargement
+     */
+    public void setModeChargement(ModeChargement mode) {
+        this.modeChargement = mode;
+    }
+
+    /**
+     * Retourne le mode de lecture des fichiers CSV.
+     *
+     * @return le mode de chargement
+     */
+    public ModeChargement getModeChargement() {
+        return modeChargement;
+    }
+
+    /**
+     * Active le chargement des contenus de textes à la demande.
+     * Doit être appelé avant {@link #loadAll}.
+     * <p>
+     * Les textes chargés ne gardent que la position de leur contenu dans {@code textes.csv}
+     * (ou dans l'instantané) ; les contenus lus sont gardés dans un {@link CacheContenus}
+     * borné. La mémoire occupée dépend alors des textes consultés et non de la taille du corpus.
+     * </p>
+     *
+     * @param capacite taille maximale du cache, en octets
+     */
+    public void setChargementALaDemande(long capacite) {
+        this.cacheContenus = new CacheContenus(capacite);
+    }
+
+    /**
+     * Retourne le cache des contenus de textes.
+     *
+     * @return le cache, ou null si les contenus sont gardés en mémoire
+     */
+    public CacheContenus getCacheContenus() {
+        return cacheContenus;
+    }
+
+    /**
+     * Active le rangement des textes et des annotations dans un dossier par collection.
+     * Doit être appelé avant {@link #loadAll}. Le rangement est aussi utilisé dès qu'un
+     * dossier {@value StockageParCollection#DOSSIER} existe à côté des fichiers CSV.
+     * <p>
+     * Au premier {@link #saveAll}, les collections lues dans les fichiers principaux sont
+     * déplacées dans leurs dossiers ; les fichiers principaux ne gardent que les textes qui
+     * n'appartiennent à aucune collection. Une sauvegarde vers d'autres fichiers que ceux
+     * chargés en écrit une copie complète, à plat. Ce rangement n'est pas compatible avec le journal.
+     * </p>
+     *
+     * @param actif true pour ranger les données par collection
+     */
+    public void setStockageParCollection(boolean actif) {
+        this.stockageParCollection = actif;
+    }
+
+    /**
+     * Choisit les allocateurs des numéros de textes et d'annotations.
+     * Doit être appelé avant {@link #loadAll}.
+     * <p>
+     * Par défaut, {@link #loadAll} utilise des {@link AllocateurFichier} placés à côté des
+     * fichiers CSV, ce qui permet à plusieurs processus de créer des entités dans le même
+     * dossier sans collision d'identifiants.
+     * </p>
+     *
+     * @param textes      l'allocateur des numéros de textes
+     * @param annotations l'allocateur des numéros d'annotations
+     */
+    public void setAllocateurs(AllocateurIdentifiants textes, AllocateurIdentifiants annotations) {
+        this.allocateurTextes = textes;
+        this.allocateurAnnotations = annotations;
+        this.allocateursFixes = true;
+    }
+
+    /**
+     * Active ou désactive la journalisation des modifications.
+     * Doit être appelé avant {@link #loadAll}.
+     *
+     * @param actif true pour journaliser les modifications
+     */
+    public void setJournalActif(boolean actif) {
+        this.journalActif = actif;
+    }
+
+    /**
+     * Retourne le débit du dernier chargement.
+     *
+     * @return le nombre d'octets lus par seconde (0 si aucun chargement)
+     */
+    public double getDebitChargement() {
+        if (dureeChargementNanos == 0) {
+            return 0;
+        }
+        return octetsCharges * 1e9 / dureeChargementNanos;
+    }
+
+    /**
+     * Sauvegarde les entités.
+     * <p>
+     * Avec le journal actif, seules les modifications de la session sont rendues durables :
+     * le coût dépend de ce qui a changé et non de la taille du corpus. Les fichiers CSV chargés
+     * sont mis à jour par le compacteur, sauf utilisateurs.csv, qui n'est pas journalisé et est
+     * réécrit ici lorsqu'un utilisateur ou un mot de passe a changé. Des fichiers différents de
+     * ceux chargés reçoivent une copie complète du modèle, qui reste attaché aux fichiers
+     * chargés et à leur journal.
+     * </p>
+     * <p>
+     * Sans journal, les fichiers inchangés ne sont pas touchés et les créations ou modifications
+     * sont ajoutées en fin de fichier. Les fichiers sont réécrits entièrement s'ils diffèrent de
+     * ceux du chargement, ou si plus d'un quart des lignes d'annotations.csv sont périmées.
+     * Avec le rangement par collection, des fichiers différents de ceux chargés reçoivent une
+     * copie complète et le modèle reste attaché à son rangement.
+     * </p>
+     * <p>
+     * Les lignes écrites sont lues dans la version courante du modèle, figée une fois les
+     * modifications à écrire relevées : les sessions peuvent continuer à modifier le modèle
+     * pendant l'écriture, leurs modifications seront écrites à la sauvegarde suivante.
+     * </p>
+     */
     @Override
     public void saveAll(String usersCsv, String textesCsv, String annotationsCsv, String collectionsCsv) throws IOException {
+        long debut = System.nanoTime();
+        octetsSauves = 0;
+        dureeSauvegardeNanos = 0;
+        if (journal != null) {
+            journal.synchroniser();
+            if (!fichiersEcrits.equals(chemins(usersCsv, textesCsv, annotationsCsv, collectionsCsv))) {
+                exporter(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+            } else if (utilisateursModifies()) {
+                // Les utilisateurs ne sont pas journalisés : utilisateurs.csv est réécrit.
+                sauverUtilisateurs(usersCsv);
+            }
+            M_SAUVEGARDE.enregistrerDepuis(debut);
+            return;
+        }
+        sauverFichiers(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+        M_SAUVEGARDE.enregistrerDepuis(debut);
+        System.out.printf("Sauvegarde (CSV) : %d octets en %d ms (%.1f Mo/s)%n",
+                octetsSauves, dureeSauvegardeNanos / 1_000_000, getDebitSauvegarde() / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Retourne le débit d'écriture des fichiers CSV lors de la dernière sauvegarde.
+     *
+     * @return le nombre d'octets écrits par seconde (0 si rien n'a été écrit)
+     */
+    public double getDebitSauvegarde() {
+        if (dureeSauvegardeNanos == 0) {
+            return 0;
+        }
+        return octetsSauves * 1e9 / dureeSauvegardeNanos;
+    }
+
+    private void sauverFichiers(String usersCsv, String textesCsv, String annotationsCsv, String collectionsCsv)
+            throws IOException {
+        boolean memesFichiers = fichiersEcrits.equals(chemins(usersCsv, textesCsv, annotationsCsv, collectionsCsv));
+        if (!memesFichiers && stockage != null) {
+            // Le rangement par collection reste dans son dossier : les autres fichiers en reçoivent une copie.
+            exporter(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+            return;
+        }
+        if (!memesFichiers || utilisateursModifies()) {
+            sauverUtilisateurs(usersCsv);
+        }
+        if (stockage != null) {
+            // Le rangement par collection suit ses propres indicateurs de modification.
+            modificationsTextes.effacer();
+            modificationsAnnotations.effacer();
+            ajoutsCollections.clear();
+            sauverParCollection(textesCsv, annotationsCsv, collectionsCsv);
+            marquerEcrits(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+            return;
+        }
+
+        // Relevé des modifications, puis version : chaque modification relevée est publiée
+        // avant d'être marquée, la version les contient donc toutes.
+        boolean complet = !memesFichiers;
+        boolean ajouts = !modificationsTextes.estVide() || !modificationsAnnotations.estVide()
+                || !ajoutsCollections.isEmpty();
+        List<Texte> textesAjoutes = null;
+        if (complet) {
+            modificationsTextes.effacer();
+        } else if (!modificationsTextes.estVide()) {
+            // Les textes ne sont jamais modifiés : seules des lignes sont ajoutées.
+            textesAjoutes = modificationsTextes.prendre(Comparator.comparingLong(Texte::getNumero));
+        }
+        long perimees = lignesAnnotationsPerimees + modificationsAnnotations.nbModifiees();
+        boolean reecrireAnnotations = complet || perimees > lignesAnnotations / 4;
+        List<Annotation> annotationsModifiees = null;
+        int nbModifiees = 0;
+        if (reecrireAnnotations) {
+            modificationsAnnotations.effacer();
+        } else if (!modificationsAnnotations.estVide()) {
+            nbModifiees = modificationsAnnotations.nbModifiees();
+            annotationsModifiees = modificationsAnnotations.prendre(ORDRE_ANNOTATIONS);
+        }
+        List<String> lignesCollections = new ArrayList<>();
+        if (!memesFichiers) {
+            ajoutsCollections.clear();
+        } else {
+            for (String ligne = ajoutsCollections.poll(); ligne != null; ligne = ajoutsCollections.poll()) {
+                lignesCollections.add(ligne);
+            }
+        }
+        VersionModele v = version.get();
+
+        if (complet) {
+            sourceContenus = ecrireTextes(Path.of(textesCsv), v.textes.valeurs(), sourceContenus, false);
+        } else if (textesAjoutes != null) {
+            sourceContenus = ecrireTextes(Path.of(textesCsv), textesAjoutes, sourceContenus, true);
+        }
+
+        if (reecrireAnnotations) {
+            complet = true;
+            ecrireAnnotations(annotationsCsv, v.annotations.valeurs(), false);
+            lignesAnnotations = v.annotations.taille();
+            lignesAnnotationsPerimees = 0;
+        } else if (annotationsModifiees != null) {
+            List<Annotation.Etat> lignes = new ArrayList<>(annotationsModifiees.size());
+            for (Annotation a : annotationsModifiees) {
+                lignes.add(v.annotations.get(a.getNumero()));
+            }
+            ecrireAnnotations(annotationsCsv, lignes, true);
+            lignesAnnotations += lignes.size();
+            lignesAnnotationsPerimees += nbModifiees;
+        }
+
+        if (!memesFichiers) {
+            ecrireCollections(collectionsCsv, v.collections);
+        } else if (!lignesCollections.isEmpty()) {
+            try (EcrivainCsv e = EcrivainCsv.ajouter(Path.of(collectionsCsv))) {
+                for (String ligne : lignesCollections) {
+                    e.chaine(ligne).finLigne();
+                }
+                terminer(e, M_ECRITURE_COLLECTIONS);
+            }
+        }
+
+        if (complet) {
+            InstantaneBinaire.ecrire(fichierInstantane(textesCsv), utilisateursMap.values(), v,
+                    allocateurTextes.prochain(), allocateurAnnotations.prochain());
+        } else if (ajouts) {
+            // L'instantané ne contient pas les lignes ajoutées : il ne doit plus être préféré aux CSV.
+            Files.deleteIfExists(fichierInstantane(textesCsv));
+        }
+        marquerEcrits(usersCsv, textesCsv, annotationsCsv, collectionsCsv);
+    }
+
+    /**
+     * Réécrit utilisateurs.csv et retient les utilisateurs écrits.
+     */
+    private void sauverUtilisateurs(String usersCsv) throws IOException {
+        Set<Utilisateur> ecrits = Collections.newSetFromMap(new IdentityHashMap<>());
+        ecrits.addAll(utilisateursMap.values());
+        motsDePasseModifies = false;
         ecrireUtilisateurs(usersCsv);
-        ecrireTextes(textesCsv);
-        ecrireAnnotations(annotationsCsv);
-        ecrireCollections(collectionsCsv);
+        utilisateursEcrits = ecrits;
+    }
+
+    private boolean utilisateursModifies() {
+        if (motsDePasseModifies || utilisateursEcrits.size() != utilisateursMap.size()) {
+            return true;
+        }
+        for (Utilisateur u : utilisateursMap.values()) {
+            if (!utilisateursEcrits.contains(u)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void marquerEcrits(String... fichiers) {
+        fichiersEcrits = chemins(fichiers);
+        if (utilisateursEcrits.isEmpty()) {
+            Set<Utilisateur> lus = Collections.newSetFromMap(new IdentityHashMap<>());
+            lus.addAll(utilisateursMap.values());
+            utilisateursEcrits = lus;
+        }
+    }
+
+    /**
+     * Écrit une copie complète du modèle dans d'autres fichiers que ceux qu'il utilise. Le
+     * modèle n'y est pas rattaché : le journal continue d'être compacté dans les fichiers
+     * chargés, le rangement par collection reste dans son dossier, et les contenus des textes
+     * chargés à la demande sont toujours relus dans leurs fichiers. Les collections rangées
+     * par dossier sont d'abord toutes lues ; la copie les écrit à plat dans les quatre fichiers.
+     */
+    private void exporter(String usersCsv, String textesCsv, String annotationsCsv, String collectionsCsv)
+            throws IOException {
+        if (stockage != null) {
+            for (StockageParCollection.Partition p : stockage.partitions()) {
+                chargerPartition(p);
+            }
+        }
+        VersionModele v = version.get();
+        ecrireUtilisateurs(usersCsv);
+        ecrireTextes(Path.of(textesCsv), v.textes.valeurs(), null, false, false);
+        ecrireAnnotations(annotationsCsv, v.annotations.valeurs(), false);
+        ecrireCollections(collectionsCsv, v.collections);
+        // Un instantané déjà présent à côté de la copie ne la décrit pas.
+        Files.deleteIfExists(fichierInstantane(textesCsv));
+    }
+
+    private static List<Path> chemins(String... fichiers) {
+        List<Path> res = new ArrayList<>(fichiers.length);
+        for (String f : fichiers) {
+            res.add(Path.of(f).toAbsolutePath().normalize());
+        }
+        return res;
+    }
+
+    /**
+     * Sauvegarde avec le rangement par collection : seules les collections modifiées sont
+     * réécrites, puis les fichiers principaux si des textes hors collection ont changé.
+     * Les collections sont écrites en premier : leurs textes peuvent encore être relus
+     * dans les fichiers principaux.
+     */
+    private void sauverParCollection(String textesCsv, String annotationsCsv, String collectionsCsv)
+            throws IOException {
+        List<StockageParCollection.Partition> aEcrire = new ArrayList<>();
+        for (StockageParCollection.Partition p : stockage.partitions()) {
+            if (p.chargee && p.modifiee) {
+                p.modifiee = false;
+                aEcrire.add(p);
+            }
+        }
+        boolean orphelins = stockage.prendreOrphelinsModifies();
+        if (aEcrire.isEmpty() && !orphelins) {
+            return;
+        }
+        VersionModele v = version.get();
+
+        // Répartition des textes et des annotations entre leurs fichiers, en un seul parcours.
+        Map<StockageParCollection.Partition, List<Texte>> textesPar = new HashMap<>();
+        Map<StockageParCollection.Partition, List<Annotation.Etat>> annotationsPar = new HashMap<>();
+        List<Texte> textesOrphelins = new ArrayList<>();
+        List<Annotation.Etat> annotationsOrphelines = new ArrayList<>();
+        for (StockageParCollection.Partition p : aEcrire) {
+            textesPar.put(p, new ArrayList<>());
+            annotationsPar.put(p, new ArrayList<>());
+        }
+        for (Texte t : v.textes.valeurs()) {
+            StockageParCollection.Partition p = stockage.proprietaire(t.getNumero());
+            if (p == null) {
+                textesOrphelins.add(t);
+            } else if (textesPar.containsKey(p)) {
+                textesPar.get(p).add(t);
+            }
+        }
+        for (Annotation.Etat e : v.annotations.valeurs()) {
+            StockageParCollection.Partition p = stockage.proprietaire(e.annotation.getTexteNumero());
+            if (p == null) {
+                annotationsOrphelines.add(e);
+            } else if (annotationsPar.containsKey(p)) {
+                annotationsPar.get(p).add(e);
+            }
+        }
+
+        for (StockageParCollection.Partition p : aEcrire) {
+            Files.createDirectories(p.dossier);
+            p.source = ecrireTextes(p.fichier(StockageParCollection.FICHIER_TEXTES), textesPar.get(p), p.source, false);
+            ecrireAnnotations(p.fichier(StockageParCollection.FICHIER_ANNOTATIONS).toString(), annotationsPar.get(p), false);
+            ecrireMembres(p, v.getTextes(p.nom));
+        }
+        if (orphelins) {
+            sourceContenus = ecrireTextes(Path.of(textesCsv), textesOrphelins, sourceContenus, false);
+            ecrireAnnotations(annotationsCsv, annotationsOrphelines, false);
+            // Les appartenances sont désormais dans les dossiers des collections.
+            ecrireCollections(collectionsCsv, Map.of());
+            Files.deleteIfExists(fichierInstantane(textesCsv));
+        }
     }
 
     @Override
@@ -60,264 +757,1020 @@ public class ModeleAnnotation implements Modele {
         return utilisateursMap;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * La map est une vue en lecture seule : utiliser {@link #addTexte(Texte)} pour ajouter un texte.
+     * </p>
+     */
     @Override
     public Map<String, Texte> getTextesMap() {
-        return textesMap;
+        return new VueIdentifiants<>(RegistreIdentifiants.PREFIXE_TEXTE, textes);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * La map est une vue en lecture seule : utiliser {@link #addAnnotation(Annotation)} pour
+     * ajouter une annotation.
+     * </p>
+     */
     @Override
     public Map<String, Annotation> getAnnotationsMap() {
-        return annotationsMap;
+        return new VueIdentifiants<>(RegistreIdentifiants.PREFIXE_ANNOTATION, annotations);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Avec le rangement par collection, les collections pas encore ouvertes y figurent mais
+     * sont vides : utiliser {@link #ouvrirCollection(String)} pour les parcourir.
+     * </p>
+     */
     @Override
     public Map<String, CollectionDeTextes> getCollectionsMap() {
         return collectionsMap;
     }
 
+    @Override
+    public CollectionDeTextes ouvrirCollection(String nom) throws IOException {
+        CollectionDeTextes c = collectionsMap.get(nom);
+        if (c != null && stockage != null) {
+            chargerPartition(stockage.partition(nom));
+        }
+        return c;
+    }
+
+    @Override
+    public List<Annotation> getAnnotationsParAuteur(String auteurId) {
+        chargerToutesLesCollections();
+        return copie(annotationsParAuteur.get(auteurId));
+    }
+
+    @Override
+    public List<Annotation> getAnnotationsParTexte(String texteId) {
+        long n = RegistreIdentifiants.numero(texteId, RegistreIdentifiants.PREFIXE_TEXTE);
+        return copie(n < 0 ? null : annotationsParTexte.get(n));
+    }
+
+    @Override
+    public List<Annotation> getAnnotationsParValidite(boolean valide) {
+        chargerToutesLesCollections();
+        return copie(valide ? annotationsValidees : annotationsEnAttente);
+    }
+
+    @Override
+    public List<Annotation> getAnnotationsParValidite(boolean valide, int debut, int nb) {
+        chargerToutesLesCollections();
+        List<Annotation> res = new ArrayList<>(Math.max(0, Math.min(nb, 1024)));
+        Iterator<Annotation> it = (valide ? annotationsValidees : annotationsEnAttente).iterator();
+        for (int i = 0; i < debut && it.hasNext(); i++) {
+            it.next();
+        }
+        while (res.size() < nb && it.hasNext()) {
+            res.add(it.next());
+        }
+        return res;
+    }
+
+    @Override
+    public int nbAnnotationsParValidite(boolean valide) {
+        chargerToutesLesCollections();
+        return (valide ? nbValidees : nbEnAttente).get();
+    }
+
+    private static List<Annotation> copie(Set<Annotation> s) {
+        return s == null ? new ArrayList<>() : new ArrayList<>(s);
+    }
+
+    @Override
+    public List<Texte> rechercherTextes(String requete, int max) {
+        chargerToutesLesCollections();
+        indexTextes.construire(() -> {
+            for (Texte t : getTextesMap().values()) {
+                indexTextes.indexer(t.getNumero(), t.getContenuSansCache());
+            }
+        });
+        List<Texte> res = new ArrayList<>();
+        for (ResultatRecherche r : indexTextes.rechercher(requete, max)) {
+            Texte t = textes.get(r.getNumero());
+            if (t != null) {
+                res.add(t);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public List<Annotation> rechercherAnnotations(String requete, int max) {
+        chargerToutesLesCollections();
+        indexAnnotations.construire(() -> {
+            for (Annotation a : getAnnotationsMap().values()) {
+                indexAnnotations.indexer(a.getNumero(), a.getContenu());
+            }
+        });
+        List<Annotation> res = new ArrayList<>();
+        for (ResultatRecherche r : indexAnnotations.rechercher(requete, max)) {
+            Annotation a = annotations.get(r.getNumero());
+            if (a != null) {
+                res.add(a);
+            }
+        }
+        return res;
+    }
+
     @Override
     public void addCollection(CollectionDeTextes c) {
         collectionsMap.put(c.getNom(), c);
+        // Vide dans la version : ses textes y sont ajoutés un à un par le suivi, ci-dessous.
+        publier(v -> v.avecCollection(c.getNom()));
+        c.setSuivi(suivi);
+        if (stockage != null) {
+            stockage.partition(c.getNom()).modifiee = true;
+        }
+        journaliser(Journal.collection(c));
+        for (Texte t : c.getTextes()) {
+            suivi.texteAjouteACollection(c, t);
+        }
     }
 
     @Override
     public void addTexte(Texte t) {
-        textesMap.put(t.getId(), t);
+        textes.put(t.getNumero(), t);
+        publier(v -> v.avecTexte(t));
+        indexTextes.indexer(t.getNumero(), t.getContenu());
+        marquer(t.getNumero());
+        if (!journaliser(Journal.texte(t))) {
+            modificationsTextes.ajouter(t);
+        }
+    }
+
+    @Override
+    public List<Texte> addTextes(CollectionDeTextes c, List<String> contenus) {
+        List<Texte> lot = new ArrayList<>(contenus.size());
+        if (contenus.isEmpty()) {
+            return lot;
+        }
+        long premier = allocateurTextes.allouer(contenus.size());
+        for (int i = 0; i < contenus.size(); i++) {
+            Texte t = new Texte(premier + i, contenus.get(i));
+            addTexte(t);
+            lot.add(t);
+        }
+        c.ajouterTextes(lot);
+        return lot;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Chaque annotation change d'état sous son propre verrou ; le lot est ensuite publié en
+     * une seule version, réindexé sous un seul verrou de l'index du contenu et journalisé en
+     * un seul groupe : {@link #figer()}, la recherche et le journal voient tout le lot ou rien.
+     * </p>
+     */
+    @Override
+    public int validerAnnotations(Map<Annotation, String> lot) throws IOException {
+        Map<Long, List<Map.Entry<Annotation, String>>> parTexte = new LinkedHashMap<>();
+        for (Map.Entry<Annotation, String> e : lot.entrySet()) {
+            parTexte.computeIfAbsent(e.getKey().getTexteNumero(), k -> new ArrayList<>()).add(e);
+        }
+        List<Annotation> modifiees = parTexte.entrySet().parallelStream().flatMap(groupe -> {
+            List<Annotation> res = new ArrayList<>();
+            for (Map.Entry<Annotation, String> e : groupe.getValue()) {
+                if (validerSansSuivi(e.getKey(), e.getValue())) {
+                    res.add(e.getKey());
+                }
+            }
+            if (!res.isEmpty()) {
+                marquer(groupe.getKey());
+            }
+            return res.stream();
+        }).collect(Collectors.toList());
+        if (modifiees.isEmpty()) {
+            return 0;
+        }
+
+        // L'état est relu à la publication : une modification concurrente publiée avant
+        // n'est pas effacée par un état plus ancien.
+        publier(v -> v.avecAnnotations(modifiees));
+        Map<Long, String> contenus = new HashMap<>();
+        for (Annotation a : modifiees) {
+            if (lot.get(a) != null) {
+                contenus.put(a.getNumero(), a.getContenu());
+            }
+        }
+        indexAnnotations.indexer(contenus);
+        if (journal != null) {
+            journal.ajouterAnnotations(modifiees);
+            journal.synchroniser();
+        } else {
+            for (Annotation a : modifiees) {
+                modificationsAnnotations.modifier(a);
+            }
+        }
+        return modifiees.size();
+    }
+
+    /**
+     * Valide une annotation d'un lot et la range dans l'ensemble des validées, sans publier
+     * de version : le reste du travail du suivi est fait pour tout le lot.
+     *
+     * @return true si l'annotation a changé
+     */
+    private boolean validerSansSuivi(Annotation a, String contenu) {
+        if (annotations.get(a.getNumero()) != a) {
+            return false;
+        }
+        synchronized (a) {
+            if (!a.validerSansSuivi(contenu)) {
+                return false;
+            }
+            rangerValidite(a);
+        }
+        return true;
     }
 
     @Override
     public void addAnnotation(Annotation a) {
-        annotationsMap.put(a.getAnnotationId(), a);
+        annotations.put(a.getNumero(), a);
+        // Suivie avant d'être indexée : une fois dans la file de révision, elle peut être validée aussitôt.
+        a.setSuivi(suivi);
+        indexer(a);
+        indexAnnotations.indexer(a.getNumero(), a.getContenu());
+        marquer(a.getTexteNumero());
+        if (!journaliser(Journal.annotation(a))) {
+            modificationsAnnotations.ajouter(a);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * À la première demande, la file reçoit les annotations en attente par ordre de création ;
+     * elle suit ensuite chaque changement de l'index des annotations en attente. Les baux
+     * durent {@code -Dprojetmc.dureeBail} minutes (10 par défaut).
+     * </p>
+     */
+    @Override
+    public FileRevision getFileRevision() {
+        FileRevision f = fileRevision;
+        if (f != null) {
+            return f;
+        }
+        synchronized (this) {
+            if (fileRevision == null) {
+                f = new FileRevision(Long.getLong("projetmc.dureeBail", 10), TimeUnit.MINUTES);
+                // Publiée d'abord : les changements pendant le remplissage sont déjà suivis.
+                fileRevision = f;
+                for (Annotation a : annotationsEnAttente) {
+                    synchronized (a) {
+                        if (!a.isValide()) {
+                            f.proposer(a, textes.get(a.getTexteNumero()));
+                        }
+                    }
+                }
+            }
+            return fileRevision;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Avec le rangement par collection, les collections pas encore ouvertes sont lues d'abord.
+     * </p>
+     */
+    @Override
+    public VersionModele figer() {
+        chargerToutesLesCollections();
+        return version.get();
     }
 
     @Override
     public String generateTexteId() {
-        String tid = "T" + nextTexteNumber;
-        nextTexteNumber++;
-        return tid;
+        M_ID_TEXTE.incrementer();
+        return RegistreIdentifiants.texte(allocateurTextes.allouer());
     }
 
     @Override
     public String generateAnnotationId() {
-        String aid = "A" + nextAnnotationNumber;
-        nextAnnotationNumber++;
-        return aid;
+        M_ID_ANNOTATION.incrementer();
+        return RegistreIdentifiants.annotation(allocateurAnnotations.allouer());
     }
 
-    // Méthodes privées de lecture CSV
+    // Rangement par collection
 
-    private void lireUtilisateurs(String filePath) throws IOException {
-        File f = new File(filePath);
-        if (!f.exists()) {
-            System.err.println("Fichier utilisateurs introuvable: " + filePath);
+    /**
+     * Lit les fichiers d'une collection rangée par dossier, si ce n'est pas déjà fait.
+     * Les collections dont elle référence des textes sont lues d'abord. Les lectures sont
+     * faites une à une : deux collections qui se référencent ne peuvent pas s'attendre.
+     */
+    private void chargerPartition(StockageParCollection.Partition p) throws IOException {
+        if (p.chargee) {
             return;
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank())
-                    continue;
-                // Format attendu : id;nom;email;role;motDePasse
-                String[] parts = line.split(SEP);
-                if (parts.length < 5) {
-                    System.err.println("Ligne utilisateur invalide: " + line);
-                    continue;
+        synchronized (stockage) {
+            if (p.chargee) {
+                return;
+            }
+            // Pas de suspension du bus, partagé par toutes les sessions : les textes lus sont
+            // neufs et les membres sont ajoutés par lot, sans événement.
+            LecteurCsvParallele lecteur = new LecteurCsvParallele(POOL_CHARGEMENT, modeChargement);
+            Path fTextes = p.fichier(StockageParCollection.FICHIER_TEXTES);
+            if (cacheContenus != null && Files.exists(fTextes)) {
+                p.source = new SourceContenus(fTextes, cacheContenus, verrouContenus);
+            }
+            SourceContenus source = p.source;
+            List<Texte> lus = lireSiPresent(lecteur, fTextes, ligne -> lireTexte(ligne, source));
+            for (Texte t : lus) {
+                stockage.attribuer(t.getNumero(), p);
+            }
+            rangerTextes(lus);
+            // Pas d'indexation : les recherches lisent toutes les collections avant de construire l'index.
+            lierAnnotations(lireSiPresent(lecteur, p.fichier(StockageParCollection.FICHIER_ANNOTATIONS),
+                    this::lireAnnotation));
+            CollectionDeTextes c = collection(p.nom);
+            Map<Long, Texte> membres = new LinkedHashMap<>();
+            for (String[] m : lireSiPresent(lecteur, p.fichier(StockageParCollection.FICHIER_MEMBRES),
+                    this::lireMembre)) {
+                if (m.length > 1) {
+                    chargerPartition(stockage.partition(m[1]));
                 }
-                String uid = parts[0];
-                String nom = parts[1];
-                String email = parts[2];
-                String role = parts[3];
-                String mdp = parts[4];
-
-                if ("ADMIN".equalsIgnoreCase(role)) {
-                    Administrateur admin = new Administrateur(uid, nom, email, mdp);
-                    utilisateursMap.put(uid, admin);
-                } else if ("ANNOTATEUR".equalsIgnoreCase(role)) {
-                    Annotateur an = new Annotateur(uid, nom, email, mdp);
-                    utilisateursMap.put(uid, an);
-                } else {
-                    System.err.println("Rôle inconnu: " + role);
+                long n = RegistreIdentifiants.numero(m[0], RegistreIdentifiants.PREFIXE_TEXTE);
+                Texte t = n < 0 ? null : textes.get(n);
+                if (t == null) {
+                    System.err.println("Texte introuvable: " + m[0]);
+                } else if (membres.putIfAbsent(n, t) != null) {
+                    System.err.println("Texte " + m[0] + " en double dans la collection: " + c.getNom());
                 }
             }
+            c.ajouterTextes(new ArrayList<>(membres.values()));
+            // Relire la collection ne la rend pas à réécrire.
+            p.modifiee = false;
+            p.chargee = true;
         }
     }
 
-    private void lireTextes(String filePath) throws IOException {
-        File f = new File(filePath);
-        if (!f.exists()) {
-            System.err.println("Fichier textes introuvable: " + filePath);
+    /**
+     * Lit toutes les collections pas encore ouvertes : nécessaire pour les recherches et
+     * les listes qui portent sur l'ensemble des annotations.
+     */
+    private void chargerToutesLesCollections() {
+        if (stockage == null) {
             return;
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank())
-                    continue;
-                // Format attendu : T1;Contenu du texte
-                String[] parts = line.split(SEP, 2);
-                if (parts.length < 2) {
-                    System.err.println("Ligne texte invalide: " + line);
-                    continue;
-                }
-                String tid = parts[0];
-                String cont = parts[1];
+        for (StockageParCollection.Partition p : stockage.partitions()) {
+            try {
+                chargerPartition(p);
+            } catch (IOException e) {
+                System.err.println("Erreur chargement collection " + p.nom + ": " + e.getMessage());
+            }
+        }
+    }
 
-                Texte t = new Texte(tid, cont);
-                textesMap.put(tid, t);
+    /**
+     * Signale la modification d'un texte ou de ses annotations au rangement par collection.
+     */
+    private void marquer(long texteNumero) {
+        if (stockage != null) {
+            stockage.marquer(texteNumero);
+        }
+    }
 
-                int num = extractNumber(tid);
-                if (num >= nextTexteNumber) {
-                    nextTexteNumber = num + 1;
-                }
+    private <T> List<T> lireSiPresent(LecteurCsvParallele lecteur, Path fichier,
+                                      LecteurCsvParallele.FabriqueLigne<T> fabrique) throws IOException {
+        return Files.exists(fichier) ? lecteur.lire(fichier, fabrique) : new ArrayList<>();
+    }
+
+    private String[] lireMembre(LigneCsv ligne) {
+        // Format attendu : T1 ou T1;CollectionProprietaire
+        if (ligne.nbChamps() < 1) {
+            System.err.println("Ligne membre invalide: " + ligne.texte());
+            return null;
+        }
+        return ligne.nbChamps() == 1 ? new String[] { ligne.champ(0) } : new String[] { ligne.champ(0), ligne.reste(1) };
+    }
+
+    // Méthodes privées de lecture CSV
+
+    /**
+     * Lance la lecture d'un fichier CSV sur le pool de chargement.
+     * Un fichier absent donne une liste vide. La durée de lecture est mesurée par fichier
+     * ({@code csv.lecture.<libellé>}), pas par ligne.
+     */
+    private <T> CompletableFuture<List<T>> lireAsync(LecteurCsvParallele lecteur, String filePath,
+                                                     String libelle,
+                                                     LecteurCsvParallele.FabriqueLigne<T> fabrique) {
+        Histogramme mesure = Metriques.defaut().histogramme("csv.lecture." + libelle);
+        return CompletableFuture.supplyAsync(() -> {
+            File f = new File(filePath);
+            if (!f.exists()) {
+                System.err.println("Fichier " + libelle + " introuvable: " + filePath);
+                return new ArrayList<T>();
+            }
+            try {
+                long debut = System.nanoTime();
+                List<T> lus = lecteur.lire(f.toPath(), fabrique);
+                mesure.enregistrerDepuis(debut);
+                M_OCTETS_LUS.ajouter(f.length());
+                M_LIGNES_LUES.ajouter(lus.size());
+                return lus;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        }, POOL_CHARGEMENT);
+    }
+
+    private Utilisateur lireUtilisateur(LigneCsv ligne) {
+        // Format attendu : id;nom;email;role;motDePasse
+        if (ligne.nbChamps() < 5 || ligne.champ(4).isEmpty()) {
+            System.err.println("Ligne utilisateur invalide: " + ligne.texte());
+            return null;
+        }
+        String uid = ligne.champ(0);
+        String nom = ligne.champ(1);
+        String email = ligne.champ(2);
+        String role = ligne.champ(3);
+        String mdp = ligne.champ(4);
+
+        if ("ADMIN".equalsIgnoreCase(role)) {
+            return new Administrateur(uid, nom, email, mdp);
+        } else if ("ANNOTATEUR".equalsIgnoreCase(role)) {
+            return new Annotateur(uid, nom, email, mdp);
+        }
+        System.err.println("Rôle inconnu: " + role);
+        return null;
+    }
+
+    private Texte lireTexte(LigneCsv ligne, SourceContenus source) {
+        // Format attendu : T1;Contenu du texte
+        if (ligne.nbChamps() < 2) {
+            System.err.println("Ligne texte invalide: " + ligne.texte());
+            return null;
+        }
+        long numero = RegistreIdentifiants.numero(ligne.champ(0), RegistreIdentifiants.PREFIXE_TEXTE);
+        if (numero < 0) {
+            System.err.println("Identifiant de texte invalide: " + ligne.champ(0));
+            return null;
+        }
+        if (source != null) {
+            return new Texte(numero, source, ligne.positionChamp(1), ligne.longueurReste(1));
+        }
+        return new Texte(numero, ligne.reste(1));
+    }
+
+    private Annotation lireAnnotation(LigneCsv ligne) {
+        // Format attendu : A1;T1;user1;Contenu de l'annotation;false
+        if (ligne.nbChamps() < 5) {
+            System.err.println("Ligne annotation invalide: " + ligne.texte());
+            return null;
+        }
+        return nouvelleAnnotation(ligne.champ(0), ligne.champ(1), ligne.champ(2), ligne.champ(3),
+                ligne.champBooleen(4));
+    }
+
+    /**
+     * Construit une annotation lue, après vérification de ses identifiants.
+     *
+     * @return l'annotation, ou null si un identifiant n'est pas canonique
+     */
+    private Annotation nouvelleAnnotation(String id, String texteId, String auteurId, String contenu, boolean valide) {
+        long numero = RegistreIdentifiants.numero(id, RegistreIdentifiants.PREFIXE_ANNOTATION);
+        long texte = RegistreIdentifiants.numero(texteId, RegistreIdentifiants.PREFIXE_TEXTE);
+        if (numero < 0 || texte < 0) {
+            System.err.println("Identifiant d'annotation invalide: " + id + " (texte " + texteId + ")");
+            return null;
         }
+        return new Annotation(numero, texte, registre.auteur(auteurId), contenu, valide);
     }
 
-    private void lireAnnotations(String filePath) throws IOException {
-        File f = new File(filePath);
-        if (!f.exists()) {
-            System.err.println("Fichier annotations introuvable: " + filePath);
+    private String[] lireCollection(LigneCsv ligne) {
+        // Format attendu : NomCollection;T1
+        if (ligne.nbChamps() < 2) {
+            System.err.println("Ligne collection invalide: " + ligne.texte());
+            return null;
+        }
+        return new String[] { ligne.champ(0), ligne.champ(1) };
+    }
+
+    private void rangerUtilisateurs(List<Utilisateur> users) {
+        for (Utilisateur u : users) {
+            utilisateursMap.put(u.getId(), u);
+            u.setSuivi(suivi);
+        }
+    }
+
+    /**
+     * Hache les mots de passe encore stockés en clair (fichiers antérieurs au hachage).
+     * Le hachage est volontairement coûteux : les utilisateurs sont traités en parallèle.
+     * utilisateurs.csv sera réécrit à la prochaine sauvegarde, avec ou sans journal.
+     */
+    private void migrerMotsDePasse() {
+        List<Utilisateur> enClair = new ArrayList<>();
+        for (Utilisateur u : utilisateursMap.values()) {
+            if (!MotsDePasse.estHache(u.getMotDePasse())) {
+                enClair.add(u);
+            }
+        }
+        if (enClair.isEmpty()) {
             return;
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank())
-                    continue;
-                // Format attendu : A1;T1;user1;Contenu de l'annotation;false
-                String[] parts = line.split(SEP);
-                if (parts.length < 5) {
-                    System.err.println("Ligne annotation invalide: " + line);
-                    continue;
-                }
-                String annId = parts[0];
-                String tId = parts[1];
-                String autId = parts[2];
-                String cont = parts[3];
-                boolean val = Boolean.parseBoolean(parts[4]);
+        enClair.parallelStream().forEach(u -> u.remplacerMotDePasse(MotsDePasse.hacher(u.getMotDePasse())));
+        System.out.println("Mots de passe hachés : " + enClair.size());
+    }
 
-                Texte t = textesMap.get(tId);
-                if (t == null) {
-                    System.err.println("Texte introuvable: " + tId);
-                    continue;
+    private void rangerTextes(List<Texte> textes) {
+        allocateurTextes.reserverJusqua(enregistrerTextes(textes));
+    }
+
+    /**
+     * Enregistre des textes lus dans le modèle, sans réserver leurs numéros.
+     *
+     * @return le plus grand numéro enregistré (0 si aucun)
+     */
+    private long enregistrerTextes(List<Texte> textes) {
+        long max = 0;
+        for (Texte t : textes) {
+            this.textes.put(t.getNumero(), t);
+            publier(v -> v.avecTexte(t));
+            max = Math.max(max, t.getNumero());
+        }
+        return max;
+    }
+
+    /**
+     * Rattache les annotations lues à leurs textes. Les annotations d'un même texte
+     * sont ajoutées en une seule fois à sa liste (copiée à chaque écriture).
+     */
+    private void lierAnnotations(List<Annotation> anns) {
+        Map<Texte, List<Annotation>> parTexte = new HashMap<>();
+        long max = 0;
+        for (Annotation ann : anns) {
+            Texte t = enregistrerAnnotation(ann);
+            if (t != null) {
+                parTexte.computeIfAbsent(t, k -> new ArrayList<>()).add(ann);
+                max = Math.max(max, ann.getNumero());
+            }
+        }
+        allocateurAnnotations.reserverJusqua(max);
+        for (Map.Entry<Texte, List<Annotation>> e : parTexte.entrySet()) {
+            e.getKey().getAnnotations().addAll(e.getValue());
+        }
+    }
+
+    /**
+     * Rattache une annotation lue à son texte et l'enregistre dans le modèle, sans réserver
+     * son numéro.
+     *
+     * @return true si son texte existe
+     */
+    private boolean rattacherAnnotation(Annotation ann) {
+        Texte t = enregistrerAnnotation(ann);
+        if (t == null) {
+            return false;
+        }
+        t.getAnnotations().add(ann);
+        return true;
+    }
+
+    /**
+     * Enregistre une annotation lue dans les tables et les index du modèle.
+     * <p>
+     * Une annotation modifiée est ajoutée une nouvelle fois à la fin du fichier : si elle
+     * est déjà connue, la ligne la plus récente remplace l'état déjà lu.
+     * </p>
+     *
+     * @return le texte annoté, ou null s'il est introuvable ou déjà annoté par cette annotation
+     */
+    private Texte enregistrerAnnotation(Annotation ann) {
+        Texte t = textes.get(ann.getTexteNumero());
+        if (t == null) {
+            System.err.println("Texte introuvable: " + ann.getTexteId());
+            return null;
+        }
+        Annotation precedente = annotations.putIfAbsent(ann.getNumero(), ann);
+        if (precedente != null) {
+            precedente.setSuivi(null);
+            precedente.mettreAJour(ann.getContenu(), ann.isValide());
+            precedente.setSuivi(suivi);
+            reindexerValidite(precedente);
+            lignesAnnotationsPerimees++;
+            return null;
+        }
+        indexer(ann);
+        ann.setSuivi(suivi);
+        return t;
+    }
+
+    private void lierCollections(List<String[]> lignes) {
+        for (String[] l : lignes) {
+            lierCollection(l[0], l[1]);
+        }
+    }
+
+    /**
+     * Ajoute un texte lu à sa collection, en créant la collection si besoin.
+     */
+    private void lierCollection(String colName, String tId) {
+        CollectionDeTextes c = collection(colName);
+        long n = RegistreIdentifiants.numero(tId, RegistreIdentifiants.PREFIXE_TEXTE);
+        Texte t = n < 0 ? null : textes.get(n);
+        if (t == null) {
+            System.err.println("Texte introuvable: " + tId);
+        } else if (!c.ajouterTexte(t)) {
+            System.err.println("Texte " + tId + " en double dans la collection: " + colName);
+        }
+    }
+
+    private CollectionDeTextes collection(String colName) {
+        return collectionsMap.computeIfAbsent(colName, nom -> {
+            CollectionDeTextes c = new CollectionDeTextes(nom);
+            c.setSuivi(suivi);
+            return c;
+        });
+    }
+
+    // Index secondaires
+
+    /**
+     * Ajoute une annotation aux index par auteur, par texte et par état de validation,
+     * et la compte dans les statistiques de son texte.
+     */
+    private void indexer(Annotation a) {
+        annotationsParAuteur.computeIfAbsent(a.getAuteurId(), k -> nouvelIndex()).add(a);
+        annotationsParTexte.computeIfAbsent(a.getTexteNumero(), k -> nouvelIndex()).add(a);
+        Texte t = textes.get(a.getTexteNumero());
+        synchronized (a) {
+            reindexerValidite(a);
+            if (t != null) {
+                t.annotationEnregistree(a);
+            }
+        }
+    }
+
+    private static Set<Annotation> nouvelIndex() {
+        return new ConcurrentSkipListSet<>(ORDRE_ANNOTATIONS);
+    }
+
+    /**
+     * Range une annotation dans l'ensemble correspondant à son état de validation courant,
+     * puis publie cet état dans une nouvelle version du modèle.
+     */
+    private void reindexerValidite(Annotation a) {
+        synchronized (a) {
+            rangerValidite(a);
+            Annotation.Etat e = a.getEtat();
+            publier(v -> v.avecAnnotation(e));
+        }
+    }
+
+    /**
+     * Range une annotation dans l'ensemble correspondant à son état de validation courant.
+     * Le verrou de l'annotation est pris pour que deux modifications concurrentes ne la
+     * laissent pas dans les deux ensembles (ou dans aucun). Si l'annotation change
+     * d'ensemble, les statistiques de son texte sont mises à jour.
+     */
+    private void rangerValidite(Annotation a) {
+        synchronized (a) {
+            boolean bascule;
+            if (a.isValide()) {
+                bascule = annotationsEnAttente.remove(a);
+                if (bascule) {
+                    nbEnAttente.decrementAndGet();
+                }
+                if (annotationsValidees.add(a)) {
+                    nbValidees.incrementAndGet();
+                }
+            } else {
+                bascule = annotationsValidees.remove(a);
+                if (bascule) {
+                    nbValidees.decrementAndGet();
                 }
-                Annotation ann = new Annotation(annId, tId, autId, cont);
-                ann.setValide(val);
-                t.getAnnotations().add(ann);
-                annotationsMap.put(annId, ann);
-
-                int num = extractNumber(annId);
-                if (num >= nextAnnotationNumber) {
-                    nextAnnotationNumber = num + 1;
+                if (annotationsEnAttente.add(a)) {
+                    nbEnAttente.incrementAndGet();
+                }
+            }
+            if (bascule) {
+                Texte t = textes.get(a.getTexteNumero());
+                if (t != null) {
+                    t.validiteModifiee(a.isValide());
+                }
+            }
+            FileRevision f = fileRevision;
+            if (f != null) {
+                if (a.isValide()) {
+                    f.retirer(a);
+                } else {
+                    f.proposer(a, textes.get(a.getTexteNumero()));
                 }
             }
         }
     }
 
-    private void lireCollections(String filePath) throws IOException {
-        File f = new File(filePath);
-        if (!f.exists()) {
-            System.err.println("Fichier collections introuvable: " + filePath);
-            return;
+    /**
+     * Remplace la version courante par une version dérivée, sans verrou : la dérivation est
+     * refaite sur la nouvelle version courante si une autre publication a eu lieu entre-temps
+     * (elle ne doit donc rien modifier d'autre). Une publication pendant le chargement est
+     * ignorée.
+     */
+    private void publier(UnaryOperator<VersionModele> modification) {
+        version.updateAndGet(v -> v == null ? null : modification.apply(v));
+    }
+
+    // Journal des modifications
+
+    /**
+     * Rejoue les segments de journal laissés par les sessions précédentes,
+     * puis ouvre un nouveau segment et démarre le compacteur.
+     */
+    private void ouvrirJournal(String textesCsv, String annotationsCsv, String collectionsCsv) throws IOException {
+        Path dossier = Path.of(textesCsv).toAbsolutePath().getParent();
+        List<String[]> ajoutsCollections = new ArrayList<>();
+        long[] plusGrands = new long[2];
+        for (Path segment : Journal.segments(dossier)) {
+            for (LigneJournal l : Journal.lire(segment, LigneJournal::lire)) {
+                rejouer(l, ajoutsCollections, plusGrands);
+            }
+        }
+        // Une seule réservation pour tout le journal : chacune peut écrire le fichier du plafond.
+        allocateurTextes.reserverJusqua(plusGrands[0]);
+        allocateurAnnotations.reserverJusqua(plusGrands[1]);
+        // Un texte est ajouté à sa collection avant d'être enregistré dans le modèle :
+        // les ajouts aux collections sont donc appliqués une fois tous les textes connus.
+        for (String[] ajout : ajoutsCollections) {
+            CollectionDeTextes c = collection(ajout[0]);
+            Texte t = getTextesMap().get(ajout[1]);
+            if (t != null) {
+                c.ajouterTexte(t);
+            }
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank())
-                    continue;
-                // Format attendu : NomCollection;T1
-                String[] parts = line.split(SEP);
-                if (parts.length < 2) {
-                    System.err.println("Ligne collection invalide: " + line);
-                    continue;
-                }
-                String colName = parts[0];
-                String tId = parts[1];
 
-                CollectionDeTextes c = collectionsMap.get(colName);
-                if (c == null) {
-                    c = new CollectionDeTextes(colName);
-                    collectionsMap.put(colName, c);
+        CompacteurJournal compacteur = new CompacteurJournal(textesCsv, annotationsCsv, collectionsCsv);
+        journal = new Journal(dossier, compacteur::planifier);
+        compacteur.setJournal(journal);
+        compacteur.planifier();
+    }
+
+    /**
+     * Rejoue un enregistrement du journal.
+     *
+     * @param plusGrands plus grands numéros de texte et d'annotation rejoués, mis à jour
+     */
+    private void rejouer(LigneJournal l, List<String[]> ajoutsCollections, long[] plusGrands) {
+        switch (l.type) {
+            case Journal.TYPE_TEXTE:
+                long numero = RegistreIdentifiants.numero(l.id, RegistreIdentifiants.PREFIXE_TEXTE);
+                if (numero < 0) {
+                    System.err.println("Identifiant de texte invalide: " + l.id);
+                } else if (!textes.containsKey(numero)) {
+                    plusGrands[0] = Math.max(plusGrands[0], enregistrerTextes(List.of(new Texte(numero, l.contenu))));
                 }
-                Texte t = textesMap.get(tId);
-                if (t != null) {
-                    c.ajouterTexte(t);
+                break;
+            case Journal.TYPE_ANNOTATION:
+                Annotation existante = getAnnotationsMap().get(l.id);
+                if (existante != null) {
+                    existante.mettreAJour(l.contenu, l.valide);
                 } else {
-                    System.err.println("Texte introuvable: " + tId);
+                    Annotation ann = nouvelleAnnotation(l.id, l.texteId, l.auteurId, l.contenu, l.valide);
+                    if (ann != null && rattacherAnnotation(ann)) {
+                        plusGrands[1] = Math.max(plusGrands[1], ann.getNumero());
+                    }
+                }
+                break;
+            case Journal.TYPE_COLLECTION:
+                collection(l.id);
+                break;
+            case Journal.TYPE_COLLECTION_TEXTE:
+                ajoutsCollections.add(new String[] { l.id, l.texteId });
+                break;
+            default:
+                System.err.println("Enregistrement de journal inconnu: " + l.type);
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement au journal, s'il est actif.
+     * <p>
+     * Le journal tient alors lieu de relevé des modifications : elles ne sont pas suivies en
+     * plus pour les CSV, qu'une sauvegarde avec journal ne réécrit pas.
+     * </p>
+     *
+     * @return true si l'enregistrement a été journalisé
+     */
+    private boolean journaliser(String enregistrement) {
+        if (journal == null) {
+            return false;
+        }
+        journal.ajouter(enregistrement);
+        return true;
+    }
+
+    /**
+     * Enregistrement du journal décodé pour être rejoué sur le modèle.
+     */
+    private static final class LigneJournal {
+        String type;
+        String id;
+        String texteId;
+        String auteurId;
+        boolean valide;
+        String contenu;
+
+        static LigneJournal lire(LigneCsv ligne) {
+            int n = ligne.nbChamps();
+            LigneJournal l = new LigneJournal();
+            l.type = ligne.champ(0);
+            if (n < 2) {
+                return null;
+            }
+            l.id = ligne.champ(1);
+            switch (l.type) {
+                case Journal.TYPE_TEXTE:
+                    if (n < 3)
+                        return null;
+                    l.contenu = ligne.reste(2);
+                    break;
+                case Journal.TYPE_ANNOTATION:
+                    if (n < 6)
+                        return null;
+                    l.texteId = ligne.champ(2);
+                    l.auteurId = ligne.champ(3);
+                    l.valide = ligne.champBooleen(4);
+                    l.contenu = ligne.reste(5);
+                    break;
+                case Journal.TYPE_COLLECTION_TEXTE:
+                    if (n < 3)
+                        return null;
+                    l.texteId = ligne.champ(2);
+                    break;
+                default:
+                    break;
+            }
+            return l;
+        }
+    }
+
+    /**
+     * Suivi des modifications faites directement sur les entités.
+     */
+    private final class Suivi implements SuiviMutations {
+        @Override
+        public void annotationModifiee(Annotation ann) {
+            reindexerValidite(ann);
+            indexAnnotations.indexer(ann.getNumero(), ann.getContenu());
+            marquer(ann.getTexteNumero());
+            if (!journaliser(Journal.annotation(ann))) {
+                modificationsAnnotations.modifier(ann);
+            }
+        }
+
+        @Override
+        public void texteAjouteACollection(CollectionDeTextes c, Texte t) {
+            publier(v -> v.avecMembre(c.getNom(), t));
+            if (stockage != null) {
+                StockageParCollection.Partition p = stockage.partition(c.getNom());
+                p.modifiee = true;
+                // Un texte est rangé dans la première collection qui le reçoit : il quitte les fichiers principaux.
+                if (stockage.attribuer(t.getNumero(), p)) {
+                    stockage.marquerOrphelins();
                 }
             }
+            if (!journaliser(Journal.collectionTexte(c, t))) {
+                ajoutsCollections.add(c.getNom() + SEP + t.getId());
+            }
+        }
+
+        @Override
+        public void utilisateurModifie(Utilisateur u) {
+            motsDePasseModifies = true;
         }
     }
 
-    // Méthodes privées d'écriture CSV
+    // Méthodes privées d'écriture CSV (voir EcrivainCsv)
 
     private void ecrireUtilisateurs(String filePath) throws IOException {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+        try (EcrivainCsv e = EcrivainCsv.remplacer(Path.of(filePath))) {
             for (Utilisateur u : utilisateursMap.values()) {
-                pw.print(u.getId());
-                pw.print(SEP);
-                pw.print(u.getNom());
-                pw.print(SEP);
-                pw.print(u.getEmail());
-                pw.print(SEP);
-                pw.print(u.getRole());
-                pw.print(SEP);
-                pw.println(u.getMotDePasse());
+                e.chaine(u.getId()).separateur()
+                        .chaine(u.getNom()).separateur()
+                        .chaine(u.getEmail()).separateur()
+                        .chaine(u.getRole()).separateur()
+                        .chaine(u.getMotDePasse()).finLigne();
             }
+            terminer(e, M_ECRITURE_UTILISATEURS);
         }
     }
 
-    private void ecrireTextes(String filePath) throws IOException {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
-            for (Texte t : textesMap.values()) {
-                pw.print(t.getId());
-                pw.print(SEP);
-                pw.println(t.getContenu());
+    /**
+     * Écrit des textes.
+     * <p>
+     * Pour des textes chargés à la demande, les contenus sont relus dans l'ancien fichier
+     * pendant l'écriture, puis les textes sont rattachés à leurs nouvelles positions, y compris
+     * ceux créés pendant la session. Un texte ajouté en fin de fichier est rattaché de la même
+     * façon ; les textes déjà écrits gardent leurs positions.
+     * </p>
+     *
+     * @param source source actuelle des contenus de ces textes (null s'ils sont en mémoire)
+     * @param ajout  true pour ajouter les textes à la fin du fichier au lieu de le réécrire
+     * @return la source à utiliser désormais pour ces textes
+     */
+    private SourceContenus ecrireTextes(Path fichier, Collection<Texte> liste, SourceContenus source, boolean ajout)
+            throws IOException {
+        return ecrireTextes(fichier, liste, source, ajout, cacheContenus != null);
+    }
+
+    /**
+     * Écrit des textes, en les rattachant ou non au fichier écrit.
+     *
+     * @param rattacher false pour une copie : les textes chargés à la demande restent lus dans leur source
+     */
+    private SourceContenus ecrireTextes(Path fichier, Collection<Texte> liste, SourceContenus source, boolean ajout,
+                                        boolean rattacher) throws IOException {
+        List<Texte> ecrits = new ArrayList<>(liste);
+        long[] positions = rattacher ? new long[ecrits.size()] : null;
+        int[] longueurs = rattacher ? new int[ecrits.size()] : null;
+        try (EcrivainCsv e = ajout ? EcrivainCsv.ajouter(fichier) : EcrivainCsv.remplacer(fichier)) {
+            for (int i = 0; i < ecrits.size(); i++) {
+                Texte t = ecrits.get(i);
+                e.identifiant(RegistreIdentifiants.PREFIXE_TEXTE, t.getNumero()).separateur();
+                long pos = e.position();
+                e.chaine(t.getContenuSansCache());
+                if (rattacher) {
+                    positions[i] = pos;
+                    longueurs[i] = (int) (e.position() - pos);
+                }
+                e.finLigne();
             }
+            terminer(e, M_ECRITURE_TEXTES);
+        }
+        if (!rattacher) {
+            return source;
         }
+        if (source == null) {
+            source = new SourceContenus(fichier, cacheContenus, verrouContenus);
+        }
+        source.basculer(fichier, ecrits, positions, longueurs);
+        return source;
     }
 
-    private void ecrireAnnotations(String filePath) throws IOException {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
-            for (Annotation ann : annotationsMap.values()) {
-                pw.print(ann.getAnnotationId());
-                pw.print(SEP);
-                pw.print(ann.getTexteId());
-                pw.print(SEP);
-                pw.print(ann.getAuteurId());
-                pw.print(SEP);
-                pw.print(ann.getContenu());
-                pw.print(SEP);
-                pw.println(ann.isValide());
+    /**
+     * Écrit des annotations, dans l'état donné.
+     *
+     * @param ajout true pour ajouter les lignes à la fin du fichier : elles remplacent alors
+     *              à la lecture les lignes précédentes des mêmes annotations
+     */
+    private void ecrireAnnotations(String filePath, Collection<Annotation.Etat> liste, boolean ajout) throws IOException {
+        Path fichier = Path.of(filePath);
+        try (EcrivainCsv e = ajout ? EcrivainCsv.ajouter(fichier) : EcrivainCsv.remplacer(fichier)) {
+            for (Annotation.Etat etat : liste) {
+                Annotation ann = etat.annotation;
+                e.identifiant(RegistreIdentifiants.PREFIXE_ANNOTATION, ann.getNumero()).separateur()
+                        .identifiant(RegistreIdentifiants.PREFIXE_TEXTE, ann.getTexteNumero()).separateur()
+                        .chaine(ann.getAuteurId()).separateur()
+                        .chaine(etat.contenu).separateur()
+                        .booleen(etat.valide).finLigne();
             }
+            terminer(e, M_ECRITURE_ANNOTATIONS);
         }
     }
 
-    private void ecrireCollections(String filePath) throws IOException {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
-            for (CollectionDeTextes c : collectionsMap.values()) {
-                for (Texte t : c.getTextes()) {
-                    pw.print(c.getNom());
-                    pw.print(SEP);
-                    pw.println(t.getId());
+    private void ecrireCollections(String filePath, Map<String, TablePersistante<Texte>> collections)
+            throws IOException {
+        try (EcrivainCsv e = EcrivainCsv.remplacer(Path.of(filePath))) {
+            for (Map.Entry<String, TablePersistante<Texte>> c : collections.entrySet()) {
+                for (Texte t : c.getValue().valeurs()) {
+                    e.chaine(c.getKey()).separateur()
+                            .identifiant(RegistreIdentifiants.PREFIXE_TEXTE, t.getNumero()).finLigne();
                 }
             }
+            terminer(e, M_ECRITURE_COLLECTIONS);
         }
     }
 
+    private void terminer(EcrivainCsv e, Histogramme mesure) throws IOException {
+        long octets = e.terminer();
+        octetsSauves += octets;
+        dureeSauvegardeNanos += e.getDuree();
+        mesure.enregistrer(e.getDuree());
+        M_OCTETS_ECRITS.ajouter(octets);
+    }
+
     /**
-     * Extrait le numéro d'un identifiant (par exemple, "T12" renvoie 12).
-     *
-     * @param s la chaîne d'identifiant
-     * @return le numéro extrait ou 0 en cas d'erreur
+     * Écrit la liste ordonnée des textes d'une collection rangée par dossier.
+     * Les textes rangés dans une autre collection sont suivis du nom de celle-ci.
      */
-    private int extractNumber(String s) {
-        if (s.length() < 2)
-            return 0;
-        try {
-            return Integer.parseInt(s.substring(1));
-        } catch (NumberFormatException e) {
-            return 0;
+    private void ecrireMembres(StockageParCollection.Partition p, List<Texte> membres) throws IOException {
+        try (EcrivainCsv e = EcrivainCsv.remplacer(p.fichier(StockageParCollection.FICHIER_MEMBRES))) {
+            for (Texte t : membres) {
+                StockageParCollection.Partition proprietaire = stockage.proprietaire(t.getNumero());
+                e.identifiant(RegistreIdentifiants.PREFIXE_TEXTE, t.getNumero());
+                if (proprietaire != null && proprietaire != p) {
+                    e.separateur().chaine(proprietaire.nom);
+                }
+                e.finLigne();
+            }
+            terminer(e, M_ECRITURE_MEMBRES);
         }
     }
 }
@@ -0,0 +1,102 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modifications d'un fichier CSV depuis sa dernière écriture.
+ * <p>
+ * Les entités créées depuis la dernière sauvegarde sont « ajoutées » : il suffit d'écrire
+ * leurs lignes à la fin du fichier. Les entités déjà écrites puis modifiées sont
+ * « modifiées » : une nouvelle ligne, ajoutée à la fin, remplace la précédente à la lecture.
+ * Une entité ajoutée puis modifiée reste seulement ajoutée, puisque sa ligne n'est pas
+ * encore écrite.
+ * </p>
+ * <p>
+ * Les entités sont retirées une à une avant que leur état soit lu pour l'écriture : une
+ * modification faite pendant la sauvegarde est donc soit écrite, soit gardée pour la suivante.
+ * </p>
+ *
+ * @param <T> type des entités du fichier
+ * @version 1.0
+ */
+final class ModificationsFichier<T> {
+
+    private final Set<T> ajoutees = ConcurrentHashMap.newKeySet();
+    private final Set<T> modifiees = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Signale une entité créée depuis la dernière écriture.
+     *
+     * @param e l'entité
+     */
+    void ajouter(T e) {
+        ajoutees.add(e);
+    }
+
+    /**
+     * Signale la modification d'une entité.
+     *
+     * @param e l'entité
+     */
+    void modifier(T e) {
+        if (!ajoutees.contains(e)) {
+            modifiees.add(e);
+        }
+    }
+
+    /**
+     * Indique si rien n'a changé depuis la dernière écriture.
+     *
+     * @return true si le fichier est à jour
+     */
+    boolean estVide() {
+        return ajoutees.isEmpty() && modifiees.isEmpty();
+    }
+
+    /**
+     * Retourne le nombre d'entités modifiées en attente d'écriture.
+     *
+     * @return le nombre d'entités modifiées
+     */
+    int nbModifiees() {
+        return modifiees.size();
+    }
+
+    /**
+     * Retire et retourne les lignes à ajouter au fichier : entités ajoutées puis modifiées,
+     * chaque groupe dans l'ordre donné.
+     *
+     * @param ordre l'ordre des lignes (celui des identifiants)
+     * @return les entités à écrire
+     */
+    List<T> prendre(Comparator<? super T> ordre) {
+        List<T> a = vider(ajoutees);
+        List<T> m = vider(modifiees);
+        a.sort(ordre);
+        m.sort(ordre);
+        a.addAll(m);
+        return a;
+    }
+
+    /**
+     * Oublie les modifications en attente (après une réécriture complète ou un chargement).
+     */
+    void effacer() {
+        vider(ajoutees);
+        vider(modifiees);
+    }
+
+    private static <T> List<T> vider(Set<T> s) {
+        List<T> res = new ArrayList<>(s.size());
+        for (T e : s) {
+            if (s.remove(e)) {
+                res.add(e);
+            }
+        }
+        return res;
+    }
+}
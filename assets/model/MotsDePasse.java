@@ -0,0 +1,140 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hachage des mots de passe des utilisateurs.
+ * <p>
+ * Un mot de passe est stocké sous la forme
+ * {@code pbkdf2-sha256$<itérations>$<sel>$<empreinte>} : PBKDF2 avec HMAC-SHA256, un sel
+ * aléatoire de 16 octets propre à chaque utilisateur et une empreinte de 32 octets, tous deux
+ * en Base64. Le coût (nombre d'itérations) est enregistré avec chaque empreinte : il peut donc
+ * être augmenté ({@code -Dprojetmc.coutMotDePasse}) sans invalider les empreintes existantes,
+ * qui sont renforcées à la connexion suivante.
+ * </p>
+ * <p>
+ * Les valeurs qui n'ont pas ce format sont des mots de passe en clair (anciens fichiers) :
+ * elles restent vérifiables et sont hachées au chargement.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class MotsDePasse {
+
+    /** Préfixe des mots de passe hachés. */
+    public static final String PREFIXE = "pbkdf2-sha256$";
+
+    /** Nombre d'itérations des nouvelles empreintes ({@code -Dprojetmc.coutMotDePasse}). */
+    public static final int COUT = Integer.getInteger("projetmc.coutMotDePasse", 310_000);
+
+    private static final String ALGORITHME = "PBKDF2WithHmacSHA256";
+    private static final int OCTETS_SEL = 16;
+    private static final int BITS_EMPREINTE = 256;
+    private static final SecureRandom ALEA = new SecureRandom();
+
+    private MotsDePasse() {
+    }
+
+    /**
+     * Hache un mot de passe au coût par défaut.
+     *
+     * @param motDePasse le mot de passe en clair
+     * @return la valeur à stocker
+     */
+    public static String hacher(String motDePasse) {
+        return hacher(motDePasse, COUT);
+    }
+
+    /**
+     * Hache un mot de passe avec un nouveau sel.
+     *
+     * @param motDePasse le mot de passe en clair
+     * @param iterations le coût
+     * @return la valeur à stocker
+     */
+    public static String hacher(String motDePasse, int iterations) {
+        byte[] sel = new byte[OCTETS_SEL];
+        ALEA.nextBytes(sel);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIXE + iterations + '$' + b64.encodeToString(sel) + '$'
+                + b64.encodeToString(empreinte(motDePasse, sel, iterations));
+    }
+
+    /**
+     * Vérifie un mot de passe saisi contre la valeur stockée. La comparaison ne s'arrête pas
+     * au premier octet différent.
+     *
+     * @param stocke     la valeur stockée (hachée ou, pour un ancien fichier, en clair)
+     * @param motDePasse le mot de passe saisi
+     * @return true si le mot de passe est correct
+     */
+    public static boolean verifier(String stocke, String motDePasse) {
+        if (stocke == null || motDePasse == null) {
+            return false;
+        }
+        if (!estHache(stocke)) {
+            return MessageDigest.isEqual(stocke.getBytes(StandardCharsets.UTF_8),
+                    motDePasse.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] champs = stocke.substring(PREFIXE.length()).split("\\$");
+        if (champs.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(champs[0]);
+            byte[] sel = Base64.getDecoder().decode(champs[1]);
+            byte[] attendue = Base64.getDecoder().decode(champs[2]);
+            return MessageDigest.isEqual(attendue, empreinte(motDePasse, sel, iterations));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Empreinte de mot de passe illisible.");
+            return false;
+        }
+    }
+
+    /**
+     * Indique si une valeur stockée est une empreinte.
+     *
+     * @param stocke la valeur stockée
+     * @return false pour un mot de passe en clair
+     */
+    public static boolean estHache(String stocke) {
+        return stocke != null && stocke.startsWith(PREFIXE);
+    }
+
+    /**
+     * Indique si une valeur stockée doit être hachée à nouveau : mot de passe en clair, ou
+     * empreinte calculée avec moins d'itérations que le coût actuel.
+     *
+     * @param stocke la valeur stockée
+     * @return true si la valeur doit être remplacée à la prochaine connexion
+     */
+    public static boolean aRenforcer(String stocke) {
+        if (!estHache(stocke)) {
+            return true;
+        }
+        int fin = stocke.indexOf('$', PREFIXE.length());
+        try {
+            return fin < 0 || Integer.parseInt(stocke.substring(PREFIXE.length(), fin)) < COUT;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] empreinte(String motDePasse, byte[] sel, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(motDePasse.toCharArray(), sel, iterations, BITS_EMPREINTE);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHME).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 fait partie des algorithmes exigés de toute JVM.
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page d'une liste d'éléments affichée par morceaux.
+ * <p>
+ * Une page ne contient que ses propres éléments : ils sont extraits de la source au moment
+ * de la construction, sans copier le reste de la liste. Le numéro demandé est ramené dans
+ * les bornes, de sorte que « page suivante » sur la dernière page la réaffiche.
+ * </p>
+ *
+ * @param <T> type des éléments
+ * @version 1.0
+ */
+public final class Page<T> {
+
+    /**
+     * Extrait une plage d'éléments d'une source.
+     *
+     * @param <T> type des éléments
+     */
+    @FunctionalInterface
+    public interface Extracteur<T> {
+        /**
+         * Retourne les éléments de rang {@code debut} à {@code debut + nb} (exclu).
+         *
+         * @param debut rang du premier élément
+         * @param nb    nombre maximal d'éléments
+         * @return les éléments extraits
+         */
+        List<T> extraire(int debut, int nb);
+    }
+
+    private final List<T> elements;
+    private final int numero;
+    private final int taillePage;
+    private final int total;
+
+    private Page(List<T> elements, int numero, int taillePage, int total) {
+        this.elements = elements;
+        this.numero = numero;
+        this.taillePage = taillePage;
+        this.total = total;
+    }
+
+    /**
+     * Construit une page en n'extrayant que ses éléments.
+     *
+     * @param total      nombre total d'éléments de la source
+     * @param numero     numéro de page demandé (à partir de 0)
+     * @param taillePage nombre d'éléments par page
+     * @param extracteur extrait les éléments de la page
+     * @param <T>        type des éléments
+     * @return la page
+     */
+    public static <T> Page<T> extraire(int total, int numero, int taillePage, Extracteur<T> extracteur) {
+        int taille = Math.max(1, taillePage);
+        int nbPages = Math.max(1, (total + taille - 1) / taille);
+        int n = Math.max(0, Math.min(numero, nbPages - 1));
+        List<T> elements = total == 0 ? new ArrayList<>() : extracteur.extraire(n * taille, taille);
+        return new Page<>(elements, n, taille, total);
+    }
+
+    /**
+     * Construit une page d'une liste déjà en mémoire.
+     *
+     * @param source     la liste
+     * @param numero     numéro de page demandé (à partir de 0)
+     * @param taillePage nombre d'éléments par page
+     * @param <T>        type des éléments
+     * @return la page
+     */
+    public static <T> Page<T> de(List<T> source, int numero, int taillePage) {
+        return extraire(source.size(), numero, taillePage,
+                (debut, nb) -> new ArrayList<>(source.subList(debut, Math.min(source.size(), debut + nb))));
+    }
+
+    /**
+     * Construit une page unique contenant toute la liste.
+     *
+     * @param source la liste
+     * @param <T>    type des éléments
+     * @return la page
+     */
+    public static <T> Page<T> complete(List<T> source) {
+        return new Page<>(source, 0, Math.max(1, source.size()), source.size());
+    }
+
+    /**
+     * Retourne les éléments de la page.
+     *
+     * @return les éléments
+     */
+    public List<T> getElements() {
+        return elements;
+    }
+
+    /**
+     * Retourne le numéro de la page (à partir de 0).
+     *
+     * @return le numéro
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne le nombre total d'éléments de la source.
+     *
+     * @return le total
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Retourne le nombre de pages.
+     *
+     * @return le nombre de pages (au moins 1)
+     */
+    public int getNbPages() {
+        return Math.max(1, (total + taillePage - 1) / taillePage);
+    }
+
+    /**
+     * Retourne le rang du premier élément de la page dans la source.
+     *
+     * @return le rang (à partir de 0)
+     */
+    public int getPremierRang() {
+        return numero * taillePage;
+    }
+
+    /**
+     * Indique s'il existe une page suivante.
+     *
+     * @return true si la page n'est pas la dernière
+     */
+    public boolean aSuivante() {
+        return numero < getNbPages() - 1;
+    }
+
+    /**
+     * Indique s'il existe une page précédente.
+     *
+     * @return true si la page n'est pas la première
+     */
+    public boolean aPrecedente() {
+        return numero > 0;
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des identifiants du modèle.
+ * <p>
+ * Les textes et les annotations sont identifiés en interne par le numéro de leur identifiant
+ * canonique ({@code "T12"} devient 12, {@code "A7"} devient 7) : les tables du modèle sont
+ * indexées par ces entiers et les identifiants textuels ne sont reconstruits qu'à la demande,
+ * aux frontières de {@link Modele}. Un identifiant non canonique (préfixe différent, zéro
+ * initial, numéro hors des bornes d'un {@code long}) est refusé.
+ * </p>
+ * <p>
+ * Le registre partage aussi les identifiants d'auteurs : toutes les annotations d'un même
+ * auteur référencent la même chaîne.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class RegistreIdentifiants {
+
+    /** Préfixe des identifiants de textes. */
+    public static final char PREFIXE_TEXTE = 'T';
+    /** Préfixe des identifiants d'annotations. */
+    public static final char PREFIXE_ANNOTATION = 'A';
+
+    private final ConcurrentHashMap<String, String> auteurs = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne le numéro d'un identifiant canonique.
+     *
+     * @param id      l'identifiant (ex: "T12")
+     * @param prefixe le préfixe attendu
+     * @return le numéro, ou -1 si l'identifiant n'est pas canonique
+     */
+    public static long numero(String id, char prefixe) {
+        int n = id == null ? 0 : id.length();
+        if (n < 2 || n > 20 || id.charAt(0) != prefixe || (id.charAt(1) == '0' && n > 2)) {
+            return -1;
+        }
+        long v = 0;
+        for (int i = 1; i < n; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9' || v > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return -1;
+            }
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    /**
+     * Retourne le numéro d'un identifiant qui doit être canonique.
+     *
+     * @param id      l'identifiant
+     * @param prefixe le préfixe attendu
+     * @return le numéro
+     * @throws IllegalArgumentException si l'identifiant n'est pas canonique
+     */
+    static long exiger(String id, char prefixe) {
+        long n = numero(id, prefixe);
+        if (n < 0) {
+            throw new IllegalArgumentException("Identifiant invalide: " + id);
+        }
+        return n;
+    }
+
+    /**
+     * Reconstruit l'identifiant d'un texte.
+     *
+     * @param numero le numéro du texte
+     * @return l'identifiant (ex: "T12")
+     */
+    public static String texte(long numero) {
+        return PREFIXE_TEXTE + Long.toString(numero);
+    }
+
+    /**
+     * Reconstruit l'identifiant d'une annotation.
+     *
+     * @param numero le numéro de l'annotation
+     * @return l'identifiant (ex: "A7")
+     */
+    public static String annotation(long numero) {
+        return PREFIXE_ANNOTATION + Long.toString(numero);
+    }
+
+    /**
+     * Retourne l'exemplaire partagé d'un identifiant d'auteur.
+     *
+     * @param auteurId l'identifiant lu
+     * @return la chaîne partagée égale à {@code auteurId}
+     */
+    public String auteur(String auteurId) {
+        String existant = auteurs.putIfAbsent(auteurId, auteurId);
+        return existant != null ? existant : auteurId;
+    }
+}
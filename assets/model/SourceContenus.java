@@ -0,0 +1,151 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fichier dans lequel sont relus les contenus des textes chargés à la demande.
+ * <p>
+ * Un texte chargé à la demande ne garde que la position et la longueur en octets de son
+ * contenu (UTF-8) dans le fichier : {@code textes.csv} ou l'{@link InstantaneBinaire}.
+ * Les contenus relus passent par un {@link CacheContenus}.
+ * </p>
+ * <p>
+ * Quand {@code textes.csv} est réécrit, les textes sont rattachés au nouveau fichier par
+ * {@link #basculer} ; le verrou garantit qu'aucune lecture ne voit un fichier et une position
+ * qui ne vont pas ensemble. Des sources entre lesquelles un texte peut passer (les fichiers
+ * d'un {@link StockageParCollection}) partagent le même verrou.
+ * </p>
+ *
+ * @version 1.0
+ */
+class SourceContenus implements Closeable {
+
+    private final CacheContenus cache;
+    private final ReentrantReadWriteLock verrou;
+    /** Canal de lecture sur le fichier courant (protégé par {@code verrou}). */
+    private FileChannel canal;
+
+    /**
+     * Constructeur.
+     *
+     * @param fichier le fichier contenant les contenus
+     * @param cache   le cache des contenus relus
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    SourceContenus(Path fichier, CacheContenus cache) throws IOException {
+        this(fichier, cache, new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Constructeur d'une source qui partage son verrou avec d'autres sources.
+     *
+     * @param fichier le fichier contenant les contenus
+     * @param cache   le cache des contenus relus
+     * @param verrou  le verrou commun
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    SourceContenus(Path fichier, CacheContenus cache, ReentrantReadWriteLock verrou) throws IOException {
+        this.cache = cache;
+        this.verrou = verrou;
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+    }
+
+    /**
+     * Retourne le contenu d'un texte, depuis le cache ou depuis le fichier.
+     *
+     * @param t le texte
+     * @return son contenu
+     */
+    String contenu(Texte t) {
+        String c = cache.get(t.getNumero());
+        if (c == null) {
+            c = lire(t);
+            cache.put(t.getNumero(), c);
+        }
+        return c;
+    }
+
+    /**
+     * Relit le contenu d'un texte sans passer par le cache : utilisé par les parcours
+     * complets (sauvegarde, indexation), qui évinceraient sinon tout l'ensemble de travail.
+     *
+     * @param t le texte
+     * @return son contenu
+     */
+    String lire(Texte t) {
+        verrou.readLock().lock();
+        try {
+            SourceContenus s = t.getSource();
+            if (s != this) {
+                // Texte rattaché à une autre source depuis l'appel.
+                return s.lire(t);
+            }
+            ByteBuffer buf = ByteBuffer.allocate(t.getLongueurSource());
+            long pos = t.getPositionSource();
+            while (buf.hasRemaining()) {
+                int lus = canal.read(buf, pos + buf.position());
+                if (lus < 0) {
+                    throw new IOException("Fin de fichier inattendue à la position " + pos);
+                }
+            }
+            return new String(buf.array(), 0, buf.limit(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du texte " + t.getId() + " impossible", e);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rattache des textes à un fichier réécrit.
+     *
+     * @param fichier    le nouveau fichier
+     * @param textes     les textes écrits dans le fichier
+     * @param positions  position du contenu de chaque texte
+     * @param longueurs  longueur en octets du contenu de chaque texte
+     * @throws IOException si le nouveau fichier ne peut pas être ouvert
+     */
+    void basculer(Path fichier, List<Texte> textes, long[] positions, int[] longueurs) throws IOException {
+        FileChannel nouveau = FileChannel.open(fichier, StandardOpenOption.READ);
+        FileChannel ancien;
+        verrou.writeLock().lock();
+        try {
+            ancien = canal;
+            canal = nouveau;
+            for (int i = 0; i < textes.size(); i++) {
+                textes.get(i).rattacher(this, positions[i], longueurs[i]);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        ancien.close();
+    }
+
+    /**
+     * Retourne le cache des contenus.
+     *
+     * @return le cache
+     */
+    CacheContenus getCache() {
+        return cache;
+    }
+
+    @Override
+    public void close() throws IOException {
+        verrou.writeLock().lock();
+        try {
+            canal.close();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compteurs d'annotations d'un texte ou d'une collection : nombre total, nombre en attente,
+ * nombre de validées et nombre par auteur.
+ * <p>
+ * Les compteurs sont tenus à jour par le modèle à chaque enregistrement d'annotation et à
+ * chaque changement de validation (ajout, validation, correction, modification) : leur
+ * lecture ne parcourt aucune annotation. Les compteurs d'une collection sont la somme de
+ * ceux de ses textes.
+ * </p>
+ * <p>
+ * Un texte a en général peu d'auteurs : les compteurs par auteur sont rangés dans deux
+ * petits tableaux parcourus linéairement, puis dans une table de hachage au-delà de
+ * {@value #MAX_TABLEAUX} auteurs.
+ * </p>
+ * <p>
+ * Les méthodes sont synchronisées sur l'objet. Une mise à jour d'un texte est reportée sur
+ * ses collections en tenant le verrou du texte, puis celui de chaque collection (toujours
+ * dans cet ordre).
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class StatistiquesAnnotations {
+
+    /** Nombre d'auteurs au-delà duquel les compteurs passent dans {@link #table}. */
+    private static final int MAX_TABLEAUX = 8;
+
+    private int nbAnnotations;
+    private int nbValidees;
+    /** Auteurs et nombres d'annotations correspondants ; les {@link #nbAuteurs} premières cases servent. */
+    private String[] auteurs;
+    private int[] nombres;
+    private int nbAuteurs;
+    /** Compteurs par auteur (un compteur par case), utilisés à la place des tableaux s'il y a trop d'auteurs. */
+    private Map<String, int[]> table;
+
+    StatistiquesAnnotations() {
+    }
+
+    /**
+     * Retourne le nombre d'annotations.
+     *
+     * @return le nombre d'annotations
+     */
+    public synchronized int getNbAnnotations() {
+        return nbAnnotations;
+    }
+
+    /**
+     * Retourne le nombre d'annotations validées.
+     *
+     * @return le nombre d'annotations validées
+     */
+    public synchronized int getNbValidees() {
+        return nbValidees;
+    }
+
+    /**
+     * Retourne le nombre d'annotations en attente de validation.
+     *
+     * @return le nombre d'annotations en attente
+     */
+    public synchronized int getNbEnAttente() {
+        return nbAnnotations - nbValidees;
+    }
+
+    /**
+     * Retourne le nombre d'auteurs distincts.
+     *
+     * @return le nombre d'auteurs
+     */
+    public synchronized int getNbAuteurs() {
+        return table == null ? nbAuteurs : table.size();
+    }
+
+    /**
+     * Retourne le nombre d'annotations d'un auteur.
+     *
+     * @param auteurId l'identifiant de l'auteur
+     * @return le nombre d'annotations de cet auteur
+     */
+    public synchronized int getNbParAuteur(String auteurId) {
+        if (table != null) {
+            int[] n = table.get(auteurId);
+            return n == null ? 0 : n[0];
+        }
+        int i = rang(auteurId);
+        return i < 0 ? 0 : nombres[i];
+    }
+
+    /**
+     * Retourne le nombre d'annotations de chaque auteur, par ordre d'identifiant.
+     *
+     * @return une copie des compteurs par auteur
+     */
+    public synchronized Map<String, Integer> getParAuteur() {
+        Map<String, Integer> res = new TreeMap<>();
+        if (table != null) {
+            table.forEach((id, n) -> res.put(id, n[0]));
+        } else {
+            for (int i = 0; i < nbAuteurs; i++) {
+                res.put(auteurs[i], nombres[i]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Compte une annotation.
+     *
+     * @param auteurId l'auteur de l'annotation
+     * @param valide   son état de validation
+     */
+    synchronized void ajouter(String auteurId, boolean valide) {
+        nbAnnotations++;
+        if (valide) {
+            nbValidees++;
+        }
+        compter(auteurId, 1);
+    }
+
+    /**
+     * Reporte le changement d'état de validation d'une annotation déjà comptée.
+     *
+     * @param valide le nouvel état
+     */
+    synchronized void basculer(boolean valide) {
+        nbValidees += valide ? 1 : -1;
+    }
+
+    /**
+     * Ajoute les compteurs d'un texte à ceux d'une collection.
+     *
+     * @param autre les compteurs à ajouter (leur verrou doit être tenu par l'appelant)
+     */
+    synchronized void fusionner(StatistiquesAnnotations autre) {
+        nbAnnotations += autre.nbAnnotations;
+        nbValidees += autre.nbValidees;
+        if (autre.table != null) {
+            for (Map.Entry<String, int[]> e : autre.table.entrySet()) {
+                compter(e.getKey(), e.getValue()[0]);
+            }
+        } else {
+            for (int i = 0; i < autre.nbAuteurs; i++) {
+                compter(autre.auteurs[i], autre.nombres[i]);
+            }
+        }
+    }
+
+    private void compter(String auteurId, int n) {
+        if (table != null) {
+            table.computeIfAbsent(auteurId, k -> new int[1])[0] += n;
+            return;
+        }
+        int i = rang(auteurId);
+        if (i >= 0) {
+            nombres[i] += n;
+            return;
+        }
+        if (nbAuteurs == MAX_TABLEAUX) {
+            table = new HashMap<>();
+            for (int j = 0; j < nbAuteurs; j++) {
+                table.put(auteurs[j], new int[] { nombres[j] });
+            }
+            auteurs = null;
+            nombres = null;
+            table.computeIfAbsent(auteurId, k -> new int[1])[0] += n;
+            return;
+        }
+        if (auteurs == null) {
+            auteurs = new String[1];
+            nombres = new int[1];
+        } else if (nbAuteurs == auteurs.length) {
+            auteurs = Arrays.copyOf(auteurs, nbAuteurs * 2);
+            nombres = Arrays.copyOf(nombres, nbAuteurs * 2);
+        }
+        auteurs[nbAuteurs] = auteurId;
+        nombres[nbAuteurs] = n;
+        nbAuteurs++;
+    }
+
+    private int rang(String auteurId) {
+        for (int i = 0; i < nbAuteurs; i++) {
+            if (auteurs[i].equals(auteurId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StatistiquesAnnotations{" +
+                "nbAnnotations=" + nbAnnotations +
+                ", nbValidees=" + nbValidees +
+                ", nbAuteurs=" + getNbAuteurs() +
+                '}';
+    }
+}
@@ -0,0 +1,196 @@
+package model;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rangement des textes et des annotations dans un dossier par collection.
+ * <p>
+ * Chaque collection possède un dossier {@code collections/<nom encodé>} qui contient :
+ * </p>
+ * <ul>
+ *     <li>{@code textes.csv} : les textes dont la collection est propriétaire ;</li>
+ *     <li>{@code annotations.csv} : les annotations de ces textes ;</li>
+ *     <li>{@code membres.csv} : les textes de la collection dans l'ordre, sous la forme
+ *     {@code T1}, ou {@code T1;Autre} pour un texte rangé dans la collection {@code Autre}.</li>
+ * </ul>
+ * <p>
+ * Un texte est rangé dans la première collection à laquelle il a été ajouté ; les textes qui
+ * n'appartiennent à aucune collection restent dans les fichiers {@code textes.csv} et
+ * {@code annotations.csv} principaux. Chaque partition retient si elle a été chargée et si
+ * elle a été modifiée depuis sa dernière écriture.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class StockageParCollection {
+
+    /** Nom du dossier des partitions, placé à côté des fichiers CSV. */
+    static final String DOSSIER = "collections";
+    static final String FICHIER_TEXTES = "textes.csv";
+    static final String FICHIER_ANNOTATIONS = "annotations.csv";
+    static final String FICHIER_MEMBRES = "membres.csv";
+
+    /**
+     * Dossier d'une collection et son état.
+     */
+    static final class Partition {
+        final String nom;
+        final Path dossier;
+        /** Indique si les fichiers de la partition ont été lus (ou s'il n'y a rien à lire). */
+        volatile boolean chargee;
+        /** Indique si la partition doit être réécrite à la prochaine sauvegarde. */
+        volatile boolean modifiee;
+        /** Source des contenus des textes chargés à la demande, ou null. */
+        SourceContenus source;
+
+        Partition(String nom, Path dossier) {
+            this.nom = nom;
+            this.dossier = dossier;
+        }
+
+        Path fichier(String nom) {
+            return dossier.resolve(nom);
+        }
+    }
+
+    private final Path racine;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    /** Partition propriétaire de chaque texte rangé dans une collection, par numéro de texte. */
+    private final TableEntiers<Partition> proprietaires = new TableEntiers<>();
+    /** Indique si les fichiers principaux (textes hors collection) doivent être réécrits. */
+    private volatile boolean orphelinsModifies;
+
+    /**
+     * Constructeur.
+     *
+     * @param dossierCsv dossier des fichiers CSV principaux
+     */
+    StockageParCollection(Path dossierCsv) {
+        this.racine = dossierCsv.resolve(DOSSIER);
+    }
+
+    /**
+     * Indique si un dossier de partitions existe à côté des fichiers CSV.
+     *
+     * @param dossierCsv dossier des fichiers CSV principaux
+     * @return true si des collections ont déjà été rangées par dossier
+     */
+    static boolean existe(Path dossierCsv) {
+        return Files.isDirectory(dossierCsv.resolve(DOSSIER));
+    }
+
+    /**
+     * Retourne les noms des collections qui ont un dossier.
+     *
+     * @return les noms décodés
+     * @throws IOException en cas d'erreur de lecture du dossier
+     */
+    List<String> nomsEnregistres() throws IOException {
+        List<String> noms = new ArrayList<>();
+        if (!Files.isDirectory(racine)) {
+            return noms;
+        }
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(racine, Files::isDirectory)) {
+            for (Path p : ds) {
+                noms.add(URLDecoder.decode(p.getFileName().toString(), StandardCharsets.UTF_8));
+            }
+        }
+        noms.sort(null);
+        return noms;
+    }
+
+    /**
+     * Retourne la partition d'une collection, créée si besoin.
+     *
+     * @param nom le nom de la collection
+     * @return la partition
+     */
+    Partition partition(String nom) {
+        return partitions.computeIfAbsent(nom, n -> {
+            Partition p = new Partition(n, racine.resolve(encoder(n)));
+            // Une collection sans dossier (nouvelle, ou lue dans les fichiers principaux) n'a rien à lire.
+            p.chargee = !Files.isDirectory(p.dossier);
+            return p;
+        });
+    }
+
+    /**
+     * Retourne toutes les partitions connues.
+     *
+     * @return les partitions
+     */
+    List<Partition> partitions() {
+        return new ArrayList<>(partitions.values());
+    }
+
+    /**
+     * Retourne la partition dans laquelle un texte est rangé.
+     *
+     * @param texte le numéro du texte
+     * @return la partition, ou null si le texte est rangé dans les fichiers principaux
+     */
+    Partition proprietaire(long texte) {
+        return proprietaires.get(texte);
+    }
+
+    /**
+     * Range un texte dans une partition s'il n'en a pas encore.
+     *
+     * @param texte le numéro du texte
+     * @param p     la partition
+     * @return true si le texte vient d'être rangé dans cette partition
+     */
+    boolean attribuer(long texte, Partition p) {
+        return proprietaires.putIfAbsent(texte, p) == null;
+    }
+
+    /**
+     * Signale la modification d'un texte ou de ses annotations : sa partition,
+     * ou les fichiers principaux, seront réécrits.
+     *
+     * @param texte le numéro du texte
+     */
+    void marquer(long texte) {
+        Partition p = proprietaires.get(texte);
+        if (p != null) {
+            p.modifiee = true;
+        } else {
+            orphelinsModifies = true;
+        }
+    }
+
+    /**
+     * Signale que les fichiers principaux doivent être réécrits.
+     */
+    void marquerOrphelins() {
+        orphelinsModifies = true;
+    }
+
+    /**
+     * Indique si les fichiers principaux doivent être réécrits, et remet l'indicateur à zéro.
+     *
+     * @return true si les fichiers principaux ont été modifiés
+     */
+    boolean prendreOrphelinsModifies() {
+        boolean m = orphelinsModifies;
+        orphelinsModifies = false;
+        return m;
+    }
+
+    /**
+     * Encode un nom de collection en nom de dossier valide sur tous les systèmes.
+     */
+    static String encoder(String nom) {
+        return URLEncoder.encode(nom, StandardCharsets.UTF_8).replace(".", "%2E").replace("*", "%2A");
+    }
+}
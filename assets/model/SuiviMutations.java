@@ -0,0 +1,37 @@
+package model;
+
+/**
+ * Reçoit les modifications faites directement sur les entités du modèle.
+ * <p>
+ * Certaines modifications ne passent pas par {@link Modele} (par exemple
+ * {@link Texte#validerAnnotation(Annotation)} ou {@link Annotateur#modifierAnnotation(Annotation, String)}).
+ * Les entités enregistrées dans un {@link ModeleAnnotation} reçoivent donc un suivi
+ * qu'elles préviennent à chaque changement d'état.
+ * </p>
+ *
+ * @version 1.0
+ */
+interface SuiviMutations {
+
+    /**
+     * Signale que le contenu ou la validité d'une annotation a changé.
+     *
+     * @param ann l'annotation modifiée
+     */
+    void annotationModifiee(Annotation ann);
+
+    /**
+     * Signale qu'un texte a été ajouté à une collection.
+     *
+     * @param c la collection
+     * @param t le texte ajouté
+     */
+    void texteAjouteACollection(CollectionDeTextes c, Texte t);
+
+    /**
+     * Signale que le mot de passe stocké d'un utilisateur a changé.
+     *
+     * @param u l'utilisateur modifié
+     */
+    void utilisateurModifie(Utilisateur u);
+}
@@ -0,0 +1,328 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * Table associative à clés entières, en adressage ouvert.
+ * <p>
+ * Les clés sont rangées dans un tableau de {@code long} et les valeurs dans un tableau parallèle :
+ * ni objet {@code Long}, ni nœud de chaînage par entrée. Les collisions sont résolues par
+ * sondage linéaire et la table est agrandie dès qu'elle est à moitié pleine ; une suppression
+ * décale les entrées suivantes de la même grappe au lieu de laisser une marque.
+ * </p>
+ * <p>
+ * La table peut être partagée entre plusieurs sessions : les écritures prennent un verrou
+ * exclusif, les lectures tentent d'abord une lecture optimiste, sans verrou, validée après coup.
+ * </p>
+ *
+ * @param <V> type des valeurs
+ * @version 1.0
+ */
+class TableEntiers<V> {
+
+    private static final int CAPACITE_MIN = 16;
+
+    private final StampedLock verrou = new StampedLock();
+    private long[] cles;
+    private Object[] valeurs;
+    private int taille;
+
+    /**
+     * Crée une table vide.
+     */
+    TableEntiers() {
+        this(0);
+    }
+
+    /**
+     * Crée une table dimensionnée pour recevoir un nombre d'entrées sans être agrandie.
+     *
+     * @param attendus nombre d'entrées attendu
+     */
+    TableEntiers(int attendus) {
+        int capacite = CAPACITE_MIN;
+        while (capacite < attendus * 2L) {
+            capacite <<= 1;
+        }
+        cles = new long[capacite];
+        valeurs = new Object[capacite];
+    }
+
+    private static int position(long cle, int masque) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & masque;
+    }
+
+    /**
+     * Retourne la valeur associée à une clé.
+     *
+     * @param cle la clé
+     * @return la valeur, ou null si la clé est absente
+     */
+    V get(long cle) {
+        long tampon = verrou.tryOptimisticRead();
+        if (tampon != 0) {
+            V v = chercher(cles, valeurs, cle);
+            if (verrou.validate(tampon)) {
+                return v;
+            }
+        }
+        tampon = verrou.readLock();
+        try {
+            return chercher(cles, valeurs, cle);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Recherche sans verrou. Lors d'une lecture optimiste les tableaux peuvent changer
+     * pendant le sondage : le nombre de cases visitées est donc borné.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V chercher(long[] cles, Object[] valeurs, long cle) {
+        if (cles.length != valeurs.length) {
+            // Agrandissement en cours : la lecture optimiste sera invalidée.
+            return null;
+        }
+        int masque = valeurs.length - 1;
+        int i = position(cle, masque);
+        for (int n = 0; n <= masque; n++) {
+            Object v = valeurs[i];
+            if (v == null) {
+                return null;
+            }
+            if (cles[i] == cle) {
+                return (V) v;
+            }
+            i = (i + 1) & masque;
+        }
+        return null;
+    }
+
+    /**
+     * Indique si une clé est présente.
+     *
+     * @param cle la clé
+     * @return true si la clé est présente
+     */
+    boolean containsKey(long cle) {
+        return get(cle) != null;
+    }
+
+    /**
+     * Associe une valeur à une clé.
+     *
+     * @param cle    la clé
+     * @param valeur la valeur (non nulle)
+     * @return l'ancienne valeur, ou null
+     */
+    V put(long cle, V valeur) {
+        long tampon = verrou.writeLock();
+        try {
+            return ranger(cle, valeur, true);
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Associe une valeur à une clé si elle est absente.
+     *
+     * @param cle    la clé
+     * @param valeur la valeur (non nulle)
+     * @return la valeur déjà présente, ou null si la valeur a été ajoutée
+     */
+    V putIfAbsent(long cle, V valeur) {
+        long tampon = verrou.writeLock();
+        try {
+            return ranger(cle, valeur, false);
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Retourne la valeur associée à une clé, en la créant si elle est absente.
+     *
+     * @param cle      la clé
+     * @param fabrique crée la valeur d'une clé absente
+     * @return la valeur associée à la clé
+     */
+    V computeIfAbsent(long cle, LongFunction<V> fabrique) {
+        V v = get(cle);
+        if (v != null) {
+            return v;
+        }
+        long tampon = verrou.writeLock();
+        try {
+            v = chercher(cles, valeurs, cle);
+            if (v == null) {
+                v = fabrique.apply(cle);
+                ranger(cle, v, true);
+            }
+            return v;
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V ranger(long cle, V valeur, boolean remplacer) {
+        if (valeur == null) {
+            throw new NullPointerException("Valeur nulle pour la clé " + cle);
+        }
+        if ((taille + 1) * 2 > valeurs.length) {
+            agrandir();
+        }
+        int masque = valeurs.length - 1;
+        int i = position(cle, masque);
+        while (valeurs[i] != null) {
+            if (cles[i] == cle) {
+                V ancienne = (V) valeurs[i];
+                if (remplacer) {
+                    valeurs[i] = valeur;
+                }
+                return ancienne;
+            }
+            i = (i + 1) & masque;
+        }
+        cles[i] = cle;
+        valeurs[i] = valeur;
+        taille++;
+        return null;
+    }
+
+    /**
+     * Double la capacité. Les nouveaux tableaux sont remplis avant d'être publiés,
+     * pour qu'une lecture optimiste concurrente ne voie jamais une table à moitié copiée.
+     */
+    private void agrandir() {
+        long[] nouvellesCles = new long[cles.length * 2];
+        Object[] nouvellesValeurs = new Object[valeurs.length * 2];
+        int masque = nouvellesValeurs.length - 1;
+        for (int j = 0; j < valeurs.length; j++) {
+            if (valeurs[j] != null) {
+                int i = position(cles[j], masque);
+                while (nouvellesValeurs[i] != null) {
+                    i = (i + 1) & masque;
+                }
+                nouvellesCles[i] = cles[j];
+                nouvellesValeurs[i] = valeurs[j];
+            }
+        }
+        cles = nouvellesCles;
+        valeurs = nouvellesValeurs;
+    }
+
+    /**
+     * Supprime une clé.
+     *
+     * @param cle la clé
+     * @return la valeur supprimée, ou null si la clé était absente
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long cle) {
+        long tampon = verrou.writeLock();
+        try {
+            int masque = valeurs.length - 1;
+            int i = position(cle, masque);
+            while (valeurs[i] != null && cles[i] != cle) {
+                i = (i + 1) & masque;
+            }
+            if (valeurs[i] == null) {
+                return null;
+            }
+            V ancienne = (V) valeurs[i];
+            // Décalage arrière : chaque entrée suivante de la grappe qui n'est plus
+            // accessible depuis sa position d'origine remonte dans la case libérée.
+            int libre = i;
+            int j = (i + 1) & masque;
+            while (valeurs[j] != null) {
+                int origine = position(cles[j], masque);
+                if (((j - origine) & masque) >= ((j - libre) & masque)) {
+                    cles[libre] = cles[j];
+                    valeurs[libre] = valeurs[j];
+                    libre = j;
+                }
+                j = (j + 1) & masque;
+            }
+            valeurs[libre] = null;
+            taille--;
+            return ancienne;
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    /**
+     * Retourne le nombre d'entrées.
+     *
+     * @return le nombre d'entrées
+     */
+    int size() {
+        long tampon = verrou.readLock();
+        try {
+            return taille;
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Copie les entrées de la table, dans l'ordre croissant des clés.
+     * <p>
+     * Pour des numéros d'identifiants, c'est l'ordre de création : un parcours de la copie
+     * (affichage, sauvegarde) suit donc l'ordre des fichiers et des index.
+     * </p>
+     *
+     * @return les clés et les valeurs présentes au moment de l'appel
+     */
+    Copie<V> copier() {
+        long tampon = verrou.readLock();
+        try {
+            long[] c = new long[taille];
+            int k = 0;
+            for (int i = 0; i < valeurs.length; i++) {
+                if (valeurs[i] != null) {
+                    c[k++] = cles[i];
+                }
+            }
+            // Trier les clés puis relire les valeurs : pas d'objet intermédiaire par entrée.
+            Arrays.sort(c);
+            Object[] v = new Object[c.length];
+            for (k = 0; k < c.length; k++) {
+                v[k] = chercher(cles, valeurs, c[k]);
+            }
+            return new Copie<>(c, v);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    /**
+     * Entrées d'une table à un instant donné : clés et valeurs aux mêmes rangs.
+     *
+     * @param <V> type des valeurs
+     */
+    static final class Copie<V> {
+        final long[] cles;
+        private final Object[] valeurs;
+
+        Copie(long[] cles, Object[] valeurs) {
+            this.cles = cles;
+            this.valeurs = valeurs;
+        }
+
+        int taille() {
+            return cles.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        V valeur(int i) {
+            return (V) valeurs[i];
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package model;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Table persistante à clés entières : une table n'est jamais modifiée, chaque ajout retourne
+ * une nouvelle table qui partage avec l'ancienne tout ce qui n'a pas changé.
+ * <p>
+ * La table est un arbre de préfixes sur les bits de la clé, {@value #BITS} par niveau, à la
+ * manière d'un HAMT : chaque nœud ne garde que ses fils présents, repérés par une carte de
+ * 32 bits. Les clés sont des numéros déjà bien répartis et ne sont pas hachées ; la hauteur
+ * de l'arbre suit la plus grande clé (4 niveaux pour un million de numéros). Un ajout
+ * recopie les nœuds du chemin de la racine à la feuille et réutilise tous les autres.
+ * </p>
+ * <p>
+ * Un parcours suit l'ordre croissant des clés, c'est-à-dire l'ordre de création pour des
+ * numéros d'identifiants, comme {@link TableEntiers#copier()}, mais sans copie ni tri. Une
+ * table publiée peut être lue par plusieurs fils sans verrou pendant que d'autres en
+ * dérivent de nouvelles versions.
+ * </p>
+ *
+ * @param <V> type des valeurs
+ * @version 1.0
+ */
+final class TablePersistante<V> {
+
+    private static final int BITS = 5;
+    private static final int MASQUE = (1 << BITS) - 1;
+
+    private static final TablePersistante<?> VIDE = new TablePersistante<>(new Noeud(0, new Object[0]), 0, 0);
+
+    private final Noeud racine;
+    /** Rang du premier bit de la clé lu à la racine ; les feuilles lisent les bits 0 à 4. */
+    private final int decalage;
+    private final int taille;
+
+    private TablePersistante(Noeud racine, int decalage, int taille) {
+        this.racine = racine;
+        this.decalage = decalage;
+        this.taille = taille;
+    }
+
+    /**
+     * Retourne la table vide.
+     *
+     * @param <V> type des valeurs
+     * @return la table vide
+     */
+    @SuppressWarnings("unchecked")
+    static <V> TablePersistante<V> vide() {
+        return (TablePersistante<V>) VIDE;
+    }
+
+    /**
+     * Construit une table d'un seul coup, sans recopie de chemin : chaque nœud est créé
+     * une fois.
+     *
+     * @param cles    les clés, positives et strictement croissantes
+     * @param valeurs les valeurs (non nulles), aux mêmes rangs que les clés
+     * @param <V>     type des valeurs
+     * @return la table
+     */
+    static <V> TablePersistante<V> depuis(long[] cles, Object[] valeurs) {
+        if (cles.length == 0) {
+            return vide();
+        }
+        if (cles[0] < 0) {
+            throw new IllegalArgumentException("Clé négative: " + cles[0]);
+        }
+        int d = hauteur(cles[cles.length - 1]);
+        return new TablePersistante<>(construire(cles, valeurs, 0, cles.length, d), d, cles.length);
+    }
+
+    /**
+     * Retourne le nombre d'entrées.
+     *
+     * @return le nombre d'entrées
+     */
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * Retourne la valeur associée à une clé.
+     *
+     * @param cle la clé
+     * @return la valeur, ou null si la clé est absente
+     */
+    @SuppressWarnings("unchecked")
+    V get(long cle) {
+        if (cle < 0 || !couvre(decalage, cle)) {
+            return null;
+        }
+        Noeud n = racine;
+        for (int d = decalage; ; d -= BITS) {
+            int bit = 1 << ((int) (cle >>> d) & MASQUE);
+            if ((n.carte & bit) == 0) {
+                return null;
+            }
+            Object fils = n.fils[Integer.bitCount(n.carte & (bit - 1))];
+            if (d == 0) {
+                return (V) fils;
+            }
+            n = (Noeud) fils;
+        }
+    }
+
+    /**
+     * Retourne une table où la clé est associée à la valeur ; cette table-ci ne change pas.
+     *
+     * @param cle    la clé (positive)
+     * @param valeur la valeur (non nulle)
+     * @return la nouvelle table
+     */
+    TablePersistante<V> avec(long cle, V valeur) {
+        if (valeur == null) {
+            throw new NullPointerException("Valeur nulle pour la clé " + cle);
+        }
+        if (cle < 0) {
+            throw new IllegalArgumentException("Clé négative: " + cle);
+        }
+        Noeud r = racine;
+        int d = decalage;
+        while (!couvre(d, cle)) {
+            // La racine devient le premier fils d'une racine plus haute.
+            r = taille == 0 ? r : new Noeud(1, new Object[] { r });
+            d += BITS;
+        }
+        int t = get(cle) == null ? taille + 1 : taille;
+        return new TablePersistante<>(avec(r, d, cle, valeur), d, t);
+    }
+
+    /**
+     * Retourne une vue en lecture seule des valeurs, par ordre croissant des clés.
+     *
+     * @return les valeurs
+     */
+    Collection<V> valeurs() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Parcours<>(racine, decalage, taille);
+            }
+
+            @Override
+            public int size() {
+                return taille;
+            }
+        };
+    }
+
+    /** Indique si un arbre dont la racine lit les bits à partir de {@code d} peut contenir la clé. */
+    private static boolean couvre(int d, long cle) {
+        return d + BITS >= Long.SIZE || cle >>> (d + BITS) == 0;
+    }
+
+    private static int hauteur(long cleMax) {
+        int d = 0;
+        while (!couvre(d, cleMax)) {
+            d += BITS;
+        }
+        return d;
+    }
+
+    private static Noeud avec(Noeud n, int d, long cle, Object valeur) {
+        int bit = 1 << ((int) (cle >>> d) & MASQUE);
+        int i = Integer.bitCount(n.carte & (bit - 1));
+        if ((n.carte & bit) != 0) {
+            Object ancien = n.fils[i];
+            Object nouveau = d == 0 ? valeur : avec((Noeud) ancien, d - BITS, cle, valeur);
+            if (nouveau == ancien) {
+                return n;
+            }
+            Object[] fils = n.fils.clone();
+            fils[i] = nouveau;
+            return new Noeud(n.carte, fils);
+        }
+        Object nouveau = d == 0 ? valeur : avec(VIDE.racine, d - BITS, cle, valeur);
+        Object[] fils = new Object[n.fils.length + 1];
+        System.arraycopy(n.fils, 0, fils, 0, i);
+        fils[i] = nouveau;
+        System.arraycopy(n.fils, i, fils, i + 1, n.fils.length - i);
+        return new Noeud(n.carte | bit, fils);
+    }
+
+    /**
+     * Construit le nœud des clés {@code [debut, fin)}, qui ont toutes les mêmes bits au-dessus
+     * de {@code d + BITS}.
+     */
+    private static Noeud construire(long[] cles, Object[] valeurs, int debut, int fin, int d) {
+        Object[] fils = new Object[1 << BITS];
+        int carte = 0;
+        int k = 0;
+        int i = debut;
+        while (i < fin) {
+            int chiffre = (int) (cles[i] >>> d) & MASQUE;
+            int j = i + 1;
+            while (j < fin && ((int) (cles[j] >>> d) & MASQUE) == chiffre) {
+                j++;
+            }
+            if (d == 0) {
+                if (j != i + 1 || valeurs[i] == null) {
+                    throw new IllegalArgumentException("Clé en double ou valeur nulle: " + cles[i]);
+                }
+                fils[k++] = valeurs[i];
+            } else {
+                fils[k++] = construire(cles, valeurs, i, j, d - BITS);
+            }
+            carte |= 1 << chiffre;
+            i = j;
+        }
+        return new Noeud(carte, Arrays.copyOf(fils, k));
+    }
+
+    /**
+     * Nœud de l'arbre : ses fils présents, dans l'ordre des bits de la carte. Au dernier
+     * niveau, les fils sont les valeurs.
+     */
+    private static final class Noeud {
+        final int carte;
+        final Object[] fils;
+
+        Noeud(int carte, Object[] fils) {
+            this.carte = carte;
+            this.fils = fils;
+        }
+    }
+
+    /**
+     * Parcours en profondeur, avec une pile d'un nœud par niveau.
+     */
+    private static final class Parcours<V> implements Iterator<V> {
+        private final Noeud[] pile;
+        private final int[] rangs;
+        private int niveau;
+        private int restants;
+
+        Parcours(Noeud racine, int decalage, int taille) {
+            int profondeur = decalage / BITS + 1;
+            pile = new Noeud[profondeur];
+            rangs = new int[profondeur];
+            pile[0] = racine;
+            restants = taille;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return restants > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (restants == 0) {
+                throw new NoSuchElementException();
+            }
+            while (true) {
+                Noeud n = pile[niveau];
+                if (rangs[niveau] == n.fils.length) {
+                    niveau--;
+                    continue;
+                }
+                Object fils = n.fils[rangs[niveau]++];
+                if (niveau == pile.length - 1) {
+                    restants--;
+                    return (V) fils;
+                }
+                niveau++;
+                pile[niveau] = (Noeud) fils;
+                rangs[niveau] = 0;
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package model;
 
+import model.observer.BusEvenements;
+import model.observer.Evenement;
 import model.observer.Observateur;
 import model.observer.Sujet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Classe représentant un texte.
@@ -12,28 +15,77 @@ import java.util.List;
  * Il implémente l'interface {@link Sujet} pour permettre la notification
  * de ses observateurs lors d'événements (par exemple, l'ajout d'une annotation).
  * </p>
+ * <p>
+ * Les listes d'annotations et d'observateurs sont copiées à chaque écriture : un texte
+ * reçoit peu d'annotations, et les lectures concurrentes ne sont jamais bloquées.
+ * </p>
+ * <p>
+ * Un texte chargé à la demande ne garde pas son contenu en mémoire : {@link #getContenu()}
+ * le relit depuis une {@link SourceContenus}, à travers un {@link CacheContenus}.
+ * </p>
+ * <p>
+ * Les {@link StatistiquesAnnotations} du texte comptent ses annotations enregistrées dans
+ * le modèle ; chaque mise à jour est reportée sur les collections qui contiennent le texte.
+ * </p>
  * 
  * @version 1.0
  */
 public class Texte implements Sujet {
 
-    private String id;
-    private String contenu;
+    /** Numéro du texte (voir {@link RegistreIdentifiants}). */
+    private final long numero;
+    /** Contenu gardé en mémoire, ou null s'il est relu à la demande depuis {@link #source}. */
+    private volatile String contenu;
+    /** Fichier, position et longueur en octets du contenu (protégés par le verrou de la source). */
+    private SourceContenus source;
+    private long positionSource;
+    private int longueurSource;
     private List<Annotation> annotations;
 
+    private final StatistiquesAnnotations statistiques = new StatistiquesAnnotations();
+    /** Collections qui contiennent le texte (remplacée à chaque ajout, protégée par {@link #statistiques}). */
+    private volatile List<CollectionDeTextes> collections = List.of();
+
     /** Liste des observateurs enregistrés */
-    private List<Observateur> observateurs = new ArrayList<>();
+    private final CopyOnWriteArrayList<Observateur> observateurs = new CopyOnWriteArrayList<>();
 
     /**
      * Constructeur.
      *
      * @param id      identifiant du texte (ex: "T1")
      * @param contenu contenu du texte
+     * @throws IllegalArgumentException si l'identifiant n'est pas canonique
      */
     public Texte(String id, String contenu) {
-        this.id = id;
+        this(RegistreIdentifiants.exiger(id, RegistreIdentifiants.PREFIXE_TEXTE), contenu);
+    }
+
+    /**
+     * Constructeur à partir du numéro déjà décodé.
+     *
+     * @param numero  numéro du texte
+     * @param contenu contenu du texte
+     */
+    Texte(long numero, String contenu) {
+        this.numero = numero;
         this.contenu = contenu;
-        this.annotations = new ArrayList<>();
+        this.annotations = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Constructeur d'un texte dont le contenu est relu à la demande.
+     *
+     * @param numero   numéro du texte
+     * @param source   fichier contenant le contenu
+     * @param position position du contenu dans le fichier
+     * @param longueur longueur du contenu en octets
+     */
+    Texte(long numero, SourceContenus source, long position, int longueur) {
+        this.numero = numero;
+        this.source = source;
+        this.positionSource = position;
+        this.longueurSource = longueur;
+        this.annotations = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -42,7 +94,16 @@ public class Texte implements Sujet {
      * @return l'identifiant
      */
     public String getId() {
-        return id;
+        return RegistreIdentifiants.texte(numero);
+    }
+
+    /**
+     * Retourne le numéro du texte.
+     *
+     * @return le numéro
+     */
+    long getNumero() {
+        return numero;
     }
 
     /**
@@ -51,7 +112,57 @@ public class Texte implements Sujet {
      * @return le contenu
      */
     public String getContenu() {
-        return contenu;
+        String c = contenu;
+        return c != null ? c : source.contenu(this);
+    }
+
+    /**
+     * Retourne le contenu sans le placer dans le cache (parcours de tous les textes).
+     *
+     * @return le contenu
+     */
+    String getContenuSansCache() {
+        String c = contenu;
+        return c != null ? c : source.lire(this);
+    }
+
+    /**
+     * Rattache le texte à une source : son contenu n'est plus gardé en mémoire.
+     * Appelé sous le verrou de la source.
+     */
+    void rattacher(SourceContenus source, long position, int longueur) {
+        this.source = source;
+        this.positionSource = position;
+        this.longueurSource = longueur;
+        // Écrit en dernier : une lecture qui voit null voit aussi la source.
+        this.contenu = null;
+    }
+
+    /**
+     * Retourne la source du contenu.
+     *
+     * @return la source, ou null si le contenu est gardé en mémoire
+     */
+    SourceContenus getSource() {
+        return source;
+    }
+
+    /**
+     * Retourne la position du contenu dans le fichier source.
+     *
+     * @return la position en octets
+     */
+    long getPositionSource() {
+        return positionSource;
+    }
+
+    /**
+     * Retourne la longueur du contenu dans le fichier source.
+     *
+     * @return la longueur en octets
+     */
+    int getLongueurSource() {
+        return longueurSource;
     }
 
     /**
@@ -63,6 +174,68 @@ public class Texte implements Sujet {
         return annotations;
     }
 
+    /**
+     * Retourne les compteurs d'annotations du texte.
+     *
+     * @return les statistiques, lisibles sans parcourir les annotations
+     */
+    public StatistiquesAnnotations getStatistiques() {
+        return statistiques;
+    }
+
+    /**
+     * Retourne les collections qui contiennent le texte.
+     *
+     * @return une liste non modifiable
+     */
+    List<CollectionDeTextes> getCollections() {
+        return collections;
+    }
+
+    /**
+     * Compte une annotation enregistrée dans le modèle, pour le texte et ses collections.
+     *
+     * @param ann l'annotation
+     */
+    void annotationEnregistree(Annotation ann) {
+        synchronized (statistiques) {
+            statistiques.ajouter(ann.getAuteurId(), ann.isValide());
+            for (CollectionDeTextes c : collections) {
+                c.getStatistiques().ajouter(ann.getAuteurId(), ann.isValide());
+            }
+        }
+    }
+
+    /**
+     * Reporte le changement d'état de validation d'une annotation déjà comptée.
+     *
+     * @param valide le nouvel état
+     */
+    void validiteModifiee(boolean valide) {
+        synchronized (statistiques) {
+            statistiques.basculer(valide);
+            for (CollectionDeTextes c : collections) {
+                c.getStatistiques().basculer(valide);
+            }
+        }
+    }
+
+    /**
+     * Ajoute les compteurs du texte à une collection qui vient de le recevoir ; les mises à
+     * jour suivantes lui seront reportées.
+     *
+     * @param c la collection
+     */
+    void rattacherCollection(CollectionDeTextes c) {
+        synchronized (statistiques) {
+            List<CollectionDeTextes> l = new ArrayList<>(collections.size() + 1);
+            l.addAll(collections);
+            l.add(c);
+            collections = l;
+            c.getStatistiques().fusionner(statistiques);
+        }
+    }
+
     /**
      * Ajoute une annotation au texte et notifie les observateurs.
      *
@@ -70,8 +243,7 @@ public class Texte implements Sujet {
      */
     public void ajouterAnnotation(Annotation ann) {
         annotations.add(ann);
-        System.out.println("Dans ajouterAnnotation: je notifie l'administrateur (debug)");
-        notifierObservateurs("Texte [" + id + "] => nouvelle annotation [" + ann.getAnnotationId() + "] par " + ann.getAuteurId());
+        notifierObservateurs(Evenement.annotationAjoutee(this, getId(), ann.getAnnotationId(), ann.getAuteurId()));
     }
 
     /**
@@ -90,15 +262,14 @@ public class Texte implements Sujet {
      * @param newContent nouveau contenu
      */
     public void corrigerAnnotation(Annotation ann, String newContent) {
-        ann.setContenu(newContent);
-        ann.setValide(true);
+        ann.mettreAJour(newContent, true);
     }
 
     @Override
     public String toString() {
         return "Texte{" +
-                "id='" + id + '\'' +
-                ", contenu='" + contenu + '\'' +
+                "id='" + getId() + '\'' +
+                ", contenu='" + getContenu() + '\'' +
                 ", nbAnnotations=" + annotations.size() +
                 '}';
     }
@@ -112,9 +283,7 @@ public class Texte implements Sujet {
      */
     @Override
     public void ajouterObservateur(Observateur o) {
-        if (!observateurs.contains(o)) {
-            observateurs.add(o);
-        }
+        observateurs.addIfAbsent(o);
     }
 
     /**
@@ -134,8 +303,17 @@ public class Texte implements Sujet {
      */
     @Override
     public void notifierObservateurs(String message) {
-        for (Observateur o : observateurs) {
-            o.actualiser(this, message);
-        }
+        notifierObservateurs(Evenement.message(this, message));
+    }
+
+    /**
+     * Publie un événement sur le {@link BusEvenements} : les observateurs sont prévenus
+     * de manière asynchrone.
+     *
+     * @param evenement l'événement à transmettre
+     */
+    @Override
+    public void notifierObservateurs(Evenement evenement) {
+        BusEvenements.defaut().publier(evenement, observateurs);
     }
 }
@@ -4,6 +4,8 @@ package model;
  * Classe abstraite représentant un utilisateur.
  * <p>
  * Un utilisateur possède un identifiant, un nom, un email, un rôle et un mot de passe.
+ * Le mot de passe est conservé haché (voir {@link MotsDePasse}) ; il se vérifie par
+ * {@link #verifierMotDePasse(String)}.
  * </p>
  * 
  * @author 
@@ -14,7 +16,8 @@ public abstract class Utilisateur {
     protected String nom;
     protected String email;
     protected String role;
-    protected String motDePasse;
+    protected volatile String motDePasse;
+    private volatile SuiviMutations suivi;
 
     /**
      * Constructeur.
@@ -70,14 +73,55 @@ public abstract class Utilisateur {
     }
 
     /**
-     * Retourne le mot de passe.
+     * Retourne le mot de passe tel qu'il est stocké (son empreinte, ou le mot de passe en clair
+     * s'il n'a pas encore été haché).
      *
-     * @return le mot de passe
+     * @return le mot de passe stocké
      */
     public String getMotDePasse() {
         return motDePasse;
     }
 
+    /**
+     * Vérifie un mot de passe saisi. Si le mot de passe est correct mais stocké en clair ou
+     * haché avec un coût inférieur au coût actuel, il est haché à nouveau.
+     *
+     * @param saisi le mot de passe saisi
+     * @return true si le mot de passe est correct
+     */
+    public boolean verifierMotDePasse(String saisi) {
+        String stocke = motDePasse;
+        if (!MotsDePasse.verifier(stocke, saisi)) {
+            return false;
+        }
+        if (MotsDePasse.aRenforcer(stocke)) {
+            remplacerMotDePasse(MotsDePasse.hacher(saisi));
+        }
+        return true;
+    }
+
+    /**
+     * Remplace la valeur stockée du mot de passe et prévient le suivi.
+     *
+     * @param stocke la nouvelle valeur (une empreinte)
+     */
+    void remplacerMotDePasse(String stocke) {
+        this.motDePasse = stocke;
+        SuiviMutations s = suivi;
+        if (s != null) {
+            s.utilisateurModifie(this);
+        }
+    }
+
+    /**
+     * Associe le suivi des modifications du modèle qui contient l'utilisateur.
+     *
+     * @param suivi le suivi à prévenir
+     */
+    void setSuivi(SuiviMutations suivi) {
+        this.suivi = suivi;
+    }
+
     @Override
     public String toString() {
         return role + "{" +
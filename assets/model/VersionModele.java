@@ -0,0 +1,220 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Version figée du modèle : les textes, les annotations et les collections tels qu'ils
+ * étaient à un instant donné.
+ * <p>
+ * Le modèle publie une nouvelle version à chaque modification. Elle partage avec la
+ * précédente tout ce qui n'a pas changé (voir {@link TablePersistante}) : une modification
+ * ne recopie que quelques nœuds, et {@link Modele#figer()} ne fait que lire la version
+ * courante, sans copie ni verrou. Une version obtenue ne change plus, même si des sessions
+ * continuent de modifier le modèle : on peut la parcourir aussi longtemps qu'on veut, et
+ * tout ce qu'elle contient date du même instant (le contenu et la validation d'une
+ * annotation vont ensemble, chaque membre d'une collection est un texte de la version).
+ * </p>
+ * <p>
+ * Les annotations retournées sont des copies détachées de leur état à l'instant de la
+ * version : les modifier n'a aucun effet sur le modèle. Les utilisateurs ne font pas partie
+ * de la version : ils sont peu nombreux et seul leur mot de passe change.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class VersionModele {
+
+    final TablePersistante<Texte> textes;
+    final TablePersistante<Annotation.Etat> annotations;
+    /** Textes de chaque collection, par rang d'ajout. */
+    final Map<String, TablePersistante<Texte>> collections;
+    /**
+     * Index du modèle des annotations par auteur, commun à toutes les versions : une
+     * annotation n'y figure pour une version que si elle est dans {@link #annotations}.
+     */
+    private final Map<String, Set<Annotation>> parAuteur;
+
+    private VersionModele(TablePersistante<Texte> textes, TablePersistante<Annotation.Etat> annotations,
+                          Map<String, TablePersistante<Texte>> collections, Map<String, Set<Annotation>> parAuteur) {
+        this.textes = textes;
+        this.annotations = annotations;
+        this.collections = collections;
+        this.parAuteur = parAuteur;
+    }
+
+    /**
+     * Retourne la version d'un modèle vide.
+     */
+    static VersionModele vide(Map<String, Set<Annotation>> parAuteur) {
+        return new VersionModele(TablePersistante.vide(), TablePersistante.vide(), Map.of(), parAuteur);
+    }
+
+    /**
+     * Construit la version correspondant au contenu actuel des tables du modèle, qui ne
+     * doivent pas changer pendant la construction (fin de chargement).
+     */
+    static VersionModele construire(TableEntiers<Texte> textes, TableEntiers<Annotation> annotations,
+                                    Collection<CollectionDeTextes> collections, Map<String, Set<Annotation>> parAuteur) {
+        TableEntiers.Copie<Texte> ct = textes.copier();
+        Object[] vt = new Object[ct.taille()];
+        for (int i = 0; i < vt.length; i++) {
+            vt[i] = ct.valeur(i);
+        }
+        TableEntiers.Copie<Annotation> ca = annotations.copier();
+        Object[] va = new Object[ca.taille()];
+        for (int i = 0; i < va.length; i++) {
+            va[i] = ca.valeur(i).getEtat();
+        }
+        Map<String, TablePersistante<Texte>> cols = new HashMap<>();
+        for (CollectionDeTextes c : collections) {
+            List<Texte> membres = c.getTextes();
+            long[] rangs = new long[membres.size()];
+            for (int i = 0; i < rangs.length; i++) {
+                rangs[i] = i;
+            }
+            cols.put(c.getNom(), TablePersistante.depuis(rangs, membres.toArray()));
+        }
+        return new VersionModele(TablePersistante.depuis(ct.cles, vt), TablePersistante.depuis(ca.cles, va),
+                Collections.unmodifiableMap(cols), parAuteur);
+    }
+
+    /**
+     * Retourne un texte.
+     *
+     * @param id l'identifiant du texte
+     * @return le texte, ou null s'il n'existait pas encore
+     */
+    public Texte getTexte(String id) {
+        long n = RegistreIdentifiants.numero(id, RegistreIdentifiants.PREFIXE_TEXTE);
+        return n < 0 ? null : textes.get(n);
+    }
+
+    /**
+     * Retourne une annotation, dans son état à l'instant de la version.
+     *
+     * @param id l'identifiant de l'annotation
+     * @return une copie détachée de l'annotation, ou null si elle n'existait pas encore
+     */
+    public Annotation getAnnotation(String id) {
+        long n = RegistreIdentifiants.numero(id, RegistreIdentifiants.PREFIXE_ANNOTATION);
+        Annotation.Etat e = n < 0 ? null : annotations.get(n);
+        return e == null ? null : new Annotation(e);
+    }
+
+    /**
+     * Retourne le nombre de textes.
+     *
+     * @return le nombre de textes
+     */
+    public int nbTextes() {
+        return textes.taille();
+    }
+
+    /**
+     * Retourne le nombre d'annotations.
+     *
+     * @return le nombre d'annotations
+     */
+    public int nbAnnotations() {
+        return annotations.taille();
+    }
+
+    /**
+     * Retourne les noms des collections.
+     *
+     * @return les noms, en lecture seule
+     */
+    public Set<String> getNomsCollections() {
+        return collections.keySet();
+    }
+
+    /**
+     * Retourne les textes d'une collection, dans leur ordre d'ajout.
+     *
+     * @param nom le nom de la collection
+     * @return les textes (liste vide si la collection n'existait pas encore)
+     */
+    public List<Texte> getTextes(String nom) {
+        TablePersistante<Texte> membres = collections.get(nom);
+        return membres == null ? new ArrayList<>() : new ArrayList<>(membres.valeurs());
+    }
+
+    /**
+     * Retourne les annotations écrites par un auteur, dans leur ordre d'ajout.
+     *
+     * @param auteurId l'identifiant de l'auteur
+     * @return des copies détachées des annotations (liste vide si aucune)
+     */
+    public List<Annotation> getAnnotationsParAuteur(String auteurId) {
+        List<Annotation> res = new ArrayList<>();
+        Set<Annotation> candidates = parAuteur.get(auteurId);
+        if (candidates == null) {
+            return res;
+        }
+        for (Annotation a : candidates) {
+            Annotation.Etat e = annotations.get(a.getNumero());
+            if (e != null) {
+                res.add(new Annotation(e));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Retourne la version où le texte a été ajouté.
+     */
+    VersionModele avecTexte(Texte t) {
+        return new VersionModele(textes.avec(t.getNumero(), t), annotations, collections, parAuteur);
+    }
+
+    /**
+     * Retourne la version où l'annotation a l'état donné.
+     */
+    VersionModele avecAnnotation(Annotation.Etat e) {
+        return new VersionModele(textes, annotations.avec(e.annotation.getNumero(), e), collections, parAuteur);
+    }
+
+    /**
+     * Retourne la version où chaque annotation a son état courant.
+     */
+    VersionModele avecAnnotations(Collection<Annotation> anns) {
+        TablePersistante<Annotation.Etat> res = annotations;
+        for (Annotation a : anns) {
+            res = res.avec(a.getNumero(), a.getEtat());
+        }
+        return new VersionModele(textes, res, collections, parAuteur);
+    }
+
+    /**
+     * Retourne la version où la collection existe, vide si elle n'existait pas encore.
+     */
+    VersionModele avecCollection(String nom) {
+        if (collections.containsKey(nom)) {
+            return this;
+        }
+        return avecMembres(textes, nom, TablePersistante.vide());
+    }
+
+    /**
+     * Retourne la version où le texte a été ajouté à la fin de la collection. Un nouveau
+     * texte est souvent ajouté à sa collection avant d'être ajouté au modèle : il entre
+     * alors dans la version avec la collection.
+     */
+    VersionModele avecMembre(String nom, Texte t) {
+        TablePersistante<Texte> membres = collections.getOrDefault(nom, TablePersistante.vide());
+        TablePersistante<Texte> tt = textes.get(t.getNumero()) == null ? textes.avec(t.getNumero(), t) : textes;
+        return avecMembres(tt, nom, membres.avec(membres.taille(), t));
+    }
+
+    private VersionModele avecMembres(TablePersistante<Texte> textes, String nom, TablePersistante<Texte> membres) {
+        Map<String, TablePersistante<Texte>> cols = new HashMap<>(collections);
+        cols.put(nom, membres);
+        return new VersionModele(textes, annotations, Collections.unmodifiableMap(cols), parAuteur);
+    }
+}
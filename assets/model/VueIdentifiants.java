@@ -0,0 +1,127 @@
+package model;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Vue en lecture seule d'une {@link TableEntiers}, indexée par les identifiants textuels.
+ * <p>
+ * C'est la forme sous laquelle {@link Modele} expose les textes et les annotations : une
+ * recherche convertit l'identifiant en numéro, et un parcours travaille sur une copie de la
+ * table prise à son début, dans l'ordre des numéros. Les identifiants ne sont reconstruits que
+ * lorsque les clés sont lues.
+ * </p>
+ *
+ * @param <V> type des valeurs
+ * @version 1.0
+ */
+class VueIdentifiants<V> extends AbstractMap<String, V> {
+
+    private final char prefixe;
+    private final TableEntiers<V> table;
+
+    /**
+     * Constructeur.
+     *
+     * @param prefixe le préfixe des identifiants
+     * @param table   la table exposée
+     */
+    VueIdentifiants(char prefixe, TableEntiers<V> table) {
+        this.prefixe = prefixe;
+        this.table = table;
+    }
+
+    @Override
+    public V get(Object cle) {
+        if (!(cle instanceof String)) {
+            return null;
+        }
+        long n = RegistreIdentifiants.numero((String) cle, prefixe);
+        return n < 0 ? null : table.get(n);
+    }
+
+    @Override
+    public boolean containsKey(Object cle) {
+        return get(cle) != null;
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                TableEntiers.Copie<V> copie = table.copier();
+                return new Parcours<V>(copie) {
+                    @Override
+                    V element(int i) {
+                        return copie.valeur(i);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                TableEntiers.Copie<V> copie = table.copier();
+                return new Parcours<Map.Entry<String, V>>(copie) {
+                    @Override
+                    Map.Entry<String, V> element(int i) {
+                        return new SimpleImmutableEntry<>(prefixe + Long.toString(copie.cles[i]), copie.valeur(i));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+        };
+    }
+
+    /**
+     * Itérateur sur les rangs d'une copie de la table.
+     */
+    private abstract static class Parcours<E> implements Iterator<E> {
+        private final int taille;
+        private int i;
+
+        Parcours(TableEntiers.Copie<?> copie) {
+            this.taille = copie.taille();
+        }
+
+        abstract E element(int i);
+
+        @Override
+        public boolean hasNext() {
+            return i < taille;
+        }
+
+        @Override
+        public E next() {
+            if (i >= taille) {
+                throw new NoSuchElementException();
+            }
+            return element(i++);
+        }
+    }
+}
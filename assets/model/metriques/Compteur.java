@@ -0,0 +1,56 @@
+package model.metriques;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur d'événements.
+ * <p>
+ * Repose sur un {@link LongAdder} : plusieurs fils peuvent incrémenter le même compteur sans
+ * se gêner, et l'incrément ne fait aucune allocation.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class Compteur {
+
+    private final String nom;
+    private final LongAdder valeur = new LongAdder();
+
+    Compteur(String nom) {
+        this.nom = nom;
+    }
+
+    /**
+     * Retourne le nom du compteur.
+     *
+     * @return le nom
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Ajoute un au compteur.
+     */
+    public void incrementer() {
+        valeur.increment();
+    }
+
+    /**
+     * Ajoute une quantité au compteur.
+     *
+     * @param n la quantité
+     */
+    public void ajouter(long n) {
+        valeur.add(n);
+    }
+
+    /**
+     * Retourne la valeur du compteur.
+     *
+     * @return la somme des incréments
+     */
+    public long getValeur() {
+        return valeur.sum();
+    }
+}
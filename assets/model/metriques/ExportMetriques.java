@@ -0,0 +1,195 @@
+package model.metriques;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposition des {@link Metriques} hors de l'application.
+ * <p>
+ * {@link #demarrer()} enregistre le registre comme MBean JMX ({@value #NOM_JMX}, consultable
+ * avec JConsole ou VisualVM) et, si {@code -Dprojetmc.metriques.fichier} est donné, recopie
+ * le {@link Metriques#rapport() rapport} dans ce fichier toutes les
+ * {@code -Dprojetmc.metriques.periode} secondes (60 par défaut). Le fichier est remplacé
+ * atomiquement : un lecteur voit toujours un rapport complet.
+ * </p>
+ * <p>
+ * Pour chaque compteur, le MBean a un attribut du même nom ; pour chaque histogramme, les
+ * attributs {@code <nom>.nombre}, {@code .moyenneUs}, {@code .p50Us}, {@code .p99Us} et
+ * {@code .maxUs}. Les attributs sont calculés à la lecture.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class ExportMetriques {
+
+    /** Nom JMX du registre. */
+    public static final String NOM_JMX = "projetmc:type=Metriques";
+
+    private static ScheduledExecutorService depot;
+    private static Path fichier;
+    private static boolean enregistre;
+
+    private ExportMetriques() {
+    }
+
+    /**
+     * Publie le registre par JMX et démarre la recopie périodique si elle est demandée.
+     * Un second appel ne fait rien.
+     */
+    public static synchronized void demarrer() {
+        if (!enregistre) {
+            enregistre = true;
+            try {
+                MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+                ObjectName nom = new ObjectName(NOM_JMX);
+                if (!serveur.isRegistered(nom)) {
+                    serveur.registerMBean(new MBeanMetriques(Metriques.defaut()), nom);
+                }
+            } catch (JMException e) {
+                System.err.println("Publication JMX des métriques impossible: " + e.getMessage());
+            }
+        }
+        String chemin = System.getProperty("projetmc.metriques.fichier");
+        if (chemin == null || depot != null) {
+            return;
+        }
+        fichier = Path.of(chemin);
+        long periode = Long.getLong("projetmc.metriques.periode", 60);
+        depot = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metriques-depot");
+            t.setDaemon(true);
+            return t;
+        });
+        depot.scheduleAtFixedRate(ExportMetriques::deposer, periode, periode, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrête la recopie périodique après un dernier dépôt.
+     */
+    public static synchronized void arreter() {
+        if (depot == null) {
+            return;
+        }
+        depot.shutdownNow();
+        depot = null;
+        deposer();
+    }
+
+    private static void deposer() {
+        Path f = fichier;
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        String contenu = "# " + LocalDateTime.now() + System.lineSeparator() + Metriques.defaut().rapport();
+        try {
+            Files.write(tmp, contenu.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Erreur écriture des métriques: " + e.getMessage());
+        }
+    }
+
+    /**
+     * MBean dont les attributs sont les mesures du registre au moment de la lecture.
+     */
+    private static final class MBeanMetriques implements DynamicMBean {
+
+        private static final String[] SUFFIXES = { ".nombre", ".moyenneUs", ".p50Us", ".p99Us", ".maxUs" };
+
+        private final Metriques metriques;
+
+        MBeanMetriques(Metriques metriques) {
+            this.metriques = metriques;
+        }
+
+        @Override
+        public Object getAttribute(String attribut) throws AttributeNotFoundException {
+            for (Compteur c : metriques.getCompteurs()) {
+                if (c.getNom().equals(attribut)) {
+                    return c.getValeur();
+                }
+            }
+            for (Histogramme h : metriques.getHistogrammes()) {
+                if (!attribut.startsWith(h.getNom()) || attribut.length() == h.getNom().length()) {
+                    continue;
+                }
+                switch (attribut.substring(h.getNom().length())) {
+                    case ".nombre":
+                        return h.getNombre();
+                    case ".moyenneUs":
+                        return h.getMoyenne() / 1e3;
+                    case ".p50Us":
+                        return h.centile(0.50) / 1e3;
+                    case ".p99Us":
+                        return h.centile(0.99) / 1e3;
+                    case ".maxUs":
+                        return h.getMax() / 1e3;
+                    default:
+                        break;
+                }
+            }
+            throw new AttributeNotFoundException(attribut);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributs) {
+            AttributeList res = new AttributeList();
+            for (String a : attributs) {
+                try {
+                    res.add(new Attribute(a, getAttribute(a)));
+                } catch (AttributeNotFoundException e) {
+                    // Attribut ignoré, comme le prévoit DynamicMBean.
+                }
+            }
+            return res;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribut) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Les métriques sont en lecture seule: " + attribut.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributs) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(action);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> infos = new ArrayList<>();
+            for (Compteur c : metriques.getCompteurs()) {
+                infos.add(new MBeanAttributeInfo(c.getNom(), "long", "Compteur", true, false, false));
+            }
+            for (Histogramme h : metriques.getHistogrammes()) {
+                for (String s : SUFFIXES) {
+                    String type = ".nombre".equals(s) ? "long" : "double";
+                    infos.add(new MBeanAttributeInfo(h.getNom() + s, type, "Histogramme", true, false, false));
+                }
+            }
+            return new MBeanInfo(MBeanMetriques.class.getName(), "Métriques de l'application",
+                    infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
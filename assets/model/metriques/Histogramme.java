@@ -0,0 +1,164 @@
+package model.metriques;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées, à la manière d'un HdrHistogram.
+ * <p>
+ * Les valeurs (en nanosecondes) sont rangées dans des cases à échelle log-linéaire : les
+ * valeurs inférieures à {@value #SOUS_CASES} sont exactes, puis chaque puissance de deux est
+ * découpée en {@value #SOUS_CASES} cases. L'erreur relative sur un centile est donc d'au plus
+ * 1/{@value #SOUS_CASES} (environ 3 %), de la nanoseconde à plusieurs siècles, avec un tableau
+ * fixe de moins de 2000 cases.
+ * </p>
+ * <p>
+ * L'enregistrement ne fait aucune allocation : un calcul d'indice et trois additions
+ * atomiques. Plusieurs fils peuvent enregistrer en même temps ; la lecture des centiles
+ * pendant des enregistrements donne une vue approximative, ce qui suffit à la supervision.
+ * </p>
+ * <pre>{@code
+ * long debut = System.nanoTime();
+ * ...
+ * HISTOGRAMME.enregistrerDepuis(debut);
+ * }</pre>
+ *
+ * @version 1.0
+ */
+public final class Histogramme {
+
+    /** Cases par puissance de deux. */
+    static final int SOUS_CASES = 32;
+    private static final int BITS_SOUS_CASES = 5;
+    private static final int NB_CASES = SOUS_CASES + (63 - BITS_SOUS_CASES) * SOUS_CASES;
+
+    private final String nom;
+    private final AtomicLongArray cases = new AtomicLongArray(NB_CASES);
+    private final LongAdder nombre = new LongAdder();
+    private final LongAdder somme = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructeur d'un histogramme hors registre (bancs d'essai) ; les histogrammes du
+     * registre s'obtiennent par {@link Metriques#histogramme(String)}.
+     *
+     * @param nom le nom de l'histogramme
+     */
+    public Histogramme(String nom) {
+        this.nom = nom;
+    }
+
+    /**
+     * Retourne le nom de l'histogramme.
+     *
+     * @return le nom
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Enregistre une durée.
+     *
+     * @param nanos la durée en nanosecondes (une valeur négative compte pour zéro)
+     */
+    public void enregistrer(long nanos) {
+        long v = Math.max(0, nanos);
+        cases.incrementAndGet(indice(v));
+        nombre.increment();
+        somme.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Enregistre la durée écoulée depuis un instant lu par {@link System#nanoTime()}.
+     *
+     * @param debut l'instant de début
+     */
+    public void enregistrerDepuis(long debut) {
+        enregistrer(System.nanoTime() - debut);
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées.
+     *
+     * @return le nombre de valeurs
+     */
+    public long getNombre() {
+        return nombre.sum();
+    }
+
+    /**
+     * Retourne la somme des valeurs enregistrées.
+     *
+     * @return la somme en nanosecondes
+     */
+    public long getSomme() {
+        return somme.sum();
+    }
+
+    /**
+     * Retourne la moyenne des valeurs enregistrées.
+     *
+     * @return la moyenne en nanosecondes (0 sans valeur)
+     */
+    public double getMoyenne() {
+        long n = nombre.sum();
+        return n == 0 ? 0 : somme.sum() / (double) n;
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée.
+     *
+     * @return le maximum en nanosecondes
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Retourne un centile : la borne basse de la case qui contient la valeur de ce rang.
+     *
+     * @param q le centile, entre 0 et 1 (0.99 pour le 99e centile)
+     * @return la valeur en nanosecondes (0 sans valeur)
+     */
+    public long centile(double q) {
+        long[] copie = new long[NB_CASES];
+        long total = 0;
+        for (int i = 0; i < NB_CASES; i++) {
+            copie[i] = cases.get(i);
+            total += copie[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(q * total));
+        long cumul = 0;
+        for (int i = 0; i < NB_CASES; i++) {
+            cumul += copie[i];
+            if (cumul >= rang) {
+                return Math.min(borneBasse(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indice(long v) {
+        if (v < SOUS_CASES) {
+            return (int) v;
+        }
+        int puissance = 63 - Long.numberOfLeadingZeros(v);
+        int decalage = puissance - BITS_SOUS_CASES;
+        return SOUS_CASES + decalage * SOUS_CASES + (int) (v >>> decalage) - SOUS_CASES;
+    }
+
+    static long borneBasse(int indice) {
+        if (indice < SOUS_CASES) {
+            return indice;
+        }
+        int decalage = (indice - SOUS_CASES) / SOUS_CASES;
+        long sousCase = (indice - SOUS_CASES) % SOUS_CASES;
+        return (SOUS_CASES + sousCase) << decalage;
+    }
+}
@@ -0,0 +1,105 @@
+package model.metriques;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des compteurs et des histogrammes de l'application.
+ * <p>
+ * Un compteur ou un histogramme est créé à sa première demande, puis retrouvé par son nom.
+ * Le code mesuré garde la référence obtenue (en général dans un champ statique) : la mesure
+ * elle-même ne fait ni recherche ni allocation. Les noms sont hiérarchiques, séparés par
+ * des points ({@code modele.chargement}, {@code csv.ecriture.textes}...).
+ * </p>
+ * <p>
+ * Le registre est exposé par JMX et recopié périodiquement dans un fichier par
+ * {@link ExportMetriques}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class Metriques {
+
+    private static final Metriques DEFAUT = new Metriques();
+
+    private final Map<String, Compteur> compteurs = new ConcurrentHashMap<>();
+    private final Map<String, Histogramme> histogrammes = new ConcurrentHashMap<>();
+
+    private Metriques() {
+    }
+
+    /**
+     * Retourne le registre de l'application.
+     *
+     * @return le registre partagé
+     */
+    public static Metriques defaut() {
+        return DEFAUT;
+    }
+
+    /**
+     * Retourne le compteur d'un nom, créé si besoin.
+     *
+     * @param nom le nom du compteur
+     * @return le compteur
+     */
+    public Compteur compteur(String nom) {
+        return compteurs.computeIfAbsent(nom, Compteur::new);
+    }
+
+    /**
+     * Retourne l'histogramme d'un nom, créé si besoin.
+     *
+     * @param nom le nom de l'histogramme
+     * @return l'histogramme
+     */
+    public Histogramme histogramme(String nom) {
+        return histogrammes.computeIfAbsent(nom, Histogramme::new);
+    }
+
+    /**
+     * Retourne les compteurs, par ordre de nom.
+     *
+     * @return une copie de la liste des compteurs
+     */
+    public List<Compteur> getCompteurs() {
+        List<Compteur> res = new ArrayList<>(compteurs.values());
+        res.sort(Comparator.comparing(Compteur::getNom));
+        return res;
+    }
+
+    /**
+     * Retourne les histogrammes, par ordre de nom.
+     *
+     * @return une copie de la liste des histogrammes
+     */
+    public List<Histogramme> getHistogrammes() {
+        List<Histogramme> res = new ArrayList<>(histogrammes.values());
+        res.sort(Comparator.comparing(Histogramme::getNom));
+        return res;
+    }
+
+    /**
+     * Met en forme toutes les mesures, une par ligne. Les durées sont en microsecondes.
+     *
+     * @return le rapport
+     */
+    public String rapport() {
+        StringBuilder sb = new StringBuilder();
+        for (Compteur c : getCompteurs()) {
+            sb.append(String.format("%-45s %,d%n", c.getNom(), c.getValeur()));
+        }
+        for (Histogramme h : getHistogrammes()) {
+            if (h.getNombre() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-45s n=%,d moy=%.1f p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f (µs)%n",
+                    h.getNom(), h.getNombre(), h.getMoyenne() / 1e3, h.centile(0.50) / 1e3,
+                    h.centile(0.90) / 1e3, h.centile(0.99) / 1e3, h.centile(0.999) / 1e3, h.getMax() / 1e3));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,199 @@
+package model.observer;
+
+import model.metriques.Compteur;
+import model.metriques.Histogramme;
+import model.metriques.Metriques;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bus de livraison asynchrone des événements aux observateurs.
+ * <p>
+ * Les sujets publient leurs {@link Evenement}s sur le bus au lieu d'appeler leurs
+ * observateurs directement : la modification du modèle n'attend donc plus l'affichage.
+ * Un fil dédié livre les événements dans l'ordre de publication, en regroupant les rafales
+ * en lots (un appel à {@link Observateur#actualiser(List)} par observateur et par lot).
+ * La file est bornée : si les observateurs ne suivent plus, les publications attendent
+ * qu'une place se libère. Pendant un chargement ou un import de masse, le bus peut être
+ * suspendu ({@link #suspendre()}) : les événements publiés sont alors comptés puis ignorés.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class BusEvenements {
+
+    /** Capacité par défaut de la file d'attente. */
+    private static final int CAPACITE = 4096;
+    /** Nombre maximal d'événements livrés par lot. */
+    private static final int TAILLE_LOT = 256;
+
+    private static final BusEvenements DEFAUT = new BusEvenements(CAPACITE, TAILLE_LOT);
+
+    /** Attente de publication (file pleine comprise) et durée de livraison d'un lot. */
+    private static final Histogramme M_PUBLICATION = Metriques.defaut().histogramme("observateurs.publication");
+    private static final Histogramme M_LIVRAISON = Metriques.defaut().histogramme("observateurs.livraison");
+    private static final Compteur M_DESTINATAIRES = Metriques.defaut().compteur("observateurs.destinataires");
+    private static final Compteur M_ACTUALISATIONS = Metriques.defaut().compteur("observateurs.actualisations");
+
+    private final BlockingQueue<Livraison> file;
+    private final int tailleLot;
+    private final AtomicInteger suspensions = new AtomicInteger();
+    private final LongAdder ignores = new LongAdder();
+    private final LongAdder livres = new LongAdder();
+    /** Nombre de livraisons publiées mais pas encore terminées (protégé par {@code this}). */
+    private long enCours;
+
+    /**
+     * Retourne le bus partagé par les entités du modèle.
+     *
+     * @return le bus par défaut
+     */
+    public static BusEvenements defaut() {
+        return DEFAUT;
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param capacite  nombre maximal d'événements en attente de livraison
+     * @param tailleLot nombre maximal d'événements regroupés dans un lot
+     */
+    public BusEvenements(int capacite, int tailleLot) {
+        this.file = new ArrayBlockingQueue<>(capacite);
+        this.tailleLot = tailleLot;
+        Thread livreur = new Thread(this::boucleLivraison, "bus-evenements");
+        livreur.setDaemon(true);
+        livreur.start();
+    }
+
+    /**
+     * Publie un événement pour une liste d'observateurs. Bloque si la file est pleine.
+     *
+     * @param evenement     l'événement
+     * @param destinataires les observateurs à prévenir (la liste doit pouvoir être parcourue
+     *                      pendant qu'elle est modifiée, comme une {@code CopyOnWriteArrayList})
+     */
+    public void publier(Evenement evenement, List<Observateur> destinataires) {
+        if (destinataires.isEmpty()) {
+            return;
+        }
+        if (suspensions.get() > 0) {
+            ignores.increment();
+            return;
+        }
+        synchronized (this) {
+            enCours++;
+        }
+        long debut = System.nanoTime();
+        try {
+            file.put(new Livraison(evenement, destinataires));
+            M_PUBLICATION.enregistrerDepuis(debut);
+            M_DESTINATAIRES.ajouter(destinataires.size());
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                enCours--;
+                notifyAll();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Suspend la livraison : jusqu'à l'appel correspondant à {@link #reprendre()},
+     * les événements publiés sont ignorés. Les appels peuvent être imbriqués.
+     */
+    public void suspendre() {
+        suspensions.incrementAndGet();
+    }
+
+    /**
+     * Met fin à une suspension.
+     */
+    public void reprendre() {
+        suspensions.decrementAndGet();
+    }
+
+    /**
+     * Retourne le nombre d'événements ignorés pendant les suspensions.
+     *
+     * @return le nombre d'événements ignorés
+     */
+    public long getEvenementsIgnores() {
+        return ignores.sum();
+    }
+
+    /**
+     * Retourne le nombre d'événements livrés.
+     *
+     * @return le nombre d'événements livrés
+     */
+    public long getEvenementsLivres() {
+        return livres.sum();
+    }
+
+    /**
+     * Attend que tous les événements déjà publiés aient été livrés.
+     *
+     * @throws InterruptedException si l'attente est interrompue
+     */
+    public synchronized void attendreLivraison() throws InterruptedException {
+        while (enCours > 0) {
+            wait();
+        }
+    }
+
+    private void boucleLivraison() {
+        List<Livraison> lot = new ArrayList<>(tailleLot);
+        Map<Observateur, List<Evenement>> parObservateur = new LinkedHashMap<>();
+        while (true) {
+            try {
+                lot.add(file.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            file.drainTo(lot, tailleLot - 1);
+            long debut = System.nanoTime();
+            for (Livraison l : lot) {
+                for (Observateur o : l.destinataires) {
+                    parObservateur.computeIfAbsent(o, k -> new ArrayList<>()).add(l.evenement);
+                }
+            }
+            for (Map.Entry<Observateur, List<Evenement>> e : parObservateur.entrySet()) {
+                try {
+                    e.getKey().actualiser(e.getValue());
+                } catch (RuntimeException ex) {
+                    System.err.println("Erreur d'un observateur: " + ex);
+                }
+            }
+            M_LIVRAISON.enregistrerDepuis(debut);
+            M_ACTUALISATIONS.ajouter(parObservateur.size());
+            livres.add(lot.size());
+            synchronized (this) {
+                enCours -= lot.size();
+                notifyAll();
+            }
+            lot.clear();
+            parObservateur.clear();
+        }
+    }
+
+    /**
+     * Événement en attente, avec ses destinataires.
+     */
+    private static final class Livraison {
+        final Evenement evenement;
+        final List<Observateur> destinataires;
+
+        Livraison(Evenement evenement, List<Observateur> destinataires) {
+            this.evenement = evenement;
+            this.destinataires = destinataires;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package model.observer;
+
+/**
+ * Événement typé transmis aux observateurs.
+ * <p>
+ * Un événement ne contient que les identifiants utiles ; le message lisible n'est
+ * construit que si un observateur le demande ({@link #getMessage()}), c'est-à-dire
+ * sur le fil de livraison et non sur celui qui a modifié le modèle.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class Evenement {
+
+    /**
+     * Nature de l'événement.
+     */
+    public enum Type {
+        /** Une annotation a été ajoutée à un texte. */
+        ANNOTATION_AJOUTEE,
+        /** Un texte a été ajouté à une collection. */
+        TEXTE_AJOUTE,
+        /** Résumé d'une opération de masse (les événements individuels ont été supprimés). */
+        RESUME,
+        /** Message libre. */
+        MESSAGE
+    }
+
+    private final Type type;
+    private final Object sujet;
+    private final String texteId;
+    private final String annotationId;
+    private final String auteurId;
+    private final String collection;
+    private final String message;
+    private final long nombre;
+
+    private Evenement(Type type, Object sujet, String texteId, String annotationId, String auteurId,
+                      String collection, String message, long nombre) {
+        this.type = type;
+        this.sujet = sujet;
+        this.texteId = texteId;
+        this.annotationId = annotationId;
+        this.auteurId = auteurId;
+        this.collection = collection;
+        this.message = message;
+        this.nombre = nombre;
+    }
+
+    /**
+     * Crée l'événement « annotation ajoutée à un texte ».
+     *
+     * @param sujet        le texte annoté
+     * @param texteId      l'identifiant du texte
+     * @param annotationId l'identifiant de l'annotation
+     * @param auteurId     l'identifiant de l'auteur
+     * @return l'événement
+     */
+    public static Evenement annotationAjoutee(Object sujet, String texteId, String annotationId, String auteurId) {
+        return new Evenement(Type.ANNOTATION_AJOUTEE, sujet, texteId, annotationId, auteurId, null, null, 1);
+    }
+
+    /**
+     * Crée l'événement « texte ajouté à une collection ».
+     *
+     * @param sujet      la collection
+     * @param collection le nom de la collection
+     * @param texteId    l'identifiant du texte
+     * @return l'événement
+     */
+    public static Evenement texteAjoute(Object sujet, String collection, String texteId) {
+        return new Evenement(Type.TEXTE_AJOUTE, sujet, texteId, null, null, collection, null, 1);
+    }
+
+    /**
+     * Crée un événement résumant une opération de masse.
+     *
+     * @param sujet   le sujet concerné
+     * @param message la description de l'opération
+     * @param nombre  le nombre d'éléments traités
+     * @return l'événement
+     */
+    public static Evenement resume(Object sujet, String message, long nombre) {
+        return new Evenement(Type.RESUME, sujet, null, null, null, null, message, nombre);
+    }
+
+    /**
+     * Crée un événement portant un message libre.
+     *
+     * @param sujet   le sujet qui notifie
+     * @param message le message
+     * @return l'événement
+     */
+    public static Evenement message(Object sujet, String message) {
+        return new Evenement(Type.MESSAGE, sujet, null, null, null, null, message, 1);
+    }
+
+    /**
+     * Retourne la nature de l'événement.
+     *
+     * @return le type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Retourne le sujet qui a émis l'événement.
+     *
+     * @return le sujet
+     */
+    public Object getSujet() {
+        return sujet;
+    }
+
+    /**
+     * Retourne l'identifiant du texte concerné.
+     *
+     * @return l'identifiant du texte, ou null
+     */
+    public String getTexteId() {
+        return texteId;
+    }
+
+    /**
+     * Retourne l'identifiant de l'annotation concernée.
+     *
+     * @return l'identifiant de l'annotation, ou null
+     */
+    public String getAnnotationId() {
+        return annotationId;
+    }
+
+    /**
+     * Retourne l'identifiant de l'auteur concerné.
+     *
+     * @return l'identifiant de l'auteur, ou null
+     */
+    public String getAuteurId() {
+        return auteurId;
+    }
+
+    /**
+     * Retourne le nom de la collection concernée.
+     *
+     * @return le nom de la collection, ou null
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * Retourne le nombre d'éléments couverts par l'événement (1 sauf pour un résumé).
+     *
+     * @return le nombre d'éléments
+     */
+    public long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Construit le message lisible de l'événement.
+     *
+     * @return le message
+     */
+    public String getMessage() {
+        switch (type) {
+            case ANNOTATION_AJOUTEE:
+                return "Texte [" + texteId + "] => nouvelle annotation [" + annotationId + "] par " + auteurId;
+            case TEXTE_AJOUTE:
+                return "Nouvel ajout dans la collection [" + collection + "]: Texte [" + texteId + "]";
+            case RESUME:
+                return message + " (" + nombre + " éléments)";
+            default:
+                return message;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -1,5 +1,7 @@
 package model.observer;
 
+import java.util.List;
+
 /**
  * Interface représentant un observateur dans le patron Observateur.
  * <p>
@@ -18,4 +20,27 @@ public interface Observateur {
      * @param message le message de notification
      */
     void actualiser(Object sujet, String message);
+
+    /**
+     * Actualise l'observateur avec un événement typé.
+     * <p>
+     * Par défaut, le message de l'événement est transmis à {@link #actualiser(Object, String)}.
+     * </p>
+     *
+     * @param evenement l'événement reçu
+     */
+    default void actualiser(Evenement evenement) {
+        actualiser(evenement.getSujet(), evenement.getMessage());
+    }
+
+    /**
+     * Actualise l'observateur avec un lot d'événements livrés ensemble par le {@link BusEvenements}.
+     *
+     * @param lot les événements, dans l'ordre de publication
+     */
+    default void actualiser(List<Evenement> lot) {
+        for (Evenement e : lot) {
+            actualiser(e);
+        }
+    }
 }
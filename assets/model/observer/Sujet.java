@@ -30,4 +30,11 @@ public interface Sujet {
      * @param message le message de notification
      */
     void notifierObservateurs(String message);
+
+    /**
+     * Notifie tous les observateurs avec un événement typé.
+     *
+     * @param evenement l'événement à transmettre
+     */
+    void notifierObservateurs(Evenement evenement);
 }
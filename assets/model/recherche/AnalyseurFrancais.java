@@ -0,0 +1,99 @@
+package model.recherche;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Découpe un texte français en termes d'index.
+ * <p>
+ * Le texte est mis en minuscules et débarrassé de ses accents ; les mots sont les suites de
+ * lettres et de chiffres. Les élisions ({@code l'}, {@code qu'}, {@code d’}...) sont retirées,
+ * les mots vides (articles, prépositions, pronoms courants) sont ignorés, et le pluriel
+ * régulier en {@code -s} ou {@code -x} est ramené au singulier. La même analyse est appliquée
+ * aux documents et aux requêtes.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class AnalyseurFrancais {
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "cette", "dans", "de", "des", "du", "elle", "elles",
+            "en", "est", "et", "eu", "il", "ils", "je", "la", "le", "les", "leur", "leurs", "lui", "ma",
+            "mais", "me", "mes", "moi", "mon", "ne", "ni", "nos", "notre", "nous", "on", "ou", "par",
+            "pas", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sont", "sur", "ta", "te", "tes",
+            "toi", "ton", "tu", "un", "une", "vos", "votre", "vous", "y");
+
+    /** Préfixes élidés devant une apostrophe. */
+    private static final Set<String> ELISIONS = Set.of(
+            "c", "d", "j", "l", "m", "n", "s", "t", "qu", "jusqu", "lorsqu", "puisqu", "quoiqu");
+
+    private AnalyseurFrancais() {
+    }
+
+    /**
+     * Découpe un texte en termes, dans l'ordre d'apparition (avec répétitions).
+     *
+     * @param texte le texte à analyser
+     * @return les termes
+     */
+    public static List<String> termes(String texte) {
+        List<String> res = new ArrayList<>();
+        if (texte == null) {
+            return res;
+        }
+        StringBuilder mot = new StringBuilder();
+        int n = texte.length();
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? texte.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                ajouterCaractere(mot, c);
+            } else if (mot.length() > 0) {
+                if ((c == '\'' || c == '’') && ELISIONS.contains(mot.toString())) {
+                    // "l'annotation" : seul "annotation" est un terme.
+                    mot.setLength(0);
+                    continue;
+                }
+                terminer(mot, res);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Ajoute un caractère au mot courant, en minuscule et sans accent.
+     */
+    private static void ajouterCaractere(StringBuilder mot, char c) {
+        if (c < 128) {
+            mot.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            return;
+        }
+        switch (Character.toLowerCase(c)) {
+            case 'à': case 'â': case 'ä': mot.append('a'); break;
+            case 'ç': mot.append('c'); break;
+            case 'é': case 'è': case 'ê': case 'ë': mot.append('e'); break;
+            case 'î': case 'ï': mot.append('i'); break;
+            case 'ô': case 'ö': mot.append('o'); break;
+            case 'ù': case 'û': case 'ü': mot.append('u'); break;
+            case 'ÿ': mot.append('y'); break;
+            case 'œ': mot.append("oe"); break;
+            case 'æ': mot.append("ae"); break;
+            default: mot.append(Character.toLowerCase(c));
+        }
+    }
+
+    private static void terminer(StringBuilder mot, List<String> res) {
+        String m = mot.toString();
+        mot.setLength(0);
+        if (MOTS_VIDES.contains(m)) {
+            return;
+        }
+        int n = m.length();
+        char fin = m.charAt(n - 1);
+        if (n > 3 && (fin == 's' || fin == 'x') && m.charAt(n - 2) != 's' && !Character.isDigit(m.charAt(n - 2))) {
+            m = m.substring(0, n - 1);
+        }
+        res.add(m);
+    }
+}
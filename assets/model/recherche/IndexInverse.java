@@ -0,0 +1,424 @@
+package model.recherche;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire, classé par BM25.
+ * <p>
+ * Chaque document est identifié par un numéro (celui du texte ou de l'annotation indexé).
+ * Quand il est indexé, il reçoit un nouvel emplacement, toujours supérieur aux précédents :
+ * les listes de documents ne font donc que s'allonger par la fin, ce qui permet de les coder
+ * par écarts ({@link ListePostings}). Réindexer un document modifié périme son ancien
+ * emplacement, qui est ensuite ignoré par les recherches. Quand les emplacements périmés
+ * dépassent la moitié du total, l'index est compacté : les emplacements restants sont
+ * renumérotés dans le même ordre et les listes réécrites sans les périmés.
+ * </p>
+ * <p>
+ * Une recherche parcourt en parallèle les listes des termes de la requête (document par
+ * document) et ne garde que les meilleurs résultats dans un tas borné. Une fois le tas plein,
+ * les blocs dont le score maximal possible ne dépasse pas le plus faible des résultats retenus
+ * sont sautés sans être décodés : un terme présent partout ne coûte pas un parcours complet.
+ * Plusieurs recherches peuvent avoir lieu en même temps ; les mises à jour prennent un
+ * verrou exclusif.
+ * </p>
+ * <p>
+ * L'index n'est rempli qu'à la première utilisation ({@link #construire(Runnable)}) :
+ * jusque-là les mises à jour sont ignorées, la construction lisant l'état courant.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class IndexInverse {
+
+    /** Saturation de la fréquence d'un terme. */
+    private static final double K1 = 1.2;
+    /** Poids de la normalisation par la longueur du document. */
+    private static final double B = 0.75;
+    /** Nombre d'emplacements en dessous duquel l'index n'est pas compacté. */
+    private static final int COMPACTION_MIN = 1024;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final Map<String, ListePostings> termes = new HashMap<>();
+
+    /** Par emplacement : numéro du document, longueur en termes, empreinte du contenu indexé. */
+    private long[] numeros = new long[64];
+    private int[] longueurs = new int[64];
+    private long[] empreintes = new long[64];
+    private int nbEmplacements;
+    /** Emplacements périmés (document réindexé ou supprimé). */
+    private BitSet perimes = new BitSet();
+    private int nbPerimes;
+    /** Emplacement courant de chaque numéro de document. */
+    private TableEmplacements emplacements = new TableEmplacements();
+
+    private int nbDocuments;
+    private long longueurTotale;
+    private volatile boolean construit;
+
+    /**
+     * Indique si l'index a été construit.
+     *
+     * @return true si l'index est à jour
+     */
+    public boolean estConstruit() {
+        return construit;
+    }
+
+    /**
+     * Construit l'index s'il ne l'est pas encore.
+     * <p>
+     * {@code remplissage} doit appeler {@link #indexer(long, String)} pour chaque document
+     * existant ; il s'exécute sous le verrou exclusif, de sorte qu'aucune mise à jour
+     * concurrente n'est perdue.
+     * </p>
+     *
+     * @param remplissage indexe les documents existants
+     */
+    public void construire(Runnable remplissage) {
+        if (construit) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (!construit) {
+                construit = true;
+                remplissage.run();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexe (ou réindexe) un document. Sans effet tant que l'index n'est pas construit,
+     * ou si le contenu a la même empreinte (code de hachage et longueur) que celui déjà indexé.
+     *
+     * @param numero  le numéro du document
+     * @param contenu le contenu du document
+     */
+    public void indexer(long numero, String contenu) {
+        if (!construit) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            int ancien = emplacements.get(numero);
+            if (ancien >= 0) {
+                if (empreintes[ancien] == empreinte(contenu)) {
+                    return;
+                }
+                perimer(ancien);
+            }
+            int e = nouvelEmplacement(numero, contenu);
+            Map<String, int[]> frequences = new HashMap<>();
+            List<String> mots = AnalyseurFrancais.termes(contenu);
+            for (String m : mots) {
+                frequences.computeIfAbsent(m, k -> new int[1])[0]++;
+            }
+            for (Map.Entry<String, int[]> f : frequences.entrySet()) {
+                termes.computeIfAbsent(f.getKey(), k -> new ListePostings()).ajouter(e, f.getValue()[0], mots.size());
+            }
+            longueurs[e] = mots.size();
+            longueurTotale += mots.size();
+            nbDocuments++;
+            emplacements.put(numero, e);
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexe (ou réindexe) plusieurs documents sous un seul verrou exclusif : une recherche
+     * les trouve tous à jour ou aucun.
+     *
+     * @param documents le contenu de chaque document, par numéro
+     */
+    public void indexer(Map<Long, String> documents) {
+        if (!construit || documents.isEmpty()) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            for (Map.Entry<Long, String> d : documents.entrySet()) {
+                indexer(d.getKey(), d.getValue());
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un document de l'index.
+     *
+     * @param numero le numéro du document
+     */
+    public void supprimer(long numero) {
+        if (!construit) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            int e = emplacements.get(numero);
+            if (e >= 0) {
+                perimer(e);
+                emplacements.put(numero, -1);
+                compacterSiNecessaire();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void perimer(int e) {
+        perimes.set(e);
+        nbPerimes++;
+        longueurTotale -= longueurs[e];
+        nbDocuments--;
+    }
+
+    private int nouvelEmplacement(long numero, String contenu) {
+        if (nbEmplacements == numeros.length) {
+            int n = numeros.length * 2;
+            numeros = Arrays.copyOf(numeros, n);
+            longueurs = Arrays.copyOf(longueurs, n);
+            empreintes = Arrays.copyOf(empreintes, n);
+        }
+        numeros[nbEmplacements] = numero;
+        empreintes[nbEmplacements] = empreinte(contenu);
+        return nbEmplacements++;
+    }
+
+    /**
+     * Empreinte d'un contenu : son code de hachage (gardé par la chaîne) et sa longueur.
+     */
+    private static long empreinte(String contenu) {
+        return contenu == null ? 0 : ((long) contenu.hashCode() << 32) | contenu.length();
+    }
+
+    /**
+     * Compacte l'index quand plus de la moitié des emplacements sont périmés : chaque
+     * compaction suit au moins autant d'indexations qu'il reste de documents.
+     */
+    private void compacterSiNecessaire() {
+        if (nbEmplacements < COMPACTION_MIN || nbPerimes * 2 <= nbEmplacements) {
+            return;
+        }
+        int[] nouveaux = new int[nbEmplacements];
+        int n = 0;
+        for (int e = 0; e < nbEmplacements; e++) {
+            if (perimes.get(e)) {
+                nouveaux[e] = -1;
+            } else {
+                nouveaux[e] = n;
+                numeros[n] = numeros[e];
+                longueurs[n] = longueurs[e];
+                empreintes[n] = empreintes[e];
+                n++;
+            }
+        }
+        int capacite = Math.max(64, Integer.highestOneBit(n) * 2);
+        numeros = Arrays.copyOf(numeros, capacite);
+        longueurs = Arrays.copyOf(longueurs, capacite);
+        empreintes = Arrays.copyOf(empreintes, capacite);
+        nbEmplacements = n;
+        perimes = new BitSet();
+        nbPerimes = 0;
+        emplacements = new TableEmplacements();
+        for (int e = 0; e < n; e++) {
+            emplacements.put(numeros[e], e);
+        }
+        termes.replaceAll((terme, liste) -> liste.compacter(nouveaux, longueurs));
+        termes.values().removeIf(liste -> liste.nbDocuments() == 0);
+    }
+
+    /**
+     * Retourne le nombre de documents indexés.
+     *
+     * @return le nombre de documents
+     */
+    public int nbDocuments() {
+        verrou.readLock().lock();
+        try {
+            return nbDocuments;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les documents contenant au moins un terme de la requête.
+     *
+     * @param requete la requête, analysée comme un document
+     * @param max     le nombre maximal de résultats
+     * @return les résultats, du plus pertinent au moins pertinent
+     */
+    public List<ResultatRecherche> rechercher(String requete, int max) {
+        List<String> mots = new ArrayList<>(new LinkedHashSet<>(AnalyseurFrancais.termes(requete)));
+        verrou.readLock().lock();
+        try {
+            if (max <= 0 || nbDocuments == 0) {
+                return new ArrayList<>();
+            }
+            double longueurMoyenne = (double) longueurTotale / nbDocuments;
+            List<ListePostings.Curseur> curseurs = new ArrayList<>();
+            List<Double> idfs = new ArrayList<>();
+            for (String m : mots) {
+                ListePostings p = termes.get(m);
+                if (p != null) {
+                    ListePostings.Curseur c = p.curseur();
+                    c.avancer();
+                    curseurs.add(c);
+                    // Les emplacements périmés restent comptés : l'écart est négligeable.
+                    int df = p.nbDocuments();
+                    idfs.add(Math.log(1 + (Math.max(0, nbDocuments - df) + 0.5) / (df + 0.5)));
+                }
+            }
+            PriorityQueue<ResultatRecherche> meilleurs =
+                    new PriorityQueue<>(max + 1, (a, b) -> Double.compare(a.getScore(), b.getScore()));
+            while (true) {
+                int e = Integer.MAX_VALUE;
+                for (ListePostings.Curseur c : curseurs) {
+                    e = Math.min(e, c.emplacement);
+                }
+                if (e == Integer.MAX_VALUE) {
+                    break;
+                }
+                if (meilleurs.size() == max && sauterBlocs(curseurs, idfs, longueurMoyenne, meilleurs.peek().getScore())) {
+                    continue;
+                }
+                double score = 0;
+                for (int i = 0; i < curseurs.size(); i++) {
+                    ListePostings.Curseur c = curseurs.get(i);
+                    if (c.emplacement == e) {
+                        score += idfs.get(i) * poids(c.frequence, longueurs[e], longueurMoyenne);
+                        c.avancer();
+                    }
+                }
+                if (perimes.get(e)) {
+                    continue;
+                }
+                if (meilleurs.size() < max) {
+                    meilleurs.add(new ResultatRecherche(numeros[e], score));
+                } else if (score > meilleurs.peek().getScore()) {
+                    meilleurs.poll();
+                    meilleurs.add(new ResultatRecherche(numeros[e], score));
+                }
+            }
+            List<ResultatRecherche> res = new ArrayList<>(meilleurs);
+            res.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+            return res;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Part du score BM25 d'un terme, hors idf.
+     */
+    private static double poids(int frequence, int longueur, double longueurMoyenne) {
+        return frequence * (K1 + 1) / (frequence + K1 * (1 - B + B * longueur / longueurMoyenne));
+    }
+
+    /**
+     * Si aucun document jusqu'à la fin du plus court des blocs courants ne peut dépasser
+     * {@code seuil}, avance tous les curseurs au-delà de cette limite.
+     *
+     * @return true si des documents ont été sautés
+     */
+    private static boolean sauterBlocs(List<ListePostings.Curseur> curseurs, List<Double> idfs,
+                                       double longueurMoyenne, double seuil) {
+        double borne = 0;
+        int limite = Integer.MAX_VALUE;
+        for (int i = 0; i < curseurs.size(); i++) {
+            ListePostings.Curseur c = curseurs.get(i);
+            if (c.emplacement != Integer.MAX_VALUE) {
+                borne += idfs.get(i) * poids(c.frequenceMaxDuBloc(), c.longueurMinDuBloc(), longueurMoyenne);
+                limite = Math.min(limite, c.dernierDuBloc());
+            }
+        }
+        if (borne > seuil) {
+            return false;
+        }
+        // Tout document <= limite est dans le bloc courant de chaque curseur qui le contient.
+        for (ListePostings.Curseur c : curseurs) {
+            if (c.emplacement == Integer.MAX_VALUE) {
+                continue;
+            }
+            if (c.dernierDuBloc() == limite) {
+                c.sauterBloc();
+            } else {
+                while (c.emplacement <= limite) {
+                    c.avancer();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Emplacement courant de chaque numéro de document : table à adressage ouvert
+     * de clés et de valeurs entières (-1 pour une clé absente).
+     */
+    private static final class TableEmplacements {
+        private long[] cles = new long[16];
+        private int[] valeurs = new int[16];
+        private boolean[] occupees = new boolean[16];
+        private int taille;
+
+        int get(long cle) {
+            int masque = cles.length - 1;
+            for (int i = position(cle, masque); occupees[i]; i = (i + 1) & masque) {
+                if (cles[i] == cle) {
+                    return valeurs[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long cle, int valeur) {
+            if ((taille + 1) * 2 > cles.length) {
+                agrandir();
+            }
+            int masque = cles.length - 1;
+            int i = position(cle, masque);
+            while (occupees[i] && cles[i] != cle) {
+                i = (i + 1) & masque;
+            }
+            if (!occupees[i]) {
+                occupees[i] = true;
+                cles[i] = cle;
+                taille++;
+            }
+            valeurs[i] = valeur;
+        }
+
+        private void agrandir() {
+            long[] anciennesCles = cles;
+            int[] anciennesValeurs = valeurs;
+            boolean[] anciennesOccupees = occupees;
+            cles = new long[anciennesCles.length * 2];
+            valeurs = new int[cles.length];
+            occupees = new boolean[cles.length];
+            taille = 0;
+            for (int i = 0; i < anciennesCles.length; i++) {
+                if (anciennesOccupees[i]) {
+                    put(anciennesCles[i], anciennesValeurs[i]);
+                }
+            }
+        }
+
+        private static int position(long cle, int masque) {
+            long h = cle * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & masque;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package model.recherche;
+
+import java.util.Arrays;
+
+/**
+ * Liste des documents contenant un terme, compressée.
+ * <p>
+ * Les documents sont ajoutés par numéro d'emplacement croissant ; chaque entrée est codée
+ * par l'écart avec l'emplacement précédent puis par la fréquence du terme, tous deux en
+ * entiers de longueur variable (7 bits par octet). Un écart tient le plus souvent sur un
+ * ou deux octets.
+ * </p>
+ * <p>
+ * Les entrées sont regroupées en blocs de {@link #TAILLE_BLOC}. Pour chaque bloc on retient
+ * son dernier emplacement, sa position de fin, la plus forte fréquence et la plus petite
+ * longueur de document : de quoi majorer le score de tout le bloc et le sauter sans le
+ * décoder quand il ne peut pas entrer dans les meilleurs résultats.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class ListePostings {
+
+    /** Nombre d'entrées par bloc. */
+    static final int TAILLE_BLOC = 128;
+
+    private byte[] octets = new byte[8];
+    private int taille;
+    private int nbDocuments;
+    private int dernier = -1;
+
+    private int[] blocDernier = new int[1];
+    private int[] blocFin = new int[1];
+    private int[] blocFrequenceMax = new int[1];
+    private int[] blocLongueurMin = new int[1];
+    private int nbBlocs;
+
+    /**
+     * Ajoute un document. Les emplacements doivent être strictement croissants.
+     *
+     * @param emplacement l'emplacement du document
+     * @param frequence   le nombre d'occurrences du terme dans le document
+     * @param longueur    la longueur du document, en termes
+     */
+    void ajouter(int emplacement, int frequence, int longueur) {
+        if (nbDocuments % TAILLE_BLOC == 0) {
+            ouvrirBloc();
+        }
+        ecrire(emplacement - dernier);
+        ecrire(frequence);
+        dernier = emplacement;
+        nbDocuments++;
+        int b = nbBlocs - 1;
+        blocDernier[b] = emplacement;
+        blocFin[b] = taille;
+        blocFrequenceMax[b] = Math.max(blocFrequenceMax[b], frequence);
+        blocLongueurMin[b] = Math.min(blocLongueurMin[b], longueur);
+    }
+
+    private void ouvrirBloc() {
+        if (nbBlocs == blocDernier.length) {
+            int n = nbBlocs * 2;
+            blocDernier = Arrays.copyOf(blocDernier, n);
+            blocFin = Arrays.copyOf(blocFin, n);
+            blocFrequenceMax = Arrays.copyOf(blocFrequenceMax, n);
+            blocLongueurMin = Arrays.copyOf(blocLongueurMin, n);
+        }
+        blocLongueurMin[nbBlocs] = Integer.MAX_VALUE;
+        nbBlocs++;
+    }
+
+    private void ecrire(int v) {
+        if (taille + 5 > octets.length) {
+            octets = Arrays.copyOf(octets, octets.length + (octets.length >> 1) + 5);
+        }
+        while ((v & ~0x7F) != 0) {
+            octets[taille++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        octets[taille++] = (byte) v;
+    }
+
+    /**
+     * Recopie la liste en renumérotant ses emplacements.
+     *
+     * @param nouveaux  nouvel emplacement de chaque ancien emplacement, -1 pour l'omettre ;
+     *                  l'ordre des emplacements gardés doit être conservé
+     * @param longueurs longueur de chaque document, par nouvel emplacement
+     * @return la nouvelle liste
+     */
+    ListePostings compacter(int[] nouveaux, int[] longueurs) {
+        ListePostings copie = new ListePostings();
+        Curseur c = curseur();
+        while (c.avancer()) {
+            int e = nouveaux[c.emplacement];
+            if (e >= 0) {
+                copie.ajouter(e, c.frequence, longueurs[e]);
+            }
+        }
+        return copie;
+    }
+
+    /**
+     * Retourne le nombre de documents de la liste, y compris les emplacements périmés.
+     *
+     * @return le nombre de documents
+     */
+    int nbDocuments() {
+        return nbDocuments;
+    }
+
+    /**
+     * Ouvre un curseur sur la liste. La liste ne doit pas être modifiée pendant le parcours.
+     *
+     * @return un curseur placé avant le premier document
+     */
+    Curseur curseur() {
+        return new Curseur(this);
+    }
+
+    /**
+     * Parcours d'une liste, dans l'ordre croissant des emplacements.
+     */
+    static final class Curseur {
+        private final ListePostings liste;
+        private int pos;
+        /** Bloc de l'entrée courante. */
+        private int bloc;
+        /** Emplacement courant, ou {@link Integer#MAX_VALUE} une fois la liste épuisée. */
+        int emplacement = -1;
+        int frequence;
+
+        Curseur(ListePostings liste) {
+            this.liste = liste;
+        }
+
+        /**
+         * Passe au document suivant.
+         *
+         * @return false si la liste est épuisée
+         */
+        boolean avancer() {
+            if (pos >= liste.taille) {
+                emplacement = Integer.MAX_VALUE;
+                return false;
+            }
+            if (pos == liste.blocFin[bloc]) {
+                bloc++;
+            }
+            emplacement += lire();
+            frequence = lire();
+            return true;
+        }
+
+        /**
+         * Saute le reste du bloc courant et se place sur le premier document du bloc suivant.
+         *
+         * @return false si la liste est épuisée
+         */
+        boolean sauterBloc() {
+            pos = liste.blocFin[bloc];
+            emplacement = liste.blocDernier[bloc];
+            return avancer();
+        }
+
+        /**
+         * Retourne le dernier emplacement du bloc courant.
+         *
+         * @return l'emplacement
+         */
+        int dernierDuBloc() {
+            return liste.blocDernier[bloc];
+        }
+
+        /**
+         * Retourne la plus forte fréquence du terme dans le bloc courant.
+         *
+         * @return la fréquence
+         */
+        int frequenceMaxDuBloc() {
+            return liste.blocFrequenceMax[bloc];
+        }
+
+        /**
+         * Retourne la plus petite longueur de document du bloc courant.
+         *
+         * @return la longueur
+         */
+        int longueurMinDuBloc() {
+            return liste.blocLongueurMin[bloc];
+        }
+
+        private int lire() {
+            byte[] octets = liste.octets;
+            int v = 0;
+            int decalage = 0;
+            byte b;
+            do {
+                b = octets[pos++];
+                v |= (b & 0x7F) << decalage;
+                decalage += 7;
+            } while (b < 0);
+            return v;
+        }
+    }
+}
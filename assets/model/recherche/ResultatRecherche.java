@@ -0,0 +1,35 @@
+package model.recherche;
+
+/**
+ * Document trouvé par une recherche, avec son score BM25.
+ *
+ * @version 1.0
+ */
+public final class ResultatRecherche {
+
+    private final long numero;
+    private final double score;
+
+    ResultatRecherche(long numero, double score) {
+        this.numero = numero;
+        this.score = score;
+    }
+
+    /**
+     * Retourne le numéro du document (numéro du texte ou de l'annotation).
+     *
+     * @return le numéro
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne le score du document : plus il est élevé, plus le document est pertinent.
+     *
+     * @return le score
+     */
+    public double getScore() {
+        return score;
+    }
+}
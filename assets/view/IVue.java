@@ -1,6 +1,8 @@
 package view;
 
 import model.Annotation;
+import model.CollectionDeTextes;
+import model.Page;
 import model.Texte;
 import model.Utilisateur;
 import java.util.List;
@@ -40,15 +42,16 @@ public interface IVue extends Observateur {
     String demanderNomCollection();
 
     /**
-     * Affiche la liste des textes d'une collection.
+     * Affiche une page des textes d'une collection.
      *
-     * @param textes        la liste des textes
+     * @param page          la page de textes à afficher
      * @param nomCollection le nom de la collection
      */
-    void afficherTextes(List<Texte> textes, String nomCollection);
+    void afficherTextes(Page<Texte> page, String nomCollection);
 
     /**
-     * Affiche le menu des actions sur les textes.
+     * Affiche le menu des actions sur les textes, avec la navigation entre les pages
+     * (8 : page suivante, 9 : page précédente).
      *
      * @return le choix effectué
      */
@@ -62,11 +65,19 @@ public interface IVue extends Observateur {
     String demanderTexteId();
 
     /**
-     * Affiche la liste des annotations.
+     * Affiche une page d'annotations.
      *
-     * @param annotations la liste des annotations à afficher
+     * @param page la page d'annotations à afficher
      */
-    void afficherAnnotations(List<Annotation> annotations);
+    void afficherAnnotations(Page<Annotation> page);
+
+    /**
+     * Affiche la navigation entre les pages d'une liste.
+     *
+     * @param page la page affichée
+     * @return 1 pour la page suivante, 2 pour la page précédente, 0 pour quitter la liste
+     */
+    int menuPages(Page<?> page);
 
     /**
      * Demande l'ID d'une annotation.
@@ -88,4 +99,60 @@ public interface IVue extends Observateur {
      * @return le contenu saisi ou "0" pour annuler
      */
     String demanderNouveauTexte();
+
+    /**
+     * Demande le chemin d'un dossier ou d'un fichier à importer.
+     *
+     * @return le chemin saisi ou "0" pour annuler
+     */
+    String demanderChemin();
+
+    /**
+     * Affiche le menu des opérations de validation par lot.
+     *
+     * @return le choix de l'utilisateur
+     */
+    int menuLot();
+
+    /**
+     * Demande l'identifiant d'un auteur.
+     *
+     * @return l'identifiant saisi ou "0" pour annuler
+     */
+    String demanderAuteurId();
+
+    /**
+     * Demande les mots à rechercher dans les textes et les annotations.
+     *
+     * @return la requête saisie ou "0" pour annuler
+     */
+    String demanderRequete();
+
+    /**
+     * Affiche les résultats d'une recherche, du plus pertinent au moins pertinent.
+     *
+     * @param requete     la requête
+     * @param textes      les textes trouvés
+     * @param annotations les annotations trouvées
+     */
+    void afficherResultatsRecherche(String requete, List<Texte> textes, List<Annotation> annotations);
+
+    /**
+     * Affiche le tableau de bord : les compteurs d'annotations du modèle et de chaque collection.
+     *
+     * @param collections les collections, dans l'ordre d'affichage
+     * @param nbValidees  le nombre total d'annotations validées
+     * @param nbEnAttente le nombre total d'annotations en attente
+     */
+    void afficherTableauDeBord(List<CollectionDeTextes> collections, int nbValidees, int nbEnAttente);
+
+    /**
+     * Présente une annotation louée dans la file de révision et demande quoi en faire.
+     *
+     * @param texte      le texte annoté
+     * @param annotation l'annotation
+     * @param restantes  le nombre d'annotations dans la file
+     * @return le choix : 1 valider, 2 corriger, 3 passer, 0 retour
+     */
+    int menuRevision(Texte texte, Annotation annotation, int restantes);
 }
@@ -0,0 +1,34 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Sortie console partagée par les vues.
+ * <p>
+ * Les vues écrivent dans un tampon unique au lieu d'appeler {@code System.out} ligne par
+ * ligne ; le tampon est vidé une fois par affichage et avant chaque saisie. Une liste de
+ * plusieurs centaines de lignes part ainsi en quelques écritures.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class SortieConsole {
+
+    private static final PrintWriter SORTIE = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, Charset.defaultCharset()), 1 << 16), false);
+
+    private SortieConsole() {
+    }
+
+    /**
+     * Retourne la sortie partagée. Penser à la vider ({@code flush}) à la fin de chaque affichage.
+     *
+     * @return la sortie tamponnée
+     */
+    static PrintWriter sortie() {
+        return SORTIE;
+    }
+}
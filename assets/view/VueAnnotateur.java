@@ -1,10 +1,16 @@
 package view;
 
 import model.Annotation;
+import model.CollectionDeTextes;
+import model.Page;
 import model.Annotateur;
 import model.Utilisateur;
+import model.StatistiquesAnnotations;
 import model.Texte;
+import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -17,7 +23,11 @@ import java.util.Scanner;
  */
 public class VueAnnotateur implements IVue {
 
+    /** Nombre d'auteurs affichés par collection dans le tableau de bord. */
+    private static final int NB_AUTEURS_TABLEAU = 3;
+
     private Scanner scanner;
+    private final PrintWriter sortie = SortieConsole.sortie();
 
     /**
      * Constructeur.
@@ -35,74 +45,83 @@ public class VueAnnotateur implements IVue {
     @Override
     public void actualiser(Object sujet, String message) {
         // Affichage simple de la notification
-        System.out.println("[Notification Annotateur] " + message);
+        sortie.println("[Notification Annotateur] " + message);
+        sortie.flush();
     }
 
     @Override
     public int menuPrincipal(Utilisateur utilisateur) {
         // L'utilisateur est supposé être un annotateur.
         Annotateur annot = (Annotateur) utilisateur;
-        System.out.println("\n===== Menu Annotateur (" + annot.getNom() + ") =====");
-        System.out.println("1) Choisir une collection");
-        System.out.println("2) Voir toutes mes annotations");
-        System.out.println("3) Créer une nouvelle collection");
-        System.out.println("0) Déconnexion");
-        System.out.print("Votre choix: ");
+        sortie.println("\n===== Menu Annotateur (" + annot.getNom() + ") =====");
+        sortie.println("1) Choisir une collection");
+        sortie.println("2) Voir toutes mes annotations");
+        sortie.println("3) Créer une nouvelle collection");
+        sortie.println("4) Rechercher dans les textes et les annotations");
+        sortie.println("0) Déconnexion");
+        sortie.print("Votre choix: ");
         return lireEntier();
     }
 
     @Override
     public void afficherCollections(List<String> collections) {
         if (collections.isEmpty()) {
-            System.out.println("Aucune collection disponible pour le moment.");
+            sortie.println("Aucune collection disponible pour le moment.");
+            sortie.flush();
             return;
         }
-        System.out.println("\n----- LISTE DES COLLECTIONS -----");
+        sortie.println("\n----- LISTE DES COLLECTIONS -----");
         int index = 1;
         for (String colName : collections) {
-            System.out.println("[" + index + "] " + colName);
+            sortie.println("[" + index + "] " + colName);
             index++;
         }
-        System.out.println("----------------------------------");
+        sortie.println("----------------------------------");
+        sortie.flush();
     }
 
     @Override
     public String demanderNomCollection() {
-        System.out.println("Entrez le nom de la collection (0 pour annuler) : ");
-        return scanner.nextLine();
+        sortie.println("Entrez le nom de la collection (0 pour annuler) : ");
+        return lireLigne();
     }
 
     @Override
-    public void afficherTextes(List<Texte> textes, String nomCollection) {
-        if (textes.isEmpty()) {
-            System.out.println("Aucun texte dans la collection « " + nomCollection + " ».");
+    public void afficherTextes(Page<Texte> page, String nomCollection) {
+        if (page.getTotal() == 0) {
+            sortie.println("Aucun texte dans la collection « " + nomCollection + " ».");
+            sortie.flush();
             return;
         }
-        System.out.println("\n----- TEXTES DANS LA COLLECTION « " + nomCollection + " » -----");
-        int index = 1;
-        for (Texte t : textes) {
-            System.out.println("[" + index + "] ID=" + t.getId() +
+        sortie.println("\n----- TEXTES DANS LA COLLECTION « " + nomCollection + " » -----");
+        afficherPosition(page);
+        int index = page.getPremierRang() + 1;
+        for (Texte t : page.getElements()) {
+            sortie.println("[" + index + "] ID=" + t.getId() +
                     " | Contenu : « " + t.getContenu() + " »" +
-                    " | #" + t.getAnnotations().size() + " annotations");
+                    " | #" + t.getStatistiques().getNbAnnotations() + " annotations");
             index++;
         }
-        System.out.println("--------------------------------------------------------------");
+        sortie.println("--------------------------------------------------------------");
+        sortie.flush();
     }
 
     @Override
     public int menuTextes() {
-        System.out.println("\n[1] Annoter un texte");
-        System.out.println("[2] Modifier une de MES annotations");
-        System.out.println("[3] Ajouter un texte");
-        System.out.println("[0] Retour");
-        System.out.print("Votre choix: ");
+        sortie.println("\n[1] Annoter un texte");
+        sortie.println("[2] Modifier une de MES annotations");
+        sortie.println("[3] Ajouter un texte");
+        sortie.println("[8] Page suivante");
+        sortie.println("[9] Page précédente");
+        sortie.println("[0] Retour");
+        sortie.print("Votre choix: ");
         return lireEntier();
     }
 
     @Override
     public String demanderTexteId() {
-        System.out.println("Entrez l'ID du texte (0 pour annuler): ");
-        return scanner.nextLine();
+        sortie.println("Entrez l'ID du texte (0 pour annuler): ");
+        return lireLigne();
     }
 
     /**
@@ -111,45 +130,133 @@ public class VueAnnotateur implements IVue {
      * @return le contenu saisi ou "0" pour annuler
      */
     public String demanderContenuAnnotation() {
-        System.out.println("Entrez le contenu de l'annotation (0 pour annuler): ");
-        return scanner.nextLine();
+        sortie.println("Entrez le contenu de l'annotation (0 pour annuler): ");
+        return lireLigne();
     }
 
     @Override
-    public void afficherAnnotations(List<Annotation> annotations) {
-        System.out.println("----- Vos Annotations -----");
-        if (annotations.isEmpty()) {
-            System.out.println("(Aucune annotation pour l'instant.)");
+    public void afficherAnnotations(Page<Annotation> page) {
+        sortie.println("----- Vos Annotations -----");
+        if (page.getTotal() == 0) {
+            sortie.println("(Aucune annotation pour l'instant.)");
+            sortie.flush();
             return;
         }
-        int index = 1;
-        for (Annotation ann : annotations) {
-            System.out.println("Annotation #" + index + ":");
-            System.out.println("  - ID de l'annotation: " + ann.getAnnotationId());
-            System.out.println("  - ID du texte       : " + ann.getTexteId());
-            System.out.println("  - Auteur           : " + ann.getAuteurId());
-            System.out.println("  - Contenu          : " + ann.getContenu());
-            System.out.println("  - Valide?          : " + (ann.isValide() ? "Oui" : "Non"));
-            System.out.println();
+        afficherPosition(page);
+        int index = page.getPremierRang() + 1;
+        for (Annotation ann : page.getElements()) {
+            sortie.println("Annotation #" + index + ":");
+            sortie.println("  - ID de l'annotation: " + ann.getAnnotationId());
+            sortie.println("  - ID du texte       : " + ann.getTexteId());
+            sortie.println("  - Auteur           : " + ann.getAuteurId());
+            sortie.println("  - Contenu          : " + ann.getContenu());
+            sortie.println("  - Valide?          : " + (ann.isValide() ? "Oui" : "Non"));
+            sortie.println();
             index++;
         }
+        sortie.flush();
     }
 
     @Override
     public String demanderAnnotationId() {
-        System.out.println("Entrez l'ID de l'annotation (0 pour annuler): ");
-        return scanner.nextLine();
+        sortie.println("Entrez l'ID de l'annotation (0 pour annuler): ");
+        return lireLigne();
     }
 
     @Override
     public String demanderNouveauContenu() {
-        System.out.println("Entrez le nouveau contenu (0 pour annuler): ");
-        return scanner.nextLine();
+        sortie.println("Entrez le nouveau contenu (0 pour annuler): ");
+        return lireLigne();
     }
 
     @Override
     public String demanderNouveauTexte() {
-        System.out.println("Entrez le contenu du nouveau texte (0 pour annuler): ");
+        sortie.println("Entrez le contenu du nouveau texte (0 pour annuler): ");
+        return lireLigne();
+    }
+
+    @Override
+    public String demanderChemin() {
+        sortie.println("Entrez le chemin du dossier ou du fichier JSONL (0 pour annuler): ");
+        return lireLigne();
+    }
+
+    @Override
+    public int menuLot() {
+        sortie.println("\n[1] Valider les annotations en attente d'une collection");
+        sortie.println("[2] Valider les annotations en attente d'un auteur");
+        sortie.println("[3] Valider les annotations en attente contenant un texte");
+        sortie.println("[4] Appliquer un fichier de corrections (idAnnotation;contenu)");
+        sortie.println("[0] Retour");
+        sortie.print("Votre choix: ");
+        return lireEntier();
+    }
+
+    @Override
+    public String demanderAuteurId() {
+        sortie.println("Entrez l'ID de l'auteur (0 pour annuler): ");
+        return lireLigne();
+    }
+
+    @Override
+    public String demanderRequete() {
+        sortie.println("Entrez les mots à rechercher (0 pour annuler): ");
+        return lireLigne();
+    }
+
+    @Override
+    public void afficherResultatsRecherche(String requete, List<Texte> textes, List<Annotation> annotations) {
+        sortie.println("\n----- RÉSULTATS POUR « " + requete + " » -----");
+        if (textes.isEmpty() && annotations.isEmpty()) {
+            sortie.println("(Aucun résultat.)");
+            sortie.flush();
+            return;
+        }
+        sortie.println("Textes (" + textes.size() + ") :");
+        for (Texte t : textes) {
+            sortie.println("  ID=" + t.getId() + " | Contenu : « " + t.getContenu() + " »");
+        }
+        sortie.println("Annotations (" + annotations.size() + ") :");
+        for (Annotation a : annotations) {
+            sortie.println("  ID=" + a.getAnnotationId() + " | Texte " + a.getTexteId()
+                    + " | " + a.getAuteurId() + " : « " + a.getContenu() + " »"
+                    + (a.isValide() ? " (validée)" : ""));
+        }
+        sortie.println("--------------------------------------------------------------");
+        sortie.flush();
+    }
+
+    @Override
+    public int menuPages(Page<?> page) {
+        sortie.println();
+        if (page.aSuivante()) {
+            sortie.println("[1] Page suivante");
+        }
+        if (page.aPrecedente()) {
+            sortie.println("[2] Page précédente");
+        }
+        sortie.println("[0] Retour");
+        sortie.print("Votre choix: ");
+        return lireEntier();
+    }
+
+    /**
+     * Affiche la position de la page dans la liste.
+     */
+    private void afficherPosition(Page<?> page) {
+        if (page.getNbPages() > 1) {
+            sortie.println("Page " + (page.getNumero() + 1) + "/" + page.getNbPages()
+                    + " (" + page.getTotal() + " éléments)");
+        }
+    }
+
+    /**
+     * Vide la sortie puis lit une ligne saisie par l'utilisateur.
+     *
+     * @return la ligne saisie
+     */
+    private String lireLigne() {
+        sortie.flush();
         return scanner.nextLine();
     }
 
@@ -160,9 +267,48 @@ public class VueAnnotateur implements IVue {
      */
     private int lireEntier() {
         try {
-            return Integer.parseInt(scanner.nextLine());
+            return Integer.parseInt(lireLigne());
         } catch (NumberFormatException e) {
             return -1;
         }
     }
+
+    @Override
+    public void afficherTableauDeBord(List<CollectionDeTextes> collections, int nbValidees, int nbEnAttente) {
+        sortie.println("\n----- TABLEAU DE BORD -----");
+        sortie.println("Annotations : " + (nbValidees + nbEnAttente) + " (" + nbValidees + " validées, "
+                + nbEnAttente + " en attente)");
+        for (CollectionDeTextes c : collections) {
+            StatistiquesAnnotations s = c.getStatistiques();
+            sortie.println("« " + c.getNom() + " » : " + c.nbTextes() + " textes | "
+                    + s.getNbAnnotations() + " annotations | " + s.getNbValidees() + " validées | "
+                    + s.getNbEnAttente() + " en attente | " + s.getNbAuteurs() + " auteurs");
+            List<Map.Entry<String, Integer>> auteurs = new ArrayList<>(s.getParAuteur().entrySet());
+            auteurs.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < Math.min(NB_AUTEURS_TABLEAU, auteurs.size()); i++) {
+                sb.append(i == 0 ? "    Principaux auteurs : " : ", ")
+                        .append(auteurs.get(i).getKey()).append(" (").append(auteurs.get(i).getValue()).append(')');
+            }
+            if (sb.length() > 0) {
+                sortie.println(sb);
+            }
+        }
+        sortie.println("--------------------------------------------------------------");
+        sortie.flush();
+    }
+
+    @Override
+    public int menuRevision(Texte texte, Annotation annotation, int restantes) {
+        sortie.println("\n----- FILE DE RÉVISION (" + restantes + " en attente) -----");
+        sortie.println("Texte " + texte.getId() + " : « " + texte.getContenu() + " »");
+        sortie.println("Annotation " + annotation.getAnnotationId() + " de " + annotation.getAuteurId()
+                + " : « " + annotation.getContenu() + " »");
+        sortie.println("[1] Valider");
+        sortie.println("[2] Corriger");
+        sortie.println("[3] Passer");
+        sortie.println("[0] Retour");
+        sortie.print("Votre choix: ");
+        return lireEntier();
+    }
 }
@@ -0,0 +1,81 @@
+package bench.jmh;
+
+import model.Annotation;
+import model.ModeleAnnotation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotations d'un auteur, comme les affiche {@code voirMesAnnotations} : parcours complet de
+ * {@code getAnnotationsMap} contre l'index par auteur.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnnotationsAuteurBanc {
+
+    /** Auteur recherché (le générateur en répartit les annotations de façon inégale). */
+    private static final String AUTEUR = "user1";
+
+    /** Nombre d'annotations du corpus. */
+    @Param({ "10000", "1000000", "10000000" })
+    public int nbAnnotations;
+
+    private ModeleAnnotation modele;
+
+    /**
+     * Charge le corpus.
+     *
+     * @throws IOException en cas d'erreur de lecture
+     */
+    @Setup
+    public void preparer() throws IOException {
+        modele = Corpus.charger(Corpus.preparer(nbAnnotations));
+    }
+
+    /**
+     * Parcourt toutes les annotations et garde celles de l'auteur.
+     *
+     * @return les annotations de l'auteur
+     */
+    @Benchmark
+    public List<Annotation> parcoursGetAnnotationsMap() {
+        List<Annotation> res = new ArrayList<>();
+        for (Annotation a : modele.getAnnotationsMap().values()) {
+            if (a.getAuteurId().equals(AUTEUR)) {
+                res.add(a);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Lit l'index des annotations par auteur.
+     *
+     * @return les annotations de l'auteur
+     */
+    @Benchmark
+    public List<Annotation> getAnnotationsParAuteur() {
+        return modele.getAnnotationsParAuteur(AUTEUR);
+    }
+}
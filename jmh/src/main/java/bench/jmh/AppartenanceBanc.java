@@ -0,0 +1,76 @@
+package bench.jmh;
+
+import model.CollectionDeTextes;
+import model.Texte;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appartenance d'un texte à la plus grande collection du corpus : {@code List.contains} sur
+ * ses textes contre {@link CollectionDeTextes#contient}. Le texte cherché est le dernier de
+ * la collection, le pire cas d'un parcours.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AppartenanceBanc {
+
+    /** Nombre d'annotations du corpus (quatre fois plus que de textes). */
+    @Param({ "10000", "1000000", "10000000" })
+    public int nbAnnotations;
+
+    private CollectionDeTextes collection;
+    private List<Texte> membres;
+    private Texte dernier;
+
+    /**
+     * Charge le corpus et choisit le texte cherché.
+     *
+     * @throws IOException en cas d'erreur de lecture
+     */
+    @Setup
+    public void preparer() throws IOException {
+        collection = Corpus.charger(Corpus.preparer(nbAnnotations)).getCollectionsMap().get("Collection1");
+        membres = collection.getTextes();
+        dernier = membres.get(membres.size() - 1);
+    }
+
+    /**
+     * Parcourt la liste des textes de la collection.
+     *
+     * @return true si le texte est trouvé
+     */
+    @Benchmark
+    public boolean listContains() {
+        return membres.contains(dernier);
+    }
+
+    /**
+     * Interroge la collection.
+     *
+     * @return true si le texte est trouvé
+     */
+    @Benchmark
+    public boolean contient() {
+        return collection.contient(dernier);
+    }
+}
@@ -0,0 +1,60 @@
+package bench.jmh;
+
+import model.ModeleAnnotation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code loadAll} d'un corpus synthétique, depuis les fichiers CSV.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChargementBanc {
+
+    /** Nombre d'annotations du corpus. */
+    @Param({ "10000", "1000000", "10000000" })
+    public int nbAnnotations;
+
+    private Path source;
+
+    /**
+     * Génère le corpus s'il n'existe pas encore.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Setup
+    public void preparer() throws IOException {
+        source = Corpus.preparer(nbAnnotations);
+    }
+
+    /**
+     * Charge le corpus dans un modèle neuf.
+     *
+     * @return le modèle chargé
+     * @throws IOException en cas d'erreur de lecture
+     */
+    @Benchmark
+    public ModeleAnnotation loadAll() throws IOException {
+        return Corpus.charger(source);
+    }
+}
@@ -0,0 +1,81 @@
+package bench.jmh;
+
+import bench.GenerateurCorpus;
+import model.ModeleAnnotation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Corpus synthétiques des bancs JMH.
+ * <p>
+ * Un corpus est généré par {@link GenerateurCorpus} (quatre fois moins de textes que
+ * d'annotations, 100 annotateurs, 50 collections) dans le dossier temporaire du système, puis
+ * réutilisé par les JVM suivantes : générer 10 millions d'annotations prend plus de temps que
+ * les mesures elles-mêmes.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class Corpus {
+
+    /** Fichier écrit une fois le corpus complet. */
+    private static final String COMPLET = "complet";
+
+    private Corpus() {
+    }
+
+    /**
+     * Retourne le dossier d'un corpus, généré s'il n'existe pas encore.
+     *
+     * @param nbAnnotations le nombre d'annotations
+     * @return le dossier contenant les quatre fichiers CSV
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static synchronized Path preparer(int nbAnnotations) throws IOException {
+        Path dossier = Path.of(System.getProperty("java.io.tmpdir"), "projetmc-jmh-" + nbAnnotations);
+        if (Files.exists(dossier.resolve(COMPLET))) {
+            return dossier;
+        }
+        Path tmp = Files.createTempDirectory("projetmc-jmh");
+        new GenerateurCorpus(42).generer(tmp, Math.max(1, nbAnnotations / 4), nbAnnotations, 100, 50);
+        Files.createFile(tmp.resolve(COMPLET));
+        try {
+            Files.move(tmp, dossier, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Généré entre-temps par une autre JVM : le sien est aussi complet.
+            if (!Files.exists(dossier.resolve(COMPLET))) {
+                throw e;
+            }
+        }
+        return dossier;
+    }
+
+    /**
+     * Charge un modèle depuis un dossier.
+     *
+     * @param d le dossier
+     * @return le modèle chargé
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static ModeleAnnotation charger(Path d) throws IOException {
+        ModeleAnnotation m = new ModeleAnnotation();
+        m.loadAll(d.resolve("utilisateurs.csv").toString(), d.resolve("textes.csv").toString(),
+                d.resolve("annotations.csv").toString(), d.resolve("collections.csv").toString());
+        return m;
+    }
+
+    /**
+     * Sauvegarde un modèle dans un dossier.
+     *
+     * @param m le modèle
+     * @param d le dossier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void sauvegarder(ModeleAnnotation m, Path d) throws IOException {
+        m.saveAll(d.resolve("utilisateurs.csv").toString(), d.resolve("textes.csv").toString(),
+                d.resolve("annotations.csv").toString(), d.resolve("collections.csv").toString());
+    }
+}
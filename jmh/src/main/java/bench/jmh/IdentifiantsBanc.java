@@ -0,0 +1,54 @@
+package bench.jmh;
+
+import model.ModeleAnnotation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code generateAnnotationId} sur un modèle chargé. Avec {@code -t}, plusieurs fils se
+ * partagent le même modèle.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifiantsBanc {
+
+    private ModeleAnnotation modele;
+
+    /**
+     * Charge un petit corpus : le coût d'un identifiant ne dépend pas de la taille du modèle.
+     *
+     * @throws IOException en cas d'erreur de lecture
+     */
+    @Setup
+    public void preparer() throws IOException {
+        modele = Corpus.charger(Corpus.preparer(10_000));
+    }
+
+    /**
+     * Génère un identifiant d'annotation.
+     *
+     * @return l'identifiant
+     */
+    @Benchmark
+    public String generateAnnotationId() {
+        return modele.generateAnnotationId();
+    }
+}
@@ -0,0 +1,76 @@
+package bench.jmh;
+
+import model.Annotateur;
+import model.Texte;
+import model.observer.BusEvenements;
+import model.observer.Observateur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Texte.ajouterAnnotation} (par {@code Annotateur.annoterTexte}) sur un texte suivi par
+ * N observateurs. La livraison des notifications est asynchrone : chaque invocation ajoute
+ * {@value #NB_AJOUTS} annotations puis attend que le bus les ait livrées.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservateursBanc {
+
+    /** Annotations ajoutées par invocation. */
+    static final int NB_AJOUTS = 10_000;
+
+    /** Nombre d'observateurs du texte. */
+    @Param({ "0", "1", "10", "100" })
+    public int nbObservateurs;
+
+    private final Annotateur auteur = new Annotateur("banc", "Banc", "banc@example.com", "x");
+    private Texte texte;
+
+    /**
+     * Crée un texte neuf et ses observateurs : la liste des annotations ne grandit pas d'une
+     * invocation à l'autre.
+     */
+    @Setup(Level.Invocation)
+    public void preparer() {
+        texte = new Texte("T0", "banc");
+        for (int i = 0; i < nbObservateurs; i++) {
+            // Des instances distinctes : ajouterObservateur ignore les doublons.
+            Observateur o = (sujet, message) -> { };
+            texte.ajouterObservateur(o);
+        }
+    }
+
+    /**
+     * Ajoute les annotations et attend leur livraison aux observateurs.
+     *
+     * @throws InterruptedException si l'attente est interrompue
+     */
+    @Benchmark
+    @OperationsPerInvocation(NB_AJOUTS)
+    public void ajouterAnnotation() throws InterruptedException {
+        for (int i = 0; i < NB_AJOUTS; i++) {
+            auteur.annoterTexte(texte, "A" + i, "contenu");
+        }
+        BusEvenements.defaut().attendreLivraison();
+    }
+}
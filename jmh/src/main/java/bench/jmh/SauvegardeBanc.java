@@ -0,0 +1,103 @@
+package bench.jmh;
+
+import model.Annotation;
+import model.ModeleAnnotation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code saveAll} d'un corpus synthétique chargé.
+ * <p>
+ * Sans modification, {@code saveAll} n'écrit rien : la réécriture complète alterne entre deux
+ * dossiers cibles, et la sauvegarde incrémentale suit la modification de {@value #NB_MODIFIEES}
+ * annotations (faite hors mesure) dans le dossier auquel le modèle est rattaché.
+ * </p>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SauvegardeBanc {
+
+    /** Nombre d'annotations modifiées avant chaque sauvegarde incrémentale. */
+    static final int NB_MODIFIEES = 100;
+
+    /** Nombre d'annotations du corpus. */
+    @Param({ "10000", "1000000", "10000000" })
+    public int nbAnnotations;
+
+    private ModeleAnnotation modele;
+    private List<Annotation> annotations;
+    private final Path[] cibles = new Path[2];
+    private Path rattache;
+    private int nbSauvegardes;
+    private int nbModifiees;
+
+    /**
+     * Charge le corpus et rattache le modèle à un dossier de sauvegarde incrémentale.
+     *
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        modele = Corpus.charger(Corpus.preparer(nbAnnotations));
+        annotations = new ArrayList<>(modele.getAnnotationsMap().values());
+        cibles[0] = Files.createTempDirectory("banc-sauvegarde");
+        cibles[1] = Files.createTempDirectory("banc-sauvegarde");
+        rattache = Files.createTempDirectory("banc-incrementale");
+        Corpus.sauvegarder(modele, rattache);
+    }
+
+    /**
+     * Modifie des annotations avant une sauvegarde incrémentale.
+     */
+    @Setup(Level.Invocation)
+    public void modifier() {
+        for (int i = 0; i < NB_MODIFIEES; i++) {
+            Annotation a = annotations.get((nbModifiees++ * 7919) % annotations.size());
+            a.setContenu(a.getContenu() + "+");
+        }
+    }
+
+    /**
+     * Réécrit tous les fichiers dans l'autre dossier cible.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Benchmark
+    public void saveAllComplet() throws IOException {
+        Corpus.sauvegarder(modele, cibles[nbSauvegardes++ % 2]);
+    }
+
+    /**
+     * Écrit les annotations modifiées dans le dossier rattaché.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Benchmark
+    public void saveAllIncremental() throws IOException {
+        Corpus.sauvegarder(modele, rattache);
+    }
+}